@@ -19,8 +19,10 @@
 package org.apache.olingo.client.api;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.client.api.http.HttpTransport;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
 import org.apache.olingo.commons.api.format.ContentType;
 
@@ -266,4 +268,49 @@ public interface Configuration {
    * @param executorService new executor services.
    */
   void setExecutor(ExecutorService executorService);
+
+  /**
+   * Retrieves the scheduled executor service used to check the status monitors of asynchronous requests.
+   * <br/>
+   * By default there is none and a scheduler shared by the library is used.
+   *
+   * @return scheduled executor service, or <code>null</code> to use the shared scheduler.
+   */
+  default ScheduledExecutorService getScheduledExecutor() {
+    return null;
+  }
+
+  /**
+   * Sets the scheduled executor service used to check the status monitors of asynchronous requests.
+   * <br/>
+   * Not supported by default.
+   *
+   * @param scheduledExecutorService new scheduled executor service.
+   */
+  default void setScheduledExecutor(final ScheduledExecutorService scheduledExecutorService) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Retrieves the transport sending the requests of the asynchronous methods, e.g., of
+   * {@link org.apache.olingo.client.api.communication.request.ODataBasicRequest#executeAsync()}.
+   * <br/>
+   * By default there is none and the blocking HTTP client runs on the request executor service.
+   *
+   * @return HTTP transport, or <code>null</code> to use the blocking HTTP client.
+   */
+  default HttpTransport getHttpTransport() {
+    return null;
+  }
+
+  /**
+   * Sets the transport sending the requests of the asynchronous methods.
+   * <br/>
+   * Not supported by default.
+   *
+   * @param httpTransport new HTTP transport.
+   */
+  default void setHttpTransport(final HttpTransport httpTransport) {
+    throw new UnsupportedOperationException();
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api.communication.request;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.olingo.client.api.communication.response.AsyncResponseWrapper;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
@@ -53,4 +54,23 @@ public interface AsyncRequestWrapper<R extends ODataResponse> {
    * @return the current AsyncRequestWrapper instance.
    */
   AsyncResponseWrapper<R> execute();
+
+  /**
+   * Executes the request and gets the real response once the asynchronous processing has been terminated.
+   * <br/>
+   * The status monitor is checked as described in {@link AsyncResponseWrapper#getODataResponseAsync()}.
+   * Each HTTP exchange is sent with the configured {@link org.apache.olingo.client.api.http.HttpTransport}.
+   * The default implementation sends the initial request in the calling thread.
+   *
+   * @return <code>CompletableFuture</code> about the real OData response.
+   */
+  default CompletableFuture<R> executeAsync() {
+    try {
+      return execute().getODataResponseAsync();
+    } catch (final RuntimeException e) {
+      final CompletableFuture<R> result = new CompletableFuture<R>();
+      result.completeExceptionally(e);
+      return result;
+    }
+  }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.client.api.communication.request;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 import org.apache.olingo.client.api.communication.response.ODataResponse;
@@ -44,6 +45,26 @@ public interface ODataBasicRequest<T extends ODataResponse> extends ODataRequest
    */
   Future<T> asyncExecute();
 
+  /**
+   * Async request execute, allowing to compose further processing of the response.
+   * <br/>
+   * The request is sent with the configured {@link org.apache.olingo.client.api.http.HttpTransport};
+   * with a non-blocking transport, pending requests do not occupy any thread. By default, the blocking
+   * HTTP client runs on the configured executor service.
+   * The default implementation executes the request in the calling thread.
+   *
+   * @return <code>CompletableFuture&lt;ODataResponse&gt;</code> about the executed request.
+   */
+  default CompletableFuture<T> executeAsync() {
+    final CompletableFuture<T> result = new CompletableFuture<T>();
+    try {
+      result.complete(execute());
+    } catch (final RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
   /**
    * Override configured request Content-Type.
    *
@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api.communication.request;
 
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 import org.apache.olingo.client.api.communication.response.ODataResponse;
@@ -55,4 +56,23 @@ public interface ODataPayloadManager<T extends ODataResponse> extends ODataStrea
    * @return <code>Future&lt;ODataResponse&gt;</code> about the executed request.
    */
   Future<T> getAsyncResponse();
+
+  /**
+   * Closes the payload input stream and gets the OData response back as soon as it has been received.
+   * <br/>
+   * The caller is not blocked while waiting for the response; the HTTP exchange is sent with the configured
+   * {@link org.apache.olingo.client.api.http.HttpTransport}.
+   * The default implementation waits for the response in the calling thread.
+   *
+   * @return <code>CompletableFuture&lt;ODataResponse&gt;</code> about the executed request.
+   */
+  default CompletableFuture<T> getResponseAsync() {
+    final CompletableFuture<T> result = new CompletableFuture<T>();
+    try {
+      result.complete(getResponse());
+    } catch (final RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
 }
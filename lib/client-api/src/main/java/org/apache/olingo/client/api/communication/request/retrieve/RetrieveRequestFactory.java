@@ -22,6 +22,7 @@ import java.net.URI;
 
 import org.apache.olingo.client.api.domain.ClientEntity;
 import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientPagingEntityIterator;
 import org.apache.olingo.client.api.domain.ClientProperty;
 import org.apache.olingo.client.api.domain.ClientSingleton;
 
@@ -76,6 +77,18 @@ public interface RetrieveRequestFactory {
    */
   ODataEntitySetIteratorRequest<ClientEntitySet, ClientEntity> getEntitySetIteratorRequest(URI uri);
 
+  /**
+   * Gets an iterator over all the entities of the entity set at the given URI, following next links.
+   * <br/>
+   * While a page is being consumed, up to <tt>prefetch</tt> next pages are requested ahead on the configured
+   * executor.
+   *
+   * @param uri request URI.
+   * @param prefetch maximum number of pages to request ahead of the one being consumed; at least 1.
+   * @return new {@link ClientPagingEntityIterator} instance.
+   */
+  ClientPagingEntityIterator<ClientEntity> getPagingEntityIterator(URI uri, int prefetch);
+
   /**
    * Gets a uri request returning a single OData entity.
    *
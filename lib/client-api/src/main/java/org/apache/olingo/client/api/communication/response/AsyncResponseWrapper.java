@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api.communication.response;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public interface AsyncResponseWrapper<R extends ODataResponse> {
 
@@ -48,6 +49,26 @@ public interface AsyncResponseWrapper<R extends ODataResponse> {
    */
   R getODataResponse();
 
+  /**
+   * Gets the real response without blocking the calling thread.
+   * <br />
+   * Like {@link #getODataResponse()} but the checks of the status monitor are scheduled with the configured
+   * scheduled executor service instead of waiting for the 'Retry-After' delay in the calling thread.
+   * Each check is sent with the configured {@link org.apache.olingo.client.api.http.HttpTransport}.
+   * The default implementation waits for the real response in the calling thread.
+   *
+   * @return <code>CompletableFuture</code> about the real OData response.
+   */
+  default CompletableFuture<R> getODataResponseAsync() {
+    final CompletableFuture<R> result = new CompletableFuture<R>();
+    try {
+      result.complete(getODataResponse());
+    } catch (final RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
   /**
    * Specifies the location for the next monitor check.
    * <br />
@@ -30,6 +30,7 @@ import java.util.NoSuchElementException;
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.Entity;
@@ -65,6 +66,8 @@ public class ClientEntitySetIterator<T extends ClientEntitySet, E extends Client
 
   private final ByteArrayOutputStream osEntitySet;
 
+  private final EntitySetStreamReader reader;
+
   private final String namespaces;
 
   private boolean available = true;
@@ -82,21 +85,18 @@ public class ClientEntitySetIterator<T extends ClientEntitySet, E extends Client
     this.odataClient = odataClient;
     this.stream = stream;
     this.contentType = contentType;
-    this.osEntitySet = new ByteArrayOutputStream();
     
     if(contentType.isCompatible(ContentType.APPLICATION_ATOM_SVC)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
+      osEntitySet = new ByteArrayOutputStream();
       namespaces = getAllElementAttributes(stream, "feed", osEntitySet);
+      reader = null;
     } else {
+      osEntitySet = null;
       namespaces = null;
       try {
-        if (consume(stream, "\"value\":", osEntitySet, true) >= 0) {
-          int c = 0;
-          while (c != '[' && (c = stream.read()) >= 0) {
-            osEntitySet.write(c);
-          }
-        }
-      } catch (IOException e) {
+        reader = odataClient.getDeserializer(ContentType.JSON).toEntitySetReader(stream);
+      } catch (final ODataDeserializerException e) {
         LOG.error("Error parsing entity set", e);
         throw new IllegalStateException(e);
       }
@@ -107,21 +107,29 @@ public class ClientEntitySetIterator<T extends ClientEntitySet, E extends Client
   @Override
   public boolean hasNext() {
     if (available && cached == null) {
-      if (contentType.isCompatible(ContentType.APPLICATION_ATOM_SVC)
-          || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
+      if (reader == null) {
         cached = nextAtomEntityFromEntitySet(stream, osEntitySet, namespaces);
+        if (cached == null) {
+          try {
+            entitySet = (T) odataClient.getReader().
+                    readEntitySet(new ByteArrayInputStream(osEntitySet.toByteArray()), contentType);
+          } catch (final ODataDeserializerException e) {
+            available = false;
+          }
+        }
       } else {
-        cached = nextJSONEntityFromEntitySet(stream, osEntitySet);
+        try {
+          cached = reader.next();
+          if (cached == null) {
+            entitySet = (T) odataClient.getBinder().getODataEntitySet(reader.getEntitySet());
+          }
+        } catch (final ODataDeserializerException e) {
+          LOG.error("Error retrieving entities from EntitySet", e);
+        }
       }
 
       if (cached == null) {
         available = false;
-        try {
-          entitySet = (T) odataClient.getReader().
-                  readEntitySet(new ByteArrayInputStream(osEntitySet.toByteArray()), contentType);
-        } catch (final ODataDeserializerException e) {
-          available = false;
-        }
         close();
       }
     }
@@ -153,85 +161,50 @@ public class ClientEntitySetIterator<T extends ClientEntitySet, E extends Client
    * Closes the current iterator.
    */
   public void close() {
+    IOUtils.closeQuietly(reader);
     IOUtils.closeQuietly(stream);
     IOUtils.closeQuietly(osEntitySet);
   }
 
   /**
    * Gets the next link if exists.
+   * <br/>
+   * With JSON payloads the link is available as soon as it has been read, even before iteration is completed.
    *
    * @return next link if exists; null otherwise.
    */
   public URI getNext() {
-    if (entitySet == null) {
+    final T read = getEntitySetRead();
+    if (entitySet == null && (read == null || read.getNext() == null)) {
       throw new IllegalStateException("Iteration must be completed in order to retrieve the link for next page");
     }
-    return entitySet.getNext();
+    return read.getNext();
   }
 
-  private ResWrap<Entity> nextJSONEntityFromEntitySet(final InputStream input, final OutputStream osEntitySet) {
-    final ByteArrayOutputStream entity = new ByteArrayOutputStream();
-
-    ResWrap<Entity> jsonEntity = null;
-    try {
-      int c;
-
-      boolean foundNewOne = false;
-
-      do {
-        c = input.read();
-        if (c == '{') {
-          entity.write(c);
-          c = -1;
-          foundNewOne = true;
-        }
-        if (c == ']') {
-          osEntitySet.write(c);
-          c = -1;
-        }
-      } while (c >= 0);
-
-      if (foundNewOne) {
-        int objectCount = 1;
-        int stringCount = 0;
-        c = 0;
-
-        boolean previousCharIsEscape = false;
-        
-        while (objectCount > 0 && c >= 0) {
-          c = input.read();
-          if (c == '{' && stringCount <= 0) {
-              objectCount++;
-          } else if (c == '}' && stringCount <= 0) {
-            objectCount--;
-            // Detect JSON Strings to be able to correctly detect an Entity
-          } else if (c == '"' && stringCount <= 0  && !previousCharIsEscape) {
-            stringCount++;
-          } else if (c == '"' && stringCount > 0  && !previousCharIsEscape) {
-            stringCount--;
-          }
-          entity.write(c);
-          if (c == '\\' && !previousCharIsEscape) {
-            previousCharIsEscape = true;
-          } else {
-            previousCharIsEscape = false;
-          }
-        }
-
-        if (c >= 0) {
-          jsonEntity = odataClient.getDeserializer(ContentType.JSON).toEntity(
-                  new ByteArrayInputStream(entity.toByteArray()));
-        }
-      } else {
-        while ((c = input.read()) >= 0) {
-          osEntitySet.write(c);
-        }
-      }
-    } catch (Exception e) {
-      LOG.error("Error retrieving entities from EntitySet", e);
+  /**
+   * Gets the count of entities, as returned by the service, if exists.
+   * <br/>
+   * With JSON payloads the count is available as soon as it has been read, even before iteration is completed.
+   *
+   * @return count if exists; null otherwise.
+   */
+  public Integer getCount() {
+    final T read = getEntitySetRead();
+    if (entitySet == null && (read == null || read.getCount() == null)) {
+      throw new IllegalStateException("Iteration must be completed in order to retrieve the count");
     }
+    return read.getCount();
+  }
 
-    return jsonEntity;
+  /**
+   * Gets the entity set once iteration is completed; before that, for JSON payloads, an entity set built from the
+   * information read so far.
+   */
+  @SuppressWarnings("unchecked")
+  private T getEntitySetRead() {
+    return entitySet != null || reader == null
+        ? entitySet
+        : (T) odataClient.getBinder().getODataEntitySet(reader.getEntitySet());
   }
 
   private ResWrap<Entity> nextAtomEntityFromEntitySet(
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.domain;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Iterator over all the entities of an entity set, following server-driven paging (<tt>@odata.nextLink</tt>)
+ * transparently.
+ * <br/>
+ * Next pages are requested ahead, in the background, while the current one is being consumed; the number of pages
+ * requested ahead is bounded, so that an idle consumer stops further requests.
+ * <br/>
+ * <b>Please don't forget to call the <tt>close()</tt> method when not consuming all entities.</b>
+ *
+ * @param <E> concrete ClientEntity implementation
+ */
+public interface ClientPagingEntityIterator<E extends ClientEntity> extends Iterator<E>, Closeable {
+
+  /**
+   * Gets a sequential stream over the remaining entities; closing the stream closes this iterator.
+   *
+   * @return stream of entities.
+   */
+  Stream<E> stream();
+
+  /**
+   * Stops iteration: pages requested ahead are discarded and any request in progress is aborted.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.http;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * Sends the HTTP requests of the asynchronous client methods, e.g.,
+ * {@link org.apache.olingo.client.api.communication.request.ODataBasicRequest#executeAsync()}.
+ * <br/>
+ * An implementation on a non-blocking HTTP engine completes the returned future from its I/O threads when the
+ * response has arrived, so that pending requests do not occupy any thread; the default implementation runs the
+ * blocking {@link HttpClient} of the request on the executor of the configuration.
+ *
+ * @see org.apache.olingo.client.api.Configuration#setHttpTransport(HttpTransport)
+ */
+public interface HttpTransport {
+
+  /**
+   * Sends a request.
+   *
+   * @param httpClient HTTP client created for the request by the configured {@link HttpClientFactory};
+   * a non-blocking transport may ignore it.
+   * @param request HTTP request with all headers and the payload.
+   * @return future completed with the HTTP response, or exceptionally if the request could not be sent
+   */
+  CompletableFuture<HttpResponse> execute(HttpClient httpClient, HttpUriRequest request);
+}
@@ -55,4 +55,13 @@ public interface ClientODataDeserializer extends ODataDeserializer {
    * @throws ODataDeserializerException
    */
   ResWrap<Delta> toDelta(InputStream input) throws ODataDeserializerException;
+
+  /**
+   * Gets a reader pulling the entities of the entity set represented by the given InputStream one at a time.
+   *
+   * @param input stream to be de-serialized.
+   * @return {@link EntitySetStreamReader} instance.
+   * @throws ODataDeserializerException if the payload cannot be read or streaming is not supported for its format
+   */
+  EntitySetStreamReader toEntitySetReader(InputStream input) throws ODataDeserializerException;
 }
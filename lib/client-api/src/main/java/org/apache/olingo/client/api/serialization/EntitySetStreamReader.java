@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.serialization;
+
+import java.io.Closeable;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+/**
+ * Pull-based reader of an entity set payload: entities are read one at a time, straight from the underlying stream.
+ * <br/>
+ * <b>Please don't forget to call the <tt>close()</tt> method when not needed any more.</b>
+ */
+public interface EntitySetStreamReader extends Closeable {
+
+  /**
+   * Reads the next entity of the set.
+   * <br/>
+   * Once the last entity has been read, the rest of the payload is consumed as well, so that any information
+   * following the entities (e.g. the next link) becomes available via {@link #getEntitySet()}.
+   *
+   * @return next entity; <tt>null</tt> if no more entities are available.
+   * @throws ODataDeserializerException if the payload cannot be read
+   */
+  ResWrap<Entity> next() throws ODataDeserializerException;
+
+  /**
+   * Gets the entity set information read so far (context URL, count, next and delta links, annotations, ...);
+   * entities returned by {@link #next()} are not collected.
+   *
+   * @return entity set without entities.
+   */
+  ResWrap<EntityCollection> getEntitySet();
+}
@@ -20,6 +20,7 @@ package org.apache.olingo.client.core;
 
 import org.apache.olingo.client.api.Configuration;
 import org.apache.olingo.client.api.http.HttpClientFactory;
+import org.apache.olingo.client.api.http.HttpTransport;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
 import org.apache.olingo.client.core.http.DefaultHttpClientFactory;
 import org.apache.olingo.client.core.http.DefaultHttpUriRequestFactory;
@@ -29,6 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -66,6 +68,10 @@ public class ConfigurationImpl implements Configuration {
 
   private transient ExecutorService executor = createExecutor(10);
 
+  private transient ScheduledExecutorService scheduledExecutor;
+
+  private transient HttpTransport httpTransport;
+
   private ExecutorService createExecutor(final int threads) {
     final ThreadPoolExecutor tp = new ThreadPoolExecutor(
         threads,
@@ -244,4 +250,24 @@ public class ConfigurationImpl implements Configuration {
   public void setExecutor(final ExecutorService executorService) {
     executor = executorService;
   }
+
+  @Override
+  public ScheduledExecutorService getScheduledExecutor() {
+    return scheduledExecutor;
+  }
+
+  @Override
+  public void setScheduledExecutor(final ScheduledExecutorService scheduledExecutorService) {
+    scheduledExecutor = scheduledExecutorService;
+  }
+
+  @Override
+  public HttpTransport getHttpTransport() {
+    return httpTransport;
+  }
+
+  @Override
+  public void setHttpTransport(final HttpTransport httpTransport) {
+    this.httpTransport = httpTransport;
+  }
 }
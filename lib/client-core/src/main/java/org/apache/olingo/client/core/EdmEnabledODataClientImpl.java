@@ -18,14 +18,20 @@
  */
 package org.apache.olingo.client.core;
 
+import java.util.Map;
+
 import org.apache.olingo.client.api.EdmEnabledODataClient;
 import org.apache.olingo.client.api.communication.request.invoke.EdmEnabledInvokeRequestFactory;
 import org.apache.olingo.client.api.communication.request.retrieve.EdmMetadataRequest;
 import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
 import org.apache.olingo.client.api.uri.URIBuilder;
 import org.apache.olingo.client.core.communication.request.invoke.EdmEnabledInvokeRequestFactoryImpl;
+import org.apache.olingo.client.core.edm.EdmSnapshotStore;
+import org.apache.olingo.client.core.edm.EdmSnapshotStore.EdmSnapshot;
 import org.apache.olingo.client.core.uri.URIBuilderImpl;
 import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 
 public class EdmEnabledODataClientImpl extends ODataClientImpl implements EdmEnabledODataClient {
 
@@ -35,14 +41,31 @@ public class EdmEnabledODataClientImpl extends ODataClientImpl implements EdmEna
 
   private String metadataETag;
 
+  private final EdmSnapshotStore snapshotStore;
+
   private EdmEnabledInvokeRequestFactory edmEnabledInvokeRequestFactory;
 
   public EdmEnabledODataClientImpl(final String serviceRoot, final Edm edm, final String metadataETag) {
+    this(serviceRoot, edm, metadataETag, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param serviceRoot service root
+   * @param edm metadata, if already available
+   * @param metadataETag ETag of the given metadata
+   * @param snapshotStore store of parsed metadata, used to avoid downloading and parsing unchanged metadata;
+   * may be <tt>null</tt>
+   */
+  public EdmEnabledODataClientImpl(final String serviceRoot, final Edm edm, final String metadataETag,
+      final EdmSnapshotStore snapshotStore) {
     super();
 
     this.serviceRoot = serviceRoot;
     this.edm = edm;
     this.metadataETag = metadataETag;
+    this.snapshotStore = snapshotStore;
   }
 
   @Override
@@ -54,15 +77,49 @@ public class EdmEnabledODataClientImpl extends ODataClientImpl implements EdmEna
   public Edm getEdm(final String metadataETag) {
     synchronized (this) {
       if (this.edm == null || (metadataETag != null && !metadataETag.equals(this.metadataETag))) {
-        final EdmMetadataRequest metadataReq = getRetrieveRequestFactory().getMetadataRequest(serviceRoot);
-        final ODataRetrieveResponse<Edm> metadataRes = metadataReq.execute();
-        this.metadataETag = metadataRes.getETag();
-        this.edm = metadataRes.getBody();
+        if (snapshotStore == null) {
+          final EdmMetadataRequest metadataReq = getRetrieveRequestFactory().getMetadataRequest(serviceRoot);
+          final ODataRetrieveResponse<Edm> metadataRes = metadataReq.execute();
+          this.metadataETag = metadataRes.getETag();
+          this.edm = metadataRes.getBody();
+        } else {
+          retrieveEdm(metadataETag);
+        }
       }
     }
     return this.edm;
   }
 
+  /**
+   * Retrieves metadata through the snapshot store: a stored snapshot is revalidated against the service and only
+   * downloaded and parsed again if it has changed; fresh metadata is stored for later use.
+   */
+  private void retrieveEdm(final String metadataETag) {
+    EdmSnapshot snapshot = snapshotStore.load(serviceRoot);
+    if (snapshot != null && metadataETag != null && !metadataETag.equals(snapshot.getMetadataETag())) {
+      snapshot = null;
+    }
+
+    final EdmMetadataRequest metadataReq = getRetrieveRequestFactory().getMetadataRequest(serviceRoot);
+    if (snapshot != null) {
+      metadataReq.setIfNoneMatch(snapshot.getMetadataETag());
+    }
+    final ODataRetrieveResponse<Edm> metadataRes = metadataReq.execute();
+
+    if (snapshot != null && metadataRes.getStatusCode() == HttpStatusCode.NOT_MODIFIED.getStatusCode()) {
+      metadataRes.close();
+      this.metadataETag = snapshot.getMetadataETag();
+      this.edm = getReader().readMetadata(snapshot.getSchemas());
+    } else {
+      this.metadataETag = metadataRes.getETag();
+      final Map<String, CsdlSchema> schemas = metadataReq.getXMLMetadata().getSchemaByNsOrAlias();
+      this.edm = getReader().readMetadata(schemas);
+      if (this.metadataETag != null) {
+        snapshotStore.store(serviceRoot, this.metadataETag, schemas);
+      }
+    }
+  }
+
   @Override
   public Edm getCachedEdm() {
     if (this.edm == null) {
@@ -18,8 +18,11 @@
  */
 package org.apache.olingo.client.core;
 
+import java.io.File;
+
 import org.apache.olingo.client.api.EdmEnabledODataClient;
 import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.core.edm.EdmSnapshotStore;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.format.ContentType;
 
@@ -50,7 +53,26 @@ public final class ODataClientFactory {
         new EdmEnabledODataClientImpl(serviceRoot, edm, metadataETag);
     instance.getConfiguration().setDefaultPubFormat(contentType);
     return instance;
-  }  
+  }
+
+  /**
+   * Gets an EDM-enabled client keeping parsed metadata in the given directory: on startup, stored metadata is only
+   * revalidated against the service (via its ETag) instead of being downloaded and parsed again.
+   *
+   * @param serviceRoot service root
+   * @param contentType default format
+   * @param snapshotDirectory directory where parsed metadata is stored
+   * @return EDM-enabled client
+   */
+  public static EdmEnabledODataClient getEdmEnabledClientWithSnapshot(
+      final String serviceRoot, final ContentType contentType, final File snapshotDirectory) {
+
+    final EdmEnabledODataClient instance =
+        new EdmEnabledODataClientImpl(serviceRoot, null, null, new EdmSnapshotStore(snapshotDirectory));
+    instance.getConfiguration().setDefaultPubFormat(contentType);
+    return instance;
+  }
+
   private ODataClientFactory() {
     // empty constructory for static utility class
   }
@@ -23,10 +23,14 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpResponse;
 import org.apache.olingo.client.api.ODataBatchConstants;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.ODataBasicRequest;
@@ -76,6 +80,67 @@ public abstract class AbstractODataBasicRequest<T extends ODataResponse>
     });
   }
 
+  /**
+   * Prepares the HTTP request before it is sent, e.g., sets its payload.
+   *
+   * @return stream to be closed when the HTTP request has been sent, or <code>null</code>.
+   */
+  protected InputStream prepareRequest() {
+    return null;
+  }
+
+  /**
+   * Builds the OData response for the HTTP response of this request.
+   * <br/>
+   * Requests that are composed of several HTTP requests override {@link #execute()} and {@link #executeAsync()}
+   * instead.
+   *
+   * @param res HTTP response.
+   * @return OData response.
+   */
+  protected T createResponse(final HttpResponse res) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public T execute() {
+    final InputStream input = prepareRequest();
+    try {
+      return createResponse(doExecute());
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <br/>
+   * The request is sent with the HTTP transport of the configuration; no thread waits for the response
+   * if the transport does not block.
+   */
+  @Override
+  public CompletableFuture<T> executeAsync() {
+    final InputStream input;
+    try {
+      input = prepareRequest();
+    } catch (RuntimeException e) {
+      final CompletableFuture<T> result = new CompletableFuture<T>();
+      result.completeExceptionally(e);
+      return result;
+    }
+    return doExecuteAsync().whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+      @Override
+      public void accept(final HttpResponse response, final Throwable error) {
+        IOUtils.closeQuietly(input);
+      }
+    }).thenApply(new Function<HttpResponse, T>() {
+      @Override
+      public T apply(final HttpResponse response) {
+        return createResponse(response);
+      }
+    });
+  }
+
   /**
    * Gets payload as an InputStream.
    *
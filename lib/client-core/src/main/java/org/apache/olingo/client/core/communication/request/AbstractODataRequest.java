@@ -45,6 +45,9 @@ import java.lang.reflect.Constructor;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 /**
  * Abstract representation of an OData request. Get instance by using factories.
@@ -276,6 +279,59 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
    * @return HttpReponse object.
    */
   protected HttpResponse doExecute() {
+    prepareHttpRequest();
+
+    HttpResponse response;
+    try {
+      response = httpClient.execute(request);
+    } catch (IOException e) {
+      throw new HttpClientException(request.getURI().toASCIIString(), e);
+    } catch (RuntimeException e) {
+      request.abort();
+      throw new HttpClientException(request.getURI().toASCIIString(), e);
+    }
+
+    checkHttpResponse(response);
+    return response;
+  }
+
+  /**
+   * Builds the request and sends it with the HTTP transport of the configuration.
+   *
+   * @return future of the HttpResponse object; it fails like {@link #doExecute()} would throw.
+   */
+  protected CompletableFuture<HttpResponse> doExecuteAsync() {
+    final CompletableFuture<HttpResponse> result = new CompletableFuture<HttpResponse>();
+    final CompletableFuture<HttpResponse> sent;
+    try {
+      prepareHttpRequest();
+      sent = getHttpTransport(odataClient).execute(httpClient, request);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+
+    sent.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+      @Override
+      public void accept(final HttpResponse response, final Throwable error) {
+        if (error == null) {
+          try {
+            checkHttpResponse(response);
+            result.complete(response);
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        } else {
+          request.abort();
+          result.completeExceptionally(new HttpClientException(request.getURI().toASCIIString(),
+              error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+        }
+      }
+    });
+    return result;
+  }
+
+  private void prepareHttpRequest() {
     checkRequest(odataClient, request);
 
     // Set Content-Type and Accept headers with default values, if not yet set
@@ -301,17 +357,9 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
         LOG.debug("HTTP header being sent: " + header);
       }
     }
+  }
 
-    HttpResponse response;
-    try {
-      response = httpClient.execute(request);
-    } catch (IOException e) {
-      throw new HttpClientException(request.getURI().toASCIIString(), e);
-    } catch (RuntimeException e) {
-      request.abort();
-      throw new HttpClientException(request.getURI().toASCIIString(), e);
-    }
-
+  private void checkHttpResponse(final HttpResponse response) {
     try {
       checkResponse(odataClient, response, getAccept());
     } catch (ODataRuntimeException e) {
@@ -319,8 +367,6 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
       odataClient.getConfiguration().getHttpClientFactory().close(httpClient);
       throw e;
     }
-
-    return response;
   }
 
   private void closeHttpResponse(HttpResponse response) {
@@ -19,10 +19,14 @@
 package org.apache.olingo.client.core.communication.request;
 
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
@@ -129,6 +133,24 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
     }
   }
 
+  /**
+   * Completes the request body, so that the server can answer.
+   * <br/>
+   * Called by {@link #getResponseAsync()} before waiting for the response; must allow further calls.
+   */
+  protected void completeBody() {
+    finalizeBody();
+  }
+
+  /**
+   * Gets the executor service of the client configuration.
+   * <br/>
+   * Used by {@link #getResponseAsync()} to wait for a response whose future cannot be composed.
+   *
+   * @return executor service.
+   */
+  protected abstract ExecutorService getExecutor();
+
   /**
    * Gets OData response.
    *
@@ -146,6 +168,31 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
     return getResponse(300, TimeUnit.SECONDS);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public final CompletableFuture<T> getResponseAsync() {
+    completeBody();
+    final Future<HttpResponse> future = futureWrap.getWrapped();
+    if (future instanceof CompletableFuture) {
+      // The HTTP response is already there when the response is built, so no thread waits for it.
+      return ((CompletableFuture<HttpResponse>) future).thenApply(new Function<HttpResponse, T>() {
+        @Override
+        public T apply(final HttpResponse response) {
+          return getResponse(0, TimeUnit.SECONDS);
+        }
+      });
+    }
+    return CompletableFuture.supplyAsync(new Supplier<T>() {
+      @Override
+      public T get() {
+        return getResponse();
+      }
+    }, getExecutor());
+  }
+
   /**
    * {@inheritDoc}
    */
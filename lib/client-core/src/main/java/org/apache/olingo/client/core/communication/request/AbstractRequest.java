@@ -23,7 +23,9 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.olingo.client.api.EdmEnabledODataClient;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.ODataClientErrorException;
+import org.apache.olingo.client.api.http.HttpTransport;
 import org.apache.olingo.client.core.communication.header.ODataErrorResponseChecker;
+import org.apache.olingo.client.core.http.BlockingHttpTransport;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +38,15 @@ public abstract class AbstractRequest {
   protected static final Logger LOG = LoggerFactory.getLogger(AbstractRequest.class);
   private static final String TEXT_CONTENT_TYPE = "text/plain";
 
+  /**
+   * Gets the transport for asynchronous requests: the configured one or, if there is none,
+   * the blocking HTTP client on the request executor.
+   */
+  protected static HttpTransport getHttpTransport(final ODataClient odataClient) {
+    final HttpTransport transport = odataClient.getConfiguration().getHttpTransport();
+    return transport == null ? new BlockingHttpTransport(odataClient.getConfiguration().getExecutor()) : transport;
+  }
+
   protected void checkRequest(final ODataClient odataClient, final HttpUriRequest request) {
     // If using and Edm enabled client, checks that the cached service root matches the request URI
     if (odataClient instanceof EdmEnabledODataClient
@@ -19,6 +19,8 @@
 package org.apache.olingo.client.core.communication.request;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.client.api.ODataClient;
@@ -71,6 +73,17 @@ public class AsyncBatchRequestWrapperImpl extends AsyncRequestWrapperImpl<ODataB
     return new AsyncResponseWrapperImpl(batchManager.getResponse());
   }
 
+  @Override
+  public CompletableFuture<ODataBatchResponse> executeAsync() {
+    return batchManager.getResponseAsync().thenCompose(
+        new Function<ODataBatchResponse, CompletableFuture<ODataBatchResponse>>() {
+          @Override
+          public CompletableFuture<ODataBatchResponse> apply(final ODataBatchResponse response) {
+            return new AsyncResponseWrapperImpl(response).getODataResponseAsync();
+          }
+        });
+  }
+
   public class AsyncResponseWrapperImpl
       extends AsyncRequestWrapperImpl<ODataBatchResponse>.AsyncResponseWrapperImpl {
 
@@ -21,6 +21,14 @@ package org.apache.olingo.client.core.communication.request;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -130,15 +138,33 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
     return new AsyncResponseWrapperImpl(doExecute());
   }
 
+  @Override
+  public CompletableFuture<R> executeAsync() {
+    return doExecuteAsync().thenCompose(new Function<HttpResponse, CompletableFuture<R>>() {
+      @Override
+      public CompletableFuture<R> apply(final HttpResponse res) {
+        return new AsyncResponseWrapperImpl(res).getODataResponseAsync();
+      }
+    });
+  }
+
   protected HttpResponse doExecute() {
+    addHeaders();
+    return executeHttpRequest(httpClient, this.request);
+  }
+
+  protected CompletableFuture<HttpResponse> doExecuteAsync() {
+    addHeaders();
+    return executeHttpRequestAsync(httpClient, this.request);
+  }
+
+  private void addHeaders() {
     // Add all available headers
     for (String key : odataRequest.getHeaderNames()) {
       final String value = odataRequest.getHeader(key);
       this.request.addHeader(key, value);
       LOG.debug("HTTP header being sent {}: {}", key, value);
     }
-
-    return executeHttpRequest(httpClient, this.request);
   }
 
   private URI checkLocation(URI uri) {
@@ -237,6 +263,69 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
       return response;
     }
 
+    @Override
+    public CompletableFuture<R> getODataResponseAsync() {
+      final CompletableFuture<R> result = new CompletableFuture<>();
+      if (response != null) {
+        result.complete(response);
+      } else {
+        scheduleMonitorCheck(result, 0, 0);
+      }
+      return result;
+    }
+
+    /**
+     * Checks the status monitor after the given delay with the HTTP transport; if the processing has not
+     * been terminated yet, the next check is scheduled after the 'Retry-After' delay.
+     */
+    private void scheduleMonitorCheck(final CompletableFuture<R> result, final int attempt, final int delay) {
+      final BiConsumer<HttpResponse, Throwable> process = new BiConsumer<HttpResponse, Throwable>() {
+        @Override
+        public void accept(final HttpResponse res, final Throwable error) {
+          if (error != null) {
+            result.completeExceptionally(error);
+            return;
+          }
+          try {
+            if (res.getStatusLine().getStatusCode() == HttpStatusCode.ACCEPTED.getStatusCode()) {
+              final Header[] headers = res.getHeaders(HttpHeader.RETRY_AFTER);
+              if (ArrayUtils.isNotEmpty(headers)) {
+                retryAfter = parseReplyAfter(headers[0].getValue());
+              }
+              HttpClientUtils.closeQuietly(res);
+              if (attempt + 1 < MAX_RETRY) {
+                scheduleMonitorCheck(result, attempt + 1, retryAfter);
+              } else {
+                result.completeExceptionally(new ODataClientErrorException(res.getStatusLine()));
+              }
+            } else {
+              location = null;
+              response = instantiateResponse(res);
+              result.complete(response);
+            }
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        }
+      };
+      final Runnable check = new Runnable() {
+        @Override
+        public void run() {
+          try {
+            checkMonitorAsync(location).whenComplete(process);
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        }
+      };
+      if (delay == 0) {
+        check.run();
+      } else {
+        final ScheduledExecutorService scheduler = odataClient.getConfiguration().getScheduledExecutor();
+        (scheduler == null ? SharedScheduler.INSTANCE : scheduler).schedule(check, delay, TimeUnit.SECONDS);
+      }
+    }
+
     URI createLocation(String string) {
       return checkLocation(URI.create(string));
     }
@@ -331,6 +420,50 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
     return executeHttpRequest(httpClient, monitor);
   }
 
+  /**
+   * Sends a request to the status monitor with the HTTP transport of the configuration.
+   */
+  protected final CompletableFuture<HttpResponse> checkMonitorAsync(final URI location) {
+    if (location == null) {
+      throw new AsyncRequestException("Invalid async request response. Missing monitor URL");
+    }
+
+    final HttpUriRequest monitor = odataClient.getConfiguration().getHttpUriRequestFactory().create(HttpMethod.GET,
+        location);
+
+    return executeHttpRequestAsync(httpClient, monitor);
+  }
+
+  protected final CompletableFuture<HttpResponse> executeHttpRequestAsync(final HttpClient client,
+      final HttpUriRequest req) {
+    final CompletableFuture<HttpResponse> result = new CompletableFuture<HttpResponse>();
+    final CompletableFuture<HttpResponse> sent;
+    try {
+      sent = getHttpTransport(odataClient).execute(client, req);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(new HttpClientException(e));
+      return result;
+    }
+    sent.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+      @Override
+      public void accept(final HttpResponse response, final Throwable error) {
+        if (error == null) {
+          try {
+            checkResponse(odataClient, response, odataRequest.getAccept());
+            result.complete(response);
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        } else {
+          req.abort();
+          result.completeExceptionally(new HttpClientException(
+              error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+        }
+      }
+    });
+    return result;
+  }
+
   protected final HttpResponse executeHttpRequest(final HttpClient client, final HttpUriRequest req) {
     final HttpResponse response;
     try {
@@ -346,4 +479,19 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
 
     return response;
   }
+
+  /**
+   * Holder of the scheduler used if the configuration has none, created on first use.
+   * Its single daemon thread only starts the scheduled checks, which are sent with the HTTP transport.
+   */
+  private static final class SharedScheduler {
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "olingo-client-scheduler");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
 }
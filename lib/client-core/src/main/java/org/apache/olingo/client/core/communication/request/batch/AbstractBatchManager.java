@@ -46,6 +46,8 @@ public abstract class AbstractBatchManager extends AbstractODataStreamManager<OD
    */
   protected ODataBatchRequestItem currentItem = null;
 
+  private boolean bodyCompleted = false;
+
   /**
    * batch request reference.
    */
@@ -110,12 +112,20 @@ public abstract class AbstractBatchManager extends AbstractODataStreamManager<OD
 
   @Override
   protected ODataBatchResponse getResponse(final long timeout, final TimeUnit unit) {
-    closeCurrentItem();
-    streamCloseDelimiter();
-    finalizeBody();
+    completeBody();
     return getResponseInstance(timeout, unit);
   }
 
+  @Override
+  protected void completeBody() {
+    if (!bodyCompleted) {
+      bodyCompleted = true;
+      closeCurrentItem();
+      streamCloseDelimiter();
+      finalizeBody();
+    }
+  }
+
   protected abstract ODataBatchResponse getResponseInstance(final long timeout, final TimeUnit unit);
 
   /**
@@ -21,6 +21,8 @@ package org.apache.olingo.client.core.communication.request.batch;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpResponse;
@@ -73,6 +75,15 @@ public class ODataBatchRequestImpl
     return super.doExecute();
   }
 
+  @Override
+  protected CompletableFuture<HttpResponse> doExecuteAsync() {
+    if (odataClient.getConfiguration().isContinueOnError()) {
+      setPrefer(new ODataPreferences().continueOnError());
+    }
+
+    return super.doExecuteAsync();
+  }
+
   /**
    * Batch request payload management.
    */
@@ -88,6 +99,11 @@ public class ODataBatchRequestImpl
       return new ODataBatchResponseImpl(odataClient, httpClient, getHttpResponse(timeout, unit));
     }
 
+    @Override
+    protected ExecutorService getExecutor() {
+      return odataClient.getConfiguration().getExecutor();
+    }
+
     @Override
     protected void validateSingleRequest(final ODataBatchableRequest request) {
       //TODO: Validate single batch request
@@ -55,8 +55,8 @@ public class ODataDeleteRequestImpl extends AbstractODataBasicRequest<ODataDelet
   }
 
   @Override
-  public ODataDeleteResponse execute() {
-    return new ODataDeleteResponseImpl(odataClient, httpClient, doExecute());
+  protected ODataDeleteResponse createResponse(final HttpResponse res) {
+    return new ODataDeleteResponseImpl(odataClient, httpClient, res);
   }
 
   /**
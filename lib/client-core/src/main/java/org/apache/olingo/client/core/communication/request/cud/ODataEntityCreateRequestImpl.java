@@ -21,7 +21,6 @@ package org.apache.olingo.client.core.communication.request.cud;
 import java.io.InputStream;
 import java.net.URI;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
@@ -80,15 +79,15 @@ public class ODataEntityCreateRequestImpl<E extends ClientEntity>
   }
 
   @Override
-  public ODataEntityCreateResponse<E> execute() {
+  protected InputStream prepareRequest() {
     final InputStream input = getPayload();
     ((HttpPost) request).setEntity(URIUtils.buildInputStreamEntity(odataClient, input));
+    return input;
+  }
 
-    try {
-      return new ODataEntityCreateResponseImpl(odataClient, httpClient, doExecute());
-    } finally {
-      IOUtils.closeQuietly(input);
-    }
+  @Override
+  protected ODataEntityCreateResponse<E> createResponse(final HttpResponse res) {
+    return new ODataEntityCreateResponseImpl(odataClient, httpClient, res);
   }
 
   /**
@@ -21,7 +21,6 @@ package org.apache.olingo.client.core.communication.request.cud;
 import java.io.InputStream;
 import java.net.URI;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
@@ -84,21 +83,20 @@ public class ODataEntityUpdateRequestImpl<E extends ClientEntity>
   }
 
   @Override
-  public ODataEntityUpdateResponse<E> execute() {
+  protected InputStream prepareRequest() {
     final InputStream input = getPayload();
     ((HttpEntityEnclosingRequestBase) request).setEntity(URIUtils.buildInputStreamEntity(odataClient, input));
+    return input;
+  }
 
-    try {
-      final HttpResponse httpResponse = doExecute();
-      final ODataEntityUpdateResponseImpl response =
-              new ODataEntityUpdateResponseImpl(odataClient, httpClient, httpResponse);
-      if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NO_CONTENT) {
-        response.close();
-      }
-      return response;
-    } finally {
-      IOUtils.closeQuietly(input);
+  @Override
+  protected ODataEntityUpdateResponse<E> createResponse(final HttpResponse res) {
+    final ODataEntityUpdateResponseImpl response =
+            new ODataEntityUpdateResponseImpl(odataClient, httpClient, res);
+    if (res.getStatusLine().getStatusCode() == HttpStatus.SC_NO_CONTENT) {
+      response.close();
     }
+    return response;
   }
 
   /**
@@ -21,7 +21,6 @@ package org.apache.olingo.client.core.communication.request.cud;
 import java.io.InputStream;
 import java.net.URI;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -72,15 +71,15 @@ public class ODataPropertyUpdateRequestImpl extends AbstractODataBasicRequest<OD
   }
 
   @Override
-  public ODataPropertyUpdateResponse execute() {
+  protected InputStream prepareRequest() {
     final InputStream input = getPayload();
     ((HttpEntityEnclosingRequestBase) request).setEntity(URIUtils.buildInputStreamEntity(odataClient, input));
+    return input;
+  }
 
-    try {
-      return new ODataPropertyUpdateResponseImpl(odataClient, httpClient, doExecute());
-    } finally {
-      IOUtils.closeQuietly(input);
-    }
+  @Override
+  protected ODataPropertyUpdateResponse createResponse(final HttpResponse res) {
+    return new ODataPropertyUpdateResponseImpl(odataClient, httpClient, res);
   }
 
   @Override
@@ -21,7 +21,6 @@ package org.apache.olingo.client.core.communication.request.cud;
 import java.io.InputStream;
 import java.net.URI;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -77,15 +76,15 @@ public class ODataReferenceAddingRequestImpl extends AbstractODataBasicRequest<O
   }
 
   @Override
-  public ODataReferenceAddingResponse execute() {
+  protected InputStream prepareRequest() {
     final InputStream input = getPayload();
     ((HttpEntityEnclosingRequestBase) request).setEntity(URIUtils.buildInputStreamEntity(odataClient, input));
+    return input;
+  }
 
-    try {
-      return new ODataReferenceAddingResponseImpl(odataClient, httpClient, doExecute());
-    } finally {
-      IOUtils.closeQuietly(input);
-    }
+  @Override
+  protected ODataReferenceAddingResponse createResponse(final HttpResponse res) {
+    return new ODataReferenceAddingResponseImpl(odataClient, httpClient, res);
   }
 
   /**
@@ -70,15 +70,15 @@ public class ODataValueUpdateRequestImpl extends AbstractODataBasicRequest<OData
   }
 
   @Override
-  public ODataValueUpdateResponse execute() {
+  protected InputStream prepareRequest() {
     final InputStream input = getPayload();
     ((HttpEntityEnclosingRequestBase) request).setEntity(URIUtils.buildInputStreamEntity(odataClient, input));
+    return input;
+  }
 
-    try {
-      return new ODataValueUpdateResponseImpl(odataClient, httpClient, doExecute());
-    } finally {
-      IOUtils.closeQuietly(input);
-    }
+  @Override
+  protected ODataValueUpdateResponse createResponse(final HttpResponse res) {
+    return new ODataValueUpdateResponseImpl(odataClient, httpClient, res);
   }
 
   /**
@@ -24,7 +24,6 @@ import java.net.URI;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpPost;
@@ -151,7 +150,7 @@ public abstract class AbstractODataInvokeRequest<T extends ClientInvokeResult>
    * {@inheritDoc }
    */
   @Override
-  public ODataInvokeResponse<T> execute() {
+  protected InputStream prepareRequest() {
     final InputStream input = getPayload();
 
     if (!this.parameters.isEmpty()) {
@@ -165,11 +164,12 @@ public abstract class AbstractODataInvokeRequest<T extends ClientInvokeResult>
       }
     }
 
-    try {
-      return new ODataInvokeResponseImpl(odataClient, httpClient, doExecute());
-    } finally {
-      IOUtils.closeQuietly(input);
-    }
+    return input;
+  }
+
+  @Override
+  protected ODataInvokeResponse<T> createResponse(final HttpResponse res) {
+    return new ODataInvokeResponseImpl(odataClient, httpClient, res);
   }
 
   /**
@@ -47,9 +47,6 @@ public abstract class AbstractODataRetrieveRequest<T>
     super(odataClient, HttpMethod.GET, query);
   }
 
-  @Override
-  public abstract ODataRetrieveResponse<T> execute();
-
   /**
    * This kind of request doesn't have any payload: null will be returned.
    */
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request.retrieve;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.request.retrieve.ODataEntitySetRequest;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientEntitySet;
+import org.apache.olingo.client.api.domain.ClientPagingEntityIterator;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+
+/**
+ * Iterator over all the entities of an entity set, requesting next pages ahead on the configured executor.
+ * <br/>
+ * As the link to a page is only known once the previous page has been read, pages are requested one after the
+ * other, each as soon as the previous one is available, until <tt>prefetch</tt> pages are waiting to be consumed.
+ */
+public class ClientPagingEntityIteratorImpl implements ClientPagingEntityIterator<ClientEntity> {
+
+  private final ODataClient odataClient;
+
+  private final int prefetch;
+
+  /**
+   * Pages read and not yet consumed, in order; failures are queued as well and raised when reached.
+   */
+  private final ArrayDeque<Object> pages = new ArrayDeque<>();
+
+  private Iterator<ClientEntity> current = Collections.<ClientEntity> emptyIterator();
+
+  private ODataEntitySetRequest<ClientEntitySet> inFlight;
+
+  private Future<?> inFlightTask;
+
+  /**
+   * Link to the page to be requested as soon as a page is consumed, when <tt>prefetch</tt> pages are waiting.
+   */
+  private URI deferred;
+
+  private boolean last;
+
+  private boolean closed;
+
+  /**
+   * Constructor.
+   *
+   * @param odataClient client instance getting the pages
+   * @param uri first page URI
+   * @param prefetch maximum number of pages to request ahead of the one being consumed
+   */
+  public ClientPagingEntityIteratorImpl(final ODataClient odataClient, final URI uri, final int prefetch) {
+    if (prefetch < 1) {
+      throw new IllegalArgumentException("At least one page must be requested ahead");
+    }
+    this.odataClient = odataClient;
+    this.prefetch = prefetch;
+
+    synchronized (this) {
+      request(uri);
+    }
+  }
+
+  /**
+   * Requests the page at the given URI in the background; the caller must hold the lock.
+   */
+  private void request(final URI uri) {
+    final ODataEntitySetRequest<ClientEntitySet> request =
+        odataClient.getRetrieveRequestFactory().getEntitySetRequest(uri);
+    inFlight = request;
+    try {
+      inFlightTask = odataClient.getConfiguration().getExecutor().submit(new Runnable() {
+        @Override
+        public void run() {
+          Object page = null;
+          try {
+            page = request.execute().getBody();
+          } catch (final RuntimeException e) {
+            page = e;
+          } finally {
+            completed(request, page == null ? new ODataRuntimeException("Unable to read page " + uri) : page);
+          }
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      completed(request, e);
+    }
+  }
+
+  private synchronized void completed(final ODataEntitySetRequest<ClientEntitySet> request, final Object page) {
+    if (closed || inFlight != request) {
+      return;
+    }
+    inFlight = null;
+    inFlightTask = null;
+    pages.add(page);
+
+    final URI next = page instanceof ClientEntitySet ? ((ClientEntitySet) page).getNext() : null;
+    if (next == null) {
+      last = true;
+    } else if (pages.size() < prefetch) {
+      request(next);
+    } else {
+      deferred = next;
+    }
+    notifyAll();
+  }
+
+  private synchronized ClientEntitySet nextPage() {
+    while (pages.isEmpty()) {
+      if (closed || last) {
+        return null;
+      }
+      try {
+        wait();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new ODataRuntimeException("Interrupted while waiting for the next page");
+      }
+    }
+
+    final Object page = pages.poll();
+    if (deferred != null) {
+      final URI next = deferred;
+      deferred = null;
+      request(next);
+    }
+
+    if (page instanceof RuntimeException) {
+      close();
+      throw (RuntimeException) page;
+    }
+    return (ClientEntitySet) page;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!current.hasNext()) {
+      final ClientEntitySet page = nextPage();
+      if (page == null) {
+        return false;
+      }
+      current = page.getEntities().iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public ClientEntity next() {
+    if (hasNext()) {
+      return current.next();
+    }
+    throw new NoSuchElementException("No entity found");
+  }
+
+  /**
+   * Unsupported operation.
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("Operation not supported");
+  }
+
+  @Override
+  public Stream<ClientEntity> stream() {
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(new Runnable() {
+          @Override
+          public void run() {
+            close();
+          }
+        });
+  }
+
+  @Override
+  public void close() {
+    final ODataEntitySetRequest<ClientEntitySet> request;
+    final Future<?> task;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      current = Collections.<ClientEntity> emptyIterator();
+      pages.clear();
+      deferred = null;
+      request = inFlight;
+      task = inFlightTask;
+      inFlight = null;
+      inFlightTask = null;
+      notifyAll();
+    }
+
+    if (request != null) {
+      request.getHttpRequest().abort();
+    }
+    if (task != null) {
+      task.cancel(true);
+    }
+  }
+}
@@ -20,6 +20,8 @@ package org.apache.olingo.client.core.communication.request.retrieve;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.apache.http.client.HttpClient;
 import org.apache.olingo.client.api.ODataClient;
@@ -45,28 +47,32 @@ class EdmMetadataRequestImpl extends AbstractMetadataRequestImpl<Edm> implements
 
   private EdmMetadataResponseImpl getPrivateResponse() {
     if (privateResponse == null) {
-      XMLMetadataRequest request = odataClient.getRetrieveRequestFactory().getXMLMetadataRequest(serviceRoot);
-      if (getPrefer() != null) {
-        request.setPrefer(getPrefer());
-      }
-      if (getIfMatch() != null) {
-        request.setIfMatch(getIfMatch());
-      }
-      if (getIfNoneMatch() != null) {
-        request.setIfNoneMatch(getIfNoneMatch());
-      }
-      if (getHeader() != null) {
-        for (String key : getHeaderNames()) {
-          request.addCustomHeader(key, odataHeaders.getHeader(key));
-        }
-      }
-      final ODataRetrieveResponse<XMLMetadata> xmlMetadataResponse = request.execute();
+      final ODataRetrieveResponse<XMLMetadata> xmlMetadataResponse = createXMLMetadataRequest().execute();
 
       privateResponse = new EdmMetadataResponseImpl(odataClient, httpClient, xmlMetadataResponse);
     }
     return privateResponse;
   }
 
+  private XMLMetadataRequest createXMLMetadataRequest() {
+    final XMLMetadataRequest request = odataClient.getRetrieveRequestFactory().getXMLMetadataRequest(serviceRoot);
+    if (getPrefer() != null) {
+      request.setPrefer(getPrefer());
+    }
+    if (getIfMatch() != null) {
+      request.setIfMatch(getIfMatch());
+    }
+    if (getIfNoneMatch() != null) {
+      request.setIfNoneMatch(getIfNoneMatch());
+    }
+    if (getHeader() != null) {
+      for (String key : getHeaderNames()) {
+        request.addCustomHeader(key, odataHeaders.getHeader(key));
+      }
+    }
+    return request;
+  }
+
   @Override
   public XMLMetadata getXMLMetadata() {
     return getPrivateResponse().getXMLMetadata();
@@ -77,6 +83,21 @@ class EdmMetadataRequestImpl extends AbstractMetadataRequestImpl<Edm> implements
     return getPrivateResponse();
   }
 
+  @Override
+  public CompletableFuture<ODataRetrieveResponse<Edm>> executeAsync() {
+    if (privateResponse != null) {
+      return CompletableFuture.<ODataRetrieveResponse<Edm>> completedFuture(privateResponse);
+    }
+    return createXMLMetadataRequest().executeAsync().thenApply(
+        new Function<ODataRetrieveResponse<XMLMetadata>, ODataRetrieveResponse<Edm>>() {
+          @Override
+          public ODataRetrieveResponse<Edm> apply(final ODataRetrieveResponse<XMLMetadata> xmlMetadataResponse) {
+            privateResponse = new EdmMetadataResponseImpl(odataClient, httpClient, xmlMetadataResponse);
+            return privateResponse;
+          }
+        });
+  }
+
   private class EdmMetadataResponseImpl extends AbstractODataRetrieveResponse {
 
     private final ODataRetrieveResponse<XMLMetadata> xmlMetadataResponse;
@@ -47,8 +47,7 @@ public class ODataDeltaRequestImpl extends AbstractODataRetrieveRequest<ClientDe
   }
 
   @Override
-  public ODataRetrieveResponse<ClientDelta> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<ClientDelta> createResponse(final HttpResponse res) {
     return new ODataDeltaResponseImpl(odataClient, httpClient, res);
   }
 
@@ -53,8 +53,8 @@ public class ODataEntityRequestImpl<E extends ClientEntity>
   }
 
   @Override
-  public ODataRetrieveResponse<E> execute() {
-    return new ODataEntityResponseImpl(odataClient, httpClient, doExecute());
+  protected ODataRetrieveResponse<E> createResponse(final HttpResponse res) {
+    return new ODataEntityResponseImpl(odataClient, httpClient, res);
   }
 
   /**
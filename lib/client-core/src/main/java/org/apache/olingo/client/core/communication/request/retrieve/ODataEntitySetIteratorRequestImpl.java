@@ -55,8 +55,7 @@ public class ODataEntitySetIteratorRequestImpl<ES extends ClientEntitySet, E ext
   }
 
   @Override
-  public ODataRetrieveResponse<ClientEntitySetIterator<ES, E>> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<ClientEntitySetIterator<ES, E>> createResponse(final HttpResponse res) {
     return new ODataEntitySetIteratorResponseImpl(odataClient, httpClient, res);
   }
 
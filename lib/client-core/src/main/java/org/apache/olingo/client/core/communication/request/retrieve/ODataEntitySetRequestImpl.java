@@ -57,8 +57,7 @@ public class ODataEntitySetRequestImpl<ES extends ClientEntitySet>
   }
 
   @Override
-  public ODataRetrieveResponse<ES> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<ES> createResponse(final HttpResponse res) {
     return new ODataEntitySetResponseImpl(odataClient, httpClient, res);
   }
 
@@ -52,8 +52,7 @@ public class ODataMediaRequestImpl extends AbstractODataRetrieveRequest<InputStr
   }
 
   @Override
-  public ODataRetrieveResponse<InputStream> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<InputStream> createResponse(final HttpResponse res) {
     return new ODataMediaResponseImpl(odataClient, httpClient, res);
   }
 
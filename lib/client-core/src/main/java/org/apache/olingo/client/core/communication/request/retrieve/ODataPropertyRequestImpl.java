@@ -53,8 +53,7 @@ public class ODataPropertyRequestImpl<T extends ClientProperty>
   }
 
   @Override
-  public ODataRetrieveResponse<T> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<T> createResponse(final HttpResponse res) {
     return new ODataPropertyResponseImpl(odataClient, httpClient, res);
   }
 
@@ -53,8 +53,7 @@ public class ODataServiceDocumentRequestImpl extends AbstractODataRetrieveReques
   }
 
   @Override
-  public ODataRetrieveResponse<ClientServiceDocument> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<ClientServiceDocument> createResponse(final HttpResponse res) {
     return new ODataServiceResponseImpl(odataClient, httpClient, res);
   }
 
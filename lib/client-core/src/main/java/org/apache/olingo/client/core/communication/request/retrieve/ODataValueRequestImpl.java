@@ -53,8 +53,7 @@ public class ODataValueRequestImpl extends AbstractODataRetrieveRequest<ClientPr
   }
 
   @Override
-  public ODataRetrieveResponse<ClientPrimitiveValue> execute() {
-    final HttpResponse res = doExecute();
+  protected ODataRetrieveResponse<ClientPrimitiveValue> createResponse(final HttpResponse res) {
     return new ODataValueResponseImpl(odataClient, httpClient, res);
   }
 
@@ -19,6 +19,8 @@
 package org.apache.olingo.client.core.communication.request.retrieve;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpResponse;
@@ -47,7 +49,30 @@ public class XMLMetadataRequestImpl
 
   @Override
   public ODataRetrieveResponse<XMLMetadata> execute() {
-    SingleXMLMetadatRequestImpl rootReq = new SingleXMLMetadatRequestImpl(odataClient, uri);
+    final SingleXMLMetadatRequestImpl rootReq = createRootRequest();
+    return includeReferences(rootReq, rootReq.execute());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <br/>
+   * The root document is requested with the HTTP transport of the configuration;
+   * referenced documents are requested by the executor service of the configuration.
+   */
+  @Override
+  public CompletableFuture<ODataRetrieveResponse<XMLMetadata>> executeAsync() {
+    final SingleXMLMetadatRequestImpl rootReq = createRootRequest();
+    return rootReq.executeAsync().thenApplyAsync(
+        new Function<ODataRetrieveResponse<XMLMetadata>, ODataRetrieveResponse<XMLMetadata>>() {
+          @Override
+          public ODataRetrieveResponse<XMLMetadata> apply(final ODataRetrieveResponse<XMLMetadata> rootRes) {
+            return includeReferences(rootReq, rootRes);
+          }
+        }, odataClient.getConfiguration().getExecutor());
+  }
+
+  private SingleXMLMetadatRequestImpl createRootRequest() {
+    final SingleXMLMetadatRequestImpl rootReq = new SingleXMLMetadatRequestImpl(odataClient, uri);
     if (getPrefer() != null) {
       rootReq.setPrefer(getPrefer());
     }
@@ -62,8 +87,11 @@ public class XMLMetadataRequestImpl
         rootReq.addCustomHeader(key, odataHeaders.getHeader(key));
       }
     }
-    final ODataRetrieveResponse<XMLMetadata> rootRes = rootReq.execute();
+    return rootReq;
+  }
 
+  private ODataRetrieveResponse<XMLMetadata> includeReferences(final SingleXMLMetadatRequestImpl rootReq,
+      final ODataRetrieveResponse<XMLMetadata> rootRes) {
     if (rootRes.getStatusCode() != HttpStatusCode.OK.getStatusCode()) {
       return rootRes;
     }
@@ -151,8 +179,8 @@ public class XMLMetadataRequestImpl
     }
 
     @Override
-    public ODataRetrieveResponse<XMLMetadata> execute() {
-      httpResponse = doExecute();
+    protected ODataRetrieveResponse<XMLMetadata> createResponse(final HttpResponse res) {
+      httpResponse = res;
       return new AbstractODataRetrieveResponse(odataClient, httpClient, httpResponse) {
 
         private XMLMetadata metadata = null;
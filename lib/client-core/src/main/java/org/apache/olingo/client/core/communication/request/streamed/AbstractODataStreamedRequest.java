@@ -22,8 +22,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -99,34 +101,33 @@ public abstract class AbstractODataStreamedRequest<V extends ODataResponse, T ex
   public T payloadManager() {
     payloadManager = getPayloadManager();
 
+    final CompletableFuture<HttpResponse> response;
     if (URIUtils.shouldUseRepeatableHttpBodyEntry(odataClient)) {
-      futureWrapper.setWrapped(odataClient.getConfiguration().getExecutor().submit(new Callable<HttpResponse>() {
+      // The repeatable entity can only be built when the whole body has been written.
+      response = CompletableFuture.runAsync(new Runnable() {
         @Override
-        public HttpResponse call() throws Exception { //NOSONAR
+        public void run() {
           ((HttpEntityEnclosingRequestBase) request).setEntity(
                   URIUtils.buildInputStreamEntity(odataClient, payloadManager.getBody()));
-          try {
-            return doExecute();
-          } finally {
-            payloadManager.finalizeBody();
-          }
         }
-      }));
+      }, odataClient.getConfiguration().getExecutor()).thenCompose(
+          new Function<Void, CompletableFuture<HttpResponse>>() {
+            @Override
+            public CompletableFuture<HttpResponse> apply(final Void ignore) {
+              return doExecuteAsync();
+            }
+          });
     } else {
       ((HttpEntityEnclosingRequestBase) request).setEntity(
               URIUtils.buildInputStreamEntity(odataClient, payloadManager.getBody()));
-
-      futureWrapper.setWrapped(odataClient.getConfiguration().getExecutor().submit(new Callable<HttpResponse>() {
-        @Override
-        public HttpResponse call() throws Exception { //NOSONAR
-          try {
-            return doExecute();
-          } finally {
-            payloadManager.finalizeBody();
-          }
-        }
-      }));
+      response = doExecuteAsync();
     }
+    futureWrapper.setWrapped(response.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+      @Override
+      public void accept(final HttpResponse res, final Throwable error) {
+        payloadManager.finalizeBody();
+      }
+    }));
 
     // returns the stream manager object
     return (T) payloadManager;
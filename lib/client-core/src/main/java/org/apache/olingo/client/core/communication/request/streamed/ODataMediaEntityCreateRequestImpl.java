@@ -20,6 +20,7 @@ package org.apache.olingo.client.core.communication.request.streamed;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpResponse;
@@ -89,6 +90,11 @@ public class ODataMediaEntityCreateRequestImpl<E extends ClientEntity>
       finalizeBody();
       return new ODataMediaEntityCreateResponseImpl(odataClient, httpClient, getHttpResponse(timeout, unit));
     }
+
+    @Override
+    protected ExecutorService getExecutor() {
+      return odataClient.getConfiguration().getExecutor();
+    }
   }
 
   /**
@@ -20,6 +20,7 @@ package org.apache.olingo.client.core.communication.request.streamed;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpResponse;
@@ -90,6 +91,11 @@ public class ODataMediaEntityUpdateRequestImpl<E extends ClientEntity>
       finalizeBody();
       return new ODataMediaEntityUpdateResponseImpl(odataClient, httpClient, getHttpResponse(timeout, unit));
     }
+
+    @Override
+    protected ExecutorService getExecutor() {
+      return odataClient.getConfiguration().getExecutor();
+    }
   }
 
   /**
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.edm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk store of parsed service metadata.
+ * <br/>
+ * One snapshot is kept per service root, tagged with the metadata ETag it was read with: a client can then load the
+ * schemas on startup and only revalidate them (via <tt>If-None-Match</tt>) instead of downloading and parsing the
+ * metadata document again.
+ * <br/>
+ * Snapshots are stored as compressed serialized CSDL schemas. When reading them back, only the classes making up
+ * parsed schemas are accepted, and the depth, number of objects, array lengths and size of the serialized data are
+ * limited; snapshots are ignored if the Java runtime does not support serialization filters.
+ */
+public class EdmSnapshotStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EdmSnapshotStore.class);
+
+  private static final int MAGIC = 0x4F444D53;
+
+  private static final int VERSION = 1;
+
+  private static final String SUFFIX = ".edm";
+
+  private static final String LIMITS = "maxdepth=200;maxrefs=5000000;maxarray=1000000;maxbytes=536870912";
+
+  private static final Set<String> ALLOWED_CLASSES = new HashSet<>();
+
+  static {
+    allow("java.lang.", "Boolean", "Enum", "Integer", "Number");
+    allow("java.util.", "ArrayList", "HashMap", "LinkedHashMap");
+    allow("org.apache.olingo.commons.api.edm.", "FullQualifiedName", "geo.Geospatial$Dimension", "geo.SRID");
+    allow("org.apache.olingo.commons.api.edm.provider.",
+        "CsdlAbstractEdmItem", "CsdlAction", "CsdlActionImport", "CsdlAnnotation", "CsdlAnnotations",
+        "CsdlBindingTarget", "CsdlComplexType", "CsdlEntityContainer", "CsdlEntitySet", "CsdlEntityType",
+        "CsdlEnumMember", "CsdlEnumType", "CsdlFunction", "CsdlFunctionImport", "CsdlNavigationProperty",
+        "CsdlNavigationPropertyBinding", "CsdlOnDelete", "CsdlOnDeleteAction", "CsdlOperation",
+        "CsdlOperationImport", "CsdlParameter", "CsdlProperty", "CsdlPropertyRef", "CsdlReferentialConstraint",
+        "CsdlReturnType", "CsdlSchema", "CsdlSingleton", "CsdlStructuralType", "CsdlTerm", "CsdlTypeDefinition");
+    allow("org.apache.olingo.commons.api.edm.provider.annotation.",
+        "CsdlAnnotationPath", "CsdlApply", "CsdlCast", "CsdlCollection", "CsdlConstantExpression",
+        "CsdlConstantExpression$ConstantExpressionType", "CsdlDynamicExpression", "CsdlExpression", "CsdlIf",
+        "CsdlIsOf", "CsdlLabeledElement", "CsdlLabeledElementReference", "CsdlLogicalOrComparisonExpression",
+        "CsdlLogicalOrComparisonExpression$LogicalOrComparisonExpressionType", "CsdlNavigationPropertyPath",
+        "CsdlNull", "CsdlPath", "CsdlPropertyPath", "CsdlPropertyValue", "CsdlRecord", "CsdlUrlRef");
+    allow("org.apache.olingo.client.core.edm.xml.",
+        "ClientCsdlAction", "ClientCsdlActionImport", "ClientCsdlAnnotation", "ClientCsdlAnnotations",
+        "ClientCsdlComplexType", "ClientCsdlEntityContainer", "ClientCsdlEntitySet", "ClientCsdlEntityType",
+        "ClientCsdlEnumMember", "ClientCsdlEnumType", "ClientCsdlFunction", "ClientCsdlFunctionImport",
+        "ClientCsdlNavigationProperty", "ClientCsdlNavigationPropertyBinding", "ClientCsdlOnDelete",
+        "ClientCsdlParameter", "ClientCsdlProperty", "ClientCsdlPropertyRef", "ClientCsdlReferentialConstraint",
+        "ClientCsdlReturnType", "ClientCsdlSchema", "ClientCsdlSingleton", "ClientCsdlTerm",
+        "ClientCsdlTypeDefinition");
+    allow("org.apache.olingo.client.core.edm.xml.annotation.",
+        "ClientCsdlApply", "ClientCsdlCast", "ClientCsdlCollection", "ClientCsdlDynamicExpression",
+        "ClientCsdlIsOf", "ClientCsdlLabeledElement", "ClientCsdlNull", "ClientCsdlPropertyValue",
+        "ClientCsdlRecord", "ClientCsdlUrlRef");
+  }
+
+  private final File directory;
+
+  /**
+   * Constructor.
+   *
+   * @param directory directory where snapshots are stored; it is created if missing
+   */
+  public EdmSnapshotStore(final File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Gets the snapshot stored for the given service root, if any.
+   *
+   * @param serviceRoot service root
+   * @return snapshot; <tt>null</tt> if none is stored or if it cannot be read
+   */
+  public EdmSnapshot load(final String serviceRoot) {
+    final File file = getFile(serviceRoot);
+    if (!file.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION || !serviceRoot.equals(input.readUTF())) {
+        return null;
+      }
+      final String metadataETag = input.readUTF();
+
+      final ObjectInputStream objects = new SchemaInputStream(new InflaterInputStream(input));
+      @SuppressWarnings("unchecked")
+      final Map<String, CsdlSchema> schemas = (Map<String, CsdlSchema>) objects.readObject();
+      return new EdmSnapshot(metadataETag, schemas);
+    } catch (final IOException | ClassNotFoundException | ClassCastException e) {
+      LOG.warn("Unable to read metadata snapshot {}", file, e);
+      return null;
+    }
+  }
+
+  private static void allow(final String prefix, final String... names) {
+    for (final String name : names) {
+      ALLOWED_CLASSES.add(prefix + name);
+    }
+  }
+
+  /**
+   * Stores a snapshot for the given service root, replacing any previous one.
+   *
+   * @param serviceRoot service root
+   * @param metadataETag ETag of the metadata document the schemas were read from
+   * @param schemas schemas by namespace or alias, as provided by
+   * {@link org.apache.olingo.client.api.edm.xml.XMLMetadata#getSchemaByNsOrAlias()}
+   */
+  public void store(final String serviceRoot, final String metadataETag, final Map<String, CsdlSchema> schemas) {
+    final File file = getFile(serviceRoot);
+    File temp = null;
+    try {
+      Files.createDirectories(directory.toPath());
+      temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeUTF(serviceRoot);
+        output.writeUTF(metadataETag);
+
+        final DeflaterOutputStream deflater = new DeflaterOutputStream(output);
+        final ObjectOutputStream objects = new ObjectOutputStream(deflater);
+        objects.writeObject(new LinkedHashMap<>(schemas));
+        objects.flush();
+        deflater.finish();
+      }
+
+      try {
+        Files.move(temp.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (final IOException e) {
+      LOG.warn("Unable to write metadata snapshot {}", file, e);
+      if (temp != null && !temp.delete()) {
+        temp.deleteOnExit();
+      }
+    }
+  }
+
+  private File getFile(final String serviceRoot) {
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(serviceRoot.getBytes(StandardCharsets.UTF_8));
+      return new File(directory, Hex.encodeHexString(digest) + SUFFIX);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Schemas read from a snapshot, with the ETag of the metadata document they were read from.
+   */
+  public static final class EdmSnapshot {
+
+    private final String metadataETag;
+
+    private final Map<String, CsdlSchema> schemas;
+
+    private EdmSnapshot(final String metadataETag, final Map<String, CsdlSchema> schemas) {
+      this.metadataETag = metadataETag;
+      this.schemas = schemas;
+    }
+
+    public String getMetadataETag() {
+      return metadataETag;
+    }
+
+    public Map<String, CsdlSchema> getSchemas() {
+      return schemas;
+    }
+  }
+
+  /**
+   * Object stream only resolving classes a snapshot may legitimately contain.
+   */
+  private static final class SchemaInputStream extends ObjectInputStream {
+
+    private SchemaInputStream(final InputStream input) throws IOException {
+      super(input);
+      setLimits();
+    }
+
+    /**
+     * Sets a serialization filter with the limits, through the API of the running Java version:
+     * <tt>java.io.ObjectInputFilter</tt> since Java 9, <tt>sun.misc.ObjectInputFilter</tt> in Java 8.
+     */
+    private void setLimits() throws IOException {
+      try {
+        Class<?> filterType;
+        try {
+          filterType = Class.forName("java.io.ObjectInputFilter");
+          ObjectInputStream.class.getMethod("setObjectInputFilter", filterType).invoke(this, createFilter(filterType));
+        } catch (final ClassNotFoundException e) {
+          filterType = Class.forName("sun.misc.ObjectInputFilter");
+          Class.forName("sun.misc.ObjectInputFilter$Config")
+              .getMethod("setObjectInputFilter", ObjectInputStream.class, filterType)
+              .invoke(null, this, createFilter(filterType));
+        }
+      } catch (final ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+        throw new IOException("Serialization filters are not supported by the Java runtime", e);
+      } catch (final InvocationTargetException e) {
+        throw new IOException("Unable to limit the metadata snapshot", e.getCause());
+      }
+    }
+
+    private static Object createFilter(final Class<?> filterType)
+        throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+      final Method createFilter = Class.forName(filterType.getName() + "$Config")
+          .getMethod("createFilter", String.class);
+      return createFilter.invoke(null, LIMITS);
+    }
+
+    @Override
+    protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      if (ALLOWED_CLASSES.contains(desc.getName())) {
+        return super.resolveClass(desc);
+      }
+      throw new InvalidClassException(desc.getName(), "Not allowed in a metadata snapshot");
+    }
+  }
+}
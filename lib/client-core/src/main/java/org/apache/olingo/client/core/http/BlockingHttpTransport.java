@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.olingo.client.api.http.HttpTransport;
+
+/**
+ * Default transport running the blocking HTTP client of each request on an executor service.
+ * <br/>
+ * Each pending request occupies one thread of the executor until its response has arrived.
+ */
+public class BlockingHttpTransport implements HttpTransport {
+
+  private final Executor executor;
+
+  /**
+   * Constructor.
+   *
+   * @param executor executor running the HTTP requests.
+   */
+  public BlockingHttpTransport(final Executor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public CompletableFuture<HttpResponse> execute(final HttpClient httpClient, final HttpUriRequest request) {
+    final CompletableFuture<HttpResponse> result = new CompletableFuture<HttpResponse>();
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            result.complete(httpClient.execute(request));
+          } catch (final IOException e) {
+            result.completeExceptionally(e);
+          } catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+/**
+ * Implementation sharing one HttpClient and a pool of keep-alive connections between all requests.
+ * <p>
+ * Select it with <tt>Configuration.setHttpClientFactory</tt>.
+ * {@link #close(HttpClient)} does not close any connection; connections go back to the pool as soon as
+ * the response has been closed or its content has been consumed. A request waiting for a free connection
+ * of an exhausted pool fails after the connection-request timeout. Once the client has been created,
+ * idle and expired connections are evicted in the background. Call {@link #shutdown()} once the factory
+ * is no longer needed.
+ */
+public class PoolingHttpClientFactory extends AbstractHttpClientFactory {
+
+  public static final int DEFAULT_MAX_TOTAL = 200;
+
+  public static final int DEFAULT_MAX_PER_ROUTE = 20;
+
+  public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+
+  public static final long DEFAULT_MAX_IDLE_MILLIS = 60000;
+
+  public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLIS = 30000;
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+
+  private final long keepAliveMillis;
+
+  private final int connectionRequestTimeoutMillis;
+
+  private final IdleConnectionEvictor evictor;
+
+  private volatile CloseableHttpClient httpClient;
+
+  public PoolingHttpClientFactory() {
+    this(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_KEEP_ALIVE_MILLIS, DEFAULT_MAX_IDLE_MILLIS);
+  }
+
+  /**
+   * Constructor using the default connection-request timeout.
+   *
+   * @param maxTotal maximum number of connections in total
+   * @param maxPerRoute maximum number of connections per route (target host)
+   * @param keepAliveMillis time a connection is kept alive if the server does not send a <tt>Keep-Alive</tt> timeout
+   * @param maxIdleMillis time after which idle connections are closed
+   */
+  public PoolingHttpClientFactory(final int maxTotal, final int maxPerRoute, final long keepAliveMillis,
+      final long maxIdleMillis) {
+    this(maxTotal, maxPerRoute, keepAliveMillis, maxIdleMillis, DEFAULT_CONNECTION_REQUEST_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxTotal maximum number of connections in total
+   * @param maxPerRoute maximum number of connections per route (target host)
+   * @param keepAliveMillis time a connection is kept alive if the server does not send a <tt>Keep-Alive</tt> timeout
+   * @param maxIdleMillis time after which idle connections are closed
+   * @param connectionRequestTimeoutMillis maximum time to wait for a connection from the pool
+   */
+  public PoolingHttpClientFactory(final int maxTotal, final int maxPerRoute, final long keepAliveMillis,
+      final long maxIdleMillis, final int connectionRequestTimeoutMillis) {
+    this.keepAliveMillis = keepAliveMillis;
+    this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+    connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    evictor = new IdleConnectionEvictor(connectionManager, maxIdleMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public HttpClient create(final HttpMethod method, final URI uri) {
+    CloseableHttpClient client = httpClient;
+    if (client == null) {
+      synchronized (this) {
+        client = httpClient;
+        if (client == null) {
+          final HttpClientBuilder builder = HttpClientBuilder.create()
+              .setConnectionManager(connectionManager)
+              .setConnectionManagerShared(true)
+              .setKeepAliveStrategy(createKeepAliveStrategy())
+              .setDefaultRequestConfig(RequestConfig.custom()
+                  .setConnectionRequestTimeout(connectionRequestTimeoutMillis)
+                  .build())
+              .setUserAgent(USER_AGENT);
+          configure(builder);
+          client = builder.build();
+          evictor.start();
+          httpClient = client;
+        }
+      }
+    }
+    return client;
+  }
+
+  /**
+   * Does nothing: the client and its connections are shared.
+   */
+  @Override
+  public void close(final HttpClient httpClient) {
+    // connections are released when the response is closed
+  }
+
+  /**
+   * Closes all pooled connections and stops the eviction of idle connections.
+   */
+  public void shutdown() {
+    evictor.shutdown();
+    connectionManager.shutdown();
+  }
+
+  /**
+   * Gets the connection manager, e.g., to monitor the pool statistics.
+   *
+   * @return the connection manager
+   */
+  public PoolingHttpClientConnectionManager getConnectionManager() {
+    return connectionManager;
+  }
+
+  /**
+   * Customizes the shared client, e.g., with credentials or a proxy; called once before it is built.
+   *
+   * @param builder builder of the shared client
+   */
+  protected void configure(final HttpClientBuilder builder) {
+    // no further configuration by default
+  }
+
+  private ConnectionKeepAliveStrategy createKeepAliveStrategy() {
+    return new DefaultConnectionKeepAliveStrategy() {
+      @Override
+      public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+        final long duration = super.getKeepAliveDuration(response, context);
+        return duration > 0 ? duration : keepAliveMillis;
+      }
+    };
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.olingo.client.api.data.ServiceDocument;
 import org.apache.olingo.client.api.edm.xml.Edmx;
 import org.apache.olingo.client.api.edm.xml.XMLMetadata;
 import org.apache.olingo.client.api.serialization.ClientODataDeserializer;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.client.core.data.JSONServiceDocumentDeserializer;
@@ -75,6 +76,11 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
   private static final String SCHEMA = "Schema";
   private static final String XMLNS = "xmlns";
 
+  private static final class XmlMapperHolder {
+
+    private static final XmlMapper INSTANCE = createXmlMapper();
+  }
+
   public ClientODataDeserializerImpl(final boolean serverMode, final ContentType contentType) {
     this.contentType = contentType;
     if (contentType.isCompatible(ContentType.APPLICATION_ATOM_SVC)
@@ -106,7 +112,14 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
     return deserializer.toError(input);
   }
 
+  /**
+   * Gets the mapper used for metadata documents; it is configured once and shared, as mappers are thread-safe.
+   */
   protected XmlMapper getXmlMapper() {
+    return XmlMapperHolder.INSTANCE;
+  }
+
+  private static XmlMapper createXmlMapper() {
     final XmlMapper xmlMapper = new XmlMapper(
         new XmlFactory(new InputFactoryImpl(), new OutputFactoryImpl()), new JacksonXmlModule());
 
@@ -219,6 +232,14 @@ public class ClientODataDeserializerImpl implements ClientODataDeserializer {
     }
   }
 
+  @Override
+  public EntitySetStreamReader toEntitySetReader(final InputStream input) throws ODataDeserializerException {
+    if (deserializer instanceof JsonDeserializer) {
+      return ((JsonDeserializer) deserializer).toEntitySetReader(input);
+    }
+    throw new ODataDeserializerException("Streamed entity set reading is not supported for " + contentType);
+  }
+
   @Override
   public List<CsdlSchema> fetchTermDefinitionSchema(List<InputStream> input) {
     List<CsdlSchema> schemas = new ArrayList<>();
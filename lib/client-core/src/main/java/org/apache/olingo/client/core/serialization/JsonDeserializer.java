@@ -32,6 +32,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.commons.api.Constants;
@@ -52,9 +53,11 @@ import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
 import org.apache.olingo.commons.api.edm.geo.Geospatial;
 import org.apache.olingo.commons.api.ex.ODataError;
 import org.apache.olingo.commons.core.edm.EdmTypeInfo;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -236,6 +239,51 @@ public class JsonDeserializer implements ODataDeserializer {
                   EdmPrimitiveTypeKind.String;
   }
 
+  private EdmPrimitiveTypeKind guessPrimitiveTypeKind(final JsonParser parser) throws IOException {
+    switch (parser.getCurrentToken()) {
+    case VALUE_NUMBER_INT:
+      final JsonParser.NumberType numberType = parser.getNumberType();
+      return numberType == JsonParser.NumberType.INT ? EdmPrimitiveTypeKind.Int32 :
+        numberType == JsonParser.NumberType.LONG ? EdmPrimitiveTypeKind.Int64 :
+          EdmPrimitiveTypeKind.String;
+    case VALUE_NUMBER_FLOAT:
+      return EdmPrimitiveTypeKind.Double;
+    case VALUE_TRUE:
+    case VALUE_FALSE:
+      return EdmPrimitiveTypeKind.Boolean;
+    default:
+      return EdmPrimitiveTypeKind.String;
+    }
+  }
+
+  /**
+   * Sets the value of the scalar token the parser is positioned on, guessing its primitive type exactly as
+   * {@link #value(Valuable, JsonNode, ObjectCodec)} does for the value node the token would have been read into.
+   *
+   * @param valuable untyped target
+   * @param parser parser positioned on a scalar value token
+   * @throws IOException if the value cannot be read or is not valid for the guessed type
+   */
+  protected void primitiveValue(final Valuable valuable, final JsonParser parser) throws IOException {
+    final EdmPrimitiveTypeKind kind = guessPrimitiveTypeKind(parser);
+    valuable.setType(kind.getFullQualifiedName().toString());
+
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+      valuable.setValue(ValueType.PRIMITIVE, null);
+    } else {
+      final EdmPrimitiveType type = EdmPrimitiveTypeFactory.getInstance(kind);
+      final String text = kind == EdmPrimitiveTypeKind.Double
+          ? Double.toString(parser.getDoubleValue())
+          : parser.getText();
+      try {
+        valuable.setValue(ValueType.PRIMITIVE, type.valueOfString(text, true, null,
+            Constants.DEFAULT_PRECISION, Constants.DEFAULT_SCALE, true, type.getDefaultType()));
+      } catch (final EdmPrimitiveTypeException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
   protected void populate(final Annotatable annotatable, final List<Property> properties,
       final ObjectNode tree, final ObjectCodec codec)
           throws IOException, EdmPrimitiveTypeException {
@@ -420,6 +468,21 @@ public class JsonDeserializer implements ODataDeserializer {
     }
   }
 
+  /**
+   * Gets a reader pulling the entities of the given entity set payload one at a time.
+   *
+   * @param input stream to be de-serialized
+   * @return entity set reader
+   * @throws ODataDeserializerException if the start of the payload cannot be read
+   */
+  public EntitySetStreamReader toEntitySetReader(final InputStream input) throws ODataDeserializerException {
+    try {
+      return new JsonEntitySetStreamReader(serverMode, new JsonFactory(new ObjectMapper()).createParser(input));
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
   @Override
   public ResWrap<Entity> toEntity(final InputStream input) throws ODataDeserializerException {
     try {
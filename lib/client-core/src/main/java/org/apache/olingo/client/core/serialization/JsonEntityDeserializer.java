@@ -36,12 +36,16 @@ import org.apache.olingo.commons.api.data.Annotation;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Operation;
+import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
 import org.apache.olingo.commons.core.edm.EdmTypeInfo;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -64,7 +68,79 @@ public class JsonEntityDeserializer extends JsonDeserializer {
     }
 
     final Entity entity = new Entity();
+    final URI contextURL = contextURL(entity, tree);
+    final String metadataETag = metadataETag(tree);
 
+    populateEntity(entity, tree, parser.getCodec());
+
+    return new ResWrap<>(contextURL, metadataETag, entity);
+  }
+
+  /**
+   * Reads the entity the given parser is positioned on (at its <tt>START_OBJECT</tt> token) directly from the
+   * token stream, leaving the parser on the matching <tt>END_OBJECT</tt>.
+   * <br/>
+   * Control information and primitive properties are bound as they are read; as soon as a field is met whose
+   * meaning depends on its siblings (annotations, links, operations, structured values) the remaining fields are
+   * collected and handed to the tree-based logic, so the outcome is the same as for {@link #doDeserialize}.
+   *
+   * @param parser parser positioned on the start of the entity object
+   * @return the entity read
+   * @throws IOException if the entity cannot be read
+   */
+  protected ResWrap<Entity> readEntity(final JsonParser parser) throws IOException {
+    final Entity entity = new Entity();
+    URI contextURL = null;
+    String metadataETag = null;
+
+    ObjectNode remaining = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      final JsonToken token = parser.nextToken();
+
+      if (remaining == null) {
+        if (token == JsonToken.VALUE_STRING && name.charAt(0) == '@') {
+          final String text = parser.getText();
+          if (Constants.JSON_CONTEXT.equals(name) || Constants.JSON_METADATA.equals(name)) {
+            if (contextURL == null) {
+              contextURL = URI.create(text);
+              entity.setBaseURI(URI.create(StringUtils.substringBefore(text, Constants.METADATA)));
+            }
+            continue;
+          } else if (Constants.JSON_METADATA_ETAG.equals(name)) {
+            metadataETag = text;
+            continue;
+          } else if (controlInformation(entity, name, text)) {
+            continue;
+          }
+        } else if (token.isScalarValue() && name.indexOf('@') < 0 && name.charAt(0) != '#') {
+          final Property property = new Property();
+          property.setName(name);
+          primitiveValue(property, parser);
+          entity.getProperties().add(property);
+          continue;
+        }
+        remaining = JsonNodeFactory.instance.objectNode();
+      }
+      remaining.set(name, parser.readValueAsTree());
+    }
+
+    if (remaining != null) {
+      final URI remainingContextURL = contextURL(entity, remaining);
+      final String remainingMetadataETag = metadataETag(remaining);
+      if (contextURL == null) {
+        contextURL = remainingContextURL;
+      }
+      if (metadataETag == null) {
+        metadataETag = remainingMetadataETag;
+      }
+      populateEntity(entity, remaining, parser.getCodec());
+    }
+
+    return new ResWrap<>(contextURL, metadataETag, entity);
+  }
+
+  private URI contextURL(final Entity entity, final ObjectNode tree) {
     final URI contextURL;
     if (tree.hasNonNull(Constants.JSON_CONTEXT)) {
       contextURL = URI.create(tree.get(Constants.JSON_CONTEXT).textValue());
@@ -79,6 +155,10 @@ public class JsonEntityDeserializer extends JsonDeserializer {
       entity.setBaseURI(URI.create(StringUtils.substringBefore(contextURL.toASCIIString(), Constants.METADATA)));
     }
 
+    return contextURL;
+  }
+
+  private String metadataETag(final ObjectNode tree) {
     final String metadataETag;
     if (tree.hasNonNull(Constants.JSON_METADATA_ETAG)) {
       metadataETag = tree.get(Constants.JSON_METADATA_ETAG).textValue();
@@ -86,7 +166,45 @@ public class JsonEntityDeserializer extends JsonDeserializer {
     } else {
       metadataETag = null;
     }
+    return metadataETag;
+  }
 
+  /**
+   * Sets on the entity the control information carried by the given field; media links are left to the
+   * tree-based logic, which gives the edit link precedence regardless of field order.
+   *
+   * @return <tt>true</tt> if the field is a known piece of entity control information
+   */
+  private boolean controlInformation(final Entity entity, final String name, final String value) {
+    if (Constants.JSON_ETAG.equals(name)) {
+      entity.setETag(value);
+    } else if (Constants.JSON_TYPE.equals(name)) {
+      entity.setType(new EdmTypeInfo.Builder().setTypeExpression(value).build().internal());
+    } else if (Constants.JSON_ID.equals(name)) {
+      entity.setId(URI.create(value));
+    } else if (Constants.JSON_READ_LINK.equals(name)) {
+      final Link link = new Link();
+      link.setRel(Constants.SELF_LINK_REL);
+      link.setHref(value);
+      entity.setSelfLink(link);
+    } else if (Constants.JSON_EDIT_LINK.equals(name)) {
+      final Link link = new Link();
+      if (serverMode) {
+        link.setRel(Constants.EDIT_LINK_REL);
+      }
+      link.setHref(value);
+      entity.setEditLink(link);
+    } else if (Constants.JSON_MEDIA_CONTENT_TYPE.equals(name)) {
+      entity.setMediaContentType(value);
+    } else if (Constants.JSON_MEDIA_ETAG.equals(name)) {
+      entity.setMediaETag(value);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private void populateEntity(final Entity entity, final ObjectNode tree, final ObjectCodec codec) throws IOException {
     if (tree.hasNonNull(Constants.JSON_ETAG)) {
       entity.setETag(tree.get(Constants.JSON_ETAG).textValue());
       tree.remove(Constants.JSON_ETAG);
@@ -147,7 +265,7 @@ public class JsonEntityDeserializer extends JsonDeserializer {
       final Map.Entry<String, JsonNode> field = itor.next();
       final Matcher customAnnotation = CUSTOM_ANNOTATION.matcher(field.getKey());
 
-      links(field, entity, toRemove, tree, parser.getCodec());
+      links(field, entity, toRemove, tree, codec);
       if (field.getKey().endsWith(getJSONAnnotation(Constants.JSON_MEDIA_READ_LINK))) {
         final Link link = new Link();
         link.setTitle(getTitle(field));
@@ -167,15 +285,13 @@ public class JsonEntityDeserializer extends JsonDeserializer {
         }        
         
         toRemove.add(field.getKey());
-        toRemove.add(setInline(field.getKey(), getJSONAnnotation(Constants.JSON_MEDIA_READ_LINK), tree, parser
-            .getCodec(), link));
+        toRemove.add(setInline(field.getKey(), getJSONAnnotation(Constants.JSON_MEDIA_READ_LINK), tree, codec, link));
       } else if (field.getKey().endsWith(getJSONAnnotation(Constants.JSON_MEDIA_EDIT_LINK))) {
         final Link link = getOrCreateMediaLink(entity, getTitle(field));
         link.setRel(Constants.NS_MEDIA_EDIT_LINK_REL + getTitle(field));
         link.setHref(field.getValue().textValue());
         toRemove.add(field.getKey());
-        toRemove.add(setInline(field.getKey(), getJSONAnnotation(Constants.JSON_MEDIA_EDIT_LINK), tree, parser
-            .getCodec(), link));
+        toRemove.add(setInline(field.getKey(), getJSONAnnotation(Constants.JSON_MEDIA_EDIT_LINK), tree, codec, link));
       } else if (field.getKey().endsWith(getJSONAnnotation(Constants.JSON_MEDIA_CONTENT_TYPE))) {        
         final Link link = getOrCreateMediaLink(entity, getTitle(field));
         link.setType(field.getValue().asText());
@@ -199,7 +315,7 @@ public class JsonEntityDeserializer extends JsonDeserializer {
         final Annotation annotation = new Annotation();
         annotation.setTerm(customAnnotation.group(2) + "." + customAnnotation.group(3));
         try {
-          value(annotation, field.getValue(), parser.getCodec());
+          value(annotation, field.getValue(), codec);
         } catch (final EdmPrimitiveTypeException e) {
           throw new IOException(e);
         }
@@ -231,12 +347,10 @@ public class JsonEntityDeserializer extends JsonDeserializer {
     tree.remove(toRemove);
 
     try {
-      populate(entity, entity.getProperties(), tree, parser.getCodec());
+      populate(entity, entity.getProperties(), tree, codec);
     } catch (final EdmPrimitiveTypeException e) {
       throw new IOException(e);
     }
-
-    return new ResWrap<>(contextURL, metadataETag, entity);
   }
   
   private Link getOrCreateMediaLink(final Entity entity, final String name) {
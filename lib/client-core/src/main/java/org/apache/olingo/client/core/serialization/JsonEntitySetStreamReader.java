@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.serialization;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetStreamReader;
+import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.Annotation;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Operation;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Reads a JSON entity set one entity at a time, over a single parser.
+ * <br/>
+ * Entity set information is made available as soon as it has been read: when the service puts count and next link
+ * before the entities, they can be inspected before iterating.
+ */
+public class JsonEntitySetStreamReader extends JsonDeserializer implements EntitySetStreamReader {
+
+  private final JsonParser parser;
+
+  private final JsonEntityDeserializer entityDeserializer;
+
+  private final EntityCollection entitySet = new EntityCollection();
+
+  private URI contextURL;
+
+  private String metadataETag;
+
+  private boolean inValue;
+
+  public JsonEntitySetStreamReader(final boolean serverMode, final JsonParser parser) throws IOException {
+    super(serverMode);
+    this.parser = parser;
+    this.entityDeserializer = new JsonEntityDeserializer(serverMode);
+
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Expected OData EntitySet");
+    }
+    readEntitySetFields();
+  }
+
+  /**
+   * Reads the entity set fields up to the start of the entities array or the end of the entity set object.
+   */
+  private void readEntitySetFields() throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      final JsonToken token = parser.nextToken();
+
+      if (Constants.VALUE.equals(name) && token == JsonToken.START_ARRAY) {
+        inValue = true;
+        return;
+      } else if (token == JsonToken.VALUE_STRING && Constants.JSON_CONTEXT.equals(name)) {
+        setContextURL(URI.create(parser.getText()));
+      } else if (token == JsonToken.VALUE_STRING && Constants.JSON_METADATA.equals(name)) {
+        if (contextURL == null) {
+          setContextURL(URI.create(parser.getText()));
+        }
+      } else if (token == JsonToken.VALUE_STRING && Constants.JSON_METADATA_ETAG.equals(name)) {
+        metadataETag = parser.getText();
+      } else if (token != JsonToken.VALUE_NULL && Constants.JSON_COUNT.equals(name)) {
+        entitySet.setCount(parser.getValueAsInt());
+      } else if (token == JsonToken.VALUE_STRING && Constants.JSON_NEXT_LINK.equals(name)) {
+        entitySet.setNext(URI.create(parser.getText()));
+      } else if (token == JsonToken.VALUE_STRING && Constants.JSON_DELTA_LINK.equals(name)) {
+        entitySet.setDeltaLink(URI.create(parser.getText()));
+      } else if (name.startsWith("@")) {
+        final Annotation annotation = new Annotation();
+        annotation.setTerm(name.substring(1));
+        try {
+          value(annotation, parser.<JsonNode> readValueAsTree(), parser.getCodec());
+        } catch (final EdmPrimitiveTypeException e) {
+          throw new IOException(e);
+        }
+        entitySet.getAnnotations().add(annotation);
+      } else if (name.startsWith("#") && token == JsonToken.START_OBJECT) {
+        final JsonNode opNode = parser.readValueAsTree();
+        final Operation operation = new Operation();
+        operation.setMetadataAnchor(name);
+        operation.setTitle(opNode.get(Constants.ATTR_TITLE).asText());
+        operation.setTarget(URI.create(opNode.get(Constants.ATTR_TARGET).asText()));
+        entitySet.getOperations().add(operation);
+      } else {
+        // any other entry is ignored
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private void setContextURL(final URI contextURL) {
+    this.contextURL = contextURL;
+    entitySet.setBaseURI(URI.create(StringUtils.substringBefore(contextURL.toASCIIString(), Constants.METADATA)));
+  }
+
+  @Override
+  public ResWrap<Entity> next() throws ODataDeserializerException {
+    try {
+      while (inValue) {
+        final JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+          return entityDeserializer.readEntity(parser);
+        } else if (token == JsonToken.END_ARRAY) {
+          inValue = false;
+          readEntitySetFields();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return null;
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  @Override
+  public ResWrap<EntityCollection> getEntitySet() {
+    return new ResWrap<>(contextURL, metadataETag, entitySet);
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
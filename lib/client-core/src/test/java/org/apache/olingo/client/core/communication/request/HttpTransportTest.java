@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.http.HttpClientException;
+import org.apache.olingo.client.api.http.HttpTransport;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.junit.Test;
+
+public class HttpTransportTest {
+
+  /** Keeps all requests pending until the test answers them, like a non-blocking HTTP engine. */
+  private static final class PendingTransport implements HttpTransport {
+    private final List<CompletableFuture<HttpResponse>> pending = new ArrayList<CompletableFuture<HttpResponse>>();
+
+    @Override
+    public synchronized CompletableFuture<HttpResponse> execute(final HttpClient httpClient,
+        final HttpUriRequest request) {
+      final CompletableFuture<HttpResponse> response = new CompletableFuture<HttpResponse>();
+      pending.add(response);
+      return response;
+    }
+  }
+
+  @Test
+  public void moreRequestsInFlightThanThreads() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final PendingTransport transport = new PendingTransport();
+    client.getConfiguration().setExecutor(executor);
+    client.getConfiguration().setHttpTransport(transport);
+
+    try {
+      final List<CompletableFuture<ODataRetrieveResponse<ClientEntity>>> futures =
+          new ArrayList<CompletableFuture<ODataRetrieveResponse<ClientEntity>>>();
+      for (int key = 1; key <= 100; key++) {
+        futures.add(client.getRetrieveRequestFactory()
+            .getEntityRequest(URI.create("http://localhost/service/ESAllPrim(" + key + ")")).executeAsync());
+      }
+
+      // All requests have been sent without waiting for a response, although the executor has one thread.
+      assertEquals(futures.size(), transport.pending.size());
+      for (final CompletableFuture<ODataRetrieveResponse<ClientEntity>> future : futures) {
+        assertFalse(future.isDone());
+      }
+
+      for (int index = 0; index < transport.pending.size(); index++) {
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setHeader("ETag", "W/\"" + index + "\"");
+        response.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+        transport.pending.get(index).complete(response);
+      }
+      for (int index = 0; index < futures.size(); index++) {
+        final ODataRetrieveResponse<ClientEntity> response = futures.get(index).get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatusCode());
+        assertEquals("W/\"" + index + "\"", response.getETag());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedRequest() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    final PendingTransport transport = new PendingTransport();
+    client.getConfiguration().setHttpTransport(transport);
+
+    final CompletableFuture<ODataRetrieveResponse<ClientEntity>> future = client.getRetrieveRequestFactory()
+        .getEntityRequest(URI.create("http://localhost/service/ESAllPrim(1)")).executeAsync();
+    transport.pending.get(0).completeExceptionally(new IOException("Connection refused"));
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      fail("Expected an exception.");
+    } catch (final ExecutionException e) {
+      assertTrue(e.getCause() instanceof HttpClientException);
+      assertTrue(e.getCause().getCause() instanceof IOException);
+    }
+  }
+}
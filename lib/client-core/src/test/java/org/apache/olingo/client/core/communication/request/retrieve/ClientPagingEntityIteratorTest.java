@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request.retrieve;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.ODataServerErrorException;
+import org.apache.olingo.client.api.domain.ClientEntity;
+import org.apache.olingo.client.api.domain.ClientPagingEntityIterator;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class ClientPagingEntityIteratorTest {
+
+  private static final int PAGES = 4;
+  private static final int PAGE_SIZE = 3;
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private volatile int blockedPage = -1;
+  private volatile int failingPage = -1;
+  private ODataClient client;
+  private URI uri;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor(serverExecutor);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        final String query = exchange.getRequestURI().getQuery();
+        final int page = query == null ? 0 : Integer.parseInt(query.substring("page=".length()));
+        if (page == blockedPage) {
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        if (page == failingPage) {
+          exchange.sendResponseHeaders(500, -1);
+          exchange.close();
+          return;
+        }
+
+        final StringBuilder body = new StringBuilder("{\"value\":[");
+        for (int i = 0; i < PAGE_SIZE; i++) {
+          body.append(i == 0 ? "" : ",").append("{\"ID\":").append(page * PAGE_SIZE + i).append('}');
+        }
+        body.append(']');
+        if (page + 1 < PAGES) {
+          body.append(",\"@odata.nextLink\":\"").append(uri).append("?page=").append(page + 1).append('"');
+        }
+        body.append('}');
+
+        final byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(bytes);
+        }
+      }
+    });
+    server.start();
+
+    client = ODataClientFactory.getClient();
+    uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/service/ES");
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void followsNextLinks() {
+    final List<Integer> ids = new ArrayList<Integer>();
+    final ClientPagingEntityIterator<ClientEntity> iterator =
+        client.getRetrieveRequestFactory().getPagingEntityIterator(uri, 2);
+    while (iterator.hasNext()) {
+      ids.add(Integer.valueOf(iterator.next().getProperty("ID").getPrimitiveValue().toString()));
+    }
+
+    assertEquals(PAGES * PAGE_SIZE, ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(i, ids.get(i).intValue());
+    }
+    assertEquals(PAGES, requests.get());
+  }
+
+  @Test
+  public void stream() {
+    assertEquals(PAGES * PAGE_SIZE,
+        client.getRetrieveRequestFactory().getPagingEntityIterator(uri, 1).stream().count());
+  }
+
+  @Test
+  public void prefetchIsBounded() throws Exception {
+    final ClientPagingEntityIterator<ClientEntity> iterator =
+        client.getRetrieveRequestFactory().getPagingEntityIterator(uri, 1);
+    try {
+      assertTrue(iterator.hasNext());
+      iterator.next();
+      // the first page is being consumed and only one page is requested ahead
+      for (int i = 0; i < 50 && requests.get() < 2; i++) {
+        Thread.sleep(20);
+      }
+      Thread.sleep(200);
+      assertEquals(2, requests.get());
+    } finally {
+      iterator.close();
+    }
+  }
+
+  @Test
+  public void closeAbortsPendingRequest() throws Exception {
+    blockedPage = 1;
+    final ClientPagingEntityIterator<ClientEntity> iterator =
+        client.getRetrieveRequestFactory().getPagingEntityIterator(uri, 2);
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      iterator.next();
+    }
+    for (int i = 0; i < 50 && requests.get() < 2; i++) {
+      Thread.sleep(20);
+    }
+
+    iterator.close();
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void failureIsRaisedInOrder() {
+    failingPage = 1;
+    final ClientPagingEntityIterator<ClientEntity> iterator =
+        client.getRetrieveRequestFactory().getPagingEntityIterator(uri, 2);
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      iterator.next();
+    }
+    try {
+      iterator.hasNext();
+      fail("Expected failure of the second page");
+    } catch (final ODataServerErrorException e) {
+      assertFalse(iterator.hasNext());
+    }
+  }
+}
@@ -203,4 +203,73 @@ public class ClientEntitySetIteratorTest {
         Assert.assertEquals("http://localhost:8082/odata-server-tecsvc/"
             + "odata.svc/ESServerSidePaging?%24skiptoken=1%2A10", entitySetIterator.getNext().toString());
     }
+
+    @Test
+    public void testEntitySetIteratorCountAndNextLinkBeforeIteration() {
+        String str = "{\"@odata.context\":\"http://host/service/$metadata#ESAllPrim\","
+            + "\"@odata.count\":3,"
+            + "\"@odata.nextLink\":\"ESAllPrim?$skiptoken=2\","
+            + "\"value\":[{\"PropertyInt16\":1},{\"PropertyInt16\":2}]}";
+
+        ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+            new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+            ODataClientFactory.getClient(), new ByteArrayInputStream(str.getBytes()), ContentType.JSON);
+
+        Assert.assertEquals(Integer.valueOf(3), entitySetIterator.getCount());
+        Assert.assertEquals("http://host/service/ESAllPrim?$skiptoken=2", entitySetIterator.getNext().toString());
+
+        int count = 0;
+        while (entitySetIterator.hasNext()) {
+            entitySetIterator.next();
+            count++;
+        }
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(Integer.valueOf(3), entitySetIterator.getCount());
+    }
+
+    @Test
+    public void testEntitySetIteratorNextLinkAfterEntities() {
+        String str = "{\"@odata.context\":\"http://host/service/$metadata#ESAllPrim\","
+            + "\"value\":[{\"PropertyInt16\":1,\"PropertyString\":\"]}\"}],"
+            + "\"@odata.nextLink\":\"http://host/service/ESAllPrim?$skiptoken=1\"}";
+
+        ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+            new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+            ODataClientFactory.getClient(), new ByteArrayInputStream(str.getBytes()), ContentType.JSON);
+
+        Assert.assertTrue(entitySetIterator.hasNext());
+        Assert.assertEquals("]}", entitySetIterator.next().getProperty("PropertyString").getPrimitiveValue()
+            .toString());
+        Assert.assertFalse(entitySetIterator.hasNext());
+        Assert.assertEquals("http://host/service/ESAllPrim?$skiptoken=1", entitySetIterator.getNext().toString());
+    }
+
+    @Test
+    public void testEntitySetIteratorMatchesEntityDeserialization() throws Exception {
+        String entity = "{\"@odata.etag\":\"W/\\\"1\\\"\",\"@odata.id\":\"ESMix(1)\","
+            + "\"PropertyInt16\":1,\"PropertyInt64\":9223372036854775807,\"PropertyDouble\":1.5,"
+            + "\"PropertyBoolean\":true,\"PropertyNull\":null,"
+            + "\"NavProp@odata.navigationLink\":\"ESMix(1)/NavProp\","
+            + "\"NavProp\":{\"PropertyInt16\":2},"
+            + "\"PropertyComp\":{\"PropertyString\":\"x\"},"
+            + "\"CollPropertyString\":[\"a\",\"b\"]}";
+        String str = "{\"value\":[" + entity + "]}";
+
+        ODataClient client = ODataClientFactory.getClient();
+        ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+            new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+            client, new ByteArrayInputStream(str.getBytes()), ContentType.JSON);
+
+        Assert.assertTrue(entitySetIterator.hasNext());
+        ClientEntity streamed = entitySetIterator.next();
+        Assert.assertFalse(entitySetIterator.hasNext());
+
+        ClientEntity expected = client.getBinder().getODataEntity(
+            client.getDeserializer(ContentType.JSON).toEntity(new ByteArrayInputStream(entity.getBytes())));
+        Assert.assertEquals(expected, streamed);
+        Assert.assertEquals(Long.valueOf(Long.MAX_VALUE),
+            streamed.getProperty("PropertyInt64").getPrimitiveValue().toValue());
+        Assert.assertNotNull(streamed.getNavigationLink("NavProp"));
+        Assert.assertNull(streamed.getProperty("NavProp"));
+    }
 }
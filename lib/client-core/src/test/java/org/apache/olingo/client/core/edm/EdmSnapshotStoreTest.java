@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.edm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.client.api.EdmEnabledODataClient;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.client.core.edm.EdmSnapshotStore.EdmSnapshot;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class EdmSnapshotStoreTest {
+
+  private static final String ETAG = "W/\"1\"";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Map<String, CsdlSchema> readSchemas(final ODataClient client, final String resource) throws IOException {
+    try (InputStream input = getClass().getResourceAsStream("/org/apache/olingo/client/core/" + resource)) {
+      return client.getDeserializer(ContentType.APPLICATION_XML).toMetadata(input).getSchemaByNsOrAlias();
+    }
+  }
+
+  @Test
+  public void storeAndLoad() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    final Map<String, CsdlSchema> schemas = readSchemas(client, "$metadata.xml");
+    final EdmSnapshotStore store = new EdmSnapshotStore(new File(folder.getRoot(), "snapshots"));
+
+    assertNull(store.load("http://localhost/service"));
+    store.store("http://localhost/service", ETAG, schemas);
+
+    final EdmSnapshot snapshot = store.load("http://localhost/service");
+    assertNotNull(snapshot);
+    assertEquals(ETAG, snapshot.getMetadataETag());
+    assertEquals(schemas.keySet(), snapshot.getSchemas().keySet());
+    assertNull(store.load("http://localhost/other"));
+
+    final Edm expected = client.getReader().readMetadata(schemas);
+    final Edm actual = client.getReader().readMetadata(snapshot.getSchemas());
+    final FullQualifiedName type = new FullQualifiedName("SEPMRA_SO_MAN2", "I_DraftAdministrativeDataType");
+    assertEquals(expected.getEntityType(type).getPropertyNames(), actual.getEntityType(type).getPropertyNames());
+    assertEquals(schemas.get("SEPMRA_SO_MAN2").getAnnotationGroups().size(),
+        snapshot.getSchemas().get("SEPMRA_SO_MAN2").getAnnotationGroups().size());
+  }
+
+  @Test
+  public void unreadableSnapshotIsIgnored() throws Exception {
+    final EdmSnapshotStore store = new EdmSnapshotStore(folder.getRoot());
+    store.store("http://localhost/service", ETAG, readSchemas(ODataClientFactory.getClient(), "metadata.xml"));
+
+    final File[] files = folder.getRoot().listFiles();
+    assertEquals(1, files.length);
+    Files.write(files[0].toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+    assertNull(store.load("http://localhost/service"));
+  }
+
+  @Test
+  public void unexpectedClassIsRejected() throws Exception {
+    final Map<String, Object> content = new HashMap<>();
+    content.put("Namespace", new Date());
+    assertNull(storeAndLoad(content));
+  }
+
+  @Test
+  public void deepNestingIsRejected() throws Exception {
+    List<Object> list = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      final List<Object> outer = new ArrayList<>();
+      outer.add(list);
+      list = outer;
+    }
+    assertNull(storeAndLoad(Collections.<String, Object> singletonMap("Namespace", list)));
+    assertNotNull(storeAndLoad(Collections.<String, Object> singletonMap("Namespace", new ArrayList<>())));
+  }
+
+  @SuppressWarnings("unchecked")
+  private EdmSnapshot storeAndLoad(final Map<String, ?> content) {
+    final EdmSnapshotStore store = new EdmSnapshotStore(folder.getRoot());
+    store.store("http://localhost/service", ETAG, (Map<String, CsdlSchema>) content);
+    return store.load("http://localhost/service");
+  }
+
+  @Test
+  public void clientRevalidatesSnapshot() throws Exception {
+    final byte[] metadata;
+    try (InputStream input = getClass().getResourceAsStream("/org/apache/olingo/client/core/metadata.xml")) {
+      metadata = IOUtils.toByteArray(input);
+    }
+    final AtomicInteger full = new AtomicInteger();
+    final AtomicInteger notModified = new AtomicInteger();
+
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          notModified.incrementAndGet();
+          exchange.sendResponseHeaders(304, -1);
+          exchange.close();
+          return;
+        }
+        full.incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, metadata.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(metadata);
+        }
+      }
+    });
+    server.start();
+    try {
+      final String serviceRoot = "http://localhost:" + server.getAddress().getPort() + "/service";
+      final FullQualifiedName type = new FullQualifiedName("Microsoft.Exchange.Services.OData.Model", "User");
+
+      final EdmEnabledODataClient first =
+          ODataClientFactory.getEdmEnabledClientWithSnapshot(serviceRoot, ContentType.JSON, folder.getRoot());
+      assertNotNull(first.getCachedEdm().getEntityType(type));
+      assertEquals(1, full.get());
+      assertEquals(0, notModified.get());
+
+      final EdmEnabledODataClient second =
+          ODataClientFactory.getEdmEnabledClientWithSnapshot(serviceRoot, ContentType.JSON, folder.getRoot());
+      assertNotNull(second.getCachedEdm().getEntityType(type));
+      assertEquals(1, full.get());
+      assertEquals(1, notModified.get());
+    } finally {
+      server.stop(0);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.util.EntityUtils;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.response.ODataRawResponse;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class PoolingHttpClientFactoryTest {
+
+  private HttpServer server;
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private PoolingHttpClientFactory factory;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        final byte[] body = "{\"value\":[]}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(body);
+        }
+      }
+    });
+    server.start();
+    factory = new PoolingHttpClientFactory(10, 2, 5000, 5000);
+  }
+
+  @After
+  public void tearDown() {
+    factory.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void sharedClient() {
+    final URI uri = URI.create("http://localhost/");
+    assertSame(factory.create(HttpMethod.GET, uri), factory.create(HttpMethod.POST, uri));
+    assertEquals(10, factory.getConnectionManager().getMaxTotal());
+    assertEquals(2, factory.getConnectionManager().getDefaultMaxPerRoute());
+  }
+
+  @Test
+  public void connectionsAreReused() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    client.getConfiguration().setHttpClientFactory(factory);
+    final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/service/ESAllPrim");
+
+    for (int i = 0; i < 5; i++) {
+      final ODataRawResponse response = client.getRetrieveRequestFactory().getRawRequest(uri).execute();
+      try (InputStream content = response.getRawResponse()) {
+        assertEquals("{\"value\":[]}", IOUtils.toString(content, StandardCharsets.UTF_8));
+      }
+      response.close();
+    }
+
+    assertEquals(1, clientPorts.size());
+    assertEquals(1, factory.getConnectionManager().getTotalStats().getAvailable());
+  }
+
+  @Test(expected = ConnectionPoolTimeoutException.class)
+  public void exhaustedPoolTimesOut() throws Exception {
+    final PoolingHttpClientFactory smallFactory = new PoolingHttpClientFactory(1, 1, 5000, 5000, 100);
+    try {
+      final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/service/ESAllPrim");
+      final HttpClient httpClient = smallFactory.create(HttpMethod.GET, uri);
+      final HttpResponse response = httpClient.execute(new HttpGet(uri));
+      try {
+        // The only connection is still leased, so this waits for the connection-request timeout.
+        httpClient.execute(new HttpGet(uri));
+      } finally {
+        EntityUtils.consume(response.getEntity());
+      }
+    } finally {
+      smallFactory.shutdown();
+    }
+  }
+}
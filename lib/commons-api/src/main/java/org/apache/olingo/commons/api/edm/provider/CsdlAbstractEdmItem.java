@@ -18,14 +18,19 @@
  */
 package org.apache.olingo.commons.api.edm.provider;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 /**
  * Super type of all CsdlEdmItems
+ * <br/>
+ * Items are serializable, so that parsed metadata can be stored and reloaded without being parsed again.
  */
-public abstract class CsdlAbstractEdmItem {
+public abstract class CsdlAbstractEdmItem implements Serializable {
+
+  private static final long serialVersionUID = -1693722788893306449L;
 
   /**
    * Gets one by name.
@@ -23,24 +23,43 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAction;
+import org.apache.olingo.commons.api.edm.EdmActionImport;
 import org.apache.olingo.commons.api.edm.EdmAnnotations;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmEnumType;
 import org.apache.olingo.commons.api.edm.EdmFunction;
+import org.apache.olingo.commons.api.edm.EdmFunctionImport;
+import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.EdmOperation;
 import org.apache.olingo.commons.api.edm.EdmParameter;
 import org.apache.olingo.commons.api.edm.EdmSchema;
+import org.apache.olingo.commons.api.edm.EdmSingleton;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
 import org.apache.olingo.commons.api.edm.EdmTerm;
+import org.apache.olingo.commons.api.edm.EdmType;
 import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
 
+/**
+ * Base implementation of the entity data model that lazily creates and caches all model elements.
+ * <p>The caches are concurrent, read-mostly maps so that look-ups from many request threads
+ * do not contend on a common lock. Elements that are created concurrently for the same name
+ * are cached only once, so that all callers get the same instance.</p>
+ */
 public abstract class AbstractEdm implements Edm {
 
+  /** Cache key for the default entity container (concurrent maps do not support <code>null</code> keys). */
+  private static final FullQualifiedName DEFAULT_CONTAINER = new FullQualifiedName("", "");
+
   protected Map<String, EdmSchema> schemas;
   protected List<EdmSchema> schemaList;
   private boolean isEntityDerivedFromES;
@@ -48,54 +67,54 @@ public abstract class AbstractEdm implements Edm {
   private boolean isPreviousES;
 
   private final Map<FullQualifiedName, EdmEntityContainer> entityContainers =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityContainer>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityContainer>();
 
   private final Map<FullQualifiedName, EdmEnumType> enumTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEnumType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEnumType>();
 
   private final Map<FullQualifiedName, EdmTypeDefinition> typeDefinitions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTypeDefinition>());
+      new ConcurrentHashMap<FullQualifiedName, EdmTypeDefinition>();
 
   private final Map<FullQualifiedName, EdmEntityType> entityTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
 
   private final Map<FullQualifiedName, EdmComplexType> complexTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
 
   private final Map<FullQualifiedName, EdmAction> unboundActions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmAction>());
+      new ConcurrentHashMap<FullQualifiedName, EdmAction>();
 
   private final Map<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<EdmFunction>>());
+      new ConcurrentHashMap<FullQualifiedName, List<EdmFunction>>();
 
   private final Map<FunctionMapKey, EdmFunction> unboundFunctionsByKey =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+      new ConcurrentHashMap<FunctionMapKey, EdmFunction>();
 
   private final Map<ActionMapKey, EdmAction> boundActions =
-      Collections.synchronizedMap(new HashMap<ActionMapKey, EdmAction>());
+      new ConcurrentHashMap<ActionMapKey, EdmAction>();
 
   private final Map<FunctionMapKey, EdmFunction> boundFunctions =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+      new ConcurrentHashMap<FunctionMapKey, EdmFunction>();
 
   private final Map<FullQualifiedName, EdmTerm> terms =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTerm>());
+      new ConcurrentHashMap<FullQualifiedName, EdmTerm>();
 
   private final Map<TargetQualifierMapKey, EdmAnnotations> annotationGroups =
-      Collections.synchronizedMap(new HashMap<TargetQualifierMapKey, EdmAnnotations>());
+      new ConcurrentHashMap<TargetQualifierMapKey, EdmAnnotations>();
 
-  private Map<String, String> aliasToNamespaceInfo = null;
+  private volatile Map<String, String> aliasToNamespaceInfo = null;
   
   private final Map<FullQualifiedName, EdmEntityType> entityTypesWithAnnotations =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
   
   private final Map<FullQualifiedName, EdmEntityType> entityTypesDerivedFromES =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
   
   private final Map<FullQualifiedName, EdmComplexType> complexTypesWithAnnotations =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
   
   private final Map<FullQualifiedName, EdmComplexType> complexTypesDerivedFromES =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
 
   private Map<String, List<CsdlAnnotation>> annotationMap = 
       new HashMap<String, List<CsdlAnnotation>>();
@@ -114,9 +133,10 @@ public abstract class AbstractEdm implements Edm {
       initSchemas();
     }
 
-    EdmSchema schema = schemas.get(namespace);
-    if (schema == null) {
-      schema = schemas.get(aliasToNamespaceInfo.get(namespace));
+    EdmSchema schema = namespace == null ? null : schemas.get(namespace);
+    if (schema == null && namespace != null) {
+      final String aliasNamespace = aliasToNamespaceInfo.get(namespace);
+      schema = aliasNamespace == null ? null : schemas.get(aliasNamespace);
     }
     return schema;
   }
@@ -124,14 +144,48 @@ public abstract class AbstractEdm implements Edm {
   private void initSchemas() {
     loadAliasToNamespaceInfo();
     Map<String, EdmSchema> localSchemas = createSchemas();
-    schemas = Collections.synchronizedMap(localSchemas);
-
-    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(schemas.values()));
+    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(localSchemas.values()));
+    schemas = copyWithoutNulls(localSchemas);
   }
 
   private void loadAliasToNamespaceInfo() {
     Map<String, String> localAliasToNamespaceInfo = createAliasToNamespaceInfo();
-    aliasToNamespaceInfo = Collections.synchronizedMap(localAliasToNamespaceInfo);
+    aliasToNamespaceInfo = copyWithoutNulls(localAliasToNamespaceInfo);
+  }
+
+  private static <K, V> Map<K, V> copyWithoutNulls(final Map<K, V> map) {
+    final Map<K, V> result = new ConcurrentHashMap<K, V>();
+    if (map != null) {
+      for (final Map.Entry<K, V> entry : map.entrySet()) {
+        if (entry.getKey() != null && entry.getValue() != null) {
+          result.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets a cached element; <code>null</code> keys are never cached.
+   */
+  private static <K, V> V getCached(final Map<K, V> cache, final K key) {
+    return key == null ? null : cache.get(key);
+  }
+
+  /**
+   * Caches a newly created element unless another thread has been faster.
+   * @return the cached element
+   */
+  private static <K, V> V putCached(final Map<K, V> cache, final K key, final V value) {
+    if (key == null) {
+      return value;
+    }
+    final V existing = cache.putIfAbsent(key, value);
+    return existing == null ? value : existing;
+  }
+
+  private static FullQualifiedName containerKey(final FullQualifiedName containerName) {
+    return containerName == null ? DEFAULT_CONTAINER : containerName;
   }
 
   @Override
@@ -142,13 +196,14 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityContainer getEntityContainer(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityContainer container = entityContainers.get(fqn);
+    EdmEntityContainer container = entityContainers.get(containerKey(fqn));
     if (container == null) {
       container = createEntityContainer(fqn);
       if (container != null) {
-        entityContainers.put(fqn, container);
+        container = putCached(entityContainers, containerKey(fqn), container);
         if (fqn == null) {
-          entityContainers.put(new FullQualifiedName(container.getNamespace(), container.getName()), container);
+          putCached(entityContainers, new FullQualifiedName(container.getNamespace(), container.getName()),
+              container);
         }
       }
     }
@@ -158,11 +213,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEnumType getEnumType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEnumType enumType = enumTypes.get(fqn);
+    EdmEnumType enumType = getCached(enumTypes, fqn);
     if (enumType == null) {
       enumType = createEnumType(fqn);
       if (enumType != null) {
-        enumTypes.put(fqn, enumType);
+        enumType = putCached(enumTypes, fqn, enumType);
       }
     }
     return enumType;
@@ -171,11 +226,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmTypeDefinition getTypeDefinition(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmTypeDefinition typeDefinition = typeDefinitions.get(fqn);
+    EdmTypeDefinition typeDefinition = getCached(typeDefinitions, fqn);
     if (typeDefinition == null) {
       typeDefinition = createTypeDefinition(fqn);
       if (typeDefinition != null) {
-        typeDefinitions.put(fqn, typeDefinition);
+        typeDefinition = putCached(typeDefinitions, fqn, typeDefinition);
       }
     }
     return typeDefinition;
@@ -184,11 +239,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityType getEntityType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityType entityType = entityTypes.get(fqn);
+    EdmEntityType entityType = getCached(entityTypes, fqn);
     if (entityType == null) {
       entityType = createEntityType(fqn);
       if (entityType != null) {
-        entityTypes.put(fqn, entityType);
+        entityType = putCached(entityTypes, fqn, entityType);
       }
     }
     return entityType;
@@ -197,11 +252,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityType getEntityTypeWithAnnotations(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityType entityType = entityTypesWithAnnotations.get(fqn);
+    EdmEntityType entityType = getCached(entityTypesWithAnnotations, fqn);
     if (entityType == null) {
       entityType = createEntityType(fqn);
       if (entityType != null) {
-          entityTypesWithAnnotations.put(fqn, entityType);
+          entityType = putCached(entityTypesWithAnnotations, fqn, entityType);
       }
     }
     setIsPreviousES(false);
@@ -215,11 +270,11 @@ public abstract class AbstractEdm implements Edm {
     if (!isPreviousES() && getEntityContainer() != null) {
        getEntityContainer().getEntitySetsWithAnnotations();
     }
-    EdmEntityType entityType = entityTypesDerivedFromES.get(fqn);
+    EdmEntityType entityType = getCached(entityTypesDerivedFromES, fqn);
     if (entityType == null) {
       entityType = createEntityType(fqn);
       if (entityType != null) {
-          entityTypesDerivedFromES.put(fqn, entityType);
+          entityType = putCached(entityTypesDerivedFromES, fqn, entityType);
       }
     }
     this.isEntityDerivedFromES = false;
@@ -233,11 +288,11 @@ public abstract class AbstractEdm implements Edm {
     if (!isPreviousES() && getEntityContainer() != null) {
        getEntityContainer().getEntitySetsWithAnnotations();
     }
-    EdmComplexType complexType = complexTypesDerivedFromES.get(fqn);
+    EdmComplexType complexType = getCached(complexTypesDerivedFromES, fqn);
     if (complexType == null) {
       complexType = createComplexType(fqn);
       if (complexType != null) {
-          complexTypesDerivedFromES.put(fqn, complexType);
+          complexType = putCached(complexTypesDerivedFromES, fqn, complexType);
       }
     }
     this.isComplexDerivedFromES = false;
@@ -247,11 +302,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmComplexType getComplexType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmComplexType complexType = complexTypes.get(fqn);
+    EdmComplexType complexType = getCached(complexTypes, fqn);
     if (complexType == null) {
       complexType = createComplexType(fqn);
       if (complexType != null) {
-        complexTypes.put(fqn, complexType);
+        complexType = putCached(complexTypes, fqn, complexType);
       }
     }
     return complexType;
@@ -260,11 +315,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmComplexType getComplexTypeWithAnnotations(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmComplexType complexType = complexTypesWithAnnotations.get(fqn);
+    EdmComplexType complexType = getCached(complexTypesWithAnnotations, fqn);
     if (complexType == null) {
       complexType = createComplexType(fqn);
       if (complexType != null) {
-          complexTypesWithAnnotations.put(fqn, complexType);
+          complexType = putCached(complexTypesWithAnnotations, fqn, complexType);
       }
     }
     setIsPreviousES(false);
@@ -274,11 +329,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmAction getUnboundAction(final FullQualifiedName actionName) {
     final FullQualifiedName fqn = resolvePossibleAlias(actionName);
-    EdmAction action = unboundActions.get(fqn);
+    EdmAction action = getCached(unboundActions, fqn);
     if (action == null) {
       action = createUnboundAction(fqn);
       if (action != null) {
-        unboundActions.put(actionName, action);
+        action = putCached(unboundActions, fqn, action);
       }
     }
 
@@ -292,11 +347,11 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName actionFqn = resolvePossibleAlias(actionName);
     final FullQualifiedName bindingParameterTypeFqn = resolvePossibleAlias(bindingParameterTypeName);
     final ActionMapKey key = new ActionMapKey(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
-    EdmAction action = boundActions.get(key);
+    EdmAction action = getCached(boundActions, key);
     if (action == null) {
       action = createBoundAction(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
       if (action != null) {
-        boundActions.put(key, action);
+        action = putCached(boundActions, key, action);
       }
     }
 
@@ -307,11 +362,11 @@ public abstract class AbstractEdm implements Edm {
   public List<EdmFunction> getUnboundFunctions(final FullQualifiedName functionName) {
     final FullQualifiedName functionFqn = resolvePossibleAlias(functionName);
 
-    List<EdmFunction> functions = unboundFunctionsByName.get(functionFqn);
+    List<EdmFunction> functions = getCached(unboundFunctionsByName, functionFqn);
     if (functions == null) {
       functions = createUnboundFunctions(functionFqn);
       if (functions != null) {
-        unboundFunctionsByName.put(functionFqn, functions);
+        functions = putCached(unboundFunctionsByName, functionFqn, functions);
 
         for (EdmFunction unbound : functions) {
           final FunctionMapKey key = new FunctionMapKey(
@@ -319,7 +374,7 @@ public abstract class AbstractEdm implements Edm {
               unbound.getBindingParameterTypeFqn(),
               unbound.isBindingParameterTypeCollection(),
               unbound.getParameterNames());
-          unboundFunctionsByKey.put(key, unbound);
+          unboundFunctionsByKey.putIfAbsent(key, unbound);
         }
       }
     }
@@ -332,11 +387,11 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName functionFqn = resolvePossibleAlias(functionName);
 
     final FunctionMapKey key = new FunctionMapKey(functionFqn, null, null, parameterNames);
-    EdmFunction function = unboundFunctionsByKey.get(key);
+    EdmFunction function = getCached(unboundFunctionsByKey, key);
     if (function == null) {
       function = createUnboundFunction(functionFqn, parameterNames);
       if (function != null) {
-        unboundFunctionsByKey.put(key, function);
+        function = putCached(unboundFunctionsByKey, key, function);
       }
     }
 
@@ -352,12 +407,12 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName bindingParameterTypeFqn = resolvePossibleAlias(bindingParameterTypeName);
     final FunctionMapKey key =
         new FunctionMapKey(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection, parameterNames);
-    EdmFunction function = boundFunctions.get(key);
+    EdmFunction function = getCached(boundFunctions, key);
     if (function == null) {
       function = createBoundFunction(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection,
           parameterNames);
       if (function != null) {
-        boundFunctions.put(key, function);
+        function = putCached(boundFunctions, key, function);
       }
     }
 
@@ -367,11 +422,11 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmTerm getTerm(final FullQualifiedName termName) {
     final FullQualifiedName fqn = resolvePossibleAlias(termName);
-    EdmTerm term = terms.get(fqn);
+    EdmTerm term = getCached(terms, fqn);
     if (term == null) {
       term = createTerm(fqn);
       if (term != null) {
-        terms.put(fqn, term);
+        term = putCached(terms, fqn, term);
       }
     }
     return term;
@@ -381,16 +436,152 @@ public abstract class AbstractEdm implements Edm {
   public EdmAnnotations getAnnotationGroup(final FullQualifiedName targetName, String qualifier) {
     final FullQualifiedName fqn = resolvePossibleAlias(targetName);
     TargetQualifierMapKey key = new TargetQualifierMapKey(fqn, qualifier);
-    EdmAnnotations _annotations = annotationGroups.get(key);
+    EdmAnnotations _annotations = getCached(annotationGroups, key);
     if (_annotations == null) {
       _annotations = createAnnotationGroup(fqn, qualifier);
       if (_annotations != null) {
-        annotationGroups.put(key, _annotations);
+        _annotations = putCached(annotationGroups, key, _annotations);
       }
     }
     return _annotations;
   }
 
+  /**
+   * Creates all elements of the entity data model and puts them into the caches,
+   * so that later look-ups of elements defined in the model do not have to call the underlying provider anymore.
+   * <p>This includes the bound actions and functions for their binding types and all types derived from them.
+   * Look-ups of names that are not defined in the model are still passed to the provider.
+   * The annotation-aware views (<code>getEntityTypeWithAnnotations</code>,
+   * <code>getEntitySetsWithAnnotations</code> and the like) are not built here;
+   * they are created from the provider whenever they are requested.</p>
+   * <p>This is optional; without calling it elements are created lazily on first access.
+   * Errors in the model are reported here instead of during the first request
+   * using the erroneous element.</p>
+   * @throws org.apache.olingo.commons.api.edm.EdmException if an element could not be created
+   */
+  public void loadAll() {
+    final List<EdmStructuredType> structuredTypes = new ArrayList<EdmStructuredType>();
+    for (final EdmSchema schema : getSchemas()) {
+      structuredTypes.addAll(schema.getEntityTypes());
+      structuredTypes.addAll(schema.getComplexTypes());
+    }
+    for (final EdmSchema schema : getSchemas()) {
+      for (final EdmEnumType enumType : schema.getEnumTypes()) {
+        getEnumType(enumType.getFullQualifiedName());
+      }
+      for (final EdmTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+        getTypeDefinition(typeDefinition.getFullQualifiedName());
+      }
+      for (final EdmEntityType entityType : schema.getEntityTypes()) {
+        loadStructuredType(getEntityType(entityType.getFullQualifiedName()));
+        entityType.getKeyPropertyRefs();
+      }
+      for (final EdmComplexType complexType : schema.getComplexTypes()) {
+        loadStructuredType(getComplexType(complexType.getFullQualifiedName()));
+      }
+      for (final EdmAction action : schema.getActions()) {
+        loadOperation(action);
+        loadAction(action, structuredTypes);
+      }
+      for (final EdmFunction function : schema.getFunctions()) {
+        loadOperation(function);
+        loadFunction(function, structuredTypes);
+      }
+      for (final EdmTerm term : schema.getTerms()) {
+        getTerm(term.getFullQualifiedName());
+      }
+      schema.getAnnotationGroups();
+      final EdmEntityContainer container = schema.getEntityContainer();
+      if (container != null) {
+        loadEntityContainer(container);
+      }
+    }
+    getEntityContainer();
+  }
+
+  private void loadStructuredType(final EdmStructuredType type) {
+    if (type == null) {
+      return;
+    }
+    type.getBaseType();
+    for (final String name : type.getPropertyNames()) {
+      type.getProperty(name).getType();
+    }
+    for (final String name : type.getNavigationPropertyNames()) {
+      type.getNavigationProperty(name).getType();
+    }
+  }
+
+  private void loadOperation(final EdmOperation operation) {
+    for (final String name : operation.getParameterNames()) {
+      operation.getParameter(name).getType();
+    }
+    if (operation.getReturnType() != null) {
+      operation.getReturnType().getType();
+    }
+  }
+
+  private void loadAction(final EdmAction action, final List<EdmStructuredType> structuredTypes) {
+    final FullQualifiedName name = action.getFullQualifiedName();
+    if (action.isBound()) {
+      for (final EdmStructuredType type : getBindingTypes(action, structuredTypes)) {
+        getBoundAction(name, type.getFullQualifiedName(), action.isBindingParameterTypeCollection());
+      }
+    } else {
+      getUnboundAction(name);
+    }
+  }
+
+  private void loadFunction(final EdmFunction function, final List<EdmStructuredType> structuredTypes) {
+    final FullQualifiedName name = function.getFullQualifiedName();
+    final List<String> parameterNames = function.getParameterNames();
+    if (function.isBound()) {
+      final List<String> nonBindingParameterNames = parameterNames.subList(1, parameterNames.size());
+      for (final EdmStructuredType type : getBindingTypes(function, structuredTypes)) {
+        getBoundFunction(name, type.getFullQualifiedName(), function.isBindingParameterTypeCollection(),
+            nonBindingParameterNames);
+      }
+    } else {
+      getUnboundFunctions(name);
+      getUnboundFunction(name, parameterNames);
+    }
+  }
+
+  /** Gets the structured types an operation can be bound to, i.e., its binding type and all types derived from it. */
+  private List<EdmStructuredType> getBindingTypes(final EdmOperation operation,
+      final List<EdmStructuredType> structuredTypes) {
+    final EdmType bindingType = operation.getParameter(operation.getParameterNames().get(0)).getType();
+    final List<EdmStructuredType> result = new ArrayList<EdmStructuredType>();
+    for (final EdmStructuredType type : structuredTypes) {
+      if (type.compatibleTo(bindingType)) {
+        result.add(type);
+      }
+    }
+    return result;
+  }
+
+  private void loadEntityContainer(final EdmEntityContainer container) {
+    for (final EdmEntitySet entitySet : container.getEntitySets()) {
+      loadBindingTarget(container.getEntitySet(entitySet.getName()));
+    }
+    for (final EdmSingleton singleton : container.getSingletons()) {
+      loadBindingTarget(container.getSingleton(singleton.getName()));
+    }
+    for (final EdmActionImport actionImport : container.getActionImports()) {
+      container.getActionImport(actionImport.getName()).getUnboundAction();
+    }
+    for (final EdmFunctionImport functionImport : container.getFunctionImports()) {
+      container.getFunctionImport(functionImport.getName()).getUnboundFunctions();
+    }
+  }
+
+  private void loadBindingTarget(final EdmBindingTarget bindingTarget) {
+    bindingTarget.getEntityType();
+    for (final EdmNavigationPropertyBinding binding : bindingTarget.getNavigationPropertyBindings()) {
+      bindingTarget.getRelatedBindingTarget(binding.getPath());
+    }
+  }
+
   private FullQualifiedName resolvePossibleAlias(final FullQualifiedName namespaceOrAliasFQN) {
     if (aliasToNamespaceInfo == null) {
       loadAliasToNamespaceInfo();
@@ -413,13 +604,15 @@ public abstract class AbstractEdm implements Edm {
   protected abstract Map<String, String> createAliasToNamespaceInfo();
 
   public void cacheAliasNamespaceInfo(final String alias, final String namespace) {
-    aliasToNamespaceInfo.put(alias, namespace);
+    if (alias != null && namespace != null) {
+      aliasToNamespaceInfo.put(alias, namespace);
+    }
   }
 
   protected abstract EdmEntityContainer createEntityContainer(FullQualifiedName containerName);
 
   public void cacheEntityContainer(final FullQualifiedName containerFQN, final EdmEntityContainer container) {
-    entityContainers.put(containerFQN, container);
+    entityContainers.put(containerKey(containerFQN), container);
   }
 
   protected abstract EdmEnumType createEnumType(FullQualifiedName enumName);
@@ -468,10 +661,11 @@ public abstract class AbstractEdm implements Edm {
     if (function.isBound()) {
       boundFunctions.put(key, function);
     } else {
-      if (!unboundFunctionsByName.containsKey(functionName)) {
-        unboundFunctionsByName.put(functionName, new ArrayList<EdmFunction>());
+      List<EdmFunction> functions = unboundFunctionsByName.get(functionName);
+      if (functions == null) {
+        functions = putCached(unboundFunctionsByName, functionName, new ArrayList<EdmFunction>());
       }
-      unboundFunctionsByName.get(functionName).add(function);
+      functions.add(function);
 
       unboundFunctionsByKey.put(key, function);
     }
@@ -20,9 +20,9 @@ package org.apache.olingo.commons.core.edm;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmActionImport;
@@ -57,22 +57,22 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
   private final FullQualifiedName parentContainerName;
 
   private List<EdmSingleton> singletons;
-  private final Map<String, EdmSingleton> singletonCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmSingleton>());
+  private final Map<String, EdmSingleton> singletonCache =
+      new ConcurrentHashMap<String, EdmSingleton>();
   private List<EdmEntitySet> entitySets;
-  private final Map<String, EdmEntitySet> entitySetCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmEntitySet>());
+  private final Map<String, EdmEntitySet> entitySetCache =
+      new ConcurrentHashMap<String, EdmEntitySet>();
   private List<EdmActionImport> actionImports;
-  private final Map<String, EdmActionImport> actionImportCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmActionImport>());
+  private final Map<String, EdmActionImport> actionImportCache =
+      new ConcurrentHashMap<String, EdmActionImport>();
   private List<EdmFunctionImport> functionImports;
-  private final Map<String, EdmFunctionImport> functionImportCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmFunctionImport>());
+  private final Map<String, EdmFunctionImport> functionImportCache =
+      new ConcurrentHashMap<String, EdmFunctionImport>();
 	  private boolean isAnnotationsIncluded = false;
-  private final Map<String, EdmEntitySet> entitySetWithAnnotationsCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmEntitySet>());
-  private final Map<String, EdmSingleton> singletonWithAnnotationsCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmSingleton>());
+  private final Map<String, EdmEntitySet> entitySetWithAnnotationsCache =
+      new ConcurrentHashMap<String, EdmEntitySet>();
+  private final Map<String, EdmSingleton> singletonWithAnnotationsCache =
+      new ConcurrentHashMap<String, EdmSingleton>();
   private boolean isSingletonAnnotationsIncluded = false;
   private final String SLASH = "/";
   private final String DOT = ".";
@@ -107,17 +107,19 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmSingleton getSingleton(final String singletonName) {
+    if (singletonName == null) {
+      return createSingleton(singletonName);
+    }
     EdmSingleton singleton = singletonWithAnnotationsCache.get(singletonName);
     if (singleton == null) {
       singleton = singletonCache.get(singletonName);
       if (singleton == null) {
         singleton = createSingleton(singletonName);
         if (singleton != null) {
-          if (isSingletonAnnotationsIncluded) {
-            singletonWithAnnotationsCache.put(singletonName, singleton);
-          } else {
-            singletonCache.put(singletonName, singleton);
-          }
+          final EdmSingleton cached = isSingletonAnnotationsIncluded ?
+              singletonWithAnnotationsCache.putIfAbsent(singletonName, singleton) :
+              singletonCache.putIfAbsent(singletonName, singleton);
+          singleton = cached == null ? singleton : cached;
         }
       }
     }
@@ -126,17 +128,16 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmEntitySet getEntitySet(final String entitySetName) {
-    EdmEntitySet entitySet = entitySetWithAnnotationsCache.get(entitySetName);
+    EdmEntitySet entitySet = entitySetName == null ? null : entitySetWithAnnotationsCache.get(entitySetName);
     if (entitySet == null) {
-      entitySet = entitySetCache.get(entitySetName);
+      entitySet = entitySetName == null ? null : entitySetCache.get(entitySetName);
       if (entitySet == null) {
         entitySet = createEntitySet(entitySetName);
-        if (entitySet != null) {
-          if (isAnnotationsIncluded) {
-            entitySetWithAnnotationsCache.put(entitySetName, entitySet);
-          } else {
-            entitySetCache.put(entitySetName, entitySet);
-          }
+        if (entitySet != null && entitySetName != null) {
+          final EdmEntitySet cached = isAnnotationsIncluded ?
+              entitySetWithAnnotationsCache.putIfAbsent(entitySetName, entitySet) :
+              entitySetCache.putIfAbsent(entitySetName, entitySet);
+          entitySet = cached == null ? entitySet : cached;
         }
       }
     }
@@ -146,11 +147,15 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmActionImport getActionImport(final String actionImportName) {
+    if (actionImportName == null) {
+      return createActionImport(actionImportName);
+    }
     EdmActionImport actionImport = actionImportCache.get(actionImportName);
     if (actionImport == null) {
       actionImport = createActionImport(actionImportName);
       if (actionImport != null) {
-        actionImportCache.put(actionImportName, actionImport);
+        final EdmActionImport cached = actionImportCache.putIfAbsent(actionImportName, actionImport);
+        actionImport = cached == null ? actionImport : cached;
       }
     }
     return actionImport;
@@ -158,11 +163,15 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmFunctionImport getFunctionImport(final String functionImportName) {
+    if (functionImportName == null) {
+      return createFunctionImport(functionImportName);
+    }
     EdmFunctionImport functionImport = functionImportCache.get(functionImportName);
     if (functionImport == null) {
       functionImport = createFunctionImport(functionImportName);
       if (functionImport != null) {
-        functionImportCache.put(functionImportName, functionImport);
+        final EdmFunctionImport cached = functionImportCache.putIfAbsent(functionImportName, functionImport);
+        functionImport = cached == null ? functionImport : cached;
       }
     }
     return functionImport;
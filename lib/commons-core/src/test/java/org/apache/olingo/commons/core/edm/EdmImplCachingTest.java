@@ -30,6 +30,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -280,6 +286,32 @@ public class EdmImplCachingTest {
     assertNotSame(annotationGroup1, annotationGroup2);
   }
 
+  @Test
+  public void concurrentLookupsShareCachedInstance() throws Exception {
+    final int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<EdmEntityType>> results = new ArrayList<Future<EdmEntityType>>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(new Callable<EdmEntityType>() {
+          @Override
+          public EdmEntityType call() throws Exception {
+            start.await();
+            return edm.getEntityType(NAME1);
+          }
+        }));
+      }
+      start.countDown();
+      final EdmEntityType cached = edm.getEntityType(NAME1);
+      for (final Future<EdmEntityType> result : results) {
+        assertTrue(cached == result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Before
   public void setup() {
     edm = new LocalEdm();
@@ -28,10 +28,14 @@ import static org.mockito.Mockito.when;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmAction;
 import org.apache.olingo.commons.api.edm.EdmAnnotations;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
@@ -40,6 +44,8 @@ import org.apache.olingo.commons.api.edm.EdmEnumType;
 import org.apache.olingo.commons.api.edm.EdmException;
 import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlAction;
 import org.apache.olingo.commons.api.edm.provider.CsdlAliasInfo;
 import org.apache.olingo.commons.api.edm.provider.CsdlAnnotations;
 import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
@@ -47,7 +53,9 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edm.provider.CsdlEnumType;
+import org.apache.olingo.commons.api.edm.provider.CsdlParameter;
 import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
 import org.apache.olingo.commons.api.edm.provider.CsdlTypeDefinition;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
 import org.junit.Before;
@@ -248,4 +256,45 @@ public class EdmProviderImplTest {
 
     assertNull(edm.getAnnotationGroup(WRONG_FQN, null));
   }
+
+  @Test
+  public void loadAllResolvesBoundOperationsForDerivedTypes() throws Exception {
+    final FullQualifiedName baseName = new FullQualifiedName("namespace", "Base");
+    final FullQualifiedName derivedName = new FullQualifiedName("namespace", "Derived");
+    final FullQualifiedName actionName = new FullQualifiedName("namespace", "BoundAction");
+    final CsdlEntityType base = new CsdlEntityType().setName(baseName.getName())
+        .setKey(Collections.<CsdlPropertyRef> emptyList());
+    final CsdlEntityType derived = new CsdlEntityType().setName(derivedName.getName()).setBaseType(baseName);
+    final CsdlAction action = new CsdlAction().setName(actionName.getName()).setBound(true)
+        .setParameters(Collections.singletonList(new CsdlParameter().setName("binding").setType(baseName)));
+    final AtomicInteger actionCalls = new AtomicInteger();
+    final CsdlEdmProvider provider = new CsdlAbstractEdmProvider() {
+      @Override
+      public List<CsdlSchema> getSchemas() {
+        return Collections.singletonList(new CsdlSchema().setNamespace("namespace")
+            .setEntityTypes(Arrays.asList(base, derived))
+            .setActions(Collections.singletonList(action)));
+      }
+
+      @Override
+      public CsdlEntityType getEntityType(final FullQualifiedName entityTypeName) {
+        return baseName.equals(entityTypeName) ? base : derivedName.equals(entityTypeName) ? derived : null;
+      }
+
+      @Override
+      public List<CsdlAction> getActions(final FullQualifiedName name) {
+        actionCalls.incrementAndGet();
+        return actionName.equals(name) ? Collections.singletonList(action) : null;
+      }
+    };
+    final EdmProviderImpl localEdm = new EdmProviderImpl(provider);
+    localEdm.loadAll();
+    final int callsAfterLoading = actionCalls.get();
+
+    final EdmAction derivedAction = localEdm.getBoundAction(actionName, derivedName, false);
+    assertNotNull(derivedAction);
+    assertNotNull(localEdm.getBoundAction(actionName, baseName, false));
+    assertNull(localEdm.getBoundAction(actionName, derivedName, true));
+    assertEquals(callsAfterLoading, actionCalls.get());
+  }
 }
@@ -20,10 +20,18 @@ package org.apache.olingo.netty.server.api;
 
 import java.util.Map;
 
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.processor.Processor;
 
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 
 public interface ODataNettyHandler {
 
@@ -36,6 +44,30 @@ public interface ODataNettyHandler {
    * @param response - HTTP OData response
    */
   void processNettyRequest(HttpRequest request, HttpResponse response, Map<String, String> requestParameters);
+
+  /**
+   * <p>Processes a NettyRequest as an OData request and writes the response directly to the channel.</p>
+   * <p>In contrast to {@link #processNettyRequest(HttpRequest, HttpResponse, Map)} the response body
+   * is never held in memory as a whole: it is written in HTTP chunks while it is serialized,
+   * and files are transferred as file regions.
+   * Writing waits while the channel is not writable; if called on the event loop,
+   * content that has to be copied is therefore written asynchronously by another thread.
+   * A <code>ChunkedWriteHandler</code> in the pipeline is used for streamed media content.</p>
+   * <p>The default implementation writes the response as a whole
+   * after it has been created with {@link #processNettyRequest(HttpRequest, HttpResponse, Map)}.</p>
+   * @param request - must be a HTTP OData request
+   * @param context - context of the channel the response is written to
+   * @param requestParameters - request parameters like context path and split
+   * @return future of the last written part of the response
+   */
+  default ChannelFuture processNettyRequest(final HttpRequest request, final ChannelHandlerContext context,
+      final Map<String, String> requestParameters) {
+    final FullHttpResponse response =
+        new DefaultFullHttpResponse(request.protocolVersion(), HttpResponseStatus.OK, context.alloc().buffer());
+    processNettyRequest(request, response, requestParameters);
+    HttpUtil.setContentLength(response, response.content().readableBytes());
+    return context.writeAndFlush(response);
+  }
   
   /**
    * <p>Registers additional custom processor implementations for handling OData requests.</p>
@@ -43,5 +75,15 @@ public interface ODataNettyHandler {
    * "not implemented" exception will happen.</p>
    */
   void register(Processor processor);
-  
+
+  /**
+   * <p>Registers additional extensions for handling OData requests,
+   * e.g., {@link org.apache.olingo.server.api.ResponseCompressionSupport}.</p>
+   * <p>The default implementation supports no extensions.</p>
+   * @throws ODataRuntimeException if the extension is not supported
+   */
+  default void register(final OlingoExtension extension) {
+    throw new ODataRuntimeException("Got not supported exception with class name "
+        + extension.getClass().getSimpleName());
+  }
 }
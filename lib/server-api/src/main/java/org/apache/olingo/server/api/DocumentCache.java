@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+
+/**
+ * Cache of serialized service documents and metadata documents.
+ * <p>These documents depend only on the {@link ServiceMetadata} and the requested content type,
+ * so the {@link org.apache.olingo.server.api.processor.DefaultProcessor DefaultProcessor}
+ * serializes each variant only once if the service metadata provides a cache.
+ * Each cached variant has a strong ETag derived from its content; it is sent if no
+ * {@link org.apache.olingo.server.api.etag.ServiceMetadataETagSupport ServiceMetadataETagSupport}
+ * provides an ETag for the document.</p>
+ * @see OData#createDocumentCache(boolean)
+ */
+public interface DocumentCache {
+
+  /**
+   * Gets a cached document.
+   * @param kind         {@link UriInfoKind#service} or {@link UriInfoKind#metadata}
+   * @param contentType  content type of the document
+   * @return the cached document or <code>null</code> if it has not been cached
+   */
+  Document get(UriInfoKind kind, ContentType contentType);
+
+  /**
+   * Caches a serialized document.
+   * If the document has already been cached concurrently, the existing document is kept.
+   * @param kind         {@link UriInfoKind#service} or {@link UriInfoKind#metadata}
+   * @param contentType  content type of the document
+   * @param content      serialized document; it must not be modified afterwards
+   * @return the cached document
+   */
+  Document put(UriInfoKind kind, ContentType contentType, byte[] content);
+
+  /**
+   * Gets the current number of cached documents.
+   * @return number of cached documents
+   */
+  int size();
+
+  /**
+   * Removes all documents from the cache.
+   */
+  void clear();
+
+  /**
+   * Serialized document with its ETag and its compressed forms.
+   */
+  interface Document {
+
+    /**
+     * Gets the serialized document; the returned array must not be modified.
+     * @return the content
+     */
+    byte[] getContent();
+
+    /**
+     * Gets the strong ETag derived from the content.
+     * @return the ETag, including the quotes
+     */
+    String getETag();
+
+    /**
+     * Gets the content compressed with the given content coding.
+     * @param contentCoding content coding, e.g., <code>gzip</code>
+     * @return the compressed content or <code>null</code> if it is not available
+     */
+    byte[] getCompressedContent(String contentCoding);
+
+    /**
+     * Sets the content compressed with the given content coding, to be reused for later responses.
+     * @param contentCoding content coding, e.g., <code>gzip</code>
+     * @param compressedContent the compressed content; it must not be modified afterwards
+     */
+    void setCompressedContent(String contentCoding, byte[] compressedContent);
+  }
+}
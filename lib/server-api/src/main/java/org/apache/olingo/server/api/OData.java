@@ -32,6 +32,7 @@ import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.deserializer.FixedFormatDeserializer;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.api.etag.ETagHelper;
+import org.apache.olingo.server.api.expand.ExpandResolver;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.prefer.Preferences;
 import org.apache.olingo.server.api.serializer.EdmAssistedSerializer;
@@ -40,6 +41,7 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 /**
  * Root object for serving factory tasks and support loose coupling of implementation (core) from the API.
@@ -136,12 +138,45 @@ public abstract class OData {
   public abstract ServiceMetadata createServiceMetadata(CsdlEdmProvider edmProvider, List<EdmxReference> references,
       ServiceMetadataETagSupport serviceMetadataETagSupport);
 
+  /**
+   * Creates a metadata object for this service.
+   * If <code>loadEdmEagerly</code> is set, the complete entity data model is built and cached immediately,
+   * so that requests do not have to call the EDM provider for elements defined in the model;
+   * errors in the model are reported here.
+   *
+   * @param edmProvider a custom or default implementation for creating metadata
+   * @param references list of edmx references
+   * @param serviceMetadataETagSupport
+   * @param loadEdmEagerly whether to build the entity data model immediately instead of on demand
+   * @return a service metadata implementation
+   */
+  public abstract ServiceMetadata createServiceMetadata(CsdlEdmProvider edmProvider, List<EdmxReference> references,
+      ServiceMetadataETagSupport serviceMetadataETagSupport, boolean loadEdmEagerly);
+
   /**
    * Creates a new URI helper object for performing URI-related tasks.
    * It can be used in Processor implementations.
    */
   public abstract UriHelper createUriHelper();
 
+  /**
+   * Creates a new bounded cache for parsed and validated URIs.
+   * It can be registered at the service metadata with {@link ServiceMetadata#setUriInfoCache(UriInfoCache)}.
+   * @param maxEntries maximum number of cached URIs; the least recently used entries are evicted
+   * @return a new URI info cache
+   */
+  public abstract UriInfoCache createUriInfoCache(int maxEntries);
+
+  /**
+   * Creates a new cache for serialized service and metadata documents.
+   * It can be registered at the service metadata with {@link ServiceMetadata#setDocumentCache(DocumentCache)};
+   * service metadata created by this class have a cache without precompression by default.
+   * @param precompress whether each document is compressed with <code>gzip</code> and <code>deflate</code>
+   *                    when it is cached, for the use with {@link ResponseCompressionSupport}
+   * @return a new document cache
+   */
+  public abstract DocumentCache createDocumentCache(boolean precompress);
+
   /**
    * Creates a new deserializer object for reading content in the specified format.
    * Deserializers are used in Processor implementations.
@@ -194,6 +229,13 @@ public abstract class OData {
    */
   public abstract ETagHelper createETagHelper();
 
+  /**
+   * Creates a new resolver for the system query option $expand that loads the related
+   * entities of all entities of one level at once.
+   * It can be used in Processor implementations.
+   */
+  public abstract ExpandResolver createExpandResolver();
+
   /**
    * Creates a new Preferences object out of Prefer HTTP request headers.
    * It can be used in Processor implementations.
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+
+/**
+ * <p>Receives the durations of the phases of request processing, independent of debug mode.</p>
+ * <p>If implemented this interface can be registered at the ODataHttpHandler or the ODataNettyHandler.
+ * The measurements of a request are reported after its response has been written, on the thread
+ * that processed the request; so implementations must be thread-safe and should return quickly.
+ * All arguments are primitives or objects that exist anyway, so reporting does not allocate memory.</p>
+ * <p>Each measurement is tagged with the HTTP method, the kind of the requested resource, and
+ * the name of the addressed entity set; each tag is <code>null</code> if it is not known,
+ * e.g., because the request URI could not be parsed.</p>
+ */
+public interface ODataMetrics extends OlingoExtension {
+
+  /** The measured phases of request processing. */
+  enum Phase {
+    /** Copying the headers of the HTTP request. */
+    HEADER_COPY,
+    /** Parsing the request URI; not measured if the parsed URI has been taken from the cache. */
+    URI_PARSING,
+    /** Validating the parsed request URI; not measured if the parsed URI has been taken from the cache. */
+    URI_VALIDATION,
+    /** Negotiating the content types of request and response. */
+    CONTENT_NEGOTIATION,
+    /**
+     * Dispatching to and running the processor, including the (de-)serialization done there;
+     * the other phases measured in the meantime, e.g., for the parts of a batch request, are excluded.
+     */
+    PROCESSOR,
+    /** Writing the response content, including the serialization of streamed content. */
+    RESPONSE_WRITE,
+    /** The complete request, from receiving it to having written the response. */
+    REQUEST
+  }
+
+  /**
+   * Records the duration of a phase of a request; not called for phases that have not been run.
+   * @param phase         the phase
+   * @param nanos         the duration in nanoseconds
+   * @param method        the HTTP method
+   * @param kind          the kind of the requested resource
+   * @param entitySetName the name of the addressed entity set
+   */
+  void phase(Phase phase, long nanos, HttpMethod method, UriInfoKind kind, String entitySetName);
+
+  /**
+   * Records the number of bytes of response content written for a request;
+   * not called if the content is written asynchronously.
+   * @param bytes         the number of bytes
+   * @param method        the HTTP method
+   * @param kind          the kind of the requested resource
+   * @param entitySetName the name of the addressed entity set
+   */
+  void bytesWritten(long bytes, HttpMethod method, UriInfoKind kind, String entitySetName);
+}
@@ -85,6 +85,14 @@ public class ODataResponse {
     headers.addHeader(name, values);
   }
 
+  /**
+   * Removes a header from the response.
+   * @param name case-insensitive header name
+   */
+  public void removeHeader(final String name) {
+    headers.removeHeader(name);
+  }
+
   /**
    * Get all headers with the according values.
    *
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.apache.olingo.commons.api.format.ContentType;
+
+/**
+ * <p>Enables the compression of response content with the content codings <code>gzip</code> and
+ * <code>deflate</code>, as negotiated with the <code>Accept-Encoding</code> header of the request.</p>
+ * <p>If implemented this interface can be registered at the ODataHttpHandler.
+ * The defaults of all methods can be overridden to configure the compression;
+ * {@link #defaults()} returns an instance with the default configuration.</p>
+ * <p>Streamed content is always compressed, as its size is not known in advance.
+ * The compressed forms of the service document and the metadata document are cached at
+ * service metadata created by {@link OData}, so that these documents are compressed only once.</p>
+ */
+public interface ResponseCompressionSupport extends OlingoExtension {
+
+  /**
+   * Gets the minimum size in bytes of response content to be compressed;
+   * smaller content is sent unchanged because compression would hardly reduce its size.
+   * @return the minimum content size (defaults to 1024)
+   */
+  default int getMinimumSize() {
+    return 1024;
+  }
+
+  /**
+   * Gets the compression level, from 0 (no compression) to 9 (best compression),
+   * or -1 for the default level of the compression library.
+   * @return the compression level (defaults to -1)
+   */
+  default int getCompressionLevel() {
+    return Deflater.DEFAULT_COMPRESSION;
+  }
+
+  /**
+   * Gets the content types of responses that are compressed; parameters are not considered.
+   * @return the content types (defaults to JSON, XML, Atom, plain text, and multipart/mixed)
+   */
+  default List<ContentType> getContentTypes() {
+    return Arrays.asList(ContentType.APPLICATION_JSON, ContentType.APPLICATION_XML,
+        ContentType.APPLICATION_ATOM_XML, ContentType.APPLICATION_ATOM_SVC, ContentType.TEXT_PLAIN,
+        ContentType.MULTIPART_MIXED);
+  }
+
+  /**
+   * Returns a compression support with the default configuration.
+   * @return default compression support
+   */
+  static ResponseCompressionSupport defaults() {
+    return new ResponseCompressionSupport() {};
+  }
+}
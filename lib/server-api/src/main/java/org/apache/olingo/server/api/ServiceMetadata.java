@@ -29,6 +29,7 @@ import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 /**
  * Metadata of an OData service like the Entity Data Model.
@@ -92,6 +93,7 @@ public interface ServiceMetadata {
 
   /**
    * Retrieve a JSON mapper for use in de-serialization.
+   * The mapper may be shared between requests, so callers must not re-configure it.
    * @return JSON mapper.
    */
   default ObjectMapper getJsonMapper() {
@@ -100,6 +102,7 @@ public interface ServiceMetadata {
 
   /**
    * Retrieve a JSON factory for use in serialization.
+   * The factory may be shared between requests, so callers must not re-configure it.
    * @return JSON factory.
    */
   default JsonFactory getJsonFactory() {
@@ -107,7 +110,8 @@ public interface ServiceMetadata {
   }
 
   /**
-   * Set the factory method to use for acquiring a JSON serializer.
+   * Set the factory method to use for acquiring a JSON mapper.
+   * Implementations may call the supplier only once and share its result.
    * @param mapperFactory mapper factory to use.
    */
   default void setJsonMapperSupplier(Supplier<ObjectMapper> mapperFactory) {
@@ -115,10 +119,43 @@ public interface ServiceMetadata {
   }
 
   /**
-   * Set the factory method to use for acquiring a JSON serializer.
+   * Set the factory method to use for acquiring a JSON factory, e.g., a factory with tuned buffer recycling.
+   * Implementations may call the supplier only once and share its result.
    * @param mapperFactory mapper factory to use.
    */
   default void setJsonFactorySupplier(Supplier<JsonFactory> mapperFactory) {
     // no-op
   }
+
+  /**
+   * Gets the cache for parsed and validated URIs (may be NULL).
+   * @return URI info cache
+   */
+  default UriInfoCache getUriInfoCache() {
+    return null;
+  }
+
+  /**
+   * Set the cache for parsed and validated URIs; NULL disables caching.
+   * @param uriInfoCache cache to use, see {@link OData#createUriInfoCache(int)}
+   */
+  default void setUriInfoCache(UriInfoCache uriInfoCache) {
+    // no-op
+  }
+
+  /**
+   * Gets the cache for serialized service and metadata documents (may be NULL).
+   * @return document cache
+   */
+  default DocumentCache getDocumentCache() {
+    return null;
+  }
+
+  /**
+   * Set the cache for serialized service and metadata documents; NULL disables caching.
+   * @param documentCache cache to use, see {@link OData#createDocumentCache(boolean)}
+   */
+  default void setDocumentCache(DocumentCache documentCache) {
+    // no-op
+  }
 }
@@ -17,11 +17,15 @@
  * under the License.
  */package org.apache.olingo.server.api.batch;
 
+ import java.util.ArrayList;
+ import java.util.List;
+
  import org.apache.olingo.server.api.ODataApplicationException;
  import org.apache.olingo.server.api.ODataLibraryException;
  import org.apache.olingo.server.api.ODataRequest;
  import org.apache.olingo.server.api.ODataResponse;
  import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+ import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
  import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 
  /**
@@ -60,6 +64,66 @@
    public ODataResponsePart handleBatchRequest(BatchRequestPart request)
        throws ODataApplicationException, ODataLibraryException;
 
+   /**
+    * Handles several BatchRequestParts and returns the responses in request order.
+    * If {@link ParallelBatchSupport} has been registered, parts outside of change sets that consist of
+    * GET requests may be executed concurrently; change sets are executed only after all preceding parts.
+    * @param requests requests to process
+    * @param continueOnError if <code>false</code> processing stops after the first failed part;
+    * the responses of subsequent parts are not returned
+    * @return the corresponding {@link ODataResponsePart}s
+    * @throws ODataApplicationException
+    * @throws ODataLibraryException
+    */
+   public default List<ODataResponsePart> handleBatchRequests(final List<BatchRequestPart> requests,
+       final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+     final List<ODataResponsePart> responseParts = new ArrayList<>();
+     for (final BatchRequestPart request : requests) {
+       final ODataResponsePart responsePart = handleBatchRequest(request);
+       responseParts.add(responsePart);
+       if (!continueOnError && isFailed(responsePart)) {
+         break;
+       }
+     }
+     return responseParts;
+   }
+
+   /**
+    * Handles the BatchRequestParts read from an iterator and returns the responses in request order.
+    * Consecutive parts outside of change sets that consist of GET requests are passed together to
+    * {@link #handleBatchRequests(List, boolean)}, so that they may be executed concurrently
+    * if {@link ParallelBatchSupport} has been registered; all other parts are executed as soon as they have been read.
+    * If a part cannot be read, an error response is added for it and processing stops;
+    * the responses of all parts executed before are returned.
+    * <p>The default implementation reads all parts before it executes any of them,
+    * so an invalid part results in an exception and no part is executed.</p>
+    * <p>The iterator is not closed by this method.</p>
+    * @param requests iterator over the requests to process
+    * @param continueOnError if <code>false</code> processing stops after the first failed part;
+    * the subsequent parts are neither read nor executed
+    * @return the corresponding {@link ODataResponsePart}s
+    * @throws ODataApplicationException
+    * @throws ODataLibraryException
+    */
+   public default List<ODataResponsePart> handleBatchRequests(final BatchRequestPartIterator requests,
+       final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+     final List<BatchRequestPart> parts = new ArrayList<>();
+     while (requests.hasNext()) {
+       parts.add(requests.next());
+     }
+     return handleBatchRequests(parts, continueOnError);
+   }
+
+   /**
+    * Determines whether the processing of a BatchRequestPart failed.
+    * @param responsePart the response of the part
+    * @return <code>true</code> if the status code of the (first) response indicates an error
+    */
+   public static boolean isFailed(final ODataResponsePart responsePart) {
+     final int statusCode = responsePart.getResponses().get(0).getStatusCode();
+     return statusCode >= 400 && statusCode <= 600;
+   }
+
    /**
     * Extracts the boundary of a multipart/mixed header.
     * See RFC 2046#5.1
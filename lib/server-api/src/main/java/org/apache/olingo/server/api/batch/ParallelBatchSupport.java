@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.batch;
+
+import java.util.concurrent.Executor;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Enables the concurrent execution of independent parts of a batch request.</p>
+ * <p>If implemented this interface can be registered at the ODataHttpHandler.
+ * {@link BatchFacade#handleBatchRequests(java.util.List, boolean)} and
+ * {@link BatchFacade#handleBatchRequests(org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator,
+ * boolean)} will then execute consecutive
+ * batch-request parts outside of change sets that consist of GET requests concurrently.
+ * Change sets and all other requests are still executed one after the other, and only after
+ * all preceding parts have been completed. The responses are always returned in request order.</p>
+ * <p>The registered processors must be thread-safe, because they are called concurrently.</p>
+ */
+public interface ParallelBatchSupport extends OlingoExtension {
+
+  /**
+   * Gets the executor that runs the concurrent parts; it could be, e.g., a bounded thread pool.
+   * The thread handling the batch request takes part in the execution, so if the executor
+   * rejects a task the parts are executed on the calling thread.
+   * @return the executor
+   */
+  Executor getExecutor();
+
+  /**
+   * Gets the maximum number of parts of a single batch request that are executed at the same time.
+   * Values less than 2 disable the concurrent execution.
+   * @return the maximum number of concurrently executed parts per batch request
+   */
+  int getMaxParallelRequests();
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.deserializer;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Receives the entities of a collection one by one while the request body is still being read.
+ * @see ODataDeserializer#entityCollection(java.io.InputStream,
+ * org.apache.olingo.commons.api.edm.EdmEntityType, EntityHandler)
+ */
+public interface EntityHandler {
+
+  /**
+   * Handles the next entity of the collection.
+   * The deserializer does not keep a reference to the entity.
+   * @param entity the deserialized entity
+   * @throws ODataApplicationException if the entity could not be handled; deserialization stops then
+   */
+  void handle(Entity entity) throws ODataApplicationException;
+}
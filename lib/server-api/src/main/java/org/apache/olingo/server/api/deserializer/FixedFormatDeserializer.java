@@ -19,6 +19,7 @@
 package org.apache.olingo.server.api.deserializer;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.Parameter;
@@ -27,6 +28,7 @@ import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 
 public interface FixedFormatDeserializer {
 
@@ -60,4 +62,38 @@ public interface FixedFormatDeserializer {
    */
   public List<BatchRequestPart> parseBatchRequest(InputStream content, String boundary, BatchOptions options)
       throws BatchDeserializerException;
+
+  /**
+   * Reads batch data from an InputStream part by part.
+   * In contrast to {@link #parseBatchRequest(InputStream, String, BatchOptions)} the parts are read
+   * only when they are requested from the returned iterator, so that they can be processed
+   * while the remaining content is still being read.
+   * Errors in a part are reported only when that part is reached.
+   * <p>The default implementation reads all parts with
+   * {@link #parseBatchRequest(InputStream, String, BatchOptions)} before it returns.</p>
+   * @param content the data as multipart input stream
+   * @param boundary the boundary between the parts
+   * @param options options for the deserializer
+   * @return an iterator over the batch-request parts
+   */
+  public default BatchRequestPartIterator streamBatchRequest(final InputStream content, final String boundary,
+      final BatchOptions options) throws BatchDeserializerException {
+    final Iterator<BatchRequestPart> parts = parseBatchRequest(content, boundary, options).iterator();
+    return new BatchRequestPartIterator() {
+      @Override
+      public boolean hasNext() {
+        return parts.hasNext();
+      }
+
+      @Override
+      public BatchRequestPart next() {
+        return parts.next();
+      }
+
+      @Override
+      public void close() {
+        // The content has been read completely already.
+      }
+    };
+  }
 }
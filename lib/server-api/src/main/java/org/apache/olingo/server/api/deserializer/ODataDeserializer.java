@@ -20,9 +20,11 @@ package org.apache.olingo.server.api.deserializer;
 
 import java.io.InputStream;
 
+import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.edm.EdmAction;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.server.api.ODataApplicationException;
 
 /**
  * Deserializer on OData server side.
@@ -51,6 +53,24 @@ public interface ODataDeserializer {
    */
   DeserializerResult entityCollection(InputStream stream, EdmEntityType edmEntityType) throws DeserializerException;
 
+  /**
+   * Deserializes an entity collection stream and passes each entity to the given handler
+   * as soon as it has been read, so that the collection never has to be held in memory completely.
+   * If the handler or the deserializer fails, the entities handled so far are not rolled back.
+   * <p>The default implementation deserializes the complete collection first.</p>
+   * @param stream
+   * @param edmEntityType
+   * @param handler receives the entities in document order
+   * @throws DeserializerException
+   * @throws ODataApplicationException if thrown by the handler
+   */
+  default void entityCollection(final InputStream stream, final EdmEntityType edmEntityType,
+      final EntityHandler handler) throws DeserializerException, ODataApplicationException {
+    for (final Entity entity : entityCollection(stream, edmEntityType).getEntityCollection()) {
+      handler.handle(entity);
+    }
+  }
+
   /**
    * Deserializes an action-parameters stream into a map of key/value pairs.
    * Validates: parameter types, no double parameters, correct json types.
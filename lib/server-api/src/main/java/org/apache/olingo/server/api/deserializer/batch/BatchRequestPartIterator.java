@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.deserializer.batch;
+
+import java.io.Closeable;
+
+/**
+ * Reads the parts of a Batch Request body one after the other.
+ * <p>Each part is read from the underlying input stream only when it is requested,
+ * so that only one part has to be kept in memory at a time.</p>
+ */
+public interface BatchRequestPartIterator extends Closeable {
+
+  /**
+   * Returns whether there is another part; reads it from the input stream if necessary.
+   * @return <code>true</code> if there is another part
+   * @throws BatchDeserializerException if the next part is not valid
+   */
+  boolean hasNext() throws BatchDeserializerException;
+
+  /**
+   * Returns the next part.
+   * @return the next part
+   * @throws BatchDeserializerException if the next part is not valid
+   * @throws java.util.NoSuchElementException if there are no more parts
+   */
+  BatchRequestPart next() throws BatchDeserializerException;
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.expand;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+
+/**
+ * Resolves the system query option $expand level by level with a {@link NavigationLoader}.
+ * <p>For each expanded navigation property, the loader is called once with all entities of the
+ * current level; the loaded entities are set as inline content of the navigation links of their
+ * parents, where the serializer finds them, and form the next level for nested expand options.
+ * An entity instance reached through several expand paths with different nested expand options
+ * is linked as a shallow copy on all but the first path, so that each path keeps its own inline content.
+ * Expand items that do not start with a navigation property and <code>$levels</code>
+ * are not supported.</p>
+ */
+public interface ExpandResolver {
+
+  /**
+   * Loads and links the expanded entities.
+   * @param entityType the type of the entities
+   * @param entities   the entities, e.g., one page of an entity collection;
+   *                   their navigation links are replaced for the expanded navigation properties
+   * @param expand     the expand option or <code>null</code>
+   * @param loader     the loader for the related entities
+   */
+  void resolve(EdmEntityType entityType, List<Entity> entities, ExpandOption expand, NavigationLoader loader)
+      throws ODataApplicationException;
+}
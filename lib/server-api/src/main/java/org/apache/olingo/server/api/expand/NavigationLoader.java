@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.expand;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+
+/**
+ * Loads the entities related to a list of entities via a navigation property.
+ * <p>Implementations are called by the {@link ExpandResolver} once per expanded navigation property
+ * and expand level with all entities of that level, so that the related entities of a whole page
+ * can be read with one request to the data source instead of one request per entity.</p>
+ * @see ExpandResolver
+ */
+public interface NavigationLoader {
+
+  /**
+   * Loads the related entities.
+   * <p>The system query options <code>$filter</code>, <code>$search</code>, <code>$orderby</code>,
+   * <code>$skip</code>, and <code>$top</code> of the expand item have to be applied
+   * to the related entities of each parent entity separately;
+   * if <code>$count</code> is requested, the count before <code>$skip</code> and <code>$top</code> has
+   * to be set at each collection. <code>$select</code> is applied by the serializer, and nested
+   * <code>$expand</code> options are resolved with further calls for the next level.</p>
+   * <p>The returned entities are linked into the response; they must not be shared with other requests.
+   * The same entity may be returned for several parents.</p>
+   * @param navigationProperty the navigation property
+   * @param parents            the entities of which the related entities are needed
+   * @param expandItem         the expand item with the options for the related entities
+   * @return one entity collection per parent entity, in the order of the parents;
+   *         for a single-valued navigation property, the collection contains at most one entity;
+   *         <code>null</code> instead of an empty collection is allowed
+   */
+  List<EntityCollection> load(EdmNavigationProperty navigationProperty, List<Entity> parents,
+      ExpandItem expandItem) throws ODataApplicationException;
+}
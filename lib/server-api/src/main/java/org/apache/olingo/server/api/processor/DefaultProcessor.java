@@ -19,12 +19,16 @@
 package org.apache.olingo.server.api.processor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DocumentCache;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataLibraryException;
@@ -35,7 +39,9 @@ import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ETagHelper;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
 
 /**
  * <p>Processor implementation for handling default cases:
@@ -58,44 +64,41 @@ public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProce
   @Override
   public void readServiceDocument(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, ODataLibraryException {
-    boolean isNotModified = false;
     ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
-    if (eTagSupport != null && eTagSupport.getServiceDocumentETag() != null) {
-      // Set application etag at response
-      response.setHeader(HttpHeader.ETAG, eTagSupport.getServiceDocumentETag());
-      // Check if service document has been modified
-      ETagHelper eTagHelper = odata.createETagHelper();
-      isNotModified = eTagHelper.checkReadPreconditions(eTagSupport.getServiceDocumentETag(), request
-          .getHeaders(HttpHeader.IF_MATCH), request.getHeaders(HttpHeader.IF_NONE_MATCH));
-    }
-
-    // Send the correct response
-    if (isNotModified) {
-      response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
-    } else {
-      // HTTP HEAD requires no payload but a 200 OK response
-      if (HttpMethod.HEAD == request.getMethod()) {
-        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-      } else {
-        ODataSerializer serializer = odata.createSerializer(requestedContentType);
-        response.setContent(serializer.serviceDocument(serviceMetadata, null).getContent());
-        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
-        response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
-      }
-    }
+    readDocument(request, response, UriInfoKind.service, requestedContentType,
+        eTagSupport == null ? null : eTagSupport.getServiceDocumentETag());
   }
 
   @Override
   public void readMetadata(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, ODataLibraryException {
-    boolean isNotModified = false;
     ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
-    if (eTagSupport != null && eTagSupport.getMetadataETag() != null) {
-      // Set application etag at response
-      response.setHeader(HttpHeader.ETAG, eTagSupport.getMetadataETag());
-      // Check if metadata document has been modified
+    readDocument(request, response, UriInfoKind.metadata, requestedContentType,
+        eTagSupport == null ? null : eTagSupport.getMetadataETag());
+  }
+
+  /**
+   * Reads the service document or the metadata document.
+   * If the service metadata provide a document cache, the document is serialized only once
+   * and, without application ETag, the ETag of the cached document is used.
+   */
+  private void readDocument(final ODataRequest request, final ODataResponse response, final UriInfoKind kind,
+      final ContentType requestedContentType, final String applicationETag) throws ODataLibraryException {
+    final DocumentCache documentCache = serviceMetadata.getDocumentCache();
+    DocumentCache.Document document = null;
+    String eTag = applicationETag;
+    if (eTag == null && documentCache != null) {
+      document = getDocument(documentCache, kind, requestedContentType);
+      eTag = document.getETag();
+    }
+
+    boolean isNotModified = false;
+    if (eTag != null) {
+      // Set etag at response
+      response.setHeader(HttpHeader.ETAG, eTag);
+      // Check if the document has been modified
       ETagHelper eTagHelper = odata.createETagHelper();
-      isNotModified = eTagHelper.checkReadPreconditions(eTagSupport.getMetadataETag(), request
+      isNotModified = eTagHelper.checkReadPreconditions(eTag, request
           .getHeaders(HttpHeader.IF_MATCH), request.getHeaders(HttpHeader.IF_NONE_MATCH));
     }
 
@@ -107,14 +110,45 @@ public class DefaultProcessor implements MetadataProcessor, ServiceDocumentProce
       if (HttpMethod.HEAD == request.getMethod()) {
         response.setStatusCode(HttpStatusCode.OK.getStatusCode());
       } else {
-        ODataSerializer serializer = odata.createSerializer(requestedContentType);
-        response.setContent(serializer.metadataDocument(serviceMetadata).getContent());
+        if (document == null && documentCache != null) {
+          document = getDocument(documentCache, kind, requestedContentType);
+        }
+        response.setContent(document == null ?
+            serialize(kind, requestedContentType) :
+            new ByteArrayInputStream(document.getContent()));
         response.setStatusCode(HttpStatusCode.OK.getStatusCode());
         response.setHeader(HttpHeader.CONTENT_TYPE, requestedContentType.toContentTypeString());
       }
     }
   }
 
+  private DocumentCache.Document getDocument(final DocumentCache documentCache, final UriInfoKind kind,
+      final ContentType contentType) throws SerializerException {
+    DocumentCache.Document document = documentCache.get(kind, contentType);
+    if (document == null) {
+      final InputStream content = serialize(kind, contentType);
+      try {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int count;
+        while ((count = content.read(buffer)) > -1) {
+          output.write(buffer, 0, count);
+        }
+        document = documentCache.put(kind, contentType, output.toByteArray());
+      } catch (final IOException e) {
+        throw new SerializerException("An I/O exception occurred.", e, SerializerException.MessageKeys.IO_EXCEPTION);
+      }
+    }
+    return document;
+  }
+
+  private InputStream serialize(final UriInfoKind kind, final ContentType contentType) throws SerializerException {
+    ODataSerializer serializer = odata.createSerializer(contentType);
+    return (kind == UriInfoKind.metadata ?
+        serializer.metadataDocument(serviceMetadata) :
+        serializer.serviceDocument(serviceMetadata, null)).getContent();
+  }
+
   @Override
   public void processError(final ODataRequest request, final ODataResponse response,
       final ODataServerError serverError,
@@ -18,11 +18,17 @@
  */
 package org.apache.olingo.server.api.serializer;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 import org.apache.olingo.commons.api.data.EntityMediaObject;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataContent;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 
@@ -66,6 +72,45 @@ public interface FixedFormatSerializer {
    */
   InputStream batchResponse(List<ODataResponsePart> batchResponses, String boundary) throws BatchSerializerException;
 
+  /**
+   * Serializes a batch response while its content is written, without holding the complete response in memory.
+   * Response parts with streamed content are written without Content-Length header.
+   * <p>The default implementation serializes the complete response with
+   * {@link #batchResponse(List, String)} and copies it when the content is written.</p>
+   * @param batchResponses the response parts
+   * @param boundary the boundary between the parts
+   * @return the serializer result with the response as content
+   */
+  default SerializerStreamResult batchResponseStreamed(final List<ODataResponsePart> batchResponses,
+      final String boundary) throws BatchSerializerException {
+    final InputStream response = batchResponse(batchResponses, boundary);
+    final ODataContent content = new ODataContent() {
+      @Override
+      public void write(final WritableByteChannel channel) {
+        write(Channels.newOutputStream(channel));
+      }
+
+      @Override
+      public void write(final OutputStream stream) {
+        final byte[] buffer = new byte[8192];
+        try {
+          int count;
+          while ((count = response.read(buffer)) != -1) {
+            stream.write(buffer, 0, count);
+          }
+        } catch (final IOException e) {
+          throw new ODataRuntimeException("Failed to write the batch response", e);
+        }
+      }
+    };
+    return new SerializerStreamResult() {
+      @Override
+      public ODataContent getODataContent() {
+        return content;
+      }
+    };
+  }
+
   /**
    * Serializes a ODataResponse into an async response.
    * @param odataResponse the response parts
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.uri;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+/**
+ * Bounded cache of parsed and validated URIs.
+ * <p>A service with a small set of frequently requested URIs can register a cache at its
+ * {@link org.apache.olingo.server.api.ServiceMetadata ServiceMetadata} so that URI parsing
+ * and validation are done only once per URI.
+ * Cached {@link UriInfo} instances are shared between requests and threads;
+ * they must be treated as read-only.</p>
+ * <p>URIs with literal values that are typically different for each request
+ * (e.g., key predicates or string literals) are not cached.</p>
+ * @see org.apache.olingo.server.api.OData#createUriInfoCache(int)
+ */
+public interface UriInfoCache {
+
+  /**
+   * Gets the cached result for the given request URI.
+   * @param method HTTP method of the request
+   * @param rawBaseUri raw base URI of the request
+   * @param rawODataPath raw OData path of the request
+   * @param rawQueryPath raw query part of the request (may be <code>null</code>)
+   * @return the cached URI info or <code>null</code> if the URI has not been cached
+   */
+  UriInfo get(HttpMethod method, String rawBaseUri, String rawODataPath, String rawQueryPath);
+
+  /**
+   * Caches the parsed and validated result for the given request URI, if the URI is cacheable.
+   * @param method HTTP method of the request
+   * @param rawBaseUri raw base URI of the request
+   * @param rawODataPath raw OData path of the request
+   * @param rawQueryPath raw query part of the request (may be <code>null</code>)
+   * @param uriInfo the parsed and validated URI info
+   */
+  void put(HttpMethod method, String rawBaseUri, String rawODataPath, String rawQueryPath, UriInfo uriInfo);
+
+  /**
+   * Gets the number of lookups that have been answered from the cache.
+   * @return number of cache hits
+   */
+  long getHitCount();
+
+  /**
+   * Gets the number of lookups of cacheable URIs that have not been found in the cache.
+   * @return number of cache misses
+   */
+  long getMissCount();
+
+  /**
+   * Gets the current number of cached URIs.
+   * @return number of cached entries
+   */
+  int size();
+
+  /**
+   * Removes all entries from the cache.
+   */
+  void clear();
+}
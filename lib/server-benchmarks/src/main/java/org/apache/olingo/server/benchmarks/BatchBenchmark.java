@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <code>$batch</code> requests against the technical service: several independent GET requests
+ * followed by a change set with an (idempotent) update.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+  private static final String BOUNDARY = "batch_benchmark";
+  private static final String CHANGESET_BOUNDARY = "changeset_benchmark";
+  private static final String CRLF = "\r\n";
+
+  private static final byte[] BATCH_BODY = createBatchBody();
+
+  @Benchmark
+  public long batch(final TechnicalServiceState state) throws IOException {
+    final ODataRequest request = TechnicalServiceState.request(HttpMethod.POST, "/$batch", null,
+        "multipart/mixed");
+    request.addHeader(HttpHeader.CONTENT_TYPE, "multipart/mixed;boundary=" + BOUNDARY);
+    request.setBody(TechnicalServiceState.body(BATCH_BODY));
+    final ODataResponse response = state.createHandler().process(request);
+    if (response.getStatusCode() != HttpStatusCode.OK.getStatusCode()) {
+      throw new IllegalStateException("Unexpected status " + response.getStatusCode() + " for $batch");
+    }
+    return TechnicalServiceState.drain(response);
+  }
+
+  private static byte[] createBatchBody() {
+    StringBuilder body = new StringBuilder();
+    appendGet(body, "ESAllPrim(32767)");
+    appendGet(body, "ESAllPrim?$filter=PropertyInt16%20ge%200");
+    appendGet(body, "ESTwoPrim?$orderby=PropertyString");
+    appendGet(body, "ESKeyNav(1)?$expand=NavPropertyETTwoKeyNavOne");
+    appendGet(body, "ESMixPrimCollComp");
+
+    body.append("--").append(BOUNDARY).append(CRLF)
+        .append("Content-Type: multipart/mixed;boundary=").append(CHANGESET_BOUNDARY).append(CRLF)
+        .append(CRLF)
+        .append("--").append(CHANGESET_BOUNDARY).append(CRLF)
+        .append("Content-Type: application/http").append(CRLF)
+        .append("Content-Transfer-Encoding: binary").append(CRLF)
+        .append("Content-ID: 1").append(CRLF)
+        .append(CRLF)
+        .append("PATCH ESTwoPrim(32766) HTTP/1.1").append(CRLF)
+        .append("Content-Type: application/json").append(CRLF)
+        .append(CRLF)
+        .append("{\"PropertyString\":\"Benchmark\"}").append(CRLF)
+        .append("--").append(CHANGESET_BOUNDARY).append("--").append(CRLF)
+        .append(CRLF)
+        .append("--").append(BOUNDARY).append("--").append(CRLF);
+    return body.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void appendGet(final StringBuilder body, final String uri) {
+    body.append("--").append(BOUNDARY).append(CRLF)
+        .append("Content-Type: application/http").append(CRLF)
+        .append("Content-Transfer-Encoding: binary").append(CRLF)
+        .append(CRLF)
+        .append("GET ").append(uri).append(" HTTP/1.1").append(CRLF)
+        .append("Accept: application/json").append(CRLF)
+        .append(CRLF)
+        .append(CRLF);
+  }
+}
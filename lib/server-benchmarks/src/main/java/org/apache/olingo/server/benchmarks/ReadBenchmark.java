@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read requests against the technical service, each going through the complete
+ * request pipeline of <code>ODataHandlerImpl</code>
+ * (URI parsing, validation, dispatching, processing and serialization).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmark {
+
+  @Benchmark
+  public long entitySet(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/ESAllPrim", null);
+  }
+
+  @Benchmark
+  public long entitySetFilter(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/ESAllPrim", "$filter=PropertyInt16%20ge%200%20and%20PropertyString%20ne%20'Second'");
+  }
+
+  @Benchmark
+  public long entitySetOrderBy(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/ESAllPrim", "$orderby=PropertyString%20desc,PropertyInt16");
+  }
+
+  @Benchmark
+  public long entitySetExpandSelect(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/ESKeyNav",
+        "$select=PropertyInt16,PropertyString&$expand=NavPropertyETTwoKeyNavOne,NavPropertyETKeyNavMany($top=2)");
+  }
+
+  @Benchmark
+  public long entitySetFilterOrderByExpandSelect(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/ESKeyNav",
+        "$filter=PropertyInt16%20lt%2010&$orderby=PropertyString&$select=PropertyInt16,PropertyString"
+            + "&$expand=NavPropertyETKeyNavOne($select=PropertyInt16)");
+  }
+
+  @Benchmark
+  public long entity(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/ESAllPrim(32767)", null);
+  }
+
+  @Benchmark
+  public long metadata(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/$metadata", null, "application/xml");
+  }
+
+  @Benchmark
+  public long serviceDocument(final TechnicalServiceState state) throws IOException {
+    return execute(state, "/", null);
+  }
+
+  private static long execute(final TechnicalServiceState state, final String path, final String query)
+      throws IOException {
+    return execute(state, path, query, "application/json");
+  }
+
+  private static long execute(final TechnicalServiceState state, final String path, final String query,
+      final String accept) throws IOException {
+    final ODataRequest request = TechnicalServiceState.request(HttpMethod.GET, path, query, accept);
+    final ODataResponse response = state.createHandler().process(request);
+    if (response.getStatusCode() != HttpStatusCode.OK.getStatusCode()) {
+      throw new IllegalStateException("Unexpected status " + response.getStatusCode() + " for " + path);
+    }
+    return TechnicalServiceState.drain(response);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.
+ * <p>Accepts the usual JMH command line options and always adds the GC profiler so that
+ * the allocation rate per operation is reported next to the throughput of every scenario, e.g.
+ * <pre>
+ * mvn -Pbenchmarks package -DskipTests
+ * java -jar lib/server-benchmarks/target/benchmarks.jar ReadBenchmark
+ * </pre></p>
+ */
+public final class ServerBenchmarks {
+
+  private ServerBenchmarks() {
+    // entry point only
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+        || commandLineOptions.shouldListProfilers() || !commandLineOptions.getProfilers().isEmpty()) {
+      // an explicit profiler selection is left untouched
+      Main.main(args);
+      return;
+    }
+    new Runner(new OptionsBuilder()
+        .parent(commandLineOptions)
+        .addProfiler(GCProfiler.class)
+        .build())
+        .run();
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.edmx.EdmxReferenceInclude;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.tecsvc.ETagSupport;
+import org.apache.olingo.server.tecsvc.MetadataETagSupport;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.TechnicalActionProcessor;
+import org.apache.olingo.server.tecsvc.processor.TechnicalBatchProcessor;
+import org.apache.olingo.server.tecsvc.processor.TechnicalEntityProcessor;
+import org.apache.olingo.server.tecsvc.processor.TechnicalPrimitiveComplexProcessor;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state holding the technical service (EDM, service metadata and test data).
+ * <p>The service metadata and the data provider are built once per trial, exactly like a
+ * long-running deployment would keep them, while a new {@link ODataHandler} is created for every
+ * request, just as the <code>TechnicalServlet</code> does.</p>
+ */
+@State(Scope.Benchmark)
+public class TechnicalServiceState {
+
+  public static final String BASE_URI = "http://localhost/odata.svc";
+
+  private OData odata;
+  private ServiceMetadata serviceMetadata;
+  private DataProvider dataProvider;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    odata = OData.newInstance();
+    EdmxReference reference = new EdmxReference(URI.create("../v4.0/cs02/vocabularies/Org.OData.Core.V1.xml"));
+    reference.addInclude(new EdmxReferenceInclude("Org.OData.Core.V1", "Core"));
+    serviceMetadata = odata.createServiceMetadata(new EdmTechProvider(),
+        Collections.singletonList(reference),
+        new MetadataETagSupport("W/\"benchmark\""));
+    dataProvider = new DataProvider(odata, serviceMetadata.getEdm());
+  }
+
+  /**
+   * Creates a handler with all processors of the technical service registered.
+   * @return a new handler
+   */
+  public ODataHandler createHandler() {
+    ODataHandler handler = odata.createRawHandler(serviceMetadata);
+    handler.register(new TechnicalEntityProcessor(dataProvider, serviceMetadata));
+    handler.register(new TechnicalPrimitiveComplexProcessor(dataProvider, serviceMetadata));
+    handler.register(new TechnicalActionProcessor(dataProvider, serviceMetadata));
+    handler.register(new TechnicalBatchProcessor(dataProvider));
+    handler.register(new ETagSupport());
+    return handler;
+  }
+
+  /**
+   * Creates a request as the HTTP handler would create it from a servlet request.
+   * @param method HTTP method
+   * @param odataPath resource path relative to the service root, e.g. <code>/ESAllPrim</code>
+   * @param query raw (encoded) query string or <code>null</code>
+   * @return the request
+   */
+  public static ODataRequest request(final HttpMethod method, final String odataPath, final String query) {
+    return request(method, odataPath, query, "application/json");
+  }
+
+  /**
+   * Creates a request as the HTTP handler would create it from a servlet request.
+   * @param method HTTP method
+   * @param odataPath resource path relative to the service root, e.g. <code>/ESAllPrim</code>
+   * @param query raw (encoded) query string or <code>null</code>
+   * @param accept value of the Accept header
+   * @return the request
+   */
+  public static ODataRequest request(final HttpMethod method, final String odataPath, final String query,
+      final String accept) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setProtocol("HTTP/1.1");
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(odataPath);
+    request.setRawQueryPath(query);
+    request.setRawRequestUri(BASE_URI + odataPath + (query == null ? "" : "?" + query));
+    request.setRawServiceResolutionUri(null);
+    request.addHeader(HttpHeader.ACCEPT, accept);
+    return request;
+  }
+
+  /**
+   * Writes the complete response body into a discarding stream.
+   * @param response the response
+   * @return number of bytes written
+   */
+  public static long drain(final ODataResponse response) throws IOException {
+    CountingOutputStream output = new CountingOutputStream();
+    if (response.getODataContent() != null) {
+      response.getODataContent().write(output);
+    } else if (response.getContent() != null) {
+      final InputStream content = response.getContent();
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = content.read(buffer)) > -1) {
+        output.write(buffer, 0, read);
+      }
+      content.close();
+    }
+    return output.count;
+  }
+
+  public static InputStream body(final byte[] content) {
+    return new ByteArrayInputStream(content);
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(final int b) {
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+  }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.core.responses;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -41,12 +42,14 @@ import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.expand.NavigationLoader;
 import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ReturnRepresentation;
 import org.apache.olingo.server.core.ServiceRequest;
+import org.apache.olingo.server.core.expand.ExpandResolverImpl;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 
 public class EntityResponse extends ServiceResponse {
@@ -118,6 +121,23 @@ public class EntityResponse extends ServiceResponse {
     close();
   }
 
+  /**
+   * Writes a single entity after loading the related entities requested with $expand level by level,
+   * with one call of the loader per navigation property and level.
+   * The expanded navigation links are set at the entity.
+   * @param entityType the type of the entity
+   * @param entity     the entity
+   * @param loader     the loader for the related entities
+   */
+  public void writeReadEntity(EdmEntityType entityType, Entity entity, NavigationLoader loader)
+      throws SerializerException, ODataApplicationException {
+    if (entity != null) {
+      new ExpandResolverImpl().resolve(entityType, Collections.singletonList(entity), this.options.getExpand(),
+          loader);
+    }
+    writeReadEntity(entityType, entity);
+  }
+
   public void writeCreatedEntity(EdmEntitySet entitySet, Entity entity)
       throws SerializerException {
     // upsert/insert must created a entity, otherwise should have throw an
@@ -35,11 +35,13 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.expand.NavigationLoader;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.ContentNegotiatorException;
 import org.apache.olingo.server.core.ServiceRequest;
+import org.apache.olingo.server.core.expand.ExpandResolverImpl;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 
 public class EntitySetResponse extends ServiceResponse {
@@ -86,6 +88,22 @@ public class EntitySetResponse extends ServiceResponse {
     close();
   }
 
+  /**
+   * Writes a collection of entities, e.g., one page, after loading the related entities requested with
+   * $expand level by level, with one call of the loader per navigation property and level.
+   * The expanded navigation links are set at the entities.
+   * @param entityType the type of the entities
+   * @param entitySet  the entities
+   * @param loader     the loader for the related entities
+   */
+  public void writeReadEntitySet(EdmEntityType entityType, EntityCollection entitySet, NavigationLoader loader)
+      throws SerializerException, ODataApplicationException {
+    if (entitySet != null) {
+      new ExpandResolverImpl().resolve(entityType, entitySet.getEntities(), this.options.getExpand(), loader);
+    }
+    writeReadEntitySet(entityType, entitySet);
+  }
+
   @Override
   public void accepts(ServiceResponseVisior visitor) throws ODataLibraryException,
       ODataApplicationException {
@@ -18,18 +18,18 @@
  */
 package org.apache.olingo.netty.server.core;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channel;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.channels.WritableByteChannel;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -38,9 +38,11 @@ import org.apache.olingo.netty.server.api.ODataNettyHandler;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataContent;
 import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataMetrics.Phase;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.core.ODataExceptionHelper;
@@ -51,16 +53,39 @@ import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.concurrent.DefaultThreadFactory;
 
 public class ODataNettyHandlerImpl implements ODataNettyHandler {
 
   public static final int COPY_BUFFER_SIZE = 8192;
 
+  /** Maximum number of threads copying response content. */
+  private static final int RESPONSE_WRITER_THREADS = 64;
+  /** Maximum number of responses waiting for a response-writer thread; further responses get 503. */
+  private static final int RESPONSE_WRITER_QUEUE_SIZE = 256;
+
+  /**
+   * Copies response content if a response is written on the event loop, because copying
+   * has to wait while the channel is not writable; idle threads are stopped after a minute.
+   * Both the threads and the queue are bounded, so slow clients cannot exhaust the server.
+   */
+  private static final Executor RESPONSE_WRITER = createResponseWriter();
+
+  private static Executor createResponseWriter() {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(RESPONSE_WRITER_THREADS, RESPONSE_WRITER_THREADS,
+        60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(RESPONSE_WRITER_QUEUE_SIZE),
+        new DefaultThreadFactory("olingo-response-writer", true));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private final ODataHandlerImpl handler;
   private final ServerCoreDebugger debugger;
   
@@ -92,8 +117,9 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
    * Convert the OData Response to Netty Response
    * @param response
    * @param odResponse
+   * @return the number of content bytes written
    */
-  static void convertToHttp(final HttpResponse response, final ODataResponse odResponse) {
+  static long convertToHttp(final HttpResponse response, final ODataResponse odResponse) {
 	    response.setStatus(HttpResponseStatus.valueOf(odResponse.getStatusCode()));
 
 	    for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
@@ -103,48 +129,49 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	    }
 
 	    if (odResponse.getContent() != null) {
-	      copyContent(odResponse.getContent(), response);
+	      return copyContent(odResponse.getContent(), response);
 	    } else if (odResponse.getODataContent() != null) {
-	      writeContent(odResponse, response);
+	      return writeContent(odResponse, response);
 	    }
+	    return 0;
 	  }
   
   /**
    * Write the odata content to netty response content
    * @param odataResponse
    * @param response
+   * @return the number of bytes written
    */
-  static void writeContent(final ODataResponse odataResponse, final HttpResponse response) {
+  static long writeContent(final ODataResponse odataResponse, final HttpResponse response) {
     ODataContent res = odataResponse.getODataContent();
-    res.write(Channels.newChannel(new ByteBufOutputStream(((HttpContent)response).content())));
+    final ByteBufOutputStream output = new ByteBufOutputStream(((HttpContent) response).content());
+    res.write(output);
+    return output.writtenBytes();
   }
-  
-  static void copyContent(final InputStream inputStream, final HttpResponse response) {
-	    copyContent(Channels.newChannel(inputStream), response);
-	  }
 
   /** 
    * Copy OData content to netty content
    * @param input
    * @param response
+   * @return the number of bytes copied
    */
-  static void copyContent(final ReadableByteChannel input, final HttpResponse response) {
-    try (WritableByteChannel output = Channels.newChannel(new ByteBufOutputStream(((HttpContent)response).content()))){
-        ByteBuffer inBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
-        while (input.read(inBuffer) > 0) {
-          inBuffer.flip();
-          output.write(inBuffer);
-          inBuffer.clear();
-        }
-        closeStream(output);
-      } catch (IOException e) {
-        throw new ODataRuntimeException("Error on reading request content", e);
-      } finally {
-        closeStream(input);
+  static long copyContent(final InputStream input, final HttpResponse response) {
+    final ByteBuf output = ((HttpContent) response).content();
+    final int start = output.writerIndex();
+    try {
+      // Reads directly into the response buffer; no intermediate copy buffer is needed.
+      while (output.writeBytes(input, COPY_BUFFER_SIZE) > -1) {
+        // continue until the end of the stream
       }
+      return (long) output.writerIndex() - start;
+    } catch (IOException e) {
+      throw new ODataRuntimeException("Error on reading request content", e);
+    } finally {
+      closeStream(input);
+    }
   }
 
-  private static void closeStream(final Channel closeable) {
+  private static void closeStream(final Closeable closeable) {
     if (closeable != null) {
       try {
         closeable.close();
@@ -174,7 +201,9 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	      odRequest.setProtocol(httpRequest.protocolVersion().text());
 	      odRequest.setMethod(extractMethod(httpRequest));
 	      int innerHandle = debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "copyHeaders");
+	      final long headerMeasurement = handler.startMeasurement();
 	      copyHeaders(odRequest, httpRequest);
+	      handler.stopMeasurement(Phase.HEADER_COPY, headerMeasurement);
 	      debugger.stopRuntimeMeasurement(innerHandle);
 	      innerHandle = debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "fillUriInformation");
 	      fillUriInformationFromHttpRequest(odRequest, httpRequest, split, contextPath);
@@ -295,16 +324,41 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	  }
   }
   
-@SuppressWarnings("unused")
-@Override
-public void processNettyRequest(HttpRequest request, HttpResponse response, 
-		Map<String, String> requestParameters) {
-	  ODataRequest odRequest = new ODataRequest();
-    Exception exception = null;
+  @Override
+  public void processNettyRequest(HttpRequest request, HttpResponse response, 
+      Map<String, String> requestParameters) {
+    handler.resetMeasurements();
+    final long requestMeasurement = handler.startMeasurement();
+    final ODataResponse odResponse = handle(request, requestParameters);
+    final long writeMeasurement = handler.startMeasurement();
+    final long bytesWritten = convertToHttp(response, odResponse);
+    handler.stopMeasurement(Phase.RESPONSE_WRITE, writeMeasurement);
+    handler.stopMeasurement(Phase.REQUEST, requestMeasurement);
+    handler.reportMeasurements(bytesWritten);
+  }
+
+  @Override
+  public ChannelFuture processNettyRequest(final HttpRequest request, final ChannelHandlerContext context,
+      final Map<String, String> requestParameters) {
+    handler.resetMeasurements();
+    final long requestMeasurement = handler.startMeasurement();
+    final ODataResponse odResponse = handle(request, requestParameters);
+    final long writeMeasurement = handler.startMeasurement();
+    final ChannelFuture future = new ODataNettyResponseWriter(context, COPY_BUFFER_SIZE, RESPONSE_WRITER)
+        .write(request.protocolVersion(), odResponse);
+    handler.stopMeasurement(Phase.RESPONSE_WRITE, writeMeasurement);
+    handler.stopMeasurement(Phase.REQUEST, requestMeasurement);
+    // The bytes are flushed asynchronously by the channel; their number is not known here.
+    handler.reportMeasurements(-1);
+    return future;
+  }
+
+  private ODataResponse handle(final HttpRequest request, final Map<String, String> requestParameters) {
+    ODataRequest odRequest = new ODataRequest();
     ODataResponse odResponse;
-    
+
     final int processMethodHandle = 
-    		debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "process");
+        debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "process");
     try {
       fillODataRequest(odRequest, request, 
           requestParameters.get(SPLIT) != null? Integer.parseInt(requestParameters.get(SPLIT)) : split, 
@@ -313,12 +367,11 @@ public void processNettyRequest(HttpRequest request, HttpResponse response,
       odResponse = process(odRequest);
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
-      exception = e;
       odResponse = handleException(odRequest, e);
     }
     debugger.stopRuntimeMeasurement(processMethodHandle);
-
-    convertToHttp(response, odResponse);
+    handler.compressResponse(odRequest, odResponse);
+    return odResponse;
   }
 
   public ODataResponse process(ODataRequest request) {
@@ -329,4 +382,9 @@ public void processNettyRequest(HttpRequest request, HttpResponse response,
   public void register(Processor processor) {
     handler.register(processor);
   }
+
+  @Override
+  public void register(final OlingoExtension extension) {
+    handler.register(extension);
+  }
 }
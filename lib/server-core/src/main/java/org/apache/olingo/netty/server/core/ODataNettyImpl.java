@@ -29,6 +29,7 @@ import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.netty.server.api.ODataNetty;
 import org.apache.olingo.netty.server.api.ODataNettyHandler;
+import org.apache.olingo.server.api.DocumentCache;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataHttpHandler;
@@ -39,6 +40,7 @@ import org.apache.olingo.server.api.deserializer.FixedFormatDeserializer;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.api.etag.ETagHelper;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.api.expand.ExpandResolver;
 import org.apache.olingo.server.api.prefer.Preferences;
 import org.apache.olingo.server.api.serializer.EdmAssistedSerializer;
 import org.apache.olingo.server.api.serializer.EdmDeltaSerializer;
@@ -46,6 +48,7 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 public class ODataNettyImpl extends ODataNetty {
   
@@ -114,6 +117,12 @@ public class ODataNettyImpl extends ODataNetty {
     return odata.createServiceMetadata(edmProvider, references, serviceMetadataETagSupport);
   }
 
+  @Override
+  public ServiceMetadata createServiceMetadata(CsdlEdmProvider edmProvider, List<EdmxReference> references,
+      ServiceMetadataETagSupport serviceMetadataETagSupport, boolean loadEdmEagerly) {
+    return odata.createServiceMetadata(edmProvider, references, serviceMetadataETagSupport, loadEdmEagerly);
+  }
+
   @Override
   public UriHelper createUriHelper() {
     return odata.createUriHelper();
@@ -135,11 +144,26 @@ public class ODataNettyImpl extends ODataNetty {
     return odata.createPrimitiveTypeInstance(kind);
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(int maxEntries) {
+    return odata.createUriInfoCache(maxEntries);
+  }
+
+  @Override
+  public DocumentCache createDocumentCache(final boolean precompress) {
+    return odata.createDocumentCache(precompress);
+  }
+
   @Override
   public ETagHelper createETagHelper() {
     return odata.createETagHelper();
   }
 
+  @Override
+  public ExpandResolver createExpandResolver() {
+    return odata.createExpandResolver();
+  }
+
   @Override
   public Preferences createPreferences(Collection<String> preferHeaders) {
     return odata.createPreferences(preferHeaders);
@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataResponse;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.PromiseNotifier;
+
+/**
+ * Writes an OData response to a Netty channel as a sequence of HTTP messages, without
+ * holding the whole response body in memory.
+ * <ul>
+ * <li>Serialized content is written in chunks of pooled direct buffers while it is produced.
+ * Writing waits until the channel is writable again, but not longer than the write timeout; to allow this,
+ * content that has to be copied is written by a thread of the given executor if the writer is called
+ * on the event loop.</li>
+ * <li>Content from a file is transferred as file region if the connection is not encrypted.</li>
+ * <li>Other content streams are written with a <code>ChunkedWriteHandler</code> if the pipeline contains one
+ * and are copied chunk by chunk otherwise.</li>
+ * </ul>
+ * Content of unknown length is framed with chunked transfer encoding; HTTP/1.0 clients cannot parse it,
+ * so for them the content is written unframed and the connection is closed after it.
+ */
+final class ODataNettyResponseWriter {
+
+  /** Default time in milliseconds that writing waits for the channel to become writable again. */
+  static final long DEFAULT_WRITE_TIMEOUT = 30000;
+
+  private final ChannelHandlerContext context;
+  private final int chunkSize;
+  private final Executor executor;
+  private final long writeTimeout;
+
+  /**
+   * Creates a writer.
+   * @param context   context of the channel the response is written to
+   * @param chunkSize size of the written chunks
+   * @param executor  executor that copies content if the writer is called on the event loop;
+   *                  can be <code>null</code> if it is never called on the event loop
+   */
+  ODataNettyResponseWriter(final ChannelHandlerContext context, final int chunkSize, final Executor executor) {
+    this(context, chunkSize, executor, DEFAULT_WRITE_TIMEOUT);
+  }
+
+  /**
+   * Creates a writer.
+   * @param context      context of the channel the response is written to
+   * @param chunkSize    size of the written chunks
+   * @param executor     executor that copies content if the writer is called on the event loop;
+   *                     can be <code>null</code> if it is never called on the event loop
+   * @param writeTimeout time in milliseconds that writing waits for the channel to become writable again;
+   *                     the connection is closed when it has passed
+   */
+  ODataNettyResponseWriter(final ChannelHandlerContext context, final int chunkSize, final Executor executor,
+      final long writeTimeout) {
+    this.context = context;
+    this.chunkSize = chunkSize;
+    this.executor = executor;
+    this.writeTimeout = writeTimeout;
+  }
+
+  /**
+   * Writes the response head and body.
+   * If the body has to be copied and this is called on the event loop, the response is written
+   * asynchronously; if the executor rejects it, a "503 Service Unavailable" response is written instead.
+   * @param version      HTTP version of the request
+   * @param odResponse   OData response
+   * @return the future of the last written message
+   */
+  ChannelFuture write(final HttpVersion version, final ODataResponse odResponse) {
+    if (executor == null || !context.executor().inEventLoop() || !isCopied(odResponse)) {
+      return writeResponse(version, odResponse);
+    }
+    final ChannelPromise promise = context.newPromise();
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            writeResponse(version, odResponse).addListener(new PromiseNotifier<Void, ChannelFuture>(promise));
+          } catch (final RuntimeException e) {
+            promise.tryFailure(e);
+            context.close();
+          }
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      if (odResponse.getContent() != null) {
+        closeStream(odResponse.getContent());
+      }
+      final HttpResponse unavailable = new DefaultHttpResponse(version, HttpResponseStatus.SERVICE_UNAVAILABLE);
+      HttpUtil.setContentLength(unavailable, 0);
+      context.write(unavailable);
+      return context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+    return promise;
+  }
+
+  /** Determines whether the response body is copied chunk by chunk, so that writing it could have to wait. */
+  private boolean isCopied(final ODataResponse odResponse) {
+    if (odResponse.getContent() != null) {
+      return !isFileTransfer(odResponse.getContent()) && context.pipeline().get(ChunkedWriteHandler.class) == null;
+    }
+    return odResponse.getODataContent() != null;
+  }
+
+  private boolean isFileTransfer(final InputStream content) {
+    return content instanceof FileInputStream && context.pipeline().get(SslHandler.class) == null;
+  }
+
+  private ChannelFuture writeResponse(final HttpVersion version, final ODataResponse odResponse) {
+    final HttpResponse response = new DefaultHttpResponse(version,
+        HttpResponseStatus.valueOf(odResponse.getStatusCode()));
+    for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
+      for (String headerValue : entry.getValue()) {
+        response.headers().add(entry.getKey(), headerValue);
+      }
+    }
+
+    final ChannelFuture future;
+    if (!mayHaveBody(response.status())) {
+      // RFC 7230, section 3.3: these responses never have a body and must not announce one.
+      if (odResponse.getContent() != null) {
+        closeStream(odResponse.getContent());
+      }
+      response.headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+      context.write(response);
+      future = context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    } else if (odResponse.getContent() != null) {
+      future = writeStream(response, odResponse.getContent());
+    } else if (odResponse.getODataContent() != null) {
+      setUnknownLength(response);
+      context.write(response);
+      future = writeContent(odResponse.getODataContent());
+    } else {
+      if (!response.headers().contains(HttpHeaderNames.CONTENT_LENGTH)) {
+        HttpUtil.setContentLength(response, 0);
+      }
+      context.write(response);
+      future = context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+    if (isUnframed(response)) {
+      // Without length and framing, the client recognizes the end of the content by the closed connection.
+      future.addListener(ChannelFutureListener.CLOSE);
+    }
+    return future;
+  }
+
+  private static boolean mayHaveBody(final HttpResponseStatus status) {
+    return status.code() >= 200 && status.code() != HttpResponseStatus.NO_CONTENT.code()
+        && status.code() != HttpResponseStatus.NOT_MODIFIED.code();
+  }
+
+  /** Prepares the head of a response whose content length is not known. */
+  private static void setUnknownLength(final HttpResponse response) {
+    response.headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+    if (HttpVersion.HTTP_1_0.equals(response.protocolVersion())) {
+      response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+    } else {
+      HttpUtil.setTransferEncodingChunked(response, true);
+    }
+  }
+
+  private static boolean isUnframed(final HttpResponse response) {
+    return mayHaveBody(response.status()) && !HttpUtil.isContentLengthSet(response)
+        && !HttpUtil.isTransferEncodingChunked(response);
+  }
+
+  private ChannelFuture writeContent(final ODataContent content) {
+    final ChunkedOutputStream output = new ChunkedOutputStream();
+    boolean completed = false;
+    try {
+      try {
+        content.write(output);
+      } catch (final RuntimeException e) {
+        // The response head has been sent already, so the client can only be informed by closing the connection.
+        output.failed = true;
+      }
+      completed = true;
+    } finally {
+      if (!completed) {
+        // An error is propagated only after the connection has been closed and the buffer released.
+        output.failed = true;
+        output.finish();
+      }
+    }
+    return output.finish();
+  }
+
+  private ChannelFuture writeStream(final HttpResponse response, final InputStream content) {
+    try {
+      if (isFileTransfer(content)) {
+        final FileChannel file = ((FileInputStream) content).getChannel();
+        final long position = file.position();
+        final long count = file.size() - position;
+        HttpUtil.setContentLength(response, count);
+        context.write(response);
+        context.write(new DefaultFileRegion(file, position, count));
+        return context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+      }
+
+      setUnknownLength(response);
+      context.write(response);
+      if (context.pipeline().get(ChunkedWriteHandler.class) != null) {
+        return context.writeAndFlush(new HttpChunkedInput(new ChunkedStream(content, chunkSize)));
+      }
+      final ChunkedOutputStream output = new ChunkedOutputStream();
+      try {
+        final byte[] buffer = new byte[chunkSize];
+        int count;
+        while ((count = content.read(buffer)) > -1) {
+          output.write(buffer, 0, count);
+        }
+      } catch (final IOException e) {
+        output.failed = true;
+      } finally {
+        closeStream(content);
+      }
+      return output.finish();
+    } catch (final IOException e) {
+      // The response head may already be sent, so the client can only be informed by closing the connection.
+      return context.close();
+    }
+  }
+
+  private static void closeStream(final InputStream stream) {
+    try {
+      stream.close();
+    } catch (final IOException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Collects written bytes in a pooled direct buffer and sends it as HTTP chunk whenever it is full.
+   */
+  private class ChunkedOutputStream extends OutputStream {
+
+    private ByteBuf buffer;
+    private ChannelFuture lastWrite;
+    private boolean failed;
+
+    @Override
+    public void write(final int b) throws IOException {
+      ensureBuffer();
+      buffer.writeByte(b);
+      if (!buffer.isWritable()) {
+        sendChunk();
+      }
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+      int index = offset;
+      final int end = offset + length;
+      while (index < end) {
+        ensureBuffer();
+        final int count = Math.min(buffer.writableBytes(), end - index);
+        buffer.writeBytes(bytes, index, count);
+        index += count;
+        if (!buffer.isWritable()) {
+          sendChunk();
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      // Chunks are sent when they are full; flushing smaller chunks would only add framing overhead.
+    }
+
+    /**
+     * Sends the remaining bytes and ends the response.
+     * @return the future of the last message
+     */
+    ChannelFuture finish() {
+      if (failed) {
+        release();
+        return context.close();
+      }
+      if (buffer != null && buffer.isReadable()) {
+        context.write(new DefaultHttpContent(buffer));
+        buffer = null;
+      }
+      release();
+      return context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+
+    private void ensureBuffer() throws IOException {
+      if (failed) {
+        throw new IOException("Channel closed while writing response content");
+      }
+      if (buffer == null) {
+        buffer = context.alloc().directBuffer(chunkSize, chunkSize);
+      }
+    }
+
+    private void sendChunk() throws IOException {
+      lastWrite = context.writeAndFlush(new DefaultHttpContent(buffer));
+      buffer = null;
+      if (!context.channel().isWritable() && !context.executor().inEventLoop()) {
+        // Back-pressure: wait until the outbound buffer has been drained up to this chunk.
+        try {
+          if (!lastWrite.await(writeTimeout)) {
+            failed = true;
+            throw new IOException("Timeout while writing response content");
+          }
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failed = true;
+          throw new InterruptedIOException("Interrupted while writing response content");
+        }
+      }
+      if (lastWrite.isDone() && !lastWrite.isSuccess()) {
+        failed = true;
+        throw new IOException("Error on writing response content", lastWrite.cause());
+      }
+    }
+
+    private void release() {
+      if (buffer != null) {
+        buffer.release();
+        buffer = null;
+      }
+    }
+  }
+}
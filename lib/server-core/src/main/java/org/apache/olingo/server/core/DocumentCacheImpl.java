@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.DocumentCache;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+
+/**
+ * Least-recently-used cache of serialized service and metadata documents.
+ * <p>The number of variants is bounded by {@link #MAX_ENTRIES}, as clients could request
+ * an arbitrary number of content-type parameter combinations.
+ * The ETag of a document is the Base64-encoded SHA-256 hash of its content.</p>
+ */
+public class DocumentCacheImpl implements DocumentCache {
+
+  /** Maximum number of cached documents. */
+  public static final int MAX_ENTRIES = 32;
+
+  private final boolean precompress;
+  private final Map<String, Document> documents = new LinkedHashMap<String, Document>(16, 0.75F, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Document> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * @param precompress whether each document is compressed with <code>gzip</code> and <code>deflate</code>
+   *                    when it is cached
+   */
+  public DocumentCacheImpl(final boolean precompress) {
+    this.precompress = precompress;
+  }
+
+  @Override
+  public Document get(final UriInfoKind kind, final ContentType contentType) {
+    synchronized (documents) {
+      return documents.get(key(kind, contentType));
+    }
+  }
+
+  @Override
+  public Document put(final UriInfoKind kind, final ContentType contentType, final byte[] content) {
+    final String key = key(kind, contentType);
+    synchronized (documents) {
+      final Document existing = documents.get(key);
+      if (existing != null) {
+        return existing;
+      }
+    }
+    // Hashing and compressing are done outside of the lock.
+    final DocumentImpl document = new DocumentImpl(content);
+    if (precompress) {
+      try {
+        for (final String coding : new String[] { ResponseCompressor.GZIP, ResponseCompressor.DEFLATE }) {
+          document.setCompressedContent(coding,
+              ResponseCompressor.compress(content, coding, Deflater.DEFAULT_COMPRESSION));
+        }
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on compressing document", e);
+      }
+    }
+    synchronized (documents) {
+      final Document existing = documents.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      documents.put(key, document);
+      return document;
+    }
+  }
+
+  @Override
+  public int size() {
+    synchronized (documents) {
+      return documents.size();
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (documents) {
+      documents.clear();
+    }
+  }
+
+  private static String key(final UriInfoKind kind, final ContentType contentType) {
+    return kind.name() + ' ' + contentType.toContentTypeString();
+  }
+
+  private static final class DocumentImpl implements Document {
+
+    private final byte[] content;
+    private final String eTag;
+    private final Map<String, byte[]> compressedContent = new ConcurrentHashMap<>();
+
+    private DocumentImpl(final byte[] content) {
+      this.content = content;
+      try {
+        eTag = '"' + Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(MessageDigest.getInstance("SHA-256").digest(content)) + '"';
+      } catch (final NoSuchAlgorithmException e) {
+        throw new ODataRuntimeException("Error on creating the ETag of a document", e);
+      }
+    }
+
+    @Override
+    public byte[] getContent() {
+      return content;
+    }
+
+    @Override
+    public String getETag() {
+      return eTag;
+    }
+
+    @Override
+    public byte[] getCompressedContent(final String contentCoding) {
+      return compressedContent.get(contentCoding);
+    }
+
+    @Override
+    public void setCompressedContent(final String contentCoding, final byte[] compressed) {
+      compressedContent.put(contentCoding, compressed);
+    }
+  }
+}
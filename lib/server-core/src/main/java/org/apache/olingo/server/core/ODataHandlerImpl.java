@@ -26,15 +26,21 @@ import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DocumentCache;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataMetrics;
+import org.apache.olingo.server.api.ODataMetrics.Phase;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.OlingoExtension;
+import org.apache.olingo.server.api.ResponseCompressionSupport;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.ParallelBatchSupport;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.etag.PreconditionException;
@@ -45,6 +51,8 @@ import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 import org.apache.olingo.server.api.serializer.RepresentationType;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+import org.apache.olingo.server.api.uri.UriInfoKind;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
@@ -69,6 +77,9 @@ public class ODataHandlerImpl implements ODataHandler {
 
   private CustomContentTypeSupport customContentTypeSupport;
   private CustomETagSupport customETagSupport;
+  private ParallelBatchSupport parallelBatchSupport;
+  private ResponseCompressionSupport responseCompressionSupport;
+  private RequestMetrics requestMetrics;
 
   private UriInfo uriInfo;
   private Exception lastThrownException;
@@ -141,34 +152,104 @@ public class ODataHandlerImpl implements ODataHandler {
       throw e;
     }
 
-    final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
-    try {
-      uriInfo = new Parser(serviceMetadata.getEdm(), odata)
-          .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
-    } catch (final ODataLibraryException e) {
+    final HttpMethod method = request.getMethod();
+    final UriInfoCache uriInfoCache = serviceMetadata.getUriInfoCache();
+    uriInfo = uriInfoCache == null ? null : uriInfoCache.get(method,
+        request.getRawBaseUri(), request.getRawODataPath(), request.getRawQueryPath());
+    if (uriInfo == null) {
+      final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
+      final long metricsUriParser = startMeasurement();
+      try {
+        uriInfo = new Parser(serviceMetadata.getEdm(), odata)
+            .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
+      } catch (final ODataLibraryException e) {
+        debugger.stopRuntimeMeasurement(measurementUriParser);
+        debugger.stopRuntimeMeasurement(measurementHandle);
+        stopMeasurement(Phase.URI_PARSING, metricsUriParser);
+        tagMeasurements(method);
+        throw e;
+      }
       debugger.stopRuntimeMeasurement(measurementUriParser);
-      debugger.stopRuntimeMeasurement(measurementHandle);
-      throw e;
-    }
-    debugger.stopRuntimeMeasurement(measurementUriParser);
+      stopMeasurement(Phase.URI_PARSING, metricsUriParser);
 
-    final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
-    final HttpMethod method = request.getMethod();
-    try {
-      new UriValidator().validate(uriInfo, method);
-    } catch (final UriValidationException e) {
+      final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
+      final long metricsUriValidator = startMeasurement();
+      try {
+        new UriValidator().validate(uriInfo, method);
+      } catch (final UriValidationException e) {
+        debugger.stopRuntimeMeasurement(measurementUriValidator);
+        debugger.stopRuntimeMeasurement(measurementHandle);
+        stopMeasurement(Phase.URI_VALIDATION, metricsUriValidator);
+        tagMeasurements(method);
+        throw e;
+      }
       debugger.stopRuntimeMeasurement(measurementUriValidator);
-      debugger.stopRuntimeMeasurement(measurementHandle);
-      throw e;
+      stopMeasurement(Phase.URI_VALIDATION, metricsUriValidator);
+
+      if (uriInfoCache != null) {
+        uriInfoCache.put(method, request.getRawBaseUri(), request.getRawODataPath(), request.getRawQueryPath(),
+            uriInfo);
+      }
     }
-    debugger.stopRuntimeMeasurement(measurementUriValidator);
 
+    tagMeasurements(method);
     final int measurementDispatcher = debugger.startRuntimeMeasurement("ODataDispatcher", "dispatch");
+    final long metricsDispatcher = startMeasurement();
+    final long nestedNanos = requestMetrics == null ? 0 : requestMetrics.getRecordedNanos();
     try {
       new ODataDispatcher(uriInfo, this).dispatch(request, response);
     } finally {
       debugger.stopRuntimeMeasurement(measurementDispatcher);
       debugger.stopRuntimeMeasurement(measurementHandle);
+      if (requestMetrics != null) {
+        // The phases measured while dispatching, e.g., content negotiation, are not part of the processor phase.
+        requestMetrics.record(Phase.PROCESSOR,
+            System.nanoTime() - metricsDispatcher - (requestMetrics.getRecordedNanos() - nestedNanos));
+      }
+    }
+  }
+
+  private void tagMeasurements(final HttpMethod method) {
+    if (requestMetrics != null) {
+      requestMetrics.tag(method, uriInfo);
+    }
+  }
+
+  /**
+   * Starts a measurement for the registered {@link ODataMetrics}.
+   * @return the start time, to be passed to {@link #stopMeasurement(Phase, long)}
+   */
+  public long startMeasurement() {
+    return requestMetrics == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Stops a measurement for the registered {@link ODataMetrics}; the durations of a phase are summed up
+   * until they are reported with {@link #reportMeasurements(long)}.
+   * @param phase the measured phase
+   * @param start the start time returned by {@link #startMeasurement()}
+   */
+  public void stopMeasurement(final Phase phase, final long start) {
+    if (requestMetrics != null) {
+      requestMetrics.record(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Reports the measurements of the current request to the registered {@link ODataMetrics}
+   * and resets them for the next request.
+   * @param bytesWritten the number of bytes of response content written or -1 if not known
+   */
+  public void reportMeasurements(final long bytesWritten) {
+    if (requestMetrics != null) {
+      requestMetrics.report(bytesWritten);
+    }
+  }
+
+  /** Discards the measurements not reported so far, e.g., of requests processed without HTTP handling. */
+  public void resetMeasurements() {
+    if (requestMetrics != null) {
+      requestMetrics.reset();
     }
   }
 
@@ -265,6 +346,12 @@ public class ODataHandlerImpl implements ODataHandler {
       this.customContentTypeSupport = (CustomContentTypeSupport) extension;
     } else if(extension instanceof CustomETagSupport) {
       this.customETagSupport = (CustomETagSupport) extension;
+    } else if(extension instanceof ParallelBatchSupport) {
+      this.parallelBatchSupport = (ParallelBatchSupport) extension;
+    } else if(extension instanceof ResponseCompressionSupport) {
+      this.responseCompressionSupport = (ResponseCompressionSupport) extension;
+    } else if(extension instanceof ODataMetrics) {
+      this.requestMetrics = new RequestMetrics((ODataMetrics) extension);
     } else {
       throw new ODataRuntimeException("Got not supported exception with class name " +
           extension.getClass().getSimpleName());
@@ -279,6 +366,59 @@ public class ODataHandlerImpl implements ODataHandler {
     return customETagSupport;
   }
 
+  public ParallelBatchSupport getParallelBatchSupport() {
+    return parallelBatchSupport;
+  }
+
+  public ResponseCompressionSupport getResponseCompressionSupport() {
+    return responseCompressionSupport;
+  }
+
+  /**
+   * Compresses the content of the response to an HTTP request if response compression has been registered
+   * and the client accepts a supported content coding.
+   * This is not done in {@link #process(ODataRequest)}, which also processes the parts of batch requests.
+   * @param request  the processed request
+   * @param response the response to be sent
+   */
+  public void compressResponse(final ODataRequest request, final ODataResponse response) {
+    if (responseCompressionSupport != null) {
+      new ResponseCompressor(responseCompressionSupport).compress(request, response, getCachedDocument(response));
+    }
+  }
+
+  private DocumentCache.Document getCachedDocument(final ODataResponse response) {
+    final DocumentCache documentCache = serviceMetadata.getDocumentCache();
+    final String contentType = response.getHeader(HttpHeader.CONTENT_TYPE);
+    if (documentCache != null && uriInfo != null && contentType != null
+        && (uriInfo.getKind() == UriInfoKind.metadata || uriInfo.getKind() == UriInfoKind.service)
+        && response.getStatusCode() == HttpStatusCode.OK.getStatusCode()) {
+      try {
+        return documentCache.get(uriInfo.getKind(), ContentType.create(contentType));
+      } catch (final IllegalArgumentException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Creates a new handler with the same processors and extensions.
+   * As this class is not thread-safe, the copy can be used to process requests
+   * concurrently to this instance. Runtime measurements and metrics are not recorded in the copy.
+   * @return a new handler instance
+   */
+  public ODataHandlerImpl copy() {
+    final ODataHandlerImpl copy = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    copy.processors.clear();
+    copy.processors.addAll(processors);
+    copy.customContentTypeSupport = customContentTypeSupport;
+    copy.customETagSupport = customETagSupport;
+    copy.parallelBatchSupport = parallelBatchSupport;
+    copy.responseCompressionSupport = responseCompressionSupport;
+    return copy;
+  }
+
   public Exception getLastThrownException() {
     return lastThrownException;
   }
@@ -35,6 +35,7 @@ import java.util.Map.Entry;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
@@ -42,6 +43,7 @@ import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataContent;
 import org.apache.olingo.server.api.ODataHttpHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataMetrics.Phase;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
@@ -80,6 +82,8 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     Exception exception = null;
     ODataResponse odResponse;
     debugger.resolveDebugMode(request);
+    handler.resetMeasurements();
+    final long requestMeasurement = handler.startMeasurement();
 
     final int processMethodHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "process");
     try {
@@ -102,9 +106,15 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
       odResponse =
           debugger.createDebugResponse(odRequest, odResponse, exception, handler.getUriInfo(),
               serverEnvironmentVariables);
+    } else {
+      handler.compressResponse(odRequest, odResponse);
     }
 
-    convertToHttp(response, odResponse);
+    final long writeMeasurement = handler.startMeasurement();
+    final long bytesWritten = writeResponse(response, odResponse);
+    handler.stopMeasurement(Phase.RESPONSE_WRITE, writeMeasurement);
+    handler.stopMeasurement(Phase.REQUEST, requestMeasurement);
+    handler.reportMeasurements(bytesWritten);
   }
 
   private Map<String, String> createEnvironmentVariablesMap(final HttpServletRequest request) {
@@ -150,6 +160,14 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
   }
 
   static void convertToHttp(final HttpServletResponse response, final ODataResponse odResponse) {
+    writeResponse(response, odResponse);
+  }
+
+  /**
+   * Copies status, headers, and content of the OData response to the servlet response.
+   * @return the number of content bytes written
+   */
+  static long writeResponse(final HttpServletResponse response, final ODataResponse odResponse) {
     response.setStatus(odResponse.getStatusCode());
 
     for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
@@ -159,33 +177,38 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     }
 
     if (odResponse.getContent() != null) {
-      copyContent(odResponse.getContent(), response);
+      return copyContent(odResponse.getContent(), response);
     } else if (odResponse.getODataContent() != null) {
-      writeContent(odResponse, response);
+      return writeContent(odResponse, response);
     }
+    return 0;
   }
   
-  static void writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
+  static long writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
     try {
       ODataContent res = odataResponse.getODataContent();
-      res.write(Channels.newChannel(servletResponse.getOutputStream()));
+      final CountingOutputStream output = new CountingOutputStream(servletResponse.getOutputStream());
+      res.write(Channels.newChannel(output));
+      return output.getByteCount();
     } catch (IOException e) {
       throw new ODataRuntimeException("Error on reading request content", e);
     }
   }
 
-  static void copyContent(final InputStream inputStream, final HttpServletResponse servletResponse) {
-    copyContent(Channels.newChannel(inputStream), servletResponse);
+  static long copyContent(final InputStream inputStream, final HttpServletResponse servletResponse) {
+    return copyContent(Channels.newChannel(inputStream), servletResponse);
   }
 
-  static void copyContent(final ReadableByteChannel input, final HttpServletResponse servletResponse) {
+  static long copyContent(final ReadableByteChannel input, final HttpServletResponse servletResponse) {
     try (WritableByteChannel output = Channels.newChannel(servletResponse.getOutputStream());) {
       ByteBuffer inBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+      long count = 0;
       while (input.read(inBuffer) > 0) {
         inBuffer.flip();
-        output.write(inBuffer);
+        count += output.write(inBuffer);
         inBuffer.clear();
       }
+      return count;
     } catch (IOException e) {
       throw new ODataRuntimeException("Error on reading request content", e);
     } finally {
@@ -211,7 +234,9 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
       odRequest.setProtocol(httpRequest.getProtocol());
       odRequest.setMethod(extractMethod(httpRequest));
       int innerHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "copyHeaders");
+      final long headerMeasurement = handler.startMeasurement();
       copyHeaders(odRequest, httpRequest);
+      handler.stopMeasurement(Phase.HEADER_COPY, headerMeasurement);
       debugger.stopRuntimeMeasurement(innerHandle);
       innerHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillUriInformation");
       fillUriInformation(odRequest, httpRequest, split);
@@ -30,6 +30,7 @@ import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.DocumentCache;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataHttpHandler;
@@ -39,6 +40,7 @@ import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.deserializer.FixedFormatDeserializer;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.api.etag.ETagHelper;
+import org.apache.olingo.server.api.expand.ExpandResolver;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.prefer.Preferences;
 import org.apache.olingo.server.api.serializer.EdmAssistedSerializer;
@@ -47,12 +49,14 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.DebugResponseHelperImpl;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import org.apache.olingo.server.core.deserializer.FixedFormatDeserializerImpl;
 import org.apache.olingo.server.core.deserializer.json.ODataJsonDeserializer;
 import org.apache.olingo.server.core.deserializer.xml.ODataXmlDeserializer;
 import org.apache.olingo.server.core.etag.ETagHelperImpl;
+import org.apache.olingo.server.core.expand.ExpandResolverImpl;
 import org.apache.olingo.server.core.prefer.PreferencesImpl;
 import org.apache.olingo.server.core.serializer.FixedFormatSerializerImpl;
 import org.apache.olingo.server.core.serializer.json.EdmAssistedJsonSerializer;
@@ -61,6 +65,7 @@ import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializerWithNavigations;
 import org.apache.olingo.server.core.serializer.xml.ODataXmlSerializer;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
+import org.apache.olingo.server.core.uri.UriInfoCacheImpl;
 
 public class ODataImpl extends OData {
 
@@ -205,6 +210,13 @@ public class ODataImpl extends OData {
     return new ServiceMetadataImpl(edmProvider, references, serviceMetadataETagSupport);
   }
 
+  @Override
+  public ServiceMetadata createServiceMetadata(final CsdlEdmProvider edmProvider,
+      final List<EdmxReference> references, final ServiceMetadataETagSupport serviceMetadataETagSupport,
+      final boolean loadEdmEagerly) {
+    return new ServiceMetadataImpl(edmProvider, references, serviceMetadataETagSupport, loadEdmEagerly);
+  }
+
   @Override
   public FixedFormatDeserializer createFixedFormatDeserializer() {
     return new FixedFormatDeserializerImpl();
@@ -250,11 +262,26 @@ public class ODataImpl extends OData {
     return EdmPrimitiveTypeFactory.getInstance(kind);
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(final int maxEntries) {
+    return new UriInfoCacheImpl(maxEntries);
+  }
+
+  @Override
+  public DocumentCache createDocumentCache(final boolean precompress) {
+    return new DocumentCacheImpl(precompress);
+  }
+
   @Override
   public ETagHelper createETagHelper() {
     return new ETagHelperImpl();
   }
 
+  @Override
+  public ExpandResolver createExpandResolver() {
+    return new ExpandResolverImpl();
+  }
+
   @Override
   public Preferences createPreferences(final Collection<String> preferHeaders) {
     return new PreferencesImpl(preferHeaders);
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.Arrays;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.ODataMetrics;
+import org.apache.olingo.server.api.ODataMetrics.Phase;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+
+/**
+ * Collects the phase durations of a request and reports them to the registered {@link ODataMetrics}.
+ * Like the handler it belongs to, it is used for one request at a time.
+ */
+final class RequestMetrics {
+
+  private static final Phase[] PHASES = Phase.values();
+
+  private final ODataMetrics metrics;
+  private final long[] nanos = new long[PHASES.length];
+  private long recordedNanos;
+  private HttpMethod method;
+  private UriInfoKind kind;
+  private String entitySetName;
+
+  RequestMetrics(final ODataMetrics metrics) {
+    this.metrics = metrics;
+    reset();
+  }
+
+  void reset() {
+    Arrays.fill(nanos, -1);
+    recordedNanos = 0;
+    method = null;
+    kind = null;
+    entitySetName = null;
+  }
+
+  void record(final Phase phase, final long duration) {
+    final int index = phase.ordinal();
+    nanos[index] = Math.max(nanos[index], 0) + duration;
+    recordedNanos += duration;
+  }
+
+  /** Gets the sum of all durations recorded so far; used to exclude nested phases. */
+  long getRecordedNanos() {
+    return recordedNanos;
+  }
+
+  /**
+   * Sets the tags of the measurements unless already set, so that the tags of a batch request
+   * are not replaced by the ones of its parts.
+   */
+  void tag(final HttpMethod method, final UriInfo uriInfo) {
+    if (this.method == null) {
+      this.method = method;
+    }
+    if (kind == null && uriInfo != null) {
+      kind = uriInfo.getKind();
+      if (kind == UriInfoKind.resource) {
+        final UriResource first = uriInfo.getUriResourceParts().isEmpty() ? null : uriInfo.getUriResourceParts().get(0);
+        entitySetName = first instanceof UriResourceEntitySet ?
+            ((UriResourceEntitySet) first).getEntitySet().getName() : null;
+      }
+    }
+  }
+
+  void report(final long bytesWritten) {
+    for (final Phase phase : PHASES) {
+      if (nanos[phase.ordinal()] >= 0) {
+        metrics.phase(phase, nanos[phase.ordinal()], method, kind, entitySetName);
+      }
+    }
+    if (bytesWritten >= 0) {
+      metrics.bytesWritten(bytesWritten, method, kind, entitySetName);
+    }
+    reset();
+  }
+}
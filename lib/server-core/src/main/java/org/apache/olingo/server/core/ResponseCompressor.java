@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DocumentCache;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ResponseCompressionSupport;
+
+/**
+ * Compresses response content according to the registered {@link ResponseCompressionSupport}
+ * and the <code>Accept-Encoding</code> header of the request.
+ * <p>Content given as stream is compressed while it is written to the client.
+ * Cached service and metadata documents are compressed once;
+ * the compressed bytes are kept with the {@link DocumentCache.Document}.</p>
+ */
+final class ResponseCompressor {
+
+  static final String GZIP = "gzip";
+  static final String DEFLATE = "deflate";
+  private static final int BUFFER_SIZE = 8192;
+
+  private final ResponseCompressionSupport support;
+
+  ResponseCompressor(final ResponseCompressionSupport support) {
+    this.support = support;
+  }
+
+  /**
+   * Replaces the content of the response with its compressed form if the content qualifies for compression
+   * and the client accepts a supported content coding.
+   * @param request        the request
+   * @param response       the response to be sent
+   * @param document the cached document the response content could be, or <code>null</code>;
+   *                 its compressed form is used and kept if the content is the document
+   */
+  void compress(final ODataRequest request, final ODataResponse response, final DocumentCache.Document document) {
+    final InputStream content = response.getContent();
+    final ODataContent odataContent = response.getODataContent();
+    final int statusCode = response.getStatusCode();
+    if (content == null && odataContent == null
+        || statusCode < HttpStatusCode.OK.getStatusCode()
+        || statusCode == HttpStatusCode.NO_CONTENT.getStatusCode()
+        || statusCode == HttpStatusCode.PARTIAL_CONTENT.getStatusCode()
+        || statusCode == HttpStatusCode.NOT_MODIFIED.getStatusCode()
+        || response.getHeader(HttpHeader.CONTENT_ENCODING) != null
+        || !isCompressible(response.getHeader(HttpHeader.CONTENT_TYPE))) {
+      return;
+    }
+    // The response depends on the request header even if it is sent uncompressed.
+    response.addHeader(HttpHeader.VARY, Collections.singletonList(HttpHeader.ACCEPT_ENCODING));
+    final String coding = negotiate(request.getHeaders(HttpHeader.ACCEPT_ENCODING));
+    if (coding == null || content != null && isSmall(response.getHeader(HttpHeader.CONTENT_LENGTH))) {
+      return;
+    }
+
+    try {
+      if (odataContent != null) {
+        response.setODataContent(new CompressedContent(coding, support.getCompressionLevel(), odataContent, null));
+      } else if (document != null) {
+        final byte[] bytes = read(content, Integer.MAX_VALUE);
+        if (bytes.length < support.getMinimumSize()) {
+          response.setContent(new ByteArrayInputStream(bytes));
+          return;
+        }
+        // Another processor than the default processor could have created the response.
+        final boolean cached = Arrays.equals(bytes, document.getContent());
+        byte[] compressed = cached ? document.getCompressedContent(coding) : null;
+        if (compressed == null) {
+          compressed = compress(bytes, coding, support.getCompressionLevel());
+          if (cached) {
+            document.setCompressedContent(coding, compressed);
+          }
+        }
+        response.setContent(new ByteArrayInputStream(compressed));
+        response.setHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(compressed.length));
+        response.setHeader(HttpHeader.CONTENT_ENCODING, coding);
+        return;
+      } else {
+        final byte[] head = read(content, support.getMinimumSize());
+        if (head.length < support.getMinimumSize()) {
+          // The whole content has been read and it is too small.
+          response.setContent(new ByteArrayInputStream(head));
+          return;
+        }
+        response.setContent(null);
+        response.setODataContent(new CompressedContent(coding, support.getCompressionLevel(), null,
+            new SequenceInputStream(new ByteArrayInputStream(head), content)));
+      }
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Error on compressing response content", e);
+    }
+    response.removeHeader(HttpHeader.CONTENT_LENGTH);
+    response.setHeader(HttpHeader.CONTENT_ENCODING, coding);
+  }
+
+  private boolean isCompressible(final String contentType) {
+    if (contentType == null) {
+      return false;
+    }
+    final ContentType type;
+    try {
+      type = ContentType.create(contentType);
+    } catch (final IllegalArgumentException e) {
+      return false;
+    }
+    for (final ContentType compressible : support.getContentTypes()) {
+      if (type.isCompatible(compressible)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isSmall(final String contentLength) {
+    try {
+      return contentLength != null && Long.parseLong(contentLength.trim()) < support.getMinimumSize();
+    } catch (final NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Selects the content coding from the values of the <code>Accept-Encoding</code> header.
+   * The coding with the highest quality value is preferred; <code>gzip</code> wins ties.
+   * @param acceptEncoding header values, may be <code>null</code>
+   * @return the selected coding or <code>null</code> if the client does not accept a supported coding
+   */
+  static String negotiate(final List<String> acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    float gzip = -1;
+    float deflate = -1;
+    float any = -1;
+    for (final String value : acceptEncoding) {
+      for (final String element : value.split(",")) {
+        final String[] parts = element.split(";");
+        final String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+        final float quality = quality(parts);
+        if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+          gzip = Math.max(gzip, quality);
+        } else if (DEFLATE.equals(coding)) {
+          deflate = Math.max(deflate, quality);
+        } else if ("*".equals(coding)) {
+          any = Math.max(any, quality);
+        }
+      }
+    }
+    if (gzip < 0) {
+      gzip = any;
+    }
+    if (deflate < 0) {
+      deflate = any;
+    }
+    return gzip > 0 && gzip >= deflate ? GZIP : deflate > 0 ? DEFLATE : null;
+  }
+
+  private static float quality(final String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      final String parameter = parameters[i].trim();
+      if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+          && parameter.charAt(1) == '=') {
+        try {
+          final float quality = Float.parseFloat(parameter.substring(2).trim());
+          return quality >= 0 && quality <= 1 ? quality : 0;
+        } catch (final NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Reads from the stream until the given number of bytes or the end of the stream has been reached.
+   * The stream is closed if its end has been reached.
+   */
+  private static byte[] read(final InputStream stream, final int limit) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(limit, BUFFER_SIZE));
+    final byte[] buffer = new byte[Math.min(limit, BUFFER_SIZE)];
+    int count = 0;
+    while (output.size() < limit
+        && (count = stream.read(buffer, 0, Math.min(buffer.length, limit - output.size()))) > -1) {
+      output.write(buffer, 0, count);
+    }
+    if (count < 0) {
+      closeStream(stream);
+    }
+    return output.toByteArray();
+  }
+
+  static byte[] compress(final byte[] bytes, final String coding, final int level) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (CompressingOutputStream compressing = new CompressingOutputStream(output, GZIP.equals(coding), level)) {
+      compressing.write(bytes);
+    }
+    return output.toByteArray();
+  }
+
+  private static void closeStream(final InputStream stream) {
+    try {
+      stream.close();
+    } catch (final IOException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Compresses the content of another {@link ODataContent} or of a stream while it is written.
+   */
+  private static final class CompressedContent implements ODataContent {
+
+    private final String coding;
+    private final int level;
+    private final ODataContent content;
+    private final InputStream stream;
+
+    private CompressedContent(final String coding, final int level,
+        final ODataContent content, final InputStream stream) {
+      this.coding = coding;
+      this.level = level;
+      this.content = content;
+      this.stream = stream;
+    }
+
+    @Override
+    public void write(final WritableByteChannel channel) {
+      write(Channels.newOutputStream(channel));
+    }
+
+    @Override
+    public void write(final OutputStream output) {
+      try (CompressingOutputStream compressing = new CompressingOutputStream(output, GZIP.equals(coding), level)) {
+        if (content == null) {
+          final byte[] buffer = new byte[BUFFER_SIZE];
+          int count;
+          while ((count = stream.read(buffer)) > -1) {
+            compressing.write(buffer, 0, count);
+          }
+        } else {
+          content.write(compressing);
+        }
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on compressing response content", e);
+      } finally {
+        if (stream != null) {
+          closeStream(stream);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the <code>deflate</code> (zlib) or <code>gzip</code> format of the written bytes.
+   * <p>Closing the stream finishes the compressed data and releases the compressor
+   * but does not close the underlying stream, which is managed by the servlet container or Netty.</p>
+   */
+  static final class CompressingOutputStream extends DeflaterOutputStream {
+
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final CRC32 crc;
+    private boolean closed;
+
+    CompressingOutputStream(final OutputStream output, final boolean gzip, final int level) throws IOException {
+      super(output, new Deflater(level, gzip), BUFFER_SIZE);
+      if (gzip) {
+        crc = new CRC32();
+        output.write(GZIP_HEADER);
+      } else {
+        crc = null;
+      }
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+      super.write(bytes, offset, length);
+      if (crc != null) {
+        crc.update(bytes, offset, length);
+      }
+    }
+
+    @Override
+    public void finish() throws IOException {
+      if (!def.finished()) {
+        super.finish();
+        if (crc != null) {
+          writeTrailerInt(crc.getValue());
+          writeTrailerInt(def.getBytesRead());
+        }
+      }
+    }
+
+    private void writeTrailerInt(final long value) throws IOException {
+      out.write((int) value);
+      out.write((int) (value >> 8));
+      out.write((int) (value >> 16));
+      out.write((int) (value >> 24));
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        try {
+          finish();
+          out.flush();
+        } finally {
+          def.end();
+        }
+      }
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.olingo.commons.api.data.CustomNamespace;
 import org.apache.olingo.commons.api.edm.Edm;
@@ -31,9 +32,11 @@ import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
+import org.apache.olingo.server.api.DocumentCache;
 import org.apache.olingo.server.api.SerializerOptions;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 /**
  */
@@ -46,6 +49,10 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   private SerializerOptions serializerOptions;
   private Supplier<ObjectMapper> jsonMapperSupplier;
   private Supplier<JsonFactory> jsonFactorySupplier;
+  private volatile ObjectMapper jsonMapper;
+  private volatile JsonFactory jsonFactory;
+  private volatile UriInfoCache uriInfoCache;
+  private volatile DocumentCache documentCache = new DocumentCacheImpl(false);
 
   public ServiceMetadataImpl(final CsdlEdmProvider edmProvider, final List<EdmxReference> references,
       final ServiceMetadataETagSupport serviceMetadataETagSupport) {
@@ -56,7 +63,15 @@ public class ServiceMetadataImpl implements ServiceMetadata {
     this.customNamespaces = new ArrayList<>();
     this.serializerOptions = SerializerOptions.defaults();
     this.jsonMapperSupplier = ObjectMapper::new;
-    this.jsonFactorySupplier = () -> new JsonFactory(this.jsonMapperSupplier.get());
+    this.jsonFactorySupplier = () -> getJsonMapper().getFactory();
+  }
+
+  public ServiceMetadataImpl(final CsdlEdmProvider edmProvider, final List<EdmxReference> references,
+      final ServiceMetadataETagSupport serviceMetadataETagSupport, final boolean loadEdmEagerly) {
+    this(edmProvider, references, serviceMetadataETagSupport);
+    if (loadEdmEagerly) {
+      ((EdmProviderImpl) edm).loadAll();
+    }
   }
 
   @Override
@@ -99,23 +114,82 @@ public class ServiceMetadataImpl implements ServiceMetadata {
     this.serializerOptions = options;
   }
 
+  /**
+   * Gets the JSON mapper of this service.
+   * The mapper is created once with the configured supplier and then shared by all requests;
+   * it is configured for OData (duplicate-key detection, BigDecimal for floating-point numbers).
+   */
   @Override
   public ObjectMapper getJsonMapper() {
-    return this.jsonMapperSupplier.get();
+    ObjectMapper mapper = jsonMapper;
+    if (mapper == null) {
+      synchronized (this) {
+        mapper = jsonMapper;
+        if (mapper == null) {
+          mapper = jsonMapperSupplier.get()
+              .configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true)
+              .configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
+          jsonMapper = mapper;
+        }
+      }
+    }
+    return mapper;
   }
 
   @Override
-  public void setJsonMapperSupplier(Supplier<ObjectMapper> mapperFactory) {
+  public synchronized void setJsonMapperSupplier(Supplier<ObjectMapper> mapperFactory) {
     this.jsonMapperSupplier = mapperFactory;
+    this.jsonMapper = null;
+    this.jsonFactory = null;
   }
 
+  /**
+   * Gets the JSON factory of this service.
+   * The factory is created once with the configured supplier and then shared by all requests;
+   * by default it is the factory of the {@link #getJsonMapper() JSON mapper}.
+   */
   @Override
   public JsonFactory getJsonFactory() {
-    return this.jsonFactorySupplier.get();
+    JsonFactory factory = jsonFactory;
+    if (factory == null) {
+      synchronized (this) {
+        factory = jsonFactory;
+        if (factory == null) {
+          factory = jsonFactorySupplier.get();
+          jsonFactory = factory;
+        }
+      }
+    }
+    return factory;
   }
 
   @Override
-  public void setJsonFactorySupplier(Supplier<JsonFactory> factorySupplier) {
+  public synchronized void setJsonFactorySupplier(Supplier<JsonFactory> factorySupplier) {
     this.jsonFactorySupplier = factorySupplier;
+    this.jsonFactory = null;
+  }
+
+  @Override
+  public UriInfoCache getUriInfoCache() {
+    return uriInfoCache;
+  }
+
+  @Override
+  public void setUriInfoCache(final UriInfoCache uriInfoCache) {
+    this.uriInfoCache = uriInfoCache;
+  }
+
+  /**
+   * Gets the cache for serialized service and metadata documents.
+   * Service metadata have a cache by default, as these documents cannot change.
+   */
+  @Override
+  public DocumentCache getDocumentCache() {
+    return documentCache;
+  }
+
+  @Override
+  public void setDocumentCache(final DocumentCache documentCache) {
+    this.documentCache = documentCache;
   }
 }
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.apply;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression.StandardMethod;
+import org.apache.olingo.server.core.queryoptions.CompiledValue;
+
+/**
+ * Accumulates the values of one aggregate expression within one group.
+ * <p>The values are the normalized values of the compiled aggregated expression, see {@link CompiledValue}.
+ * Accumulators for parts of the input can be merged; the result does not depend on the order
+ * of additions and merges except for the rounding of floating-point sums.</p>
+ */
+abstract class Accumulator {
+
+  /**
+   * Adds a value.
+   * @param value the value of the aggregated expression or <code>null</code>
+   */
+  abstract void add(Object value);
+
+  /**
+   * Merges the values accumulated by another accumulator of the same kind into this one.
+   * @param other the other accumulator; it must not be used afterwards
+   */
+  abstract void merge(Accumulator other);
+
+  /** Gets the aggregated value or <code>null</code>. */
+  abstract Object result();
+
+  /**
+   * Creates an accumulator.
+   * @param method     the standard aggregation method or <code>null</code> for <code>$count</code>
+   * @param expression the aggregated expression or <code>null</code> for <code>$count</code>;
+   *                   it must be numeric for <code>sum</code> and <code>average</code>
+   *                   and ordered for <code>min</code> and <code>max</code>
+   */
+  static Accumulator create(final StandardMethod method, final CompiledValue expression) {
+    if (method == null) {
+      return new Count();
+    }
+    switch (method) {
+    case SUM:
+      return new Sum();
+    case AVERAGE:
+      return new Average();
+    case MIN:
+      return new Extremum(expression, false);
+    case MAX:
+      return new Extremum(expression, true);
+    case COUNT_DISTINCT:
+      return new CountDistinct(expression);
+    default:
+      throw new IllegalArgumentException(method.name());
+    }
+  }
+
+  /** Counts all additions including <code>null</code> values, as needed for <code>$count</code>. */
+  static final class Count extends Accumulator {
+    private long count;
+
+    @Override
+    void add(final Object value) {
+      count++;
+    }
+
+    @Override
+    void merge(final Accumulator other) {
+      count += ((Count) other).count;
+    }
+
+    @Override
+    Object result() {
+      return count;
+    }
+  }
+
+  /**
+   * Sums up numbers, ignoring <code>null</code> values.
+   * Whole numbers are summed up as <code>long</code> until that would overflow,
+   * floating-point values as <code>double</code>, and only decimals as {@link BigDecimal}.
+   */
+  static class Sum extends Accumulator {
+    private long longSum;
+    private double doubleSum;
+    private boolean hasDouble;
+    private BigDecimal decimalSum;
+    long count;
+
+    @Override
+    void add(final Object value) {
+      if (value == null) {
+        return;
+      }
+      count++;
+      if (value instanceof Long) {
+        addLong((Long) value);
+      } else if (value instanceof Double) {
+        doubleSum += (Double) value;
+        hasDouble = true;
+      } else {
+        addDecimal((BigDecimal) value);
+      }
+    }
+
+    private void addLong(final long value) {
+      final long sum = longSum + value;
+      // Overflow happened if both summands have the sign opposite to the sign of the result.
+      if (((longSum ^ sum) & (value ^ sum)) < 0) {
+        addDecimal(BigDecimal.valueOf(longSum).add(BigDecimal.valueOf(value)));
+        longSum = 0;
+      } else {
+        longSum = sum;
+      }
+    }
+
+    private void addDecimal(final BigDecimal value) {
+      decimalSum = decimalSum == null ? value : decimalSum.add(value);
+    }
+
+    @Override
+    void merge(final Accumulator other) {
+      final Sum sum = (Sum) other;
+      count += sum.count;
+      addLong(sum.longSum);
+      doubleSum += sum.doubleSum;
+      hasDouble |= sum.hasDouble;
+      if (sum.decimalSum != null) {
+        addDecimal(sum.decimalSum);
+      }
+    }
+
+    @Override
+    Object result() {
+      if (!hasDouble && decimalSum == null) {
+        return longSum;
+      }
+      return decimal();
+    }
+
+    /** Gets the sum as decimal or <code>null</code> if a floating-point sum is not finite. */
+    BigDecimal decimal() {
+      if (hasDouble && !Double.isFinite(doubleSum)) {
+        return null;
+      }
+      BigDecimal result = BigDecimal.valueOf(longSum);
+      if (hasDouble) {
+        result = result.add(BigDecimal.valueOf(doubleSum));
+      }
+      return decimalSum == null ? result : result.add(decimalSum);
+    }
+  }
+
+  /** Calculates the average of numbers, ignoring <code>null</code> values. */
+  static final class Average extends Sum {
+    @Override
+    Object result() {
+      final BigDecimal sum = count == 0 ? null : decimal();
+      return sum == null ? null : sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+    }
+  }
+
+  /** Determines the minimum or maximum value, ignoring <code>null</code> values. */
+  static final class Extremum extends Accumulator {
+    private final CompiledValue expression;
+    private final boolean maximum;
+    private Object value;
+
+    Extremum(final CompiledValue expression, final boolean maximum) {
+      this.expression = expression;
+      this.maximum = maximum;
+    }
+
+    @Override
+    void add(final Object value) {
+      if (value != null) {
+        if (this.value == null) {
+          this.value = value;
+        } else {
+          final int comparison = expression.compare(value, this.value);
+          if (maximum ? comparison > 0 : comparison < 0) {
+            this.value = value;
+          }
+        }
+      }
+    }
+
+    @Override
+    void merge(final Accumulator other) {
+      add(((Extremum) other).value);
+    }
+
+    @Override
+    Object result() {
+      return value;
+    }
+  }
+
+  /** Counts the distinct values, ignoring <code>null</code> values. */
+  static final class CountDistinct extends Accumulator {
+    private final CompiledValue expression;
+    private final Set<Object> values = new HashSet<>();
+
+    CountDistinct(final CompiledValue expression) {
+      this.expression = expression;
+    }
+
+    @Override
+    void add(final Object value) {
+      if (value != null) {
+        values.add(expression.hashKey(value));
+      }
+    }
+
+    @Override
+    void merge(final Accumulator other) {
+      values.addAll(((CountDistinct) other).values);
+    }
+
+    @Override
+    Object result() {
+      return (long) values.size();
+    }
+  }
+}
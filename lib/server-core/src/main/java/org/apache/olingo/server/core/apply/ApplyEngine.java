@@ -0,0 +1,680 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.apply;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceCount;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression.StandardMethod;
+import org.apache.olingo.server.api.uri.queryoption.apply.BottomTop;
+import org.apache.olingo.server.api.uri.queryoption.apply.Compute;
+import org.apache.olingo.server.api.uri.queryoption.apply.ComputeExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.Filter;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
+import org.apache.olingo.server.api.uri.queryoption.apply.OrderBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.Skip;
+import org.apache.olingo.server.api.uri.queryoption.apply.Top;
+import org.apache.olingo.server.core.queryoptions.CompiledFilter;
+import org.apache.olingo.server.core.queryoptions.CompiledOrderBy;
+import org.apache.olingo.server.core.queryoptions.CompiledValue;
+
+/**
+ * Applies the transformations of a system query option <code>$apply</code> to a sequence of entities.
+ * <p>Expressions are compiled once per transformation with the compiler of the system query options
+ * <code>$filter</code> and <code>$orderby</code>, see {@link CompiledValue}.
+ * Filter and compute transformations are applied entity by entity while reading the input.
+ * Aggregations and groupings are done in hash tables with one accumulator per aggregate expression
+ * and group; with an executor, the input is read in chunks that are aggregated in parallel and
+ * merged afterwards in input order, so that the order of the groups is the same as without executor.
+ * <code>topcount</code> and <code>bottomcount</code> keep only the requested number of entities.</p>
+ * <p>The resulting entities contain the grouping properties and the aggregated values as properties
+ * with type names, described by the type {@link ApplyOption#getEdmStructuredType()} of the option;
+ * they can be serialized with the EDM-assisted serializer.
+ * Computed, grouping, and aggregated values are normalized as described at {@link CompiledValue}.
+ * Aggregated values of aggregation methods <code>sum</code>, <code>average</code>,
+ * and <code>countdistinct</code>, and of <code>$count</code> have type <code>Edm.Decimal</code>.</p>
+ * <p>The transformations <code>concat</code>, <code>search</code>, <code>expand</code>, and custom functions,
+ * custom aggregates, rollup, and grouping by navigation or complex properties are not supported.</p>
+ * <p>Instances are thread-safe if the executor is.</p>
+ */
+public class ApplyEngine {
+
+  private static final String DECIMAL = EdmPrimitiveTypeKind.Decimal.getFullQualifiedName()
+      .getFullQualifiedNameAsString();
+
+  private final ExecutorService executor;
+  private final int chunkSize;
+
+  /** Creates an engine that works in the calling thread. */
+  public ApplyEngine() {
+    executor = null;
+    chunkSize = 0;
+  }
+
+  /**
+   * Creates an engine that aggregates in parallel.
+   * @param executor  the executor for the aggregation of chunks of the input
+   * @param chunkSize the number of input entities per chunk
+   */
+  public ApplyEngine(final ExecutorService executor, final int chunkSize) {
+    if (executor == null || chunkSize <= 0) {
+      throw new IllegalArgumentException("An executor and a positive chunk size are required.");
+    }
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Applies the transformations.
+   * @param option   the system query option <code>$apply</code>
+   * @param entities the input entities, e.g., an {@link org.apache.olingo.commons.api.data.EntityIterator}
+   * @return the resulting entities
+   * @throws ODataApplicationException if a transformation is not supported (501)
+   *                                   or cannot be applied to the input (400)
+   */
+  public EntityCollection apply(final ApplyOption option, final Iterator<Entity> entities)
+      throws ODataApplicationException {
+    final Flow flow = apply(option.getApplyItems(), new Flow(entities));
+    final EntityCollection result = new EntityCollection();
+    for (Entity entity = flow.next(); entity != null; entity = flow.next()) {
+      result.getEntities().add(entity);
+    }
+    return result;
+  }
+
+  private Flow apply(final List<ApplyItem> items, final Flow input) throws ODataApplicationException {
+    Flow flow = input;
+    for (final ApplyItem item : items) {
+      switch (item.getKind()) {
+      case IDENTITY:
+        break;
+      case FILTER:
+        final CompiledFilter filter = CompiledFilter.compile(((Filter) item).getFilterOption());
+        flow.steps.add(entity -> filter.matches(entity) ? entity : null);
+        break;
+      case COMPUTE:
+        flow.steps.add(computeStep((Compute) item));
+        break;
+      case SKIP:
+        flow = skip(flow, ((Skip) item).getSkipOption().getValue());
+        break;
+      case TOP:
+        flow = top(flow, ((Top) item).getTopOption().getValue());
+        break;
+      case ORDERBY:
+        flow = orderBy(flow, ((OrderBy) item).getOrderByOption());
+        break;
+      case BOTTOM_TOP:
+        flow = bottomTop(flow, (BottomTop) item);
+        break;
+      case AGGREGATE:
+        final GroupTable aggregated = aggregate(flow,
+            new Grouping(Collections.<GroupByItem> emptyList(), ((Aggregate) item).getExpressions(), false));
+        if (aggregated.groups.isEmpty()) {
+          // Aggregating an empty input still results in one entity.
+          aggregated.groups.put(GroupTable.NULL_KEY, new Group(new Object[0], aggregated.grouping));
+        }
+        flow = new Flow(aggregated.toEntities().iterator());
+        break;
+      case GROUP_BY:
+        flow = groupBy(flow, (GroupBy) item);
+        break;
+      default:
+        throw notImplemented("The transformation '" + item.getKind() + "' is not supported.");
+      }
+    }
+    return flow;
+  }
+
+  private static Step computeStep(final Compute compute) throws ODataApplicationException {
+    final List<ComputeExpression> expressions = compute.getExpressions();
+    final CompiledValue[] values = new CompiledValue[expressions.size()];
+    final String[] types = new String[values.length];
+    for (int index = 0; index < values.length; index++) {
+      values[index] = CompiledValue.compile(expressions.get(index).getExpression());
+      types[index] = typeName(values[index].getType());
+    }
+    return entity -> {
+      final Entity result = copy(entity);
+      for (int index = 0; index < values.length; index++) {
+        result.getProperties().add(new Property(types[index], expressions.get(index).getAlias(),
+            ValueType.PRIMITIVE, values[index].evaluate(entity)));
+      }
+      return result;
+    };
+  }
+
+  private static Entity copy(final Entity entity) {
+    final Entity copy = new Entity();
+    copy.setId(entity.getId());
+    copy.setType(entity.getType());
+    copy.setETag(entity.getETag());
+    copy.setSelfLink(entity.getSelfLink());
+    copy.setEditLink(entity.getEditLink());
+    copy.getProperties().addAll(entity.getProperties());
+    copy.getNavigationLinks().addAll(entity.getNavigationLinks());
+    return copy;
+  }
+
+  private static Flow skip(final Flow flow, final int skip) throws ODataApplicationException {
+    final List<Entity> entities = new ArrayList<>();
+    int index = 0;
+    for (Entity entity = flow.next(); entity != null; entity = flow.next()) {
+      if (index++ >= skip) {
+        entities.add(entity);
+      }
+    }
+    return new Flow(entities.iterator());
+  }
+
+  private static Flow top(final Flow flow, final int top) throws ODataApplicationException {
+    final List<Entity> entities = new ArrayList<>();
+    while (entities.size() < top) {
+      final Entity entity = flow.next();
+      if (entity == null) {
+        break;
+      }
+      entities.add(entity);
+    }
+    return new Flow(entities.iterator());
+  }
+
+  private static Flow orderBy(final Flow flow, final OrderByOption option) throws ODataApplicationException {
+    final CompiledOrderBy orderBy = CompiledOrderBy.compile(option);
+    final EntityCollection collection = new EntityCollection();
+    for (Entity entity = flow.next(); entity != null; entity = flow.next()) {
+      collection.getEntities().add(entity);
+    }
+    // The sort is stable, so entities with equal keys stay in input order.
+    orderBy.apply(collection);
+    return new Flow(collection.getEntities().iterator());
+  }
+
+  private static Flow bottomTop(final Flow flow, final BottomTop bottomTop) throws ODataApplicationException {
+    final BottomTop.Method method = bottomTop.getMethod();
+    final boolean top = method == BottomTop.Method.TOP_COUNT || method == BottomTop.Method.TOP_PERCENT
+        || method == BottomTop.Method.TOP_SUM;
+    final boolean count = method == BottomTop.Method.TOP_COUNT || method == BottomTop.Method.BOTTOM_COUNT;
+    final CompiledValue number = CompiledValue.compile(bottomTop.getNumber());
+    if (!number.isConstant() || !(count ? number.isIntegral() : number.isNumeric())) {
+      throw error("The number of '" + method + "' must be a constant " + (count ? "integer." : "number."),
+          HttpStatusCode.BAD_REQUEST);
+    }
+    final Object numberValue = number.evaluate(null);
+    if (numberValue == null || toBigDecimal(numberValue).signum() < 0) {
+      throw error("The number '" + numberValue + "' must not be negative.", HttpStatusCode.BAD_REQUEST);
+    }
+    final CompiledValue value = CompiledValue.compile(bottomTop.getValue());
+    if (count ? !value.isOrdered() : !value.isNumeric()) {
+      throw error("The values of '" + method + "' must be " + (count ? "ordered." : "numbers."),
+          HttpStatusCode.BAD_REQUEST);
+    }
+
+    if (count) {
+      // The first entry is the best one, ties are resolved in input order.
+      final Comparator<Entry> order = (left, right) -> {
+        final int comparison = value.compare(left.value, right.value);
+        return comparison == 0 ? Long.compare(left.sequence, right.sequence) : top ? -comparison : comparison;
+      };
+      final long limit = (Long) numberValue;
+      // The head of the bounded heap is the worst entry so far.
+      final PriorityQueue<Entry> heap = new PriorityQueue<>(11, order.reversed());
+      long sequence = 0;
+      for (Entity entity = flow.next(); entity != null; entity = flow.next()) {
+        final Object entityValue = value.evaluate(entity);
+        if (entityValue != null && limit > 0) {
+          final Entry entry = new Entry(entity, entityValue, sequence++);
+          if (heap.size() < limit) {
+            heap.add(entry);
+          } else if (order.compare(entry, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+          }
+        }
+      }
+      final List<Entry> entries = new ArrayList<>(heap);
+      Collections.sort(entries, order);
+      return new Flow(entities(entries).iterator());
+    }
+
+    final List<Entry> entries = new ArrayList<>();
+    BigDecimal total = BigDecimal.ZERO;
+    for (Entity entity = flow.next(); entity != null; entity = flow.next()) {
+      final Object entityValue = value.evaluate(entity);
+      if (entityValue != null) {
+        final BigDecimal decimal = toBigDecimal(entityValue);
+        total = total.add(decimal);
+        entries.add(new Entry(entity, decimal, entries.size()));
+      }
+    }
+    final BigDecimal target = method == BottomTop.Method.TOP_SUM || method == BottomTop.Method.BOTTOM_SUM ?
+        toBigDecimal(numberValue) :
+        total.multiply(toBigDecimal(numberValue)).movePointLeft(2);
+    // The first entry is the best one, ties are resolved in input order; the sort is stable.
+    Collections.sort(entries, (left, right) -> top ?
+        ((BigDecimal) right.value).compareTo((BigDecimal) left.value) :
+        ((BigDecimal) left.value).compareTo((BigDecimal) right.value));
+    // The result is the smallest number of best entities whose values sum up to at least the target.
+    final List<Entity> result = new ArrayList<>();
+    BigDecimal sum = BigDecimal.ZERO;
+    for (final Entry entry : entries) {
+      if (sum.compareTo(target) >= 0) {
+        break;
+      }
+      result.add(entry.entity);
+      sum = sum.add((BigDecimal) entry.value);
+    }
+    return new Flow(result.iterator());
+  }
+
+  private Flow groupBy(final Flow flow, final GroupBy groupBy) throws ODataApplicationException {
+    final List<ApplyItem> nested = groupBy.getApplyOption() == null ?
+        Collections.<ApplyItem> emptyList() :
+        groupBy.getApplyOption().getApplyItems();
+    final boolean onlyAggregate = nested.size() == 1 && nested.get(0) instanceof Aggregate;
+    final GroupTable table = aggregate(flow,
+        new Grouping(groupBy.getGroupByItems(),
+            onlyAggregate ?
+                ((Aggregate) nested.get(0)).getExpressions() :
+                Collections.<AggregateExpression> emptyList(),
+            !nested.isEmpty() && !onlyAggregate));
+    if (nested.isEmpty() || onlyAggregate) {
+      return new Flow(table.toEntities().iterator());
+    }
+
+    // The nested transformations are applied to the members of each group separately.
+    final List<Entity> result = new ArrayList<>();
+    for (final Group group : table.groups.values()) {
+      final Flow groupFlow = apply(nested, new Flow(group.members.iterator()));
+      for (Entity entity = groupFlow.next(); entity != null; entity = groupFlow.next()) {
+        final Entity groupEntity = new Entity();
+        table.grouping.addGroupingProperties(group, groupEntity);
+        for (final Property property : entity.getProperties()) {
+          if (groupEntity.getProperty(property.getName()) == null) {
+            groupEntity.getProperties().add(property);
+          }
+        }
+        result.add(groupEntity);
+      }
+    }
+    return new Flow(result.iterator());
+  }
+
+  private GroupTable aggregate(final Flow flow, final Grouping grouping) throws ODataApplicationException {
+    final GroupTable table = new GroupTable(grouping);
+    if (executor == null) {
+      for (Entity entity = flow.next(); entity != null; entity = flow.next()) {
+        table.add(entity);
+      }
+      return table;
+    }
+
+    // The input is read in the calling thread; the number of chunks in progress is limited.
+    final int window = 2 * Runtime.getRuntime().availableProcessors();
+    final Deque<Future<GroupTable>> futures = new ArrayDeque<>();
+    try {
+      List<Entity> chunk = readChunk(flow);
+      while (!chunk.isEmpty()) {
+        final List<Entity> entities = chunk;
+        futures.add(executor.submit(() -> {
+          final GroupTable chunkTable = new GroupTable(grouping);
+          for (final Entity entity : entities) {
+            final Entity transformed = flow.transform(entity);
+            if (transformed != null) {
+              chunkTable.add(transformed);
+            }
+          }
+          return chunkTable;
+        }));
+        if (futures.size() >= window) {
+          table.merge(futures.poll().get());
+        }
+        chunk = readChunk(flow);
+      }
+      while (!futures.isEmpty()) {
+        table.merge(futures.poll().get());
+      }
+      return table;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataApplicationException("The aggregation has been interrupted.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ODataApplicationException) {
+        throw (ODataApplicationException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ODataApplicationException("The aggregation has failed.",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT, e.getCause());
+    } finally {
+      for (final Future<GroupTable> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private List<Entity> readChunk(final Flow flow) {
+    final List<Entity> chunk = new ArrayList<>(chunkSize);
+    while (chunk.size() < chunkSize && flow.source.hasNext()) {
+      chunk.add(flow.source.next());
+    }
+    return chunk;
+  }
+
+  private static List<Entity> entities(final List<Entry> entries) {
+    final List<Entity> entities = new ArrayList<>(entries.size());
+    for (final Entry entry : entries) {
+      entities.add(entry.entity);
+    }
+    return entities;
+  }
+
+  private static BigDecimal toBigDecimal(final Object value) throws ODataApplicationException {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    } else if (value instanceof Long) {
+      return BigDecimal.valueOf((Long) value);
+    } else if (Double.isFinite((Double) value)) {
+      return BigDecimal.valueOf((Double) value);
+    }
+    throw error("The value '" + value + "' is not a finite number.", HttpStatusCode.BAD_REQUEST);
+  }
+
+  private static ODataApplicationException notImplemented(final String message) {
+    return error(message, HttpStatusCode.NOT_IMPLEMENTED);
+  }
+
+  private static ODataApplicationException error(final String message, final HttpStatusCode status) {
+    return new ODataApplicationException(message, status.getStatusCode(), Locale.ROOT);
+  }
+
+  private static String typeName(final EdmType type) {
+    return type == null ? null : type.getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  /** Transformation of a single entity; <code>null</code> removes the entity. */
+  private interface Step {
+    Entity apply(Entity entity) throws ODataApplicationException;
+  }
+
+  /** Entities of a source with the pending steps that still have to be applied to each entity. */
+  private static final class Flow {
+    private final Iterator<Entity> source;
+    private final List<Step> steps = new ArrayList<>();
+
+    private Flow(final Iterator<Entity> source) {
+      this.source = source;
+    }
+
+    private Entity next() throws ODataApplicationException {
+      while (source.hasNext()) {
+        final Entity entity = transform(source.next());
+        if (entity != null) {
+          return entity;
+        }
+      }
+      return null;
+    }
+
+    private Entity transform(final Entity entity) throws ODataApplicationException {
+      Entity result = entity;
+      for (int index = 0; index < steps.size() && result != null; index++) {
+        result = steps.get(index).apply(result);
+      }
+      return result;
+    }
+  }
+
+  /** An entity with the value it is ordered by and its position in the input. */
+  private static final class Entry {
+    private final Entity entity;
+    private final Object value;
+    private final long sequence;
+
+    private Entry(final Entity entity, final Object value, final long sequence) {
+      this.entity = entity;
+      this.value = value;
+      this.sequence = sequence;
+    }
+  }
+
+  /** The grouping properties and aggregate expressions of an aggregation. */
+  private static final class Grouping {
+    private final String[] names;
+    private final String[] types;
+    private final CompiledValue[] paths;
+    private final AggregateExpression[] aggregates;
+    private final CompiledValue[] aggregateValues;
+    private final String[] aggregateTypes;
+    private final boolean collectMembers;
+
+    private Grouping(final List<GroupByItem> items, final List<AggregateExpression> aggregates,
+        final boolean collectMembers) throws ODataApplicationException {
+      names = new String[items.size()];
+      types = new String[items.size()];
+      paths = new CompiledValue[items.size()];
+      for (int index = 0; index < names.length; index++) {
+        final GroupByItem item = items.get(index);
+        final List<UriResource> path = item.getPath();
+        if (item.isRollupAll() || !item.getRollup().isEmpty() || path.size() != 1
+            || !(path.get(0) instanceof UriResourceProperty)) {
+          throw notImplemented("Only grouping by primitive properties is supported.");
+        }
+        final EdmProperty property = ((UriResourceProperty) path.get(0)).getProperty();
+        if (!property.isPrimitive() || property.isCollection()) {
+          throw notImplemented("Only grouping by primitive properties is supported.");
+        }
+        names[index] = property.getName();
+        types[index] = typeName(property.getType());
+        paths[index] = CompiledValue.compile(path);
+      }
+
+      this.aggregates = aggregates.toArray(new AggregateExpression[aggregates.size()]);
+      aggregateValues = new CompiledValue[this.aggregates.length];
+      aggregateTypes = new String[this.aggregates.length];
+      for (int index = 0; index < this.aggregates.length; index++) {
+        final AggregateExpression aggregate = this.aggregates[index];
+        if (aggregate.getInlineAggregateExpression() != null || aggregate.getCustomMethod() != null
+            || aggregate.getFrom() != null && !aggregate.getFrom().isEmpty()
+            || (aggregate.getExpression() == null ?
+                aggregate.getPath() == null || aggregate.getPath().size() != 1
+                    || !(aggregate.getPath().get(0) instanceof UriResourceCount) :
+                aggregate.getStandardMethod() == null)) {
+          throw notImplemented("Only standard aggregation methods and $count are supported.");
+        }
+        if (aggregate.getAlias() == null) {
+          throw error("An aggregate expression must have an alias.", HttpStatusCode.BAD_REQUEST);
+        }
+        final StandardMethod method = aggregate.getStandardMethod();
+        final CompiledValue value = aggregate.getExpression() == null ?
+            null :
+            CompiledValue.compile(aggregate.getExpression());
+        if ((method == StandardMethod.SUM || method == StandardMethod.AVERAGE) && !value.isNumeric()
+            || (method == StandardMethod.MIN || method == StandardMethod.MAX) && !value.isOrdered()) {
+          throw error("The values of aggregate expression '" + aggregate.getAlias() + "' cannot be aggregated with '"
+              + method + "'.", HttpStatusCode.BAD_REQUEST);
+        }
+        aggregateValues[index] = value;
+        aggregateTypes[index] = method == StandardMethod.MIN || method == StandardMethod.MAX ?
+            typeName(value.getType()) :
+            DECIMAL;
+      }
+      this.collectMembers = collectMembers;
+    }
+
+    private void addGroupingProperties(final Group group, final Entity entity) {
+      for (int index = 0; index < names.length; index++) {
+        entity.getProperties().add(new Property(types[index], names[index], ValueType.PRIMITIVE,
+            group.values[index]));
+      }
+    }
+  }
+
+  /** The values of the grouping properties of a group and the accumulated values of its members. */
+  private static final class Group {
+    private final Object[] values;
+    private final Accumulator[] accumulators;
+    private final List<Entity> members;
+
+    private Group(final Object[] values, final Grouping grouping) {
+      this.values = values;
+      accumulators = new Accumulator[grouping.aggregates.length];
+      for (int index = 0; index < accumulators.length; index++) {
+        accumulators[index] = Accumulator.create(grouping.aggregates[index].getStandardMethod(),
+            grouping.aggregateValues[index]);
+      }
+      members = grouping.collectMembers ? new ArrayList<Entity>() : null;
+    }
+  }
+
+  /** Composite key of a group with more than one grouping property. */
+  private static final class GroupKey {
+    private final Object[] values;
+    private final int hashCode;
+
+    private GroupKey(final Object[] values) {
+      this.values = values;
+      hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      return object instanceof GroupKey && hashCode == ((GroupKey) object).hashCode
+          && Arrays.equals(values, ((GroupKey) object).values);
+    }
+  }
+
+  /** Groups in the order of their first members. */
+  private static final class GroupTable {
+    private static final Object NULL_KEY = new Object();
+
+    private final Grouping grouping;
+    private final Map<Object, Group> groups = new LinkedHashMap<>();
+
+    private GroupTable(final Grouping grouping) {
+      this.grouping = grouping;
+    }
+
+    private void add(final Entity entity) throws ODataApplicationException {
+      final Object[] values = new Object[grouping.paths.length];
+      for (int index = 0; index < values.length; index++) {
+        values[index] = grouping.paths[index].evaluate(entity);
+      }
+      final Group group = group(values);
+      for (int index = 0; index < group.accumulators.length; index++) {
+        final CompiledValue value = grouping.aggregateValues[index];
+        group.accumulators[index].add(value == null ? null : value.evaluate(entity));
+      }
+      if (group.members != null) {
+        group.members.add(entity);
+      }
+    }
+
+    private Object key(final Object[] values) {
+      if (values.length == 0) {
+        return NULL_KEY;
+      } else if (values.length == 1) {
+        return values[0] == null ? NULL_KEY : grouping.paths[0].hashKey(values[0]);
+      }
+      final Object[] keys = new Object[values.length];
+      for (int index = 0; index < values.length; index++) {
+        keys[index] = values[index] == null ? null : grouping.paths[index].hashKey(values[index]);
+      }
+      return new GroupKey(keys);
+    }
+
+    private Group group(final Object[] values) {
+      final Object key = key(values);
+      Group group = groups.get(key);
+      if (group == null) {
+        group = new Group(values, grouping);
+        groups.put(key, group);
+      }
+      return group;
+    }
+
+    private void merge(final GroupTable other) {
+      for (final Map.Entry<Object, Group> entry : other.groups.entrySet()) {
+        final Group group = groups.get(entry.getKey());
+        if (group == null) {
+          groups.put(entry.getKey(), entry.getValue());
+        } else {
+          for (int index = 0; index < group.accumulators.length; index++) {
+            group.accumulators[index].merge(entry.getValue().accumulators[index]);
+          }
+          if (group.members != null) {
+            group.members.addAll(entry.getValue().members);
+          }
+        }
+      }
+    }
+
+    private List<Entity> toEntities() {
+      final List<Entity> entities = new ArrayList<>(groups.size());
+      for (final Group group : groups.values()) {
+        final Entity entity = new Entity();
+        grouping.addGroupingProperties(group, entity);
+        for (int index = 0; index < group.accumulators.length; index++) {
+          entity.getProperties().add(new Property(grouping.aggregateTypes[index],
+              grouping.aggregates[index].getAlias(), ValueType.PRIMITIVE, group.accumulators[index].result()));
+        }
+        entities.add(entity);
+      }
+      return entities;
+    }
+  }
+}
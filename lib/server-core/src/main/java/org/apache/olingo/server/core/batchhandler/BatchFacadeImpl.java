@@ -18,20 +18,39 @@
  */
 package org.apache.olingo.server.core.batchhandler;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.batch.ParallelBatchSupport;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.core.ODataExceptionHelper;
+import org.apache.olingo.server.core.ODataHandlerImpl;
 import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 
 public class BatchFacadeImpl implements BatchFacade {
   private final BatchPartHandler partHandler;
+  private final ODataHandler oDataHandler;
+  private final BatchProcessor batchProcessor;
+  private final ParallelBatchSupport parallelBatchSupport;
 
   /**
    * Creates a new BatchFacade.
@@ -41,7 +60,23 @@ public class BatchFacadeImpl implements BatchFacade {
    */
   public BatchFacadeImpl(final ODataHandler oDataHandler, final BatchProcessor batchProcessor,
                          final boolean isStrict) {
+    this(oDataHandler, batchProcessor, isStrict, null);
+  }
+
+  /**
+   * Creates a new BatchFacade.
+   * @param oDataHandler         handler
+   * @param batchProcessor       batch processor
+   * @param isStrict             mode switch (currently not used)
+   * @param parallelBatchSupport support for concurrent execution of independent parts;
+   *                             can be <code>null</code>
+   */
+  public BatchFacadeImpl(final ODataHandler oDataHandler, final BatchProcessor batchProcessor,
+                         final boolean isStrict, final ParallelBatchSupport parallelBatchSupport) {
     partHandler = new BatchPartHandler(oDataHandler, batchProcessor, this);
+    this.oDataHandler = oDataHandler;
+    this.batchProcessor = batchProcessor;
+    this.parallelBatchSupport = parallelBatchSupport;
   }
 
   @Override
@@ -56,8 +91,175 @@ public class BatchFacadeImpl implements BatchFacade {
     return partHandler.handleBatchRequest(request);
   }
 
+  @Override
+  public List<ODataResponsePart> handleBatchRequests(final List<BatchRequestPart> requests,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    if (!isParallelExecutionEnabled()) {
+      return BatchFacade.super.handleBatchRequests(requests, continueOnError);
+    }
+
+    final List<ODataResponsePart> responseParts = new ArrayList<>();
+    int index = 0;
+    while (index < requests.size()) {
+      // Collect consecutive parts that can be executed concurrently.
+      int end = index;
+      while (end < requests.size() && isReadOnly(requests.get(end))) {
+        end++;
+      }
+      final List<ODataResponsePart> results = end - index > 1 ?
+          handleConcurrently(requests.subList(index, end)) :
+          Collections.singletonList(handleBatchRequest(requests.get(index)));
+      for (final ODataResponsePart responsePart : results) {
+        responseParts.add(responsePart);
+        if (!continueOnError && BatchFacade.isFailed(responsePart)) {
+          return responseParts;
+        }
+      }
+      index += results.size();
+    }
+    return responseParts;
+  }
+
+  @Override
+  public List<ODataResponsePart> handleBatchRequests(final BatchRequestPartIterator requests,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    final List<ODataResponsePart> responseParts = new ArrayList<>();
+    final List<BatchRequestPart> readOnlyParts = new ArrayList<>();
+    try {
+      while (requests.hasNext()) {
+        final BatchRequestPart request = requests.next();
+        if (isParallelExecutionEnabled() && isReadOnly(request)) {
+          readOnlyParts.add(request);
+          continue;
+        }
+        if (!handleReadOnlyParts(readOnlyParts, continueOnError, responseParts)) {
+          return responseParts;
+        }
+        final ODataResponsePart responsePart = handleBatchRequest(request);
+        responseParts.add(responsePart);
+        if (!continueOnError && BatchFacade.isFailed(responsePart)) {
+          return responseParts;
+        }
+      }
+    } catch (final BatchDeserializerException e) {
+      // The parts read before have to be executed nevertheless, because preceding change sets
+      // could already have been committed; their responses must not get lost.
+      if (handleReadOnlyParts(readOnlyParts, continueOnError, responseParts)) {
+        responseParts.add(createErrorResponsePart(e));
+      }
+      return responseParts;
+    }
+    handleReadOnlyParts(readOnlyParts, continueOnError, responseParts);
+    return responseParts;
+  }
+
+  /**
+   * Executes the collected read-only parts and clears the list.
+   * @return <code>false</code> if processing has to stop because of a failed part
+   */
+  private boolean handleReadOnlyParts(final List<BatchRequestPart> readOnlyParts, final boolean continueOnError,
+      final List<ODataResponsePart> responseParts) throws ODataApplicationException, ODataLibraryException {
+    if (readOnlyParts.isEmpty()) {
+      return true;
+    }
+    final List<ODataResponsePart> results = handleBatchRequests(readOnlyParts, continueOnError);
+    readOnlyParts.clear();
+    responseParts.addAll(results);
+    return continueOnError || !BatchFacade.isFailed(results.get(results.size() - 1));
+  }
+
+  private ODataResponsePart createErrorResponsePart(final BatchDeserializerException exception) {
+    final ODataResponse response = new ODataResponse();
+    final ODataServerError serverError = ODataExceptionHelper.createServerErrorObject(exception, null);
+    if (oDataHandler instanceof ODataHandlerImpl) {
+      ((ODataHandlerImpl) oDataHandler).handleException(new ODataRequest(), response, serverError, exception);
+    } else {
+      response.setStatusCode(serverError.getStatusCode());
+    }
+    return new ODataResponsePart(response, false);
+  }
+
   @Override
   public String extractBoundaryFromContentType(final String contentType) throws BatchDeserializerException {
     return BatchParserCommon.getBoundary(contentType, 0);
   }
+
+  private boolean isParallelExecutionEnabled() {
+    return parallelBatchSupport != null
+        && parallelBatchSupport.getExecutor() != null
+        && parallelBatchSupport.getMaxParallelRequests() > 1
+        && oDataHandler instanceof ODataHandlerImpl;
+  }
+
+  private boolean isReadOnly(final BatchRequestPart request) {
+    return !request.isChangeSet() && request.getRequests().get(0).getMethod() == HttpMethod.GET;
+  }
+
+  /**
+   * Executes the given parts concurrently in at most as many lanes as allowed.
+   * The calling thread is one of the lanes; each lane uses its own handler because
+   * handlers are not thread-safe.
+   */
+  private List<ODataResponsePart> handleConcurrently(final List<BatchRequestPart> requests)
+      throws ODataApplicationException, ODataLibraryException {
+    final int size = requests.size();
+    final ODataResponsePart[] results = new ODataResponsePart[size];
+    final Exception[] errors = new Exception[size];
+    final AtomicInteger next = new AtomicInteger();
+    final int lanes = Math.min(size, parallelBatchSupport.getMaxParallelRequests());
+
+    final List<FutureTask<Void>> tasks = new ArrayList<>(lanes - 1);
+    for (int lane = 1; lane < lanes; lane++) {
+      final BatchPartHandler laneHandler =
+          new BatchPartHandler(((ODataHandlerImpl) oDataHandler).copy(), batchProcessor, this);
+      final FutureTask<Void> task = new FutureTask<>(() -> {
+        runLane(laneHandler, requests, next, results, errors);
+        return null;
+      });
+      try {
+        parallelBatchSupport.getExecutor().execute(task);
+        tasks.add(task);
+      } catch (final RejectedExecutionException e) {
+        // The remaining parts are executed by the other lanes.
+        break;
+      }
+    }
+    runLane(partHandler, requests, next, results, errors);
+    for (final FutureTask<Void> task : tasks) {
+      try {
+        task.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ODataRuntimeException("Interrupted while waiting for batch-request parts", e);
+      } catch (final ExecutionException e) {
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw new ODataRuntimeException((Exception) e.getCause());
+      }
+    }
+
+    for (int index = 0; index < size; index++) {
+      if (errors[index] instanceof ODataApplicationException) {
+        throw (ODataApplicationException) errors[index];
+      } else if (errors[index] instanceof ODataLibraryException) {
+        throw (ODataLibraryException) errors[index];
+      } else if (errors[index] != null) {
+        throw (RuntimeException) errors[index];
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  private void runLane(final BatchPartHandler handler, final List<BatchRequestPart> requests,
+      final AtomicInteger next, final ODataResponsePart[] results, final Exception[] errors) {
+    int index;
+    while ((index = next.getAndIncrement()) < requests.size()) {
+      try {
+        results[index] = handler.handleBatchRequest(requests.get(index));
+      } catch (final ODataApplicationException | ODataLibraryException | RuntimeException e) {
+        errors[index] = e;
+      }
+    }
+  }
 }
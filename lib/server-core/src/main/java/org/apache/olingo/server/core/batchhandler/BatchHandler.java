@@ -52,7 +52,8 @@ public class BatchHandler {
     validateRequest(request);
     validatePreferHeader(request);
 
-    final BatchFacade operation = new BatchFacadeImpl(oDataHandler, batchProcessor, isStrict);
+    final BatchFacade operation = new BatchFacadeImpl(oDataHandler, batchProcessor, isStrict,
+        oDataHandler.getParallelBatchSupport());
     batchProcessor.processBatch(operation, request, response);
   }
   
@@ -132,7 +132,7 @@ public class DebugResponseHelperImpl implements DebugResponseHelper {
 
   private InputStream wrapInJson(final List<DebugTab> parts) throws IOException {
     OutputStream outputStream = null;
-    CircleStreamBuffer csb = new CircleStreamBuffer();
+    CircleStreamBuffer csb = CircleStreamBuffer.pooled();
     outputStream = csb.getOutputStream();
     // Create JSON generator (the object mapper is necessary to write expression trees).
     try (JsonGenerator gen = new ObjectMapper().getFactory().createGenerator(outputStream)) {
@@ -39,6 +39,7 @@ import org.apache.olingo.server.api.deserializer.FixedFormatDeserializer;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.apache.olingo.server.core.deserializer.batch.BatchParser;
 import org.apache.olingo.server.core.deserializer.json.ODataJsonDeserializer;
 
@@ -133,4 +134,11 @@ public class FixedFormatDeserializerImpl implements FixedFormatDeserializer {
 
     return parser.parseBatchRequest(content, boundary, options);
   }
+
+  @Override
+  public BatchRequestPartIterator streamBatchRequest(final InputStream content, final String boundary,
+      final BatchOptions options)
+          throws BatchDeserializerException {
+    return new BatchParser().streamBatchRequest(content, boundary, options);
+  }
 }
@@ -44,8 +44,10 @@ public class BatchLineReader {
   private ReadState readState = new ReadState();
   private InputStream reader;
   private byte[] buffer;
+  private ByteBuffer lineBuffer = ByteBuffer.allocate(BUFFER_SIZE);
   private int offset = 0;
   private int limit = 0;
+  private int lineNumber = 0;
 
   public BatchLineReader(final InputStream reader) {
     this(reader, BUFFER_SIZE);
@@ -80,20 +82,29 @@ public class BatchLineReader {
 
   public List<Line> toLineList() throws IOException {
     final List<Line> result = new ArrayList<>();
-    String currentLine = readLine();
-    if (currentLine != null) {
-      currentBoundary = currentLine.trim();
-      int counter = 1;
-      result.add(new Line(currentLine, counter++));
-
-      while ((currentLine = readLine()) != null) {
-        result.add(new Line(currentLine, counter++));
-      }
+    Line currentLine;
+    while ((currentLine = readNextLine()) != null) {
+      result.add(currentLine);
     }
 
     return result;
   }
 
+  /**
+   * Reads the next line, including its line break, from the input stream.
+   * @return the next line or <code>null</code> if the end of the input stream has been reached
+   */
+  public Line readNextLine() throws IOException {
+    final String currentLine = readLine();
+    if (currentLine == null) {
+      return null;
+    }
+    if (lineNumber == 0) {
+      currentBoundary = currentLine.trim();
+    }
+    return new Line(currentLine, ++lineNumber);
+  }
+
   private void updateCurrentCharset(final String currentLine) {
     if (currentLine != null) {
       if (currentLine.toLowerCase(Locale.ENGLISH).startsWith(HttpHeader.CONTENT_TYPE.toLowerCase(Locale.ENGLISH))) {
@@ -133,7 +144,8 @@ public class BatchLineReader {
       return null;
     }
 
-    ByteBuffer innerBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    ByteBuffer innerBuffer = lineBuffer;
+    innerBuffer.clear();
     // EOF will be considered as line ending
     boolean foundLineEnd = false;
 
@@ -169,6 +181,7 @@ public class BatchLineReader {
       }
     }
 
+    lineBuffer = innerBuffer;
     if (innerBuffer.position() == 0) {
       return null;
     } else {
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
+
+/**
+ * Reads the parts of a Batch Request body from the input stream one at a time.
+ * Only the lines of the current part are kept in memory; the next part is read
+ * when the previous one has been consumed.
+ */
+public class BatchRequestPartReader implements BatchRequestPartIterator {
+
+  private final BatchLineReader reader;
+  private final String boundary;
+  private final boolean isStrict;
+  private final BatchRequestTransformator transformator;
+  private final Pattern boundaryDelimiterPattern;
+  private final Pattern boundaryPattern;
+  private final LinkedList<BatchRequestPart> pendingParts = new LinkedList<>();
+
+  private boolean isPreamble = true;
+  private boolean isEndReached = false;
+  private int firstLineNumber = 0;
+
+  public BatchRequestPartReader(final InputStream content, final String boundary, final BatchOptions options) {
+    reader = new BatchLineReader(content);
+    this.boundary = boundary;
+    isStrict = options.isStrict();
+    transformator = new BatchRequestTransformator(options.getRawBaseUri(), options.getRawServiceResolutionUri());
+
+    final String quotedBoundary = Pattern.quote(boundary);
+    boundaryDelimiterPattern = Pattern.compile("--" + quotedBoundary + "--\\s*");
+    boundaryPattern = Pattern.compile("--" + quotedBoundary + "\\s*");
+  }
+
+  @Override
+  public boolean hasNext() throws BatchDeserializerException {
+    while (pendingParts.isEmpty() && !isEndReached) {
+      final List<Line> bodyPartLines = readBodyPart();
+      if (bodyPartLines != null) {
+        final BatchBodyPart bodyPart = new BatchBodyPart(bodyPartLines, boundary, isStrict).parse();
+        pendingParts.addAll(transformator.transform(bodyPart));
+      }
+    }
+    return !pendingParts.isEmpty();
+  }
+
+  @Override
+  public BatchRequestPart next() throws BatchDeserializerException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return pendingParts.removeFirst();
+  }
+
+  @Override
+  public void close() throws IOException {
+    isEndReached = true;
+    pendingParts.clear();
+    reader.close();
+  }
+
+  /**
+   * Reads the lines up to the next boundary.
+   * @return the lines of the next body part or <code>null</code> if the close delimiter has been reached
+   */
+  private List<Line> readBodyPart() throws BatchDeserializerException {
+    final List<Line> currentPart = new ArrayList<>();
+    try {
+      Line currentLine;
+      while ((currentLine = reader.readNextLine()) != null) {
+        if (firstLineNumber == 0) {
+          firstLineNumber = currentLine.getLineNumber();
+        }
+        final String content = currentLine.toString();
+        if (boundaryDelimiterPattern.matcher(content).matches()) {
+          close();
+          return isPreamble ? null : removeEndingCRLF(currentPart);
+        } else if (boundaryPattern.matcher(content).matches()) {
+          if (isPreamble) {
+            isPreamble = false;
+          } else {
+            return removeEndingCRLF(currentPart);
+          }
+        } else if (!isPreamble) {
+          currentPart.add(currentLine);
+        }
+      }
+      close();
+    } catch (final IOException e) {
+      throw new ODataRuntimeException(e);
+    }
+
+    throw new BatchDeserializerException("Missing close boundary delimiter",
+        BatchDeserializerException.MessageKeys.MISSING_CLOSE_DELIMITER, Integer.toString(firstLineNumber));
+  }
+
+  private List<Line> removeEndingCRLF(final List<Line> lines) {
+    if (!lines.isEmpty()) {
+      lines.add(BatchParserCommon.removeEndingCRLF(lines.remove(lines.size() - 1)));
+    }
+    return lines;
+  }
+}
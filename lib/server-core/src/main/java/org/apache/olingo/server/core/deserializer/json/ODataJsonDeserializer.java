@@ -18,10 +18,10 @@
  */
 package org.apache.olingo.server.core.deserializer.json;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -29,13 +29,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.IConstants;
 import org.apache.olingo.commons.api.constants.Constantsv00;
@@ -77,10 +78,12 @@ import org.apache.olingo.commons.api.edm.geo.Point;
 import org.apache.olingo.commons.api.edm.geo.Polygon;
 import org.apache.olingo.commons.api.edm.geo.SRID;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.deserializer.DeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.DeserializerResult;
+import org.apache.olingo.server.api.deserializer.EntityHandler;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
@@ -88,13 +91,14 @@ import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilder;
 import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilderImpl;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
@@ -113,6 +117,8 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     jsonNameToGeoDataType = Collections.unmodifiableMap(temp);
   }
 
+  private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
   private static final String ODATA_ANNOTATION_MARKER = "@";
   private static final String ODATA_CONTROL_INFORMATION_PREFIX = "@odata.";
   private static final String REASON = "reason";
@@ -152,35 +158,114 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   @Override
   public DeserializerResult entityCollection(final InputStream stream, final EdmEntityType edmEntityType)
       throws DeserializerException {
-    try {
-      return DeserializerResultImpl.with().entityCollection(
-          consumeEntityCollectionNode(edmEntityType, parseJsonTree(stream), null))
-          .build();
+    EntityCollection entitySet = new EntityCollection();
+    try (EntityCollectionReader reader = new EntityCollectionReader(stream, edmEntityType)) {
+      Entity entity;
+      while ((entity = reader.next()) != null) {
+        entitySet.getEntities().add(entity);
+      }
     } catch (final IOException e) {
       throw wrapParseException(e);
     }
+    return DeserializerResultImpl.with().entityCollection(entitySet).build();
   }
 
-  private EntityCollection consumeEntityCollectionNode(final EdmEntityType edmEntityType, final ObjectNode tree,
-      final ExpandTreeBuilder expandBuilder) throws DeserializerException {
-    EntityCollection entitySet = new EntityCollection();
+  @Override
+  public void entityCollection(final InputStream stream, final EdmEntityType edmEntityType,
+      final EntityHandler handler) throws DeserializerException, ODataApplicationException {
+    try (EntityCollectionReader reader = new EntityCollectionReader(stream, edmEntityType)) {
+      Entity entity;
+      while ((entity = reader.next()) != null) {
+        handler.handle(entity);
+      }
+    } catch (final IOException e) {
+      throw wrapParseException(e);
+    }
+  }
 
-    // Consume entities
-    JsonNode jsonNode = tree.get(Constants.VALUE);
-    if (jsonNode != null) {
-      entitySet.getEntities().addAll(consumeEntitySetArray(edmEntityType, jsonNode, expandBuilder));
-      tree.remove(Constants.VALUE);
-    } else {
-      throw new DeserializerException("Could not find value array.",
-          DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
+  /**
+   * Reads the entities of an entity-collection document one after the other from the token stream.
+   * Only the entity currently read is held as JSON tree; annotations of the collection are skipped.
+   */
+  private class EntityCollectionReader implements Closeable {
+
+    private final ObjectReader reader;
+    private final JsonParser parser;
+    private final EdmEntityType edmEntityType;
+    private final Set<String> names = new HashSet<>();
+    private boolean inValue = false;
+
+    EntityCollectionReader(final InputStream stream, final EdmEntityType edmEntityType)
+        throws IOException, DeserializerException {
+      reader = getJsonReader();
+      parser = reader.createParser(stream);
+      this.edmEntityType = edmEntityType;
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        parser.close();
+        throw new DeserializerException("Invalid JSON syntax.",
+            DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+      }
+    }
+
+    /**
+     * Reads the next entity.
+     * @return the entity or <code>null</code> if the end of the document has been reached
+     */
+    Entity next() throws IOException, DeserializerException {
+      while (true) {
+        if (inValue) {
+          final JsonToken token = parser.nextToken();
+          if (token == JsonToken.END_ARRAY) {
+            inValue = false;
+          } else if (token == JsonToken.START_OBJECT) {
+            final JsonNode arrayElement = reader.readTree(parser);
+            EdmEntityType derivedEdmEntityType = (EdmEntityType) getDerivedType(edmEntityType, arrayElement);
+            return consumeEntityNode(derivedEdmEntityType, (ObjectNode) arrayElement, null);
+          } else {
+            throw new DeserializerException("Nested Arrays and primitive values are not allowed for an entity value.",
+                DeserializerException.MessageKeys.INVALID_ENTITY);
+          }
+        } else if (parser.nextToken() == JsonToken.END_OBJECT) {
+          if (!names.contains(Constants.VALUE)) {
+            throw new DeserializerException("Could not find value array.",
+                DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
+          }
+          return null;
+        } else {
+          consumeField(parser.getCurrentName());
+        }
+      }
     }
 
-    if (tree.isObject()) {
-      removeAnnotations(tree);
+    private void consumeField(final String name) throws IOException, DeserializerException {
+      if (!names.add(name)) {
+        throw new DeserializerException("Duplicate json property detected.",
+            DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
+      }
+      final JsonToken token = parser.nextToken();
+      if (Constants.VALUE.equals(name)) {
+        if (token != JsonToken.START_ARRAY) {
+          throw new DeserializerException("The content of the value tag must be an Array but is not.",
+              DeserializerException.MessageKeys.VALUE_TAG_MUST_BE_AN_ARRAY);
+        }
+        inValue = true;
+      } else if (name.contains(ODATA_CONTROL_INFORMATION_PREFIX)
+          || name.contains(ODATA_ANNOTATION_MARKER) && constants instanceof Constantsv01) {
+        // Control Information is ignored for requests as per specification chapter "4.5 Control Information"
+        parser.skipChildren();
+      } else if (name.contains(ODATA_ANNOTATION_MARKER)) {
+        throw new DeserializerException("Custom annotation with field name: " + name + " not supported",
+            DeserializerException.MessageKeys.NOT_IMPLEMENTED);
+      } else {
+        throw new DeserializerException("Tree should be empty but still has content left: " + name,
+            DeserializerException.MessageKeys.UNKNOWN_CONTENT, name);
+      }
     }
-    assertJsonNodeIsEmpty(tree);
 
-    return entitySet;
+    @Override
+    public void close() throws IOException {
+      parser.close();
+    }
   }
 
   private List<Entity> consumeEntitySetArray(final EdmEntityType edmEntityType, final JsonNode jsonNode,
@@ -202,16 +287,37 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
+  /**
+   * Reads the entity from the token stream. The structural properties of the given type are converted
+   * one after the other while they are read, so only the value of the current property is held as JSON tree;
+   * all other fields (control information, navigation properties, properties of derived types)
+   * are collected and consumed afterwards, when the type of the entity is known.
+   */
   @Override
   public DeserializerResult entity(final InputStream stream, final EdmEntityType edmEntityType)
       throws DeserializerException {
-    try {
-      final ObjectNode tree = parseJsonTree(stream);
+    final ObjectReader reader = getJsonReader();
+    try (JsonParser parser = reader.createParser(stream)) {
+      startObject(parser);
+      final ObjectNode tree = getJsonMapper().createObjectNode();
+      final Map<String, Property> properties = new HashMap<>();
+      final Set<String> names = new HashSet<>();
+      while (parser.nextToken() != JsonToken.END_OBJECT) {
+        final String name = readFieldName(parser, names);
+        final EdmProperty edmProperty = edmEntityType.getStructuralProperty(name);
+        if (edmProperty == null) {
+          tree.set(name, reader.readTree(parser));
+        } else {
+          // Properties of the given type are also properties of all derived types.
+          properties.put(name, consumeEntityProperty(edmProperty, reader.readTree(parser)));
+        }
+      }
       final ExpandTreeBuilder expandBuilder = ExpandTreeBuilderImpl.create();
 
       EdmEntityType derivedEdmEntityType = (EdmEntityType) getDerivedType(edmEntityType, tree);
 
-      return DeserializerResultImpl.with().entity(consumeEntityNode(derivedEdmEntityType, tree, expandBuilder))
+      return DeserializerResultImpl.with()
+          .entity(consumeEntityNode(derivedEdmEntityType, tree, properties, expandBuilder))
           .expandOption(expandBuilder.build())
           .build();
     } catch (final IOException e) {
@@ -219,8 +325,38 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
+  private void startObject(final JsonParser parser) throws IOException, DeserializerException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new DeserializerException("Invalid JSON syntax.",
+          DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+    }
+  }
+
+  /**
+   * Reads the name of the current field, checks that it occurs only once, and moves to its value.
+   */
+  private String readFieldName(final JsonParser parser, final Set<String> names)
+      throws IOException, DeserializerException {
+    final String name = parser.getCurrentName();
+    if (!names.add(name)) {
+      throw new DeserializerException("Duplicate json property detected.",
+          DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
+    }
+    parser.nextToken();
+    return name;
+  }
+
   private Entity consumeEntityNode(final EdmEntityType edmEntityType, final ObjectNode tree,
       final ExpandTreeBuilder expandBuilder) throws DeserializerException {
+    return consumeEntityNode(edmEntityType, tree, Collections.<String, Property> emptyMap(), expandBuilder);
+  }
+
+  /**
+   * Consumes the entity from the JSON tree.
+   * @param properties properties that have been read already, by name; they are not contained in the tree
+   */
+  private Entity consumeEntityNode(final EdmEntityType edmEntityType, final ObjectNode tree,
+      final Map<String, Property> properties, final ExpandTreeBuilder expandBuilder) throws DeserializerException {
     Entity entity = new Entity();
     entity.setType(edmEntityType.getFullQualifiedName().getFullQualifiedNameAsString());
     
@@ -228,7 +364,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     consumeId(tree, entity);
 
     // Check and consume all Properties
-    consumeEntityProperties(edmEntityType, tree, entity);
+    consumeEntityProperties(edmEntityType, tree, properties, entity);
 
     // Check and consume all expanded Navigation Properties
     consumeExpandedNavigationProperties(edmEntityType, tree, entity, expandBuilder);
@@ -317,23 +453,15 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   @Override
   public DeserializerResult actionParameters(final InputStream stream, final EdmAction edmAction)
       throws DeserializerException {
-	  Map<String, Parameter> parameters = new HashMap<>();
-	  ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-	  byte[] inputContent = null;
+    Map<String, Parameter> parameters = new HashMap<>();
     try {
-    	IOUtils.copy(stream, byteArrayOutputStream);
-    	// copy the content of input stream to reuse it
-      	  inputContent = byteArrayOutputStream.toByteArray();
-      	  if (inputContent.length > 0) {
-      		InputStream inputStream1 = new ByteArrayInputStream(inputContent);
-    	      ObjectNode tree = parseJsonTree(inputStream1);
-    	      parameters = consumeParameters(edmAction, tree);
-    	
-    	      if (tree.isObject()) {
-    	        removeAnnotations(tree);
-    	      }
-    	      assertJsonNodeIsEmpty(tree);
-      	  }
+      // An empty body is allowed; peek at the first byte instead of buffering the whole content.
+      final PushbackInputStream input = new PushbackInputStream(stream);
+      final int first = input.read();
+      if (first >= 0) {
+        input.unread(first);
+        parameters = readParameters(edmAction, input);
+      }
       return DeserializerResultImpl.with().actionParameters(parameters).build();
 
     } catch (final IOException e) {
@@ -342,12 +470,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   }
 
   private ObjectNode parseJsonTree(final InputStream stream) throws IOException, DeserializerException {
-    ObjectMapper objectMapper = this.serviceMetadata != null
-            ? this.serviceMetadata.getJsonMapper() : new ObjectMapper();
-    objectMapper.configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true);
-    objectMapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
-    JsonParser parser = new JsonFactory(objectMapper).createParser(stream);
-    final JsonNode tree = parser.getCodec().readTree(parser);
+    final JsonNode tree = getJsonReader().readTree(stream);
     if (tree == null || !tree.isObject()) {
       throw new DeserializerException("Invalid JSON syntax.",
           DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
@@ -355,36 +478,101 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     return (ObjectNode) tree;
   }
 
-  private Map<String, Parameter> consumeParameters(final EdmAction edmAction, final ObjectNode node)
-      throws DeserializerException {
+  /**
+   * Gets the (shared) mapper of the service metadata or the default mapper.
+   * Mappers are shared between requests so they must not be re-configured here;
+   * request-specific features are set on an immutable reader instead.
+   */
+  private ObjectMapper getJsonMapper() {
+    final ObjectMapper mapper = serviceMetadata == null ? null : serviceMetadata.getJsonMapper();
+    return mapper == null ? DEFAULT_MAPPER : mapper;
+  }
+
+  private ObjectReader getJsonReader() {
+    return getJsonMapper().reader()
+        .with(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+  }
+
+  /**
+   * Reads the action parameters from the token stream. Each parameter is converted as soon as it has been read;
+   * the elements of an entity collection are converted one after the other, so only the current element is held
+   * as JSON tree.
+   */
+  private Map<String, Parameter> readParameters(final EdmAction edmAction, final InputStream stream)
+      throws IOException, DeserializerException {
     List<String> parameterNames = edmAction.getParameterNames();
     if (edmAction.isBound()) {
       // The binding parameter must not occur in the payload.
       parameterNames = parameterNames.subList(1, parameterNames.size());
     }
-    Map<String, Parameter> parameters = new LinkedHashMap<>();
     for (final String paramName : parameterNames) {
-      final EdmParameter edmParameter = edmAction.getParameter(paramName);
-
-      switch (edmParameter.getType().getKind()) {
+      switch (edmAction.getParameter(paramName).getType().getKind()) {
       case PRIMITIVE:
       case DEFINITION:
       case ENUM:
       case COMPLEX:
       case ENTITY:
-        Parameter parameter = createParameter(node.get(paramName), paramName, edmParameter);
-        parameters.put(paramName, parameter);
-        node.remove(paramName);
         break;
       default:
         throw new DeserializerException(
-            "Invalid type kind " + edmParameter.getType().getKind() + " for action parameter: " + paramName,
+            "Invalid type kind " + edmAction.getParameter(paramName).getType().getKind()
+                + " for action parameter: " + paramName,
             DeserializerException.MessageKeys.INVALID_ACTION_PARAMETER_TYPE, paramName);
       }
     }
+
+    final ObjectReader reader = getJsonReader();
+    final ObjectNode tree = getJsonMapper().createObjectNode();
+    final Map<String, Parameter> readParameters = new HashMap<>();
+    try (JsonParser parser = reader.createParser(stream)) {
+      startObject(parser);
+      final Set<String> names = new HashSet<>();
+      while (parser.nextToken() != JsonToken.END_OBJECT) {
+        final String name = readFieldName(parser, names);
+        final EdmParameter edmParameter = parameterNames.contains(name) ? edmAction.getParameter(name) : null;
+        if (edmParameter == null) {
+          tree.set(name, reader.readTree(parser));
+        } else if (edmParameter.isCollection() && edmParameter.getType().getKind() == EdmTypeKind.ENTITY
+            && parser.currentToken() == JsonToken.START_ARRAY) {
+          readParameters.put(name, readEntityCollectionParameter(reader, parser, edmParameter));
+        } else {
+          readParameters.put(name, createParameter(reader.readTree(parser), name, edmParameter));
+        }
+      }
+    }
+
+    Map<String, Parameter> parameters = new LinkedHashMap<>();
+    for (final String paramName : parameterNames) {
+      final Parameter parameter = readParameters.get(paramName);
+      parameters.put(paramName, parameter == null ?
+          createParameter(null, paramName, edmAction.getParameter(paramName)) :
+          parameter);
+    }
+    removeAnnotations(tree);
+    assertJsonNodeIsEmpty(tree);
     return parameters;
   }
 
+  private Parameter readEntityCollectionParameter(final ObjectReader reader, final JsonParser parser,
+      final EdmParameter edmParameter) throws IOException, DeserializerException {
+    final EdmEntityType edmEntityType = (EdmEntityType) edmParameter.getType();
+    EntityCollection entityCollection = new EntityCollection();
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_OBJECT) {
+        throw new DeserializerException("Nested Arrays and primitive values are not allowed for an entity value.",
+            DeserializerException.MessageKeys.INVALID_ENTITY);
+      }
+      final JsonNode arrayElement = reader.readTree(parser);
+      EdmEntityType derivedEdmEntityType = (EdmEntityType) getDerivedType(edmEntityType, arrayElement);
+      entityCollection.getEntities().add(consumeEntityNode(derivedEdmEntityType, (ObjectNode) arrayElement, null));
+    }
+    Parameter parameter = new Parameter();
+    parameter.setName(edmParameter.getName());
+    parameter.setValue(ValueType.COLLECTION_ENTITY, entityCollection);
+    return parameter;
+  }
+
   private Parameter createParameter(final JsonNode node, final String paramName, final EdmParameter edmParameter)
       throws DeserializerException {
     Parameter parameter = new Parameter();
@@ -423,13 +611,10 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   /** Reads a parameter value from a String. */
   public Parameter parameter(final String content, final EdmParameter parameter) throws DeserializerException {
     try {
-      ObjectMapper objectMapper = this.serviceMetadata != null
-              ? this.serviceMetadata.getJsonMapper() : new ObjectMapper();
-      JsonParser parser = new JsonFactory(objectMapper
-          .configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true))
-              .createParser(content);
-      JsonNode node = parser.getCodec().readTree(parser);
-      if (node == null) {
+      final JsonNode node = getJsonMapper().reader()
+          .with(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY)
+          .readTree(content);
+      if (node == null || node.isMissingNode()) {
         throw new DeserializerException("Invalid JSON syntax.",
             DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
       }
@@ -546,26 +731,35 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   }
 
   private void consumeEntityProperties(final EdmEntityType edmEntityType, final ObjectNode node,
-      final Entity entity) throws DeserializerException {
+      final Map<String, Property> properties, final Entity entity) throws DeserializerException {
     List<String> propertyNames = edmEntityType.getPropertyNames();
     for (String propertyName : propertyNames) {
+      final Property readProperty = properties.get(propertyName);
+      if (readProperty != null) {
+        entity.addProperty(readProperty);
+        continue;
+      }
       JsonNode jsonNode = node.get(propertyName);
       if (jsonNode != null) {
         EdmProperty edmProperty = (EdmProperty) edmEntityType.getProperty(propertyName);
-        if (jsonNode.isNull() && !edmProperty.isNullable()) {
-          throw new DeserializerException("Property: " + propertyName + " must not be null.",
-              DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, propertyName);
-        }
-        Property property = consumePropertyNode(edmProperty.getName(), edmProperty.getType(),
-            edmProperty.isCollection(), edmProperty.isNullable(), edmProperty.getMaxLength(),
-            edmProperty.getPrecision(), edmProperty.getScale(), edmProperty.isUnicode(), edmProperty.getMapping(),
-            jsonNode);
-        entity.addProperty(property);
+        entity.addProperty(consumeEntityProperty(edmProperty, jsonNode));
         node.remove(propertyName);
       }
     }
   }
 
+  private Property consumeEntityProperty(final EdmProperty edmProperty, final JsonNode jsonNode)
+      throws DeserializerException {
+    if (jsonNode.isNull() && !edmProperty.isNullable()) {
+      throw new DeserializerException("Property: " + edmProperty.getName() + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, edmProperty.getName());
+    }
+    return consumePropertyNode(edmProperty.getName(), edmProperty.getType(),
+        edmProperty.isCollection(), edmProperty.isNullable(), edmProperty.getMaxLength(),
+        edmProperty.getPrecision(), edmProperty.getScale(), edmProperty.isUnicode(), edmProperty.getMapping(),
+        jsonNode);
+  }
+
   private void consumeExpandedNavigationProperties(final EdmEntityType edmEntityType, final ObjectNode node,
       final Entity entity, final ExpandTreeBuilder expandBuilder) throws DeserializerException {
     List<String> navigationPropertyNames = edmEntityType.getNavigationPropertyNames();
@@ -27,7 +27,6 @@ import java.util.Map;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
@@ -64,11 +63,10 @@ import org.apache.olingo.server.api.deserializer.DeserializerException.MessageKe
 import org.apache.olingo.server.api.deserializer.DeserializerResult;
 import org.apache.olingo.server.api.deserializer.ODataDeserializer;
 import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
+import org.apache.olingo.server.core.serializer.utils.XmlStreamFactories;
 
 public class ODataXmlDeserializer implements ODataDeserializer {
 
-  private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
-
   private static final QName propertiesQName = new QName(Constants.NS_METADATA, Constants.PROPERTIES);
   private static final QName propertyValueQName = new QName(Constants.NS_METADATA, Constants.VALUE);
   private static final QName contextQName = new QName(Constants.NS_METADATA, Constants.CONTEXT);
@@ -94,9 +92,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   }
   
   protected XMLEventReader getReader(final InputStream input) throws XMLStreamException {
-    FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-    FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-    return FACTORY.createXMLEventReader(input);
+    return XmlStreamFactories.createEventReader(input);
   }
 
   private Object primitive(final XMLEventReader reader, final StartElement start,
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.expand;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.expand.ExpandResolver;
+import org.apache.olingo.server.api.expand.NavigationLoader;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+
+public class ExpandResolverImpl implements ExpandResolver {
+
+  @Override
+  public void resolve(final EdmEntityType entityType, final List<Entity> entities, final ExpandOption expand,
+      final NavigationLoader loader) throws ODataApplicationException {
+    if (expand == null || expand.getExpandItems() == null || entities == null || entities.isEmpty()) {
+      return;
+    }
+    final Map<Entity, ExpandOption> owners = new IdentityHashMap<>();
+    for (final Entity entity : entities) {
+      if (entity != null) {
+        owners.put(entity, expand);
+      }
+    }
+    resolve(entityType, entities, expand, loader, owners);
+  }
+
+  /**
+   * Resolves one level.
+   * @param owners the expand option each entity instance has been linked for;
+   *               an entity reached with another expand option is replaced by a copy, so that
+   *               the inline content of one expand path is not overwritten by another one
+   */
+  private void resolve(final EdmEntityType entityType, final List<Entity> entities, final ExpandOption expand,
+      final NavigationLoader loader, final Map<Entity, ExpandOption> owners) throws ODataApplicationException {
+    for (final Map.Entry<String, ExpandItem> entry : getExpandedNavigationProperties(entityType, expand).entrySet()) {
+      final EdmNavigationProperty navigationProperty = entityType.getNavigationProperty(entry.getKey());
+      final ExpandItem item = entry.getValue();
+      final List<EntityCollection> related = loader.load(navigationProperty, entities, item);
+      if (related == null || related.size() != entities.size()) {
+        throw new ODataApplicationException("The related entities of navigation property '"
+            + navigationProperty.getName() + "' have not been loaded for all " + entities.size() + " entities.",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+      }
+
+      // The related entities of all parents form the next level; an entity related to several parents
+      // needs to be expanded only once.
+      final ExpandOption childExpand = item.getExpandOption();
+      final List<Entity> children = new ArrayList<>();
+      final Set<Entity> known = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+      final Map<Entity, Entity> copies = new IdentityHashMap<>();
+      final Iterator<EntityCollection> relatedIterator = related.iterator();
+      for (final Entity parent : entities) {
+        final EntityCollection relatedEntities = childExpand == null ?
+            relatedIterator.next() :
+            claim(relatedIterator.next(), childExpand, owners, copies);
+        link(parent, navigationProperty, relatedEntities, item);
+        if (relatedEntities != null) {
+          for (final Entity child : relatedEntities.getEntities()) {
+            if (child != null && known.add(child)) {
+              children.add(child);
+            }
+          }
+        }
+      }
+
+      if (childExpand != null && childExpand.getExpandItems() != null && !children.isEmpty()) {
+        resolve(navigationProperty.getType(), children, childExpand, loader, owners);
+      }
+    }
+  }
+
+  /**
+   * Claims the related entities for an expand option.
+   * Entities already claimed for another expand option are replaced by copies in a new collection;
+   * the loaded collection is not changed because the loader may have returned it for other parents, too.
+   */
+  private EntityCollection claim(final EntityCollection related, final ExpandOption expand,
+      final Map<Entity, ExpandOption> owners, final Map<Entity, Entity> copies) {
+    if (related == null) {
+      return null;
+    }
+    List<Entity> claimed = null;
+    final List<Entity> entities = related.getEntities();
+    for (int index = 0; index < entities.size(); index++) {
+      Entity entity = entities.get(index);
+      if (entity != null) {
+        final ExpandOption owner = owners.get(entity);
+        if (owner == null) {
+          owners.put(entity, expand);
+        } else if (owner != expand) {
+          Entity copy = copies.get(entity);
+          if (copy == null) {
+            copy = copy(entity);
+            copies.put(entity, copy);
+            owners.put(copy, expand);
+          }
+          entity = copy;
+        }
+      }
+      if (claimed == null && entity != entities.get(index)) {
+        claimed = new ArrayList<>(entities.subList(0, index));
+      }
+      if (claimed != null) {
+        claimed.add(entity);
+      }
+    }
+    if (claimed == null) {
+      return related;
+    }
+    final EntityCollection result = new EntityCollection();
+    result.setId(related.getId());
+    result.setBaseURI(related.getBaseURI());
+    result.setCount(related.getCount());
+    result.setNext(related.getNext());
+    result.setDeltaLink(related.getDeltaLink());
+    result.getOperations().addAll(related.getOperations());
+    result.getAnnotations().addAll(related.getAnnotations());
+    result.getEntities().addAll(claimed);
+    return result;
+  }
+
+  /** Creates a shallow copy of an entity with its own lists of links. */
+  private Entity copy(final Entity entity) {
+    final Entity copy = new Entity();
+    copy.setId(entity.getId());
+    copy.setBaseURI(entity.getBaseURI());
+    copy.setType(entity.getType());
+    copy.setETag(entity.getETag());
+    copy.setSelfLink(entity.getSelfLink());
+    copy.setEditLink(entity.getEditLink());
+    copy.setMediaContentType(entity.getMediaContentType());
+    copy.setMediaContentSource(entity.getMediaContentSource());
+    copy.setMediaETag(entity.getMediaETag());
+    copy.getMediaEditLinks().addAll(entity.getMediaEditLinks());
+    copy.getOperations().addAll(entity.getOperations());
+    copy.getProperties().addAll(entity.getProperties());
+    copy.getAnnotations().addAll(entity.getAnnotations());
+    copy.getNavigationLinks().addAll(entity.getNavigationLinks());
+    copy.getAssociationLinks().addAll(entity.getAssociationLinks());
+    copy.getNavigationBindings().addAll(entity.getNavigationBindings());
+    return copy;
+  }
+
+  /** Gets the expanded navigation properties with their expand items in the order of the expand items. */
+  private Map<String, ExpandItem> getExpandedNavigationProperties(final EdmEntityType entityType,
+      final ExpandOption expand) throws ODataApplicationException {
+    final Map<String, ExpandItem> expanded = new LinkedHashMap<>();
+    ExpandItem expandAll = null;
+    for (final ExpandItem item : expand.getExpandItems()) {
+      if (item.getLevelsOption() != null) {
+        throw new ODataApplicationException("$levels is not implemented",
+            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+      }
+      if (item.isStar()) {
+        expandAll = item;
+      } else if (item.getResourcePath() != null) {
+        // Expand items starting with a complex property use the navigation links of the complex values.
+        final UriResource resource = item.getResourcePath().getUriResourceParts().get(0);
+        if (resource instanceof UriResourceNavigation
+            && !expanded.containsKey(((UriResourceNavigation) resource).getProperty().getName())) {
+          expanded.put(((UriResourceNavigation) resource).getProperty().getName(), item);
+        }
+      }
+    }
+    if (expandAll != null) {
+      for (final String name : entityType.getNavigationPropertyNames()) {
+        if (!expanded.containsKey(name)) {
+          expanded.put(name, expandAll);
+        }
+      }
+    }
+    return expanded;
+  }
+
+  private void link(final Entity parent, final EdmNavigationProperty navigationProperty,
+      final EntityCollection related, final ExpandItem item) {
+    final String name = navigationProperty.getName();
+    final Link link = new Link();
+    link.setTitle(name);
+    final Link existingLink = parent.getNavigationLink(name);
+    if (existingLink == null) {
+      link.setRel(Constants.NS_NAVIGATION_LINK_REL + name);
+      link.setType(navigationProperty.isCollection() ?
+          Constants.ENTITY_SET_NAVIGATION_LINK_TYPE :
+          Constants.ENTITY_NAVIGATION_LINK_TYPE);
+      if (parent.getId() != null) {
+        link.setHref(parent.getId().toASCIIString() + "/" + name);
+      }
+    } else {
+      // The existing link may be shared with other entities, so it is replaced and not changed.
+      link.setRel(existingLink.getRel());
+      link.setType(existingLink.getType());
+      link.setHref(existingLink.getHref());
+      link.setMediaETag(existingLink.getMediaETag());
+      parent.getNavigationLinks().remove(existingLink);
+    }
+
+    if (navigationProperty.isCollection()) {
+      final EntityCollection entitySet = related == null ? new EntityCollection() : related;
+      if (item.hasCountPath() && entitySet.getCount() == null) {
+        entitySet.setCount(entitySet.getEntities().size());
+      }
+      link.setInlineEntitySet(entitySet);
+    } else {
+      link.setInlineEntity(related == null || related.getEntities().isEmpty() ? null : related.getEntities().get(0));
+    }
+    parent.getNavigationLinks().add(link);
+  }
+}
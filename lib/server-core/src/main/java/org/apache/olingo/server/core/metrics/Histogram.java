@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative long values, e.g., durations in nanoseconds.
+ * <p>Values are counted in log-linear buckets: values below 16 have a bucket each,
+ * every larger power-of-two range is divided into 16 buckets of equal width.
+ * So percentiles are accurate within 1/16 (6.25%) of the value, with a fixed memory footprint,
+ * and recording a value neither locks nor allocates memory.</p>
+ */
+public final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a value; negative values are recorded as zero.
+   * @param value the value
+   */
+  public void record(final long value) {
+    final long v = Math.max(value, 0);
+    buckets.incrementAndGet(bucketIndex(v));
+    sum.add(v);
+    long current = max.get();
+    while (v > current && !max.compareAndSet(current, v)) {
+      current = max.get();
+    }
+  }
+
+  /**
+   * Takes a snapshot of the values recorded so far.
+   * Values recorded concurrently may or may not be contained.
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      count += counts[i];
+    }
+    return new Snapshot(counts, count, sum.sum(), max.get());
+  }
+
+  static int bucketIndex(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /** Gets the largest value that is counted in the bucket with the given index. */
+  static long bucketUpperBound(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKETS - 1;
+    final long subBucket = SUB_BUCKETS + index % SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  /** Immutable view of the values recorded in a histogram. */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(final long[] counts, final long count, final long sum, final long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    /** Gets the number of recorded values. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Gets the sum of the recorded values. */
+    public long getSum() {
+      return sum;
+    }
+
+    /** Gets the mean of the recorded values or 0 if there are none. */
+    public double getMean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Gets the largest recorded value or 0 if there are none. */
+    public long getMax() {
+      return max;
+    }
+
+    /**
+     * Gets the value below or at which the given percentage of the recorded values lie,
+     * within the accuracy of the buckets.
+     * @param percentile the percentage, between 0 and 100
+     * @return the value or 0 if there are no values
+     */
+    public long getPercentile(final double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+      }
+      if (count == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(bucketUpperBound(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
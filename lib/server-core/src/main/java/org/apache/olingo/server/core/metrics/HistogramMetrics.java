@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.ODataMetrics;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+
+/**
+ * {@link ODataMetrics} that records the measurements in {@link Histogram}s,
+ * one for each phase and combination of tags, and one for the bytes written for each combination of tags.
+ * <p>The histogram for a measurement is looked up by the ordinals of its tags and the entity-set name,
+ * so recording does not allocate memory once the histogram exists.</p>
+ */
+public class HistogramMetrics implements ODataMetrics {
+
+  private static final ODataMetrics.Phase[] PHASES = ODataMetrics.Phase.values();
+  private static final HttpMethod[] METHODS = HttpMethod.values();
+  private static final UriInfoKind[] KINDS = UriInfoKind.values();
+  /** Map key for an unknown entity set; entity-set names are never empty. */
+  private static final String NO_ENTITY_SET = "";
+
+  private final Table phases = new Table(PHASES.length);
+  private final Table bytesWritten = new Table(1);
+
+  @Override
+  public void phase(final Phase phase, final long nanos, final HttpMethod method, final UriInfoKind kind,
+      final String entitySetName) {
+    phases.getOrCreate(phase.ordinal(), method, kind, entitySetName).record(nanos);
+  }
+
+  @Override
+  public void bytesWritten(final long bytes, final HttpMethod method, final UriInfoKind kind,
+      final String entitySetName) {
+    bytesWritten.getOrCreate(0, method, kind, entitySetName).record(bytes);
+  }
+
+  /**
+   * Gets the histogram of the durations of a phase in nanoseconds.
+   * @return the histogram or <code>null</code> if no measurement has been recorded for the given tags
+   */
+  public Histogram getHistogram(final Phase phase, final HttpMethod method, final UriInfoKind kind,
+      final String entitySetName) {
+    return phases.get(phase.ordinal(), method, kind, entitySetName);
+  }
+
+  /**
+   * Gets the histogram of the numbers of bytes written.
+   * @return the histogram or <code>null</code> if no measurement has been recorded for the given tags
+   */
+  public Histogram getBytesWrittenHistogram(final HttpMethod method, final UriInfoKind kind,
+      final String entitySetName) {
+    return bytesWritten.get(0, method, kind, entitySetName);
+  }
+
+  /**
+   * Visits all histograms, e.g., to export them to a monitoring system.
+   * @param visitor the visitor
+   */
+  public void visit(final Visitor visitor) {
+    phases.visit(visitor, true);
+    bytesWritten.visit(visitor, false);
+  }
+
+  /** Receives the histograms of {@link HistogramMetrics#visit(Visitor)}. */
+  public interface Visitor {
+    /**
+     * Visits a histogram.
+     * @param phase         the phase or <code>null</code> for a histogram of the bytes written
+     * @param method        the HTTP method or <code>null</code>
+     * @param kind          the kind of the requested resource or <code>null</code>
+     * @param entitySetName the name of the addressed entity set or <code>null</code>
+     * @param histogram     the histogram
+     */
+    void visit(Phase phase, HttpMethod method, UriInfoKind kind, String entitySetName, Histogram histogram);
+  }
+
+  /**
+   * Histograms indexed by a measurement-specific slot, the HTTP method, and the resource kind,
+   * and mapped by entity-set name; an unknown tag has its own index.
+   */
+  private static final class Table {
+
+    private final AtomicReferenceArray<ConcurrentMap<String, Histogram>> histograms;
+
+    private Table(final int slots) {
+      histograms = new AtomicReferenceArray<>(slots * (METHODS.length + 1) * (KINDS.length + 1));
+    }
+
+    private Histogram get(final int slot, final HttpMethod method, final UriInfoKind kind,
+        final String entitySetName) {
+      final ConcurrentMap<String, Histogram> map = histograms.get(index(slot, method, kind));
+      return map == null ? null : map.get(entitySetName == null ? NO_ENTITY_SET : entitySetName);
+    }
+
+    private Histogram getOrCreate(final int slot, final HttpMethod method, final UriInfoKind kind,
+        final String entitySetName) {
+      final int index = index(slot, method, kind);
+      ConcurrentMap<String, Histogram> map = histograms.get(index);
+      if (map == null) {
+        histograms.compareAndSet(index, null, new ConcurrentHashMap<String, Histogram>());
+        map = histograms.get(index);
+      }
+      final String key = entitySetName == null ? NO_ENTITY_SET : entitySetName;
+      final Histogram histogram = map.get(key);
+      return histogram == null ? map.computeIfAbsent(key, k -> new Histogram()) : histogram;
+    }
+
+    private void visit(final Visitor visitor, final boolean withPhase) {
+      for (int index = 0; index < histograms.length(); index++) {
+        final ConcurrentMap<String, Histogram> map = histograms.get(index);
+        if (map != null) {
+          final int kindIndex = index % (KINDS.length + 1);
+          final int methodIndex = index / (KINDS.length + 1) % (METHODS.length + 1);
+          final int slot = index / ((KINDS.length + 1) * (METHODS.length + 1));
+          for (final Map.Entry<String, Histogram> entry : map.entrySet()) {
+            visitor.visit(withPhase ? PHASES[slot] : null,
+                methodIndex == 0 ? null : METHODS[methodIndex - 1],
+                kindIndex == 0 ? null : KINDS[kindIndex - 1],
+                NO_ENTITY_SET.equals(entry.getKey()) ? null : entry.getKey(),
+                entry.getValue());
+          }
+        }
+      }
+    }
+
+    private static int index(final int slot, final HttpMethod method, final UriInfoKind kind) {
+      return (slot * (METHODS.length + 1) + (method == null ? 0 : method.ordinal() + 1)) * (KINDS.length + 1)
+          + (kind == null ? 0 : kind.ordinal() + 1);
+    }
+  }
+}
@@ -0,0 +1,395 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.ODataApplicationException;
+
+/**
+ * Node of a compiled expression tree.
+ * <br/>
+ * Each node knows the kind of value it produces at compile time, so operators can pick their
+ * comparison and coercion strategy once instead of inspecting operands for every entity.
+ * Values are produced in a normalized representation: whole numbers as {@link Long},
+ * <code>Edm.Single</code> and <code>Edm.Double</code> as {@link Double}, <code>Edm.Decimal</code> as
+ * {@link BigDecimal}, enumeration members as {@link Long} and other primitive values as instances of
+ * the default type of their primitive type.
+ */
+abstract class CompiledExpression {
+
+  /** Kind of the values an expression produces. */
+  enum ValueKind {
+    /** The <code>null</code> literal. */
+    NULL,
+    BOOLEAN,
+    INTEGER,
+    DECIMAL,
+    DOUBLE,
+    STRING,
+    ENUM,
+    /** Other primitive values, e.g., temporal types or GUIDs. */
+    OTHER,
+    /** Complex values, entities, and collections. */
+    STRUCTURED;
+
+    boolean isNumeric() {
+      return this == INTEGER || this == DECIMAL || this == DOUBLE;
+    }
+  }
+
+  static final Object[] NO_VARIABLES = new Object[0];
+
+  private final ValueKind kind;
+  private final EdmPrimitiveType type;
+
+  protected CompiledExpression(final ValueKind kind, final EdmPrimitiveType type) {
+    this.kind = kind;
+    this.type = type;
+  }
+
+  /**
+   * Evaluates this expression.
+   * @param entity     the entity the expression is evaluated for
+   * @param variables  current values of the lambda variables, indexed by nesting depth
+   * @return the normalized value, or <code>null</code>
+   */
+  abstract Object evaluate(Entity entity, Object[] variables) throws ODataApplicationException;
+
+  /** Whether the value of this expression does not depend on the entity. */
+  boolean isConstant() {
+    return false;
+  }
+
+  ValueKind getKind() {
+    return kind;
+  }
+
+  /** Gets the primitive type of the values; <code>null</code> for the kinds NULL and STRUCTURED. */
+  EdmPrimitiveType getType() {
+    return type;
+  }
+
+  static EdmPrimitiveType primitive(final EdmPrimitiveTypeKind kind) {
+    return EdmPrimitiveTypeFactory.getInstance(kind);
+  }
+
+  static EdmPrimitiveType primitiveTypeOf(final EdmType type) {
+    if (type instanceof EdmTypeDefinition) {
+      return ((EdmTypeDefinition) type).getUnderlyingType();
+    }
+    return type instanceof EdmPrimitiveType ? (EdmPrimitiveType) type : null;
+  }
+
+  static ValueKind kindOf(final EdmType type) {
+    if (type == null) {
+      return ValueKind.NULL;
+    }
+    final EdmPrimitiveType primitiveType = primitiveTypeOf(type);
+    if (primitiveType == null) {
+      return ValueKind.STRUCTURED;
+    } else if (primitiveType.getKind() == EdmTypeKind.ENUM) {
+      return ValueKind.ENUM;
+    }
+    switch (EdmPrimitiveTypeKind.valueOfFQN(primitiveType.getFullQualifiedName())) {
+    case Boolean:
+      return ValueKind.BOOLEAN;
+    case SByte:
+    case Byte:
+    case Int16:
+    case Int32:
+    case Int64:
+      return ValueKind.INTEGER;
+    case Single:
+    case Double:
+      return ValueKind.DOUBLE;
+    case Decimal:
+      return ValueKind.DECIMAL;
+    case String:
+      return ValueKind.STRING;
+    default:
+      return ValueKind.OTHER;
+    }
+  }
+
+  /** Gets the Java class values of the given kind are normalized to. */
+  static Class<?> valueClass(final ValueKind kind, final EdmPrimitiveType type) {
+    switch (kind) {
+    case BOOLEAN:
+      return Boolean.class;
+    case INTEGER:
+    case ENUM:
+      return Long.class;
+    case DOUBLE:
+      return Double.class;
+    case DECIMAL:
+      return BigDecimal.class;
+    case STRING:
+      return String.class;
+    case OTHER:
+      return type.getDefaultType();
+    default:
+      return Object.class;
+    }
+  }
+
+  /** Converts a value as found in the data into the normalized representation of the given kind. */
+  static Object normalize(final ValueKind kind, final EdmPrimitiveType type, final Object value)
+      throws ODataApplicationException {
+    if (value == null) {
+      return null;
+    }
+    switch (kind) {
+    case INTEGER:
+    case ENUM:
+      if (value instanceof Long) {
+        return value;
+      } else if (value instanceof Number && !(value instanceof BigDecimal)
+          && !(value instanceof Double) && !(value instanceof Float)) {
+        return ((Number) value).longValue();
+      }
+      break;
+    case DOUBLE:
+      if (value instanceof Number) {
+        return ((Number) value).doubleValue();
+      }
+      break;
+    case DECIMAL:
+      if (value instanceof BigDecimal) {
+        return value;
+      } else if (value instanceof Double || value instanceof Float) {
+        return BigDecimal.valueOf(((Number) value).doubleValue());
+      } else if (value instanceof Number) {
+        return new BigDecimal(value.toString());
+      }
+      break;
+    case STRING:
+      return value.toString();
+    case BOOLEAN:
+    case OTHER:
+      if (valueClass(kind, type).isInstance(value)) {
+        return value;
+      }
+      break;
+    default:
+      return value;
+    }
+    return convert(type, value, valueClass(kind, type));
+  }
+
+  private static Object convert(final EdmPrimitiveType type, final Object value, final Class<?> target)
+      throws ODataApplicationException {
+    if (target == Timestamp.class && value instanceof Calendar) {
+      return new Timestamp(((Calendar) value).getTimeInMillis());
+    } else if (target == Timestamp.class && value instanceof Date) {
+      return new Timestamp(((Date) value).getTime());
+    } else if (target == Calendar.class && value instanceof Date) {
+      return toCalendar(value);
+    }
+    try {
+      return parse(type, value instanceof String ? (String) value
+          : type.valueToString(value, null, null, null, null, null), target);
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("The value '" + value + "' cannot be converted to type "
+          + type.getFullQualifiedName().getFullQualifiedNameAsString() + ".",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+    }
+  }
+
+  /** Parses a value without restricting it by facets. */
+  static Object parse(final EdmPrimitiveType type, final String value, final Class<?> target)
+      throws EdmPrimitiveTypeException {
+    // A missing precision would restrict durations to whole seconds, a given one would limit decimals.
+    final Integer precision = kindOf(type) == ValueKind.DECIMAL ? null : Integer.MAX_VALUE;
+    return type.valueOfString(value, null, null, precision, Integer.MAX_VALUE, null, target);
+  }
+
+  /** Converts a normalized numeric value into the representation of a wider numeric kind. */
+  static Object widen(final ValueKind kind, final Object value) {
+    if (value == null) {
+      return null;
+    }
+    switch (kind) {
+    case DOUBLE:
+      return ((Number) value).doubleValue();
+    case DECIMAL:
+      return value instanceof BigDecimal ? value : BigDecimal.valueOf(((Long) value).longValue());
+    default:
+      return value;
+    }
+  }
+
+  /** Gets a calendar for a temporal value; instants are expressed in GMT. */
+  static Calendar toCalendar(final Object value) {
+    if (value instanceof Calendar) {
+      return (Calendar) value;
+    }
+    final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    calendar.setTimeInMillis(((Date) value).getTime());
+    return calendar;
+  }
+
+  /**
+   * Whether values of the given kind and type have an order.
+   * Values without order, e.g., geospatial or structured values, can only be compared for equality.
+   */
+  static boolean isOrdered(final ValueKind kind, final EdmPrimitiveType type) {
+    if (kind == ValueKind.OTHER) {
+      final Class<?> valueClass = valueClass(kind, type);
+      return Comparable.class.isAssignableFrom(valueClass) || valueClass == byte[].class;
+    }
+    return kind != ValueKind.STRUCTURED;
+  }
+
+  /** Whether two non-<code>null</code> normalized values of the same kind are equal. */
+  static boolean isEqual(final ValueKind kind, final Object left, final Object right) {
+    if (kind == ValueKind.STRUCTURED || kind == ValueKind.OTHER && !(left instanceof Comparable<?>)) {
+      return left instanceof byte[] && right instanceof byte[] ?
+          Arrays.equals((byte[]) left, (byte[]) right) :
+          left.equals(right);
+    }
+    return compare(kind, left, right) == 0;
+  }
+
+  /**
+   * Compares two non-<code>null</code> normalized values of the same kind.
+   * The kind must be ordered, see {@link #isOrdered(ValueKind, EdmPrimitiveType)};
+   * binary values are compared as sequences of unsigned bytes.
+   */
+  @SuppressWarnings("unchecked")
+  static int compare(final ValueKind kind, final Object left, final Object right) {
+    switch (kind) {
+    case INTEGER:
+    case ENUM:
+      return Long.compare((Long) left, (Long) right);
+    case DOUBLE:
+      return Double.compare((Double) left, (Double) right);
+    case DECIMAL:
+      return ((BigDecimal) left).compareTo((BigDecimal) right);
+    case STRING:
+      return ((String) left).compareTo((String) right);
+    case BOOLEAN:
+      return ((Boolean) left).compareTo((Boolean) right);
+    case OTHER:
+      if (left instanceof byte[]) {
+        return compareBinary((byte[]) left, (byte[]) right);
+      }
+      return ((Comparable<Object>) left).compareTo(right);
+    default:
+      throw new IllegalArgumentException("Values of kind " + kind + " have no order.");
+    }
+  }
+
+  /**
+   * Gets an object for hashing a non-<code>null</code> normalized value: two values of the same kind are
+   * equal in the sense of {@link #isEqual(ValueKind, Object, Object)} if and only if their keys are equal.
+   */
+  static Object hashKey(final ValueKind kind, final Object value) {
+    if (kind == ValueKind.DECIMAL) {
+      final BigDecimal decimal = (BigDecimal) value;
+      return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+    } else if (value instanceof byte[]) {
+      return ByteBuffer.wrap((byte[]) value);
+    } else if (value instanceof Calendar) {
+      return ((Calendar) value).getTimeInMillis();
+    }
+    return value;
+  }
+
+  private static int compareBinary(final byte[] left, final byte[] right) {
+    final int length = Math.min(left.length, right.length);
+    for (int i = 0; i < length; i++) {
+      final int result = Integer.compare(left[i] & 0xFF, right[i] & 0xFF);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(left.length, right.length);
+  }
+
+  /** Constant value, computed at compile time. */
+  static final class Constant extends CompiledExpression {
+
+    private final Object value;
+
+    Constant(final ValueKind kind, final EdmPrimitiveType type, final Object value) {
+      super(kind, type);
+      this.value = value;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) {
+      return value;
+    }
+
+    @Override
+    boolean isConstant() {
+      return true;
+    }
+  }
+
+  /** Conversion of the values of a numeric expression into a wider numeric kind. */
+  static final class Widening extends CompiledExpression {
+
+    private final CompiledExpression operand;
+
+    Widening(final ValueKind kind, final EdmPrimitiveType type, final CompiledExpression operand) {
+      super(kind, type);
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      return widen(getKind(), operand.evaluate(entity, variables));
+    }
+  }
+
+  /** Conversion of the values of an expression into the representation of another primitive type. */
+  static final class Conversion extends CompiledExpression {
+
+    private final CompiledExpression operand;
+
+    Conversion(final ValueKind kind, final EdmPrimitiveType type, final CompiledExpression operand) {
+      super(kind, type);
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Object value = operand.evaluate(entity, variables);
+      return value == null ? null : normalize(getKind(), getType(), value);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.net.URI;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+
+/**
+ * Filter expression compiled once for evaluation against any number of in-memory entities.
+ * <br/>
+ * Member paths, literals, and operand types are resolved when compiling, so evaluating an entity does
+ * not walk the expression tree of the URI parser. Instances may be shared across threads and requests;
+ * evaluating only updates lookup hints for member paths, which are validated before each use.
+ */
+public final class CompiledFilter {
+
+  private final CompiledExpression expression;
+  private final int variableCount;
+
+  private CompiledFilter(final CompiledExpression expression, final int variableCount) {
+    this.expression = expression;
+    this.variableCount = variableCount;
+  }
+
+  /**
+   * Compiles the expression of a filter option.
+   * @param filterOption the filter option
+   * @return the compiled filter
+   * @throws ODataApplicationException if the expression is not a valid filter expression (400)
+   *                                   or uses a construct that is not supported (501)
+   */
+  public static CompiledFilter compile(final FilterOption filterOption) throws ODataApplicationException {
+    return compile(filterOption.getExpression());
+  }
+
+  /**
+   * Compiles a filter expression.
+   * @param expression an expression resulting in an <code>Edm.Boolean</code> value
+   * @return the compiled filter
+   * @throws ODataApplicationException if the expression is not a valid filter expression (400)
+   *                                   or uses a construct that is not supported (501)
+   */
+  public static CompiledFilter compile(final Expression expression) throws ODataApplicationException {
+    final ExpressionCompiler compiler = new ExpressionCompiler();
+    final CompiledExpression compiled = compiler.compileBoolean(expression);
+    return new CompiledFilter(compiled, compiler.getVariableCount());
+  }
+
+  /**
+   * Evaluates the filter for an entity.
+   * @param entity the entity
+   * @return <code>true</code> if the filter expression evaluates to <code>true</code>
+   * @throws ODataApplicationException if the evaluation fails, e.g., on division by zero
+   */
+  public boolean matches(final Entity entity) throws ODataApplicationException {
+    return Boolean.TRUE.equals(expression.evaluate(entity,
+        variableCount == 0 ? CompiledExpression.NO_VARIABLES : new Object[variableCount]));
+  }
+
+  /**
+   * Removes all entities from the collection the filter does not match.
+   * The order of the remaining entities is retained.
+   * @param entityCollection the entity collection
+   * @throws ODataApplicationException if the evaluation fails
+   */
+  public void apply(final EntityCollection entityCollection) throws ODataApplicationException {
+    final List<Entity> entities = entityCollection.getEntities();
+    int kept = 0;
+    for (int i = 0; i < entities.size(); i++) {
+      final Entity entity = entities.get(i);
+      if (matches(entity)) {
+        entities.set(kept++, entity);
+      }
+    }
+    entities.subList(kept, entities.size()).clear();
+  }
+
+  /**
+   * Wraps an entity iterator so that it returns only entities the filter matches.
+   * Entities are evaluated lazily while iterating; evaluation errors are thrown as
+   * {@link ODataRuntimeException} with the {@link ODataApplicationException} as cause.
+   * @param entityIterator the source iterator
+   * @return the filtering iterator
+   */
+  public EntityIterator apply(final EntityIterator entityIterator) {
+    return new FilteringIterator(entityIterator);
+  }
+
+  private final class FilteringIterator extends EntityIterator {
+
+    private final EntityIterator source;
+    private Entity next;
+
+    FilteringIterator(final EntityIterator source) {
+      this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && source.hasNext()) {
+        final Entity entity = source.next();
+        try {
+          if (matches(entity)) {
+            next = entity;
+          }
+        } catch (final ODataApplicationException e) {
+          throw new ODataRuntimeException(e.getMessage(), e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Entity entity = next;
+      next = null;
+      return entity;
+    }
+
+    @Override
+    public URI getNext() {
+      return super.getNext() == null ? source.getNext() : super.getNext();
+    }
+  }
+}
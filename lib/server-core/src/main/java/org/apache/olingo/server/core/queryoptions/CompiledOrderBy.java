@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.core.queryoptions.CompiledExpression.ValueKind;
+
+/**
+ * Order-by option compiled once for sorting any number of in-memory entities.
+ * <br/>
+ * Sorting evaluates the order-by expressions exactly once per entity into a sort key and compares
+ * the keys afterwards. <code>null</code> values sort before all other values in ascending order.
+ * Instances may be shared across threads and requests; evaluating only updates lookup hints for member
+ * paths, which are validated before each use.
+ */
+public final class CompiledOrderBy {
+
+  private final CompiledExpression[] expressions;
+  private final boolean[] descending;
+  private final int variableCount;
+  private final Comparator<Object[]> keyComparator = new Comparator<Object[]>() {
+    @Override
+    public int compare(final Object[] key1, final Object[] key2) {
+      return compareSortKeys(key1, key2);
+    }
+  };
+
+  private CompiledOrderBy(final CompiledExpression[] expressions, final boolean[] descending,
+      final int variableCount) {
+    this.expressions = expressions;
+    this.descending = descending;
+    this.variableCount = variableCount;
+  }
+
+  /**
+   * Compiles the expressions of an order-by option.
+   * @param orderByOption the order-by option
+   * @return the compiled order-by option
+   * @throws ODataApplicationException if an expression is not valid or its values have no order (400)
+   *                                   or uses a construct that is not supported (501)
+   */
+  public static CompiledOrderBy compile(final OrderByOption orderByOption) throws ODataApplicationException {
+    final List<OrderByItem> orders = orderByOption.getOrders();
+    final CompiledExpression[] expressions = new CompiledExpression[orders.size()];
+    final boolean[] descending = new boolean[orders.size()];
+    final ExpressionCompiler compiler = new ExpressionCompiler();
+    for (int i = 0; i < expressions.length; i++) {
+      expressions[i] = compiler.compile(orders.get(i).getExpression());
+      if (expressions[i].getKind() == ValueKind.OTHER
+          && !CompiledExpression.isOrdered(expressions[i].getKind(), expressions[i].getType())) {
+        throw Operations.badRequest("The values of order-by expression " + (i + 1) + " cannot be ordered.");
+      }
+      descending[i] = orders.get(i).isDescending();
+    }
+    return new CompiledOrderBy(expressions, descending, compiler.getVariableCount());
+  }
+
+  /**
+   * Computes the sort key of an entity, i.e., the values of all order-by expressions.
+   * @param entity the entity
+   * @return the sort key, to be compared with {@link #compareSortKeys(Object[], Object[])}
+   * @throws ODataApplicationException if the evaluation fails
+   */
+  public Object[] sortKey(final Entity entity) throws ODataApplicationException {
+    return sortKey(entity, expressions.length);
+  }
+
+  /** Computes a sort key with room for additional values after the order-by values. */
+  Object[] sortKey(final Entity entity, final int length) throws ODataApplicationException {
+    final Object[] variables = variableCount == 0 ? CompiledExpression.NO_VARIABLES : new Object[variableCount];
+    final Object[] key = new Object[length];
+    for (int i = 0; i < expressions.length; i++) {
+      key[i] = expressions[i].evaluate(entity, variables);
+    }
+    return key;
+  }
+
+  /**
+   * Compares two sort keys computed by {@link #sortKey(Entity)}.
+   * @return a negative number, zero, or a positive number as the first key sorts before, together with,
+   *         or after the second key
+   */
+  public int compareSortKeys(final Object[] key1, final Object[] key2) {
+    for (int i = 0; i < expressions.length; i++) {
+      final Object value1 = key1[i];
+      final Object value2 = key2[i];
+      final int result;
+      if (value1 == null || value2 == null) {
+        result = value1 == null ? value2 == null ? 0 : -1 : 1;
+      } else {
+        final ValueKind kind = expressions[i].getKind();
+        result = kind == ValueKind.STRUCTURED ? 0 : CompiledExpression.compare(kind, value1, value2);
+      }
+      if (result != 0) {
+        return descending[i] ? -result : result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Gets a comparator for sort keys computed by {@link #sortKey(Entity)}.
+   */
+  public Comparator<Object[]> getSortKeyComparator() {
+    return keyComparator;
+  }
+
+  /**
+   * Sorts the entities of a collection. The sort is stable.
+   * @param entityCollection the entity collection
+   * @throws ODataApplicationException if the evaluation fails
+   */
+  public void apply(final EntityCollection entityCollection) throws ODataApplicationException {
+    sort(entityCollection.getEntities());
+  }
+
+  /**
+   * Sorts the entities of an entity iterator. All entities are read from the source iterator and
+   * kept in memory.
+   * @param entityIterator the source iterator
+   * @return an iterator returning the entities in sort order
+   * @throws ODataApplicationException if the evaluation fails
+   */
+  public EntityIterator apply(final EntityIterator entityIterator) throws ODataApplicationException {
+    final List<Entity> entities = new ArrayList<Entity>();
+    while (entityIterator.hasNext()) {
+      entities.add(entityIterator.next());
+    }
+    sort(entities);
+    final Iterator<Entity> iterator = entities.iterator();
+    return new EntityIterator() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Entity next() {
+        return iterator.next();
+      }
+
+      @Override
+      public Integer getCount() {
+        return super.getCount() == null ? entityIterator.getCount() : super.getCount();
+      }
+
+      @Override
+      public URI getNext() {
+        return super.getNext() == null ? entityIterator.getNext() : super.getNext();
+      }
+    };
+  }
+
+  int size() {
+    return expressions.length;
+  }
+
+  private void sort(final List<Entity> entities) throws ODataApplicationException {
+    final int size = entities.size();
+    final int entityIndex = expressions.length;
+    final Object[][] keys = new Object[size][];
+    for (int i = 0; i < size; i++) {
+      // The entity travels with its key, in an additional last slot.
+      keys[i] = sortKey(entities.get(i), entityIndex + 1);
+      keys[i][entityIndex] = entities.get(i);
+    }
+    Arrays.sort(keys, keyComparator);
+    for (int i = 0; i < size; i++) {
+      entities.set(i, (Entity) keys[i][entityIndex]);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+
+/**
+ * Value expression compiled once for evaluation against any number of in-memory entities,
+ * e.g., an aggregated or computed expression.
+ * <br/>
+ * Values are normalized: whole numbers are {@link Long}, <code>Edm.Single</code> and <code>Edm.Double</code>
+ * values are {@link Double}, <code>Edm.Decimal</code> values are {@link java.math.BigDecimal}, and other
+ * primitive values are instances of the default type of their primitive type.
+ * Instances may be shared across threads and requests; evaluating only updates lookup hints for member
+ * paths, which are validated before each use.
+ */
+public final class CompiledValue {
+
+  private final CompiledExpression expression;
+  private final int variableCount;
+
+  private CompiledValue(final CompiledExpression expression, final int variableCount) {
+    this.expression = expression;
+    this.variableCount = variableCount;
+  }
+
+  /**
+   * Compiles an expression.
+   * @param expression the expression
+   * @return the compiled expression
+   * @throws ODataApplicationException if the expression is not valid (400)
+   *                                   or uses a construct that is not supported (501)
+   */
+  public static CompiledValue compile(final Expression expression) throws ODataApplicationException {
+    final ExpressionCompiler compiler = new ExpressionCompiler();
+    final CompiledExpression compiled = compiler.compile(expression);
+    return new CompiledValue(compiled, compiler.getVariableCount());
+  }
+
+  /**
+   * Compiles the path of a structural property, e.g., of a grouping property.
+   * @param path the resource parts of the path, relative to the entity
+   * @return the compiled path
+   * @throws ODataApplicationException if the path uses a construct that is not supported (501)
+   */
+  public static CompiledValue compile(final List<UriResource> path) throws ODataApplicationException {
+    return new CompiledValue(new ExpressionCompiler().compilePath(path), 0);
+  }
+
+  /**
+   * Evaluates the expression for an entity.
+   * @param entity the entity; it may be <code>null</code> if the expression is constant
+   * @return the normalized value or <code>null</code>
+   * @throws ODataApplicationException if the evaluation fails, e.g., on division by zero
+   */
+  public Object evaluate(final Entity entity) throws ODataApplicationException {
+    return expression.evaluate(entity,
+        variableCount == 0 ? CompiledExpression.NO_VARIABLES : new Object[variableCount]);
+  }
+
+  /** Whether the value does not depend on the entity. */
+  public boolean isConstant() {
+    return expression.isConstant();
+  }
+
+  /** Gets the primitive type of the values or <code>null</code> if the values are not primitive. */
+  public EdmPrimitiveType getType() {
+    return expression.getType();
+  }
+
+  /** Whether the values are numbers. */
+  public boolean isNumeric() {
+    return expression.getKind().isNumeric();
+  }
+
+  /** Whether the values are whole numbers. */
+  public boolean isIntegral() {
+    return expression.getKind() == CompiledExpression.ValueKind.INTEGER;
+  }
+
+  /** Whether the values have an order, see {@link #compare(Object, Object)}. */
+  public boolean isOrdered() {
+    return CompiledExpression.isOrdered(expression.getKind(), expression.getType());
+  }
+
+  /**
+   * Compares two non-<code>null</code> values of this expression; the values must have an order.
+   * @return a negative number, zero, or a positive number as the first value is less than,
+   *         equal to, or greater than the second value
+   */
+  public int compare(final Object value1, final Object value2) {
+    return CompiledExpression.compare(expression.getKind(), value1, value2);
+  }
+
+  /**
+   * Gets an object for hashing a non-<code>null</code> value of this expression, e.g., for grouping;
+   * the objects for two values are equal if and only if the values are equal.
+   */
+  public Object hashKey(final Object value) {
+    return CompiledExpression.hashKey(expression.getKind(), value);
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+
+/**
+ * Lazy evaluation of <code>$filter</code>, <code>$orderby</code>, <code>$skip</code>, and <code>$top</code>
+ * over an {@link EntityIterator}, e.g., as source for
+ * {@link org.apache.olingo.server.api.serializer.ODataSerializer#entityCollectionStreamed}.
+ * <br/>
+ * The stages are applied in the order the OData specification defines, regardless of the order they
+ * are configured in. Entities are pulled from the source only when the result is iterated.
+ * Filtering and paging keep only a constant number of entities in memory; sorting keeps all entities,
+ * unless <code>$top</code> is given: then only the best <code>$skip + $top</code> entities are kept
+ * in a bounded heap. The source is not read beyond what <code>$top</code> needs if there is no sorting.
+ * <br/>
+ * Evaluation errors surface while iterating as {@link ODataRuntimeException} with the
+ * {@link ODataApplicationException} as cause. Count and next link are not propagated; set them on the
+ * result if needed.
+ */
+public final class EntityIteratorPipeline {
+
+  private final EntityIterator source;
+  private CompiledFilter filter;
+  private ForkJoinPool pool;
+  private int chunkSize;
+  private CompiledOrderBy orderBy;
+  private int skip;
+  private Integer top;
+
+  private EntityIteratorPipeline(final EntityIterator source) {
+    this.source = source;
+  }
+
+  /**
+   * Starts a pipeline.
+   * @param source the iterator providing the entities
+   */
+  public static EntityIteratorPipeline with(final EntityIterator source) {
+    return new EntityIteratorPipeline(source);
+  }
+
+  /**
+   * Starts a pipeline with the filter, order-by, skip, and top system query options of a request.
+   * @param source  the iterator providing the entities
+   * @param uriInfo the URI information of the request
+   * @throws ODataApplicationException if the filter or order-by expression cannot be compiled
+   */
+  public static EntityIteratorPipeline with(final EntityIterator source, final UriInfoResource uriInfo)
+      throws ODataApplicationException {
+    final EntityIteratorPipeline pipeline = new EntityIteratorPipeline(source);
+    if (uriInfo.getFilterOption() != null) {
+      pipeline.filter(CompiledFilter.compile(uriInfo.getFilterOption()));
+    }
+    if (uriInfo.getOrderByOption() != null) {
+      pipeline.orderBy(CompiledOrderBy.compile(uriInfo.getOrderByOption()));
+    }
+    if (uriInfo.getSkipOption() != null) {
+      pipeline.skip(uriInfo.getSkipOption().getValue());
+    }
+    if (uriInfo.getTopOption() != null) {
+      pipeline.top(uriInfo.getTopOption().getValue());
+    }
+    return pipeline;
+  }
+
+  /** Returns only entities the filter matches. */
+  public EntityIteratorPipeline filter(final CompiledFilter filter) {
+    this.filter = filter;
+    this.pool = null;
+    return this;
+  }
+
+  /**
+   * Returns only entities the filter matches, evaluating the filter in parallel.
+   * The source is read in chunks, and a bounded number of chunks is evaluated concurrently in the pool;
+   * the order of the entities is retained.
+   * @param filter    the filter
+   * @param pool      the pool evaluating the chunks, e.g., {@link ForkJoinPool#commonPool()}
+   * @param chunkSize the number of entities per chunk
+   */
+  public EntityIteratorPipeline filter(final CompiledFilter filter, final ForkJoinPool pool, final int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("The chunk size must be positive.");
+    }
+    this.filter = filter;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /** Sorts the entities. */
+  public EntityIteratorPipeline orderBy(final CompiledOrderBy orderBy) {
+    this.orderBy = orderBy;
+    return this;
+  }
+
+  /** Skips the given number of entities. */
+  public EntityIteratorPipeline skip(final int skip) {
+    if (skip < 0) {
+      throw new IllegalArgumentException("The number of entities to skip must not be negative.");
+    }
+    this.skip = skip;
+    return this;
+  }
+
+  /** Returns at most the given number of entities. */
+  public EntityIteratorPipeline top(final int top) {
+    if (top < 0) {
+      throw new IllegalArgumentException("The number of entities to return must not be negative.");
+    }
+    this.top = top;
+    return this;
+  }
+
+  /**
+   * Builds the resulting iterator; the source is not read before it is used.
+   */
+  public EntityIterator build() {
+    Iterator<Entity> result = source;
+    if (filter != null) {
+      result = pool == null ? filter.apply(source) : new ParallelFilterIterator(source, filter, pool, chunkSize);
+    }
+    if (orderBy != null) {
+      result = top == null ?
+          new SortingIterator(result, orderBy, -1) :
+          new SortingIterator(result, orderBy, (int) Math.min(Integer.MAX_VALUE, (long) skip + top));
+    }
+    return new PagingIterator(result, skip, top == null ? -1 : top);
+  }
+
+  private static ODataRuntimeException wrap(final ODataApplicationException e) {
+    return new ODataRuntimeException(e.getMessage(), e);
+  }
+
+  /** Skips and limits entities; after the limit is reached, the source is not touched anymore. */
+  private static final class PagingIterator extends EntityIterator {
+
+    private final Iterator<Entity> source;
+    private int toSkip;
+    private int remaining;
+
+    PagingIterator(final Iterator<Entity> source, final int skip, final int top) {
+      this.source = source;
+      toSkip = skip;
+      remaining = top;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (remaining == 0) {
+        return false;
+      }
+      while (toSkip > 0 && source.hasNext()) {
+        source.next();
+        toSkip--;
+      }
+      return source.hasNext();
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (remaining > 0) {
+        remaining--;
+      }
+      return source.next();
+    }
+  }
+
+  /**
+   * Sorts all entities of the source when first used. With a limit, a heap keeps only the best entities
+   * seen so far; its root is the worst of them and is replaced by any better entity.
+   */
+  private static final class SortingIterator implements Iterator<Entity> {
+
+    private final Iterator<Entity> source;
+    private final CompiledOrderBy orderBy;
+    private final int limit;
+    private Iterator<Entity> sorted;
+
+    SortingIterator(final Iterator<Entity> source, final CompiledOrderBy orderBy, final int limit) {
+      this.source = source;
+      this.orderBy = orderBy;
+      this.limit = limit;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (sorted == null) {
+        try {
+          sorted = sort();
+        } catch (final ODataApplicationException e) {
+          throw wrap(e);
+        }
+      }
+      return sorted.hasNext();
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return sorted.next();
+    }
+
+    private Iterator<Entity> sort() throws ODataApplicationException {
+      if (limit == 0) {
+        return Collections.<Entity> emptyList().iterator();
+      }
+      // Sort key, followed by the position in the source to keep the sort stable, followed by the entity.
+      final int positionIndex = orderBy.size();
+      final int entityIndex = positionIndex + 1;
+      final Comparator<Object[]> comparator = new Comparator<Object[]>() {
+        @Override
+        public int compare(final Object[] key1, final Object[] key2) {
+          final int result = orderBy.compareSortKeys(key1, key2);
+          return result == 0 ? Long.compare((Long) key1[positionIndex], (Long) key2[positionIndex]) : result;
+        }
+      };
+      final PriorityQueue<Object[]> heap = limit < 0 ? null :
+          new PriorityQueue<Object[]>(Math.min(limit, 1024) + 1, Collections.reverseOrder(comparator));
+      final List<Object[]> all = limit < 0 ? new ArrayList<Object[]>() : null;
+      long position = 0;
+      while (source.hasNext()) {
+        final Entity entity = source.next();
+        final Object[] key = orderBy.sortKey(entity, entityIndex + 1);
+        key[positionIndex] = position++;
+        key[entityIndex] = entity;
+        if (heap == null) {
+          all.add(key);
+        } else if (heap.size() < limit) {
+          heap.add(key);
+        } else if (comparator.compare(key, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(key);
+        }
+      }
+      final Object[][] keys = heap == null ? all.toArray(new Object[all.size()][]) : heap.toArray(new Object[0][]);
+      Arrays.sort(keys, comparator);
+      final List<Entity> entities = new ArrayList<Entity>(keys.length);
+      for (final Object[] key : keys) {
+        entities.add((Entity) key[entityIndex]);
+      }
+      return entities.iterator();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Evaluates a filter for chunks of the source in a fork-join pool. The source itself is read by the
+   * consuming thread only; at most twice as many chunks as the pool has workers are read ahead.
+   */
+  private static final class ParallelFilterIterator implements Iterator<Entity> {
+
+    private final Iterator<Entity> source;
+    private final CompiledFilter filter;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final Deque<ForkJoinTask<List<Entity>>> chunks = new ArrayDeque<ForkJoinTask<List<Entity>>>();
+    private Iterator<Entity> current = Collections.<Entity> emptyList().iterator();
+
+    ParallelFilterIterator(final Iterator<Entity> source, final CompiledFilter filter, final ForkJoinPool pool,
+        final int chunkSize) {
+      this.source = source;
+      this.filter = filter;
+      this.pool = pool;
+      this.chunkSize = chunkSize;
+      maxChunksInFlight = Math.max(2, 2 * pool.getParallelism());
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext()) {
+        while (chunks.size() < maxChunksInFlight && source.hasNext()) {
+          final List<Entity> chunk = new ArrayList<Entity>(chunkSize);
+          while (chunk.size() < chunkSize && source.hasNext()) {
+            chunk.add(source.next());
+          }
+          chunks.add(pool.submit(new FilterTask(filter, chunk, 0, chunk.size())));
+        }
+        if (chunks.isEmpty()) {
+          return false;
+        }
+        try {
+          current = chunks.poll().join().iterator();
+        } catch (final ODataRuntimeException e) {
+          for (final ForkJoinTask<List<Entity>> chunk : chunks) {
+            chunk.cancel(false);
+          }
+          chunks.clear();
+          throw unwrap(e);
+        }
+      }
+      return true;
+    }
+
+    /** Undoes the wrapping the fork-join framework applies to exceptions thrown in other threads. */
+    private static ODataRuntimeException unwrap(final ODataRuntimeException exception) {
+      for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+        if (cause instanceof ODataApplicationException) {
+          return wrap((ODataApplicationException) cause);
+        }
+      }
+      return exception;
+    }
+
+    @Override
+    public Entity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** Filters a range of a chunk, splitting it further while workers are idle. */
+  private static final class FilterTask extends RecursiveTask<List<Entity>> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int MIN_SPLIT_SIZE = 256;
+
+    private final transient CompiledFilter filter;
+    private final transient List<Entity> entities;
+    private final int from;
+    private final int to;
+
+    FilterTask(final CompiledFilter filter, final List<Entity> entities, final int from, final int to) {
+      this.filter = filter;
+      this.entities = entities;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<Entity> compute() {
+      if (to - from > 2 * MIN_SPLIT_SIZE && getSurplusQueuedTaskCount() == 0) {
+        final int middle = (from + to) >>> 1;
+        final FilterTask second = new FilterTask(filter, entities, middle, to);
+        second.fork();
+        final List<Entity> result = new FilterTask(filter, entities, from, middle).compute();
+        result.addAll(second.join());
+        return result;
+      }
+      final List<Entity> result = new ArrayList<Entity>();
+      try {
+        for (int i = from; i < to; i++) {
+          final Entity entity = entities.get(i);
+          if (filter.matches(entity)) {
+            result.add(entity);
+          }
+        }
+      } catch (final ODataApplicationException e) {
+        throw wrap(e);
+      }
+      return result;
+    }
+  }
+}
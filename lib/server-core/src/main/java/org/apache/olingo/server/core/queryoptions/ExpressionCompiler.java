@@ -0,0 +1,686 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Linked;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceComplexProperty;
+import org.apache.olingo.server.api.uri.UriResourceCount;
+import org.apache.olingo.server.api.uri.UriResourceIt;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAll;
+import org.apache.olingo.server.api.uri.UriResourceLambdaAny;
+import org.apache.olingo.server.api.uri.UriResourceLambdaVariable;
+import org.apache.olingo.server.api.uri.UriResourceNavigation;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.Alias;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Enumeration;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.Method;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Unary;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+import org.apache.olingo.server.core.queryoptions.CompiledExpression.ValueKind;
+import org.apache.olingo.server.core.uri.queryoption.expression.AliasImpl;
+
+/**
+ * Compiles an expression tree of the URI parser into a tree of {@link CompiledExpression} nodes.
+ * <br/>
+ * Member paths are resolved into property-access steps, literals are parsed, operands are coerced to
+ * a common kind, and sub-expressions not depending on the entity are folded into constants;
+ * all of this happens once, at compile time.
+ * Instances are not thread-safe; the compiled result is.
+ */
+final class ExpressionCompiler {
+
+  private final List<String> lambdaVariables = new ArrayList<String>();
+  private int variableCount;
+
+  /** Gets the number of lambda-variable slots the compiled expressions need. */
+  int getVariableCount() {
+    return variableCount;
+  }
+
+  CompiledExpression compile(final Expression expression) throws ODataApplicationException {
+    if (expression instanceof Binary) {
+      return binary((Binary) expression);
+    } else if (expression instanceof Unary) {
+      return unary((Unary) expression);
+    } else if (expression instanceof Method) {
+      return method((Method) expression);
+    } else if (expression instanceof Literal) {
+      return literal((Literal) expression);
+    } else if (expression instanceof Member) {
+      return member((Member) expression);
+    } else if (expression instanceof Enumeration) {
+      return enumeration((Enumeration) expression);
+    } else if (expression instanceof Alias) {
+      return alias((Alias) expression);
+    } else {
+      throw notImplemented("Expression '" + expression + "' is not supported.");
+    }
+  }
+
+  /** Compiles an expression that must result in a Boolean value. */
+  CompiledExpression compileBoolean(final Expression expression) throws ODataApplicationException {
+    final CompiledExpression result = compile(expression);
+    if (result.getKind() != ValueKind.BOOLEAN && result.getKind() != ValueKind.NULL) {
+      throw Operations.badRequest("Invalid filter expression. "
+          + "Filter expressions must return a value of type Edm.Boolean");
+    }
+    return result;
+  }
+
+  private CompiledExpression binary(final Binary binary) throws ODataApplicationException {
+    final BinaryOperatorKind operator = binary.getOperator();
+    final CompiledExpression left = compile(binary.getLeftOperand());
+    if (operator == BinaryOperatorKind.IN) {
+      return in(left, binary);
+    }
+    final CompiledExpression right = compile(binary.getRightOperand());
+    switch (operator) {
+    case AND:
+    case OR:
+      expect(left, operator, ValueKind.BOOLEAN);
+      expect(right, operator, ValueKind.BOOLEAN);
+      return fold(new Operations.Logical(operator == BinaryOperatorKind.AND, left, right), left, right);
+    case EQ:
+    case NE:
+    case GT:
+    case GE:
+    case LT:
+    case LE:
+      if (left.getKind() == ValueKind.NULL || right.getKind() == ValueKind.NULL) {
+        return fold(new Operations.Comparison(operator, ValueKind.NULL, left, right), left, right);
+      }
+      final CompiledExpression[] operands = unify(left, right);
+      if (operator != BinaryOperatorKind.EQ && operator != BinaryOperatorKind.NE
+          && !CompiledExpression.isOrdered(operands[0].getKind(), operands[0].getType())) {
+        throw Operations.badRequest("Operator '" + operator + "' requires operands with an order.");
+      }
+      return fold(new Operations.Comparison(operator, operands[0].getKind(), operands[0], operands[1]),
+          operands[0], operands[1]);
+    case ADD:
+    case SUB:
+    case MUL:
+    case DIV:
+    case MOD:
+      expect(left, operator, ValueKind.INTEGER, ValueKind.DECIMAL, ValueKind.DOUBLE);
+      expect(right, operator, ValueKind.INTEGER, ValueKind.DECIMAL, ValueKind.DOUBLE);
+      final ValueKind kind = left.getKind() == ValueKind.NULL ? right.getKind()
+          : right.getKind() == ValueKind.NULL ? left.getKind()
+          : widest(left.getKind(), right.getKind());
+      if (kind == ValueKind.NULL) {
+        return new CompiledExpression.Constant(ValueKind.NULL, null, null);
+      }
+      final CompiledExpression leftOperand = widen(left, kind);
+      final CompiledExpression rightOperand = widen(right, kind);
+      return fold(new Operations.Arithmetic(operator, kind, typeOf(kind), leftOperand, rightOperand),
+          leftOperand, rightOperand);
+    case HAS:
+      expect(left, operator, ValueKind.ENUM);
+      expect(right, operator, ValueKind.ENUM);
+      return fold(new Operations.Has(left, right), left, right);
+    default:
+      throw notImplemented("Operator '" + operator + "' is not supported.");
+    }
+  }
+
+  private CompiledExpression in(final CompiledExpression left, final Binary binary) throws ODataApplicationException {
+    final List<Expression> expressions = binary.getExpressions() == null || binary.getExpressions().isEmpty() ?
+        Collections.singletonList(binary.getRightOperand()) :
+        binary.getExpressions();
+    final List<CompiledExpression> alternatives = new ArrayList<CompiledExpression>(expressions.size());
+    ValueKind kind = left.getKind();
+    for (final Expression expression : expressions) {
+      final CompiledExpression alternative = compile(expression);
+      if (kind.isNumeric() && alternative.getKind().isNumeric()) {
+        kind = widest(kind, alternative.getKind());
+      }
+      alternatives.add(alternative);
+    }
+    final CompiledExpression operand = kind.isNumeric() ? widen(left, kind) : left;
+    boolean constant = operand.isConstant();
+    for (int i = 0; i < alternatives.size(); i++) {
+      final CompiledExpression alternative = alternatives.get(i);
+      final CompiledExpression coerced = alternative.getKind() == ValueKind.NULL
+          || alternative.getKind() == ValueKind.STRUCTURED
+          || kind == ValueKind.NULL ? alternative : coerce(alternative, operand);
+      constant &= coerced.isConstant();
+      alternatives.set(i, coerced);
+    }
+    final CompiledExpression result = new Operations.In(kind, operand, alternatives);
+    return constant ? constant(result) : result;
+  }
+
+  private CompiledExpression unary(final Unary unary) throws ODataApplicationException {
+    final CompiledExpression operand = compile(unary.getOperand());
+    if (unary.getOperator() == UnaryOperatorKind.NOT) {
+      expect(operand, unary.getOperator(), ValueKind.BOOLEAN);
+    } else {
+      expect(operand, unary.getOperator(), ValueKind.INTEGER, ValueKind.DECIMAL, ValueKind.DOUBLE);
+    }
+    return operand.getKind() == ValueKind.NULL ? operand : fold(new Operations.Negation(operand), operand);
+  }
+
+  private CompiledExpression method(final Method method) throws ODataApplicationException {
+    final MethodKind kind = method.getMethod();
+    final CompiledExpression[] parameters = new CompiledExpression[method.getParameters().size()];
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = compile(method.getParameters().get(i));
+    }
+    final ValueKind resultKind;
+    EdmPrimitiveTypeKind resultType = null;
+    switch (kind) {
+    case CONTAINS:
+    case STARTSWITH:
+    case ENDSWITH:
+    case SUBSTRINGOF:
+      expectParameters(kind, parameters, 2, ValueKind.STRING, ValueKind.STRING);
+      resultKind = ValueKind.BOOLEAN;
+      break;
+    case INDEXOF:
+      expectParameters(kind, parameters, 2, ValueKind.STRING, ValueKind.STRING);
+      resultKind = ValueKind.INTEGER;
+      resultType = EdmPrimitiveTypeKind.Int32;
+      break;
+    case LENGTH:
+      expectParameters(kind, parameters, 1, ValueKind.STRING);
+      resultKind = ValueKind.INTEGER;
+      resultType = EdmPrimitiveTypeKind.Int32;
+      break;
+    case TOLOWER:
+    case TOUPPER:
+    case TRIM:
+      expectParameters(kind, parameters, 1, ValueKind.STRING);
+      resultKind = ValueKind.STRING;
+      break;
+    case CONCAT:
+      expectParameters(kind, parameters, 2, ValueKind.STRING, ValueKind.STRING);
+      resultKind = ValueKind.STRING;
+      break;
+    case SUBSTRING:
+      expectParameters(kind, parameters, parameters.length == 3 ? 3 : 2,
+          ValueKind.STRING, ValueKind.INTEGER, ValueKind.INTEGER);
+      resultKind = ValueKind.STRING;
+      break;
+    case YEAR:
+    case MONTH:
+    case DAY:
+      expectTemporal(kind, parameters, EdmPrimitiveTypeKind.Date, EdmPrimitiveTypeKind.DateTimeOffset);
+      resultKind = ValueKind.INTEGER;
+      resultType = EdmPrimitiveTypeKind.Int32;
+      break;
+    case HOUR:
+    case MINUTE:
+    case SECOND:
+      expectTemporal(kind, parameters, EdmPrimitiveTypeKind.TimeOfDay, EdmPrimitiveTypeKind.DateTimeOffset);
+      resultKind = ValueKind.INTEGER;
+      resultType = EdmPrimitiveTypeKind.Int32;
+      break;
+    case FRACTIONALSECONDS:
+      expectTemporal(kind, parameters, EdmPrimitiveTypeKind.TimeOfDay, EdmPrimitiveTypeKind.DateTimeOffset);
+      resultKind = ValueKind.DECIMAL;
+      break;
+    case ROUND:
+    case FLOOR:
+    case CEILING:
+      expectParameters(kind, parameters, 1, ValueKind.INTEGER, ValueKind.DECIMAL, ValueKind.DOUBLE);
+      if (parameters[0].getKind() == ValueKind.INTEGER || parameters[0].getKind() == ValueKind.NULL) {
+        // Whole numbers are rounded already.
+        return parameters[0];
+      }
+      return fold(new Operations.MethodCall(kind, parameters[0].getKind(), parameters[0].getType(), parameters),
+          parameters);
+    default:
+      throw notImplemented("Method '" + kind + "' is not supported.");
+    }
+    final EdmPrimitiveType type = resultType == null ? typeOf(resultKind) : primitive(resultType);
+    return fold(new Operations.MethodCall(kind, resultKind, type, parameters), parameters);
+  }
+
+  private CompiledExpression literal(final Literal literal) throws ODataApplicationException {
+    final EdmPrimitiveType type = CompiledExpression.primitiveTypeOf(literal.getType());
+    if (literal.getType() == null) {
+      return new CompiledExpression.Constant(ValueKind.NULL, null, null);
+    } else if (type == null) {
+      throw notImplemented("Literal '" + literal.getText() + "' is not supported.");
+    }
+    final ValueKind kind = CompiledExpression.kindOf(type);
+    try {
+      return new CompiledExpression.Constant(kind, type,
+          CompiledExpression.parse(type, type.fromUriLiteral(literal.getText()),
+              CompiledExpression.valueClass(kind, type)));
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("Invalid literal '" + literal.getText() + "'.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+    }
+  }
+
+  private CompiledExpression enumeration(final Enumeration enumeration) throws ODataApplicationException {
+    final EdmEnumType type = enumeration.getType();
+    long value = 0;
+    try {
+      for (final String member : enumeration.getValues()) {
+        value |= type.valueOfString(member, null, null, null, null, null, Long.class);
+      }
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("Illegal enum value.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+    }
+    return new CompiledExpression.Constant(ValueKind.ENUM, type, value);
+  }
+
+  private CompiledExpression alias(final Alias alias) throws ODataApplicationException {
+    if (alias instanceof AliasImpl && ((AliasImpl) alias).getAlias() != null
+        && ((AliasImpl) alias).getAlias().getValue() != null) {
+      return compile(((AliasImpl) alias).getAlias().getValue());
+    }
+    throw Operations.badRequest("Alias '" + alias.getParameterName() + "' has no value.");
+  }
+
+  /** Compiles the path of a structural property, relative to the entity. */
+  CompiledExpression compilePath(final List<UriResource> parts) throws ODataApplicationException {
+    final UriResource last = parts.isEmpty() ? null : parts.get(parts.size() - 1);
+    if (!(last instanceof UriResourceProperty)) {
+      throw notImplemented("Path '" + parts + "' is not supported.");
+    }
+    final EdmProperty property = ((UriResourceProperty) last).getProperty();
+    return member(parts, property.isCollection(), property.getType(), parts);
+  }
+
+  private CompiledExpression member(final Member member) throws ODataApplicationException {
+    return member(member.getResourcePath().getUriResourceParts(), member.isCollection(), member.getType(), member);
+  }
+
+  private CompiledExpression member(final List<UriResource> parts, final boolean isCollection, final EdmType type,
+      final Object member) throws ODataApplicationException {
+    int index = 0;
+    int variable = -1;
+    if (parts.get(0) instanceof UriResourceIt) {
+      index++;
+    } else if (parts.get(0) instanceof UriResourceLambdaVariable) {
+      final String name = ((UriResourceLambdaVariable) parts.get(0)).getVariableName();
+      variable = lambdaVariables.lastIndexOf(name);
+      if (variable < 0) {
+        throw Operations.badRequest("Unknown lambda variable '" + name + "'.");
+      }
+      index++;
+    }
+
+    final List<PathStep> steps = new ArrayList<PathStep>();
+    for (; index < parts.size(); index++) {
+      final UriResource part = parts.get(index);
+      final boolean last = index == parts.size() - 1;
+      if (part instanceof UriResourceProperty) {
+        if (part instanceof UriResourceComplexProperty
+            && ((UriResourceComplexProperty) part).getComplexTypeFilter() != null) {
+          throw notImplemented("Type casts in member expressions are not supported.");
+        }
+        steps.add(new PropertyStep(((UriResourceProperty) part).getProperty().getName()));
+      } else if (part instanceof UriResourceNavigation) {
+        final UriResourceNavigation navigation = (UriResourceNavigation) part;
+        if (navigation.getTypeFilterOnCollection() != null || navigation.getTypeFilterOnEntry() != null) {
+          throw notImplemented("Type casts in member expressions are not supported.");
+        }
+        steps.add(new NavigationStep(navigation.getProperty().getName()));
+      } else if (last && part instanceof UriResourceCount) {
+        return new Count(new MemberAccess(ValueKind.STRUCTURED, null, variable, steps));
+      } else if (last && part instanceof UriResourceLambdaAny) {
+        final UriResourceLambdaAny any = (UriResourceLambdaAny) part;
+        return lambda(false, new MemberAccess(ValueKind.STRUCTURED, null, variable, steps),
+            any.getLambdaVariable(), any.getExpression());
+      } else if (last && part instanceof UriResourceLambdaAll) {
+        final UriResourceLambdaAll all = (UriResourceLambdaAll) part;
+        return lambda(true, new MemberAccess(ValueKind.STRUCTURED, null, variable, steps),
+            all.getLambdaVariable(), all.getExpression());
+      } else {
+        throw notImplemented("Member expression '" + member + "' is not supported.");
+      }
+    }
+    return isCollection ?
+        new MemberAccess(ValueKind.STRUCTURED, null, variable, steps) :
+        new MemberAccess(CompiledExpression.kindOf(type), CompiledExpression.primitiveTypeOf(type), variable, steps);
+  }
+
+  private CompiledExpression lambda(final boolean all, final CompiledExpression collection,
+      final String variable, final Expression expression) throws ODataApplicationException {
+    if (expression == null) {
+      return new Lambda(all, collection, -1, null);
+    }
+    lambdaVariables.add(variable);
+    variableCount = Math.max(variableCount, lambdaVariables.size());
+    try {
+      return new Lambda(all, collection, lambdaVariables.size() - 1, compileBoolean(expression));
+    } finally {
+      lambdaVariables.remove(lambdaVariables.size() - 1);
+    }
+  }
+
+  /** Brings two operands of a comparison to the same kind. */
+  private CompiledExpression[] unify(final CompiledExpression left, final CompiledExpression right)
+      throws ODataApplicationException {
+    if (left.getKind().isNumeric() && right.getKind().isNumeric()) {
+      final ValueKind kind = widest(left.getKind(), right.getKind());
+      return new CompiledExpression[] { widen(left, kind), widen(right, kind) };
+    } else if (left.isConstant() && !right.isConstant() && right.getKind() != ValueKind.STRUCTURED) {
+      return new CompiledExpression[] { coerce(left, right), right };
+    }
+    return new CompiledExpression[] { left, coerce(right, left) };
+  }
+
+  /** Brings an operand to the kind of another operand; numeric operands must have been widened already. */
+  private static CompiledExpression coerce(final CompiledExpression operand, final CompiledExpression target)
+      throws ODataApplicationException {
+    final ValueKind kind = operand.getKind();
+    final ValueKind targetKind = target.getKind();
+    if (kind == targetKind && (kind != ValueKind.OTHER || operand.getType().equals(target.getType()))
+        || kind == ValueKind.ENUM && targetKind == ValueKind.INTEGER
+        || kind == ValueKind.INTEGER && targetKind == ValueKind.ENUM) {
+      return operand;
+    } else if (kind.isNumeric() && targetKind.isNumeric()) {
+      return widen(operand, targetKind);
+    } else if (operand.isConstant() && targetKind != ValueKind.STRUCTURED) {
+      return convertConstant(operand, targetKind, target.getType());
+    } else if (kind == ValueKind.OTHER && targetKind == ValueKind.OTHER) {
+      return new CompiledExpression.Conversion(targetKind, target.getType(), operand);
+    }
+    throw Operations.badRequest("Incompatible operand types " + typeName(target) + " and " + typeName(operand) + ".");
+  }
+
+  private static CompiledExpression convertConstant(final CompiledExpression constant, final ValueKind kind,
+      final EdmPrimitiveType type) throws ODataApplicationException {
+    return new CompiledExpression.Constant(kind, type,
+        CompiledExpression.normalize(kind, type, constant.evaluate(null, CompiledExpression.NO_VARIABLES)));
+  }
+
+  private static ValueKind widest(final ValueKind left, final ValueKind right) {
+    // The numeric kinds are declared from the narrowest to the widest.
+    return left.compareTo(right) >= 0 ? left : right;
+  }
+
+  private static CompiledExpression widen(final CompiledExpression expression, final ValueKind kind)
+      throws ODataApplicationException {
+    if (expression.getKind() == kind || expression.getKind() == ValueKind.NULL) {
+      return expression;
+    } else if (expression.isConstant()) {
+      return new CompiledExpression.Constant(kind, typeOf(kind),
+          CompiledExpression.widen(kind, expression.evaluate(null, CompiledExpression.NO_VARIABLES)));
+    }
+    return new CompiledExpression.Widening(kind, typeOf(kind), expression);
+  }
+
+  private static EdmPrimitiveType typeOf(final ValueKind kind) {
+    switch (kind) {
+    case BOOLEAN:
+      return primitive(EdmPrimitiveTypeKind.Boolean);
+    case INTEGER:
+      return primitive(EdmPrimitiveTypeKind.Int64);
+    case DECIMAL:
+      return primitive(EdmPrimitiveTypeKind.Decimal);
+    case DOUBLE:
+      return primitive(EdmPrimitiveTypeKind.Double);
+    case STRING:
+      return primitive(EdmPrimitiveTypeKind.String);
+    default:
+      return null;
+    }
+  }
+
+  private static EdmPrimitiveType primitive(final EdmPrimitiveTypeKind kind) {
+    return CompiledExpression.primitive(kind);
+  }
+
+  /** Replaces an operation on constant operands by its result. */
+  private static CompiledExpression fold(final CompiledExpression operation, final CompiledExpression... operands)
+      throws ODataApplicationException {
+    for (final CompiledExpression operand : operands) {
+      if (!operand.isConstant()) {
+        return operation;
+      }
+    }
+    return constant(operation);
+  }
+
+  private static CompiledExpression constant(final CompiledExpression operation) throws ODataApplicationException {
+    return new CompiledExpression.Constant(operation.getKind(), operation.getType(),
+        operation.evaluate(null, CompiledExpression.NO_VARIABLES));
+  }
+
+  private static void expect(final CompiledExpression operand, final Object operator, final ValueKind... kinds)
+      throws ODataApplicationException {
+    if (operand.getKind() == ValueKind.NULL) {
+      return;
+    }
+    for (final ValueKind kind : kinds) {
+      if (operand.getKind() == kind) {
+        return;
+      }
+    }
+    throw Operations.badRequest("Operand of type " + typeName(operand)
+        + " is not allowed for '" + operator + "'.");
+  }
+
+  private static void expectParameters(final MethodKind method, final CompiledExpression[] parameters,
+      final int count, final ValueKind... kinds) throws ODataApplicationException {
+    if (parameters.length != count) {
+      throw Operations.badRequest("Method '" + method + "' needs " + count + " parameters.");
+    }
+    if (kinds.length > count) {
+      // Only numeric kinds are given for the single parameter of rounding methods.
+      expect(parameters[0], method, kinds);
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      expect(parameters[i], method, kinds[i]);
+    }
+  }
+
+  private static void expectTemporal(final MethodKind method, final CompiledExpression[] parameters,
+      final EdmPrimitiveTypeKind... types) throws ODataApplicationException {
+    if (parameters.length != 1) {
+      throw Operations.badRequest("Method '" + method + "' needs 1 parameter.");
+    }
+    if (parameters[0].getKind() == ValueKind.NULL) {
+      return;
+    }
+    if (parameters[0].getKind() == ValueKind.OTHER) {
+      for (final EdmPrimitiveTypeKind type : types) {
+        if (primitive(type).equals(parameters[0].getType())) {
+          return;
+        }
+      }
+    }
+    throw Operations.badRequest("Parameter of type " + typeName(parameters[0])
+        + " is not allowed for '" + method + "'.");
+  }
+
+  private static String typeName(final CompiledExpression expression) {
+    return expression.getType() == null ?
+        expression.getKind().name() :
+        expression.getType().getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  private static ODataApplicationException notImplemented(final String message) {
+    return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  /** One step along a member path. */
+  private abstract static class PathStep {
+    abstract Object apply(Object current);
+  }
+
+  /**
+   * Access to a structural property. The position of the property found last is remembered, so that
+   * entities of the same type built the same way are served without searching their property lists.
+   */
+  private static final class PropertyStep extends PathStep {
+
+    private final String name;
+    // Racy by design: every thread validates the hint against the property name before using it.
+    private int position;
+
+    PropertyStep(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    Object apply(final Object current) {
+      final List<Property> properties = current instanceof Entity ? ((Entity) current).getProperties()
+          : current instanceof ComplexValue ? ((ComplexValue) current).getValue()
+          : null;
+      if (properties == null) {
+        return null;
+      }
+      final int hint = position;
+      if (hint < properties.size()) {
+        final Property property = properties.get(hint);
+        if (name.equals(property.getName())) {
+          return property.getValue();
+        }
+      }
+      for (int i = 0; i < properties.size(); i++) {
+        final Property property = properties.get(i);
+        if (name.equals(property.getName())) {
+          position = i;
+          return property.getValue();
+        }
+      }
+      return null;
+    }
+  }
+
+  /** Access to the inline content of a navigation property. */
+  private static final class NavigationStep extends PathStep {
+
+    private final String name;
+
+    NavigationStep(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    Object apply(final Object current) {
+      final Link link = current instanceof Linked ? ((Linked) current).getNavigationLink(name) : null;
+      return link == null ? null : link.getInlineEntity() == null ? link.getInlineEntitySet() : link.getInlineEntity();
+    }
+  }
+
+  /** Access to a member, starting at the entity or at the value of a lambda variable. */
+  private static final class MemberAccess extends CompiledExpression {
+
+    private final int variable;
+    private final PathStep[] steps;
+
+    MemberAccess(final ValueKind kind, final EdmPrimitiveType type, final int variable, final List<PathStep> steps) {
+      super(kind, type);
+      this.variable = variable;
+      this.steps = steps.toArray(new PathStep[steps.size()]);
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      Object current = variable < 0 ? entity : variables[variable];
+      for (int i = 0; i < steps.length && current != null; i++) {
+        current = steps[i].apply(current);
+      }
+      return normalize(getKind(), getType(), current);
+    }
+  }
+
+  private static Collection<?> items(final Object collection) {
+    return collection instanceof EntityCollection ? ((EntityCollection) collection).getEntities()
+        : collection instanceof Collection<?> ? (Collection<?>) collection
+        : null;
+  }
+
+  /** The number of items of a collection. */
+  private static final class Count extends CompiledExpression {
+
+    private final CompiledExpression collection;
+
+    Count(final CompiledExpression collection) {
+      super(ValueKind.INTEGER, primitive(EdmPrimitiveTypeKind.Int32));
+      this.collection = collection;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Collection<?> items = items(collection.evaluate(entity, variables));
+      return items == null ? 0L : (long) items.size();
+    }
+  }
+
+  /** The lambda operators <code>any</code> and <code>all</code>. */
+  private static final class Lambda extends CompiledExpression {
+
+    private final boolean all;
+    private final CompiledExpression collection;
+    private final int variable;
+    private final CompiledExpression predicate;
+
+    Lambda(final boolean all, final CompiledExpression collection, final int variable,
+        final CompiledExpression predicate) {
+      super(ValueKind.BOOLEAN, primitive(EdmPrimitiveTypeKind.Boolean));
+      this.all = all;
+      this.collection = collection;
+      this.variable = variable;
+      this.predicate = predicate;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Collection<?> items = items(collection.evaluate(entity, variables));
+      if (items == null) {
+        return all;
+      } else if (predicate == null) {
+        return all || !items.isEmpty();
+      }
+      for (final Object item : items) {
+        variables[variable] = item;
+        if (Boolean.TRUE.equals(predicate.evaluate(entity, variables)) != all) {
+          return !all;
+        }
+      }
+      return all;
+    }
+  }
+}
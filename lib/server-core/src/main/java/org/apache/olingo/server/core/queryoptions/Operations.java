@@ -0,0 +1,399 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+
+/**
+ * Operator and method nodes of compiled expressions.
+ * Operands have already been coerced to a common kind by the {@link ExpressionCompiler}.
+ */
+final class Operations {
+
+  private Operations() {
+    // Private constructor for utility classes
+  }
+
+  static ODataApplicationException badRequest(final String message) {
+    return new ODataApplicationException(message, HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+  }
+
+  /** Logical <code>and</code> and <code>or</code> with three-valued logic; the right operand is skipped if possible. */
+  static final class Logical extends CompiledExpression {
+
+    private final boolean and;
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+
+    Logical(final boolean and, final CompiledExpression left, final CompiledExpression right) {
+      super(ValueKind.BOOLEAN, primitive(EdmPrimitiveTypeKind.Boolean));
+      this.and = and;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      // The operand that decides the result on its own: false for 'and', true for 'or'.
+      final Boolean decisive = !and;
+      final Object leftValue = left.evaluate(entity, variables);
+      if (decisive.equals(leftValue)) {
+        return decisive;
+      }
+      final Object rightValue = right.evaluate(entity, variables);
+      if (decisive.equals(rightValue)) {
+        return decisive;
+      }
+      return leftValue == null || rightValue == null ? null : !decisive;
+    }
+  }
+
+  /** Comparison of two operands of the same kind. */
+  static final class Comparison extends CompiledExpression {
+
+    private final BinaryOperatorKind operator;
+    private final ValueKind operandKind;
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+
+    Comparison(final BinaryOperatorKind operator, final ValueKind operandKind,
+        final CompiledExpression left, final CompiledExpression right) {
+      super(ValueKind.BOOLEAN, primitive(EdmPrimitiveTypeKind.Boolean));
+      this.operator = operator;
+      this.operandKind = operandKind;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Object leftValue = left.evaluate(entity, variables);
+      final Object rightValue = right.evaluate(entity, variables);
+      final int result;
+      if (leftValue == null || rightValue == null) {
+        if (leftValue != rightValue) {
+          // Exactly one side is null: only 'ne' holds.
+          return operator == BinaryOperatorKind.NE;
+        }
+        result = 0;
+      } else if (operator == BinaryOperatorKind.EQ || operator == BinaryOperatorKind.NE) {
+        return isEqual(operandKind, leftValue, rightValue) == (operator == BinaryOperatorKind.EQ);
+      } else {
+        result = compare(operandKind, leftValue, rightValue);
+      }
+      switch (operator) {
+      case EQ:
+        return result == 0;
+      case NE:
+        return result != 0;
+      case GT:
+        return result > 0;
+      case GE:
+        return result >= 0;
+      case LT:
+        return result < 0;
+      default:
+        return result <= 0;
+      }
+    }
+  }
+
+  /** Arithmetic on two numeric operands of the same kind. */
+  static final class Arithmetic extends CompiledExpression {
+
+    private final BinaryOperatorKind operator;
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+
+    Arithmetic(final BinaryOperatorKind operator, final ValueKind kind, final EdmPrimitiveType type,
+        final CompiledExpression left, final CompiledExpression right) {
+      super(kind, type);
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Object leftValue = left.evaluate(entity, variables);
+      final Object rightValue = right.evaluate(entity, variables);
+      if (leftValue == null || rightValue == null) {
+        return null;
+      }
+      try {
+        switch (getKind()) {
+        case INTEGER:
+          return integerOperation((Long) leftValue, (Long) rightValue);
+        case DOUBLE:
+          return doubleOperation((Double) leftValue, (Double) rightValue);
+        default:
+          return decimalOperation((BigDecimal) leftValue, (BigDecimal) rightValue);
+        }
+      } catch (final ArithmeticException e) {
+        throw new ODataApplicationException("Arithmetic error: " + e.getMessage(),
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+      }
+    }
+
+    private Long integerOperation(final long left, final long right) {
+      switch (operator) {
+      case ADD:
+        return Math.addExact(left, right);
+      case SUB:
+        return Math.subtractExact(left, right);
+      case MUL:
+        return Math.multiplyExact(left, right);
+      case DIV:
+        return left / right;
+      default:
+        return left % right;
+      }
+    }
+
+    private Double doubleOperation(final double left, final double right) {
+      switch (operator) {
+      case ADD:
+        return left + right;
+      case SUB:
+        return left - right;
+      case MUL:
+        return left * right;
+      case DIV:
+        return left / right;
+      default:
+        return left % right;
+      }
+    }
+
+    private BigDecimal decimalOperation(final BigDecimal left, final BigDecimal right) {
+      switch (operator) {
+      case ADD:
+        return left.add(right);
+      case SUB:
+        return left.subtract(right);
+      case MUL:
+        return left.multiply(right);
+      case DIV:
+        return left.divide(right, MathContext.DECIMAL128);
+      default:
+        return left.remainder(right);
+      }
+    }
+  }
+
+  /** The <code>has</code> operator on enumeration values. */
+  static final class Has extends CompiledExpression {
+
+    private final CompiledExpression left;
+    private final CompiledExpression right;
+
+    Has(final CompiledExpression left, final CompiledExpression right) {
+      super(ValueKind.BOOLEAN, primitive(EdmPrimitiveTypeKind.Boolean));
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Long leftValue = (Long) left.evaluate(entity, variables);
+      final Long rightValue = (Long) right.evaluate(entity, variables);
+      return leftValue != null && rightValue != null && leftValue != 0
+          && (leftValue & rightValue) == rightValue.longValue();
+    }
+  }
+
+  /** The <code>in</code> operator with a list of alternatives of the same kind as the left operand. */
+  static final class In extends CompiledExpression {
+
+    private final ValueKind operandKind;
+    private final CompiledExpression left;
+    private final List<CompiledExpression> alternatives;
+
+    In(final ValueKind operandKind, final CompiledExpression left, final List<CompiledExpression> alternatives) {
+      super(ValueKind.BOOLEAN, primitive(EdmPrimitiveTypeKind.Boolean));
+      this.operandKind = operandKind;
+      this.left = left;
+      this.alternatives = alternatives;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Object value = left.evaluate(entity, variables);
+      for (final CompiledExpression alternative : alternatives) {
+        final Object alternativeValue = alternative.evaluate(entity, variables);
+        if (alternativeValue instanceof Collection<?>) {
+          for (final Object item : (Collection<?>) alternativeValue) {
+            if (matches(value, normalize(operandKind, left.getType(), item))) {
+              return true;
+            }
+          }
+        } else if (matches(value, alternativeValue)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean matches(final Object value, final Object alternative) {
+      return value == null ? alternative == null : alternative != null && isEqual(operandKind, value, alternative);
+    }
+  }
+
+  /** Logical negation and arithmetic negation. */
+  static final class Negation extends CompiledExpression {
+
+    private final CompiledExpression operand;
+
+    Negation(final CompiledExpression operand) {
+      super(operand.getKind(), operand.getType());
+      this.operand = operand;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Object value = operand.evaluate(entity, variables);
+      if (value == null) {
+        return null;
+      }
+      switch (getKind()) {
+      case BOOLEAN:
+        return !(Boolean) value;
+      case INTEGER:
+        try {
+          return Math.negateExact((Long) value);
+        } catch (final ArithmeticException e) {
+          throw new ODataApplicationException("Arithmetic error: " + e.getMessage(),
+              HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT, e);
+        }
+      case DOUBLE:
+        return -(Double) value;
+      default:
+        return ((BigDecimal) value).negate();
+      }
+    }
+  }
+
+  /** Built-in method call; the parameters have been checked for their kinds at compile time. */
+  static final class MethodCall extends CompiledExpression {
+
+    private static final BigDecimal NANOS_PER_SECOND = BigDecimal.valueOf(1000 * 1000 * 1000);
+    private static final BigDecimal MILLIS_PER_SECOND = BigDecimal.valueOf(1000);
+
+    private final MethodKind method;
+    private final CompiledExpression[] parameters;
+
+    MethodCall(final MethodKind method, final ValueKind kind, final EdmPrimitiveType type,
+        final CompiledExpression[] parameters) {
+      super(kind, type);
+      this.method = method;
+      this.parameters = parameters;
+    }
+
+    @Override
+    Object evaluate(final Entity entity, final Object[] variables) throws ODataApplicationException {
+      final Object[] values = new Object[parameters.length];
+      for (int i = 0; i < parameters.length; i++) {
+        values[i] = parameters[i].evaluate(entity, variables);
+        if (values[i] == null) {
+          return null;
+        }
+      }
+      switch (method) {
+      case CONTAINS:
+        return ((String) values[0]).contains((String) values[1]);
+      case SUBSTRINGOF:
+        return ((String) values[1]).contains((String) values[0]);
+      case STARTSWITH:
+        return ((String) values[0]).startsWith((String) values[1]);
+      case ENDSWITH:
+        return ((String) values[0]).endsWith((String) values[1]);
+      case LENGTH:
+        return (long) ((String) values[0]).length();
+      case INDEXOF:
+        return (long) ((String) values[0]).indexOf((String) values[1]);
+      case SUBSTRING:
+        return substring(values);
+      case TOLOWER:
+        return ((String) values[0]).toLowerCase(Locale.ROOT);
+      case TOUPPER:
+        return ((String) values[0]).toUpperCase(Locale.ROOT);
+      case TRIM:
+        return ((String) values[0]).trim();
+      case CONCAT:
+        return (String) values[0] + values[1];
+      case YEAR:
+        return (long) toCalendar(values[0]).get(Calendar.YEAR);
+      case MONTH:
+        return (long) toCalendar(values[0]).get(Calendar.MONTH) + 1;
+      case DAY:
+        return (long) toCalendar(values[0]).get(Calendar.DAY_OF_MONTH);
+      case HOUR:
+        return (long) toCalendar(values[0]).get(Calendar.HOUR_OF_DAY);
+      case MINUTE:
+        return (long) toCalendar(values[0]).get(Calendar.MINUTE);
+      case SECOND:
+        return (long) toCalendar(values[0]).get(Calendar.SECOND);
+      case FRACTIONALSECONDS:
+        return values[0] instanceof Timestamp ?
+            new BigDecimal(((Timestamp) values[0]).getNanos()).divide(NANOS_PER_SECOND) :
+            new BigDecimal(toCalendar(values[0]).get(Calendar.MILLISECOND)).divide(MILLIS_PER_SECOND);
+      case ROUND:
+        return round(values[0], RoundingMode.HALF_UP);
+      case FLOOR:
+        return round(values[0], RoundingMode.FLOOR);
+      default:
+        return round(values[0], RoundingMode.CEILING);
+      }
+    }
+
+    private static String substring(final Object[] values) {
+      final String value = (String) values[0];
+      final int start = (int) Math.max(0, Math.min((Long) values[1], value.length()));
+      final int end = values.length > 2 ?
+          (int) Math.max(start, Math.min(start + (Long) values[2], value.length())) :
+          value.length();
+      return value.substring(start, end);
+    }
+
+    private Object round(final Object value, final RoundingMode mode) {
+      if (value instanceof Double) {
+        final double number = (Double) value;
+        return Double.isNaN(number) || Double.isInfinite(number) ?
+            number :
+            BigDecimal.valueOf(number).setScale(0, mode).doubleValue();
+      }
+      return ((BigDecimal) value).setScale(0, mode);
+    }
+  }
+}
@@ -93,6 +93,8 @@ public class AsyncResponseSerializer {
           }
         }
       }
+    } else if (response.getODataContent() != null) {
+      response.getODataContent().write(buffer);
     }
   }
 
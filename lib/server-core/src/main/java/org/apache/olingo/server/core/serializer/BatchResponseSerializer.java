@@ -18,10 +18,13 @@
  */
 package org.apache.olingo.server.core.serializer;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
@@ -51,15 +54,36 @@ public class BatchResponseSerializer {
 
   public InputStream serialize(final List<ODataResponsePart> responses, final String boundary)
       throws BatchSerializerException {
-    BodyBuilder builder = createBody(responses, boundary);
+    final ContentOutputStream output = new ContentOutputStream();
+    createBody(responses, boundary, new BodyBuilder(output, false));
 
-    return new ByteArrayInputStream(builder.getContent());
+    return output.toInputStream();
   }
 
-  private BodyBuilder createBody(final List<ODataResponsePart> batchResponses, final String boundary)
+  /**
+   * Serializes the batch response directly into the output when the content is written.
+   * In contrast to {@link #serialize(List, String)} the complete response is never held in memory.
+   * Parts with {@link ODataContent} are written without Content-Length header; parts with an input stream
+   * are only buffered if their length is not known in advance.
+   * @param responses the response parts
+   * @param boundary the boundary between the parts
+   * @return the batch response as content to be written
+   * @throws BatchSerializerException if a part of a change set has no Content-ID
+   */
+  public ODataContent serializeStreamed(final List<ODataResponsePart> responses, final String boundary)
       throws BatchSerializerException {
-    final BodyBuilder builder = new BodyBuilder();
+    for (final ODataResponsePart part : responses) {
+      if (part.isChangeSet()) {
+        for (final ODataResponse response : part.getResponses()) {
+          validateContentId(response);
+        }
+      }
+    }
+    return new BatchResponseContent(responses, boundary);
+  }
 
+  private void createBody(final List<ODataResponsePart> batchResponses, final String boundary,
+      final BodyBuilder builder) throws BatchSerializerException {
     for (final ODataResponsePart part : batchResponses) {
       builder.append(getDashBoundary(boundary));
 
@@ -70,8 +94,6 @@ public class BatchResponseSerializer {
       }
     }
     builder.append(getCloseDelimiter(boundary));
-
-    return builder;
   }
 
   private void appendChangeSet(final ODataResponsePart part, final BodyBuilder builder)
@@ -96,11 +118,22 @@ public class BatchResponseSerializer {
     builder.append(CRLF);
 
     appendStatusLine(response, builder);
-    Body body = new Body(response);
-    appendResponseHeader(response, body.getLength(), builder);
-    builder.append(CRLF);
-
-    builder.append(body);
+    final InputStream content = response == null ? null : response.getContent();
+    if (builder.isStreamed() && content instanceof ByteArrayInputStream) {
+      // The length of in-memory content is known without copying it.
+      appendResponseHeader(response, ((ByteArrayInputStream) content).available(), builder);
+      builder.append(CRLF);
+      builder.append(content);
+    } else if (builder.isStreamed() && content == null && response != null && response.getODataContent() != null) {
+      appendResponseHeader(response, -1, builder);
+      builder.append(CRLF);
+      builder.append(response.getODataContent());
+    } else {
+      Body body = new Body(response);
+      appendResponseHeader(response, body.getLength(), builder);
+      builder.append(CRLF);
+      builder.append(body);
+    }
     builder.append(CRLF);
   }
 
@@ -134,6 +167,9 @@ public class BatchResponseSerializer {
     return status.getInfo();
   }
 
+  /**
+   * Appends the response headers; a negative content length omits the Content-Length header.
+   */
   private void appendResponseHeader(final ODataResponse response, final int contentLength,
       final BodyBuilder builder) {
     final Map<String, List<String>> header = response.getAllHeaders();
@@ -145,7 +181,9 @@ public class BatchResponseSerializer {
       }
     }
 
-    appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(contentLength), builder);
+    if (contentLength >= 0) {
+      appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(contentLength), builder);
+    }
   }
 
   private void appendBodyPartHeader(final ODataResponse response, final BodyBuilder builder,
@@ -154,11 +192,14 @@ public class BatchResponseSerializer {
     appendHeader(BatchParserCommon.CONTENT_TRANSFER_ENCODING, BatchParserCommon.BINARY_ENCODING, builder);
 
     if (isChangeSet) {
-      if (response.getHeader(HttpHeader.CONTENT_ID) != null) {
-        appendHeader(HttpHeader.CONTENT_ID, response.getHeader(HttpHeader.CONTENT_ID), builder);
-      } else {
-        throw new BatchSerializerException("Missing content id", MessageKeys.MISSING_CONTENT_ID);
-      }
+      validateContentId(response);
+      appendHeader(HttpHeader.CONTENT_ID, response.getHeader(HttpHeader.CONTENT_ID), builder);
+    }
+  }
+
+  private void validateContentId(final ODataResponse response) throws BatchSerializerException {
+    if (response.getHeader(HttpHeader.CONTENT_ID) == null) {
+      throw new BatchSerializerException("Missing content id", MessageKeys.MISSING_CONTENT_ID);
     }
   }
 
@@ -175,39 +216,65 @@ public class BatchResponseSerializer {
   }
 
   /**
-   * Builder class to create the body and the header.
+   * Content which serializes the batch response when it is written.
+   */
+  private class BatchResponseContent implements ODataContent {
+    private final List<ODataResponsePart> responses;
+    private final String boundary;
+
+    BatchResponseContent(final List<ODataResponsePart> responses, final String boundary) {
+      this.responses = responses;
+      this.boundary = boundary;
+    }
+
+    @Override
+    public void write(final WritableByteChannel channel) {
+      write(Channels.newOutputStream(channel));
+    }
+
+    @Override
+    public void write(final OutputStream stream) {
+      final BufferedOutputStream output = new BufferedOutputStream(stream, BUFFER_SIZE);
+      try {
+        createBody(responses, boundary, new BodyBuilder(output, true));
+        output.flush();
+      } catch (final BatchSerializerException e) {
+        // Content IDs have been validated already.
+        throw new ODataRuntimeException(e);
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on writing batch response", e);
+      }
+    }
+  }
+
+  /**
+   * Builder class to write the body and the header.
    */
   private static class BodyBuilder {
     private static final Charset CHARSET_ISO_8859_1 = Charset.forName("iso-8859-1");
-    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
-    private boolean isClosed = false;
-
-    public byte[] getContent() {
-      isClosed = true;
-      byte[] tmp = new byte[buffer.position()];
-      buffer.flip();
-      buffer.get(tmp, 0, buffer.limit());
-      return tmp;
+    private final OutputStream output;
+    private final boolean isStreamed;
+
+    BodyBuilder(final OutputStream output, final boolean isStreamed) {
+      this.output = output;
+      this.isStreamed = isStreamed;
+    }
+
+    public boolean isStreamed() {
+      return isStreamed;
     }
 
     public BodyBuilder append(final String string) {
-      byte[] b = string.getBytes(CHARSET_ISO_8859_1);
-      put(b);
+      put(string.getBytes(CHARSET_ISO_8859_1));
       return this;
     }
 
     private void put(final byte[] b) {
-      if (isClosed) {
-        throw new ODataRuntimeException("BodyBuilder is closed.");
-      }
-      if (buffer.remaining() < b.length) {
-        buffer.flip();
-        int newSize = (buffer.limit() * 2) + b.length;
-        ByteBuffer tmp = ByteBuffer.allocate(newSize);
-        tmp.put(buffer);
-        buffer = tmp;
+      try {
+        output.write(b);
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on writing batch response", e);
       }
-      buffer.put(b);
     }
 
     public BodyBuilder append(final int statusCode) {
@@ -219,9 +286,47 @@ public class BatchResponseSerializer {
       return this;
     }
 
-    @Override
-    public String toString() {
-      return new String(buffer.array(), 0, buffer.position(), CHARSET_ISO_8859_1);
+    public BodyBuilder append(final InputStream content) {
+      try {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = content.read(buffer)) > 0) {
+          output.write(buffer, 0, count);
+        }
+        content.close();
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on reading response content", e);
+      }
+      return this;
+    }
+
+    public BodyBuilder append(final ODataContent content) {
+      // Serializers may close the stream they write to, so the batch output is shielded from that.
+      content.write(new FilterOutputStream(output) {
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+          out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+          flush();
+        }
+      });
+      return this;
+    }
+  }
+
+  /**
+   * Output stream whose content can be read again without copying it.
+   */
+  private static class ContentOutputStream extends ByteArrayOutputStream {
+    ContentOutputStream() {
+      super(BUFFER_SIZE);
+    }
+
+    InputStream toInputStream() {
+      return new ByteArrayInputStream(buf, 0, count);
     }
   }
 
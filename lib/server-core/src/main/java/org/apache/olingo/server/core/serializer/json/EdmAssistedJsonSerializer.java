@@ -60,7 +60,6 @@ import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
 public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
@@ -108,9 +107,9 @@ public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = ODataJsonSerializer.acquireJsonFactory(metadata).createGenerator(outputStream)) {
       if (obj instanceof AbstractEntityCollection) {
         doSerialize(entityType, (AbstractEntityCollection) obj, contextURLString, metadataETag, json);
       } else if (obj instanceof Entity) {
@@ -305,7 +304,9 @@ public class EdmAssistedJsonSerializer implements EdmAssistedSerializer {
           MessageKeys.INCONSISTENT_PROPERTY_TYPE, "");
     } else if (type == EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Boolean)) {
       json.writeBoolean((Boolean) value);
-    } else {
+    } else if (!JsonPrimitiveValueWriter.write(type, value,
+        edmProperty == null ? null : edmProperty.getMaxLength(),
+        edmProperty == null ? null : edmProperty.isUnicode(), isIEEE754Compatible, json)) {
       String serialized = null;
       try {
     	  Integer scale = null;
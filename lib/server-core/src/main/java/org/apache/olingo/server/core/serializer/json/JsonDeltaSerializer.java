@@ -62,7 +62,6 @@ import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
 public class JsonDeltaSerializer implements EdmDeltaSerializer {
@@ -91,9 +90,9 @@ public class JsonDeltaSerializer implements EdmDeltaSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = ODataJsonSerializer.acquireJsonFactory(metadata).createGenerator(outputStream);
       boolean pagination = false;
       json.writeStartObject();
 
@@ -393,6 +392,9 @@ public class JsonDeltaSerializer implements EdmDeltaSerializer {
   protected void writePrimitiveValue(final String name, final EdmPrimitiveType type, final Object primitiveValue,
       final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
       final Boolean isUnicode, final JsonGenerator json) throws EdmPrimitiveTypeException, IOException {
+    if (JsonPrimitiveValueWriter.write(type, primitiveValue, maxLength, isUnicode, isIEEE754Compatible, json)) {
+      return;
+    }
     final String value = type.valueToString(primitiveValue,
         isNullable, maxLength, precision, scale, isUnicode);
     if (value == null) {
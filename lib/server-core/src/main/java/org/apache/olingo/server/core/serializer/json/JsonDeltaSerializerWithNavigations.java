@@ -68,7 +68,6 @@ import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
 public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
@@ -90,9 +89,9 @@ public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
     SerializerException cachedException = null;
     boolean pagination = false;
     
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+      try (JsonGenerator json = ODataJsonSerializer.acquireJsonFactory(metadata).createGenerator(outputStream)) {
         json.writeStartObject();
 
         final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -429,6 +428,9 @@ public class JsonDeltaSerializerWithNavigations implements EdmDeltaSerializer {
   protected void writePrimitiveValue(final String name, final EdmPrimitiveType type, final Object primitiveValue,
       final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
       final Boolean isUnicode, final JsonGenerator json) throws EdmPrimitiveTypeException, IOException {
+    if (JsonPrimitiveValueWriter.write(type, primitiveValue, maxLength, isUnicode, isIEEE754Compatible, json)) {
+      return;
+    }
     final String value = type.valueToString(primitiveValue,
         isNullable, maxLength, precision, scale, isUnicode);
     if (value == null) {
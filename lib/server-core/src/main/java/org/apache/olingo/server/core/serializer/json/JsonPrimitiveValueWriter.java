@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.GregorianCalendar;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes primitive values directly with their native JSON representation,
+ * without the detour over {@link EdmPrimitiveType#valueToString}.
+ * <p>Only combinations of type, value class, and facets are handled where the output is
+ * identical to the one of <code>valueToString</code>; for everything else
+ * {@link #write} returns <code>false</code> and the caller has to use the string-based path,
+ * which also takes care of reporting invalid values.</p>
+ */
+final class JsonPrimitiveValueWriter {
+
+  private static final Map<EdmPrimitiveType, EdmPrimitiveTypeKind> KINDS = new IdentityHashMap<>();
+  static {
+    for (final EdmPrimitiveTypeKind kind : EdmPrimitiveTypeKind.values()) {
+      KINDS.put(EdmPrimitiveTypeFactory.getInstance(kind), kind);
+    }
+  }
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final int SECONDS_PER_DAY = 86400;
+  private static final int GUID_LENGTH = 36;
+
+  /** Buffer for formatting GUIDs and date values; the generator copies its content right away. */
+  private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+    @Override
+    protected char[] initialValue() {
+      return new char[48];
+    }
+  };
+
+  private JsonPrimitiveValueWriter() {}
+
+  /**
+   * Writes the given value if its type is supported by the fast path.
+   * @param type                the primitive type
+   * @param value               the value; <code>null</code> is never written here
+   * @param maxLength           the MaxLength facet or <code>null</code>
+   * @param isUnicode           the Unicode facet or <code>null</code>
+   * @param isIEEE754Compatible whether 64-bit numbers have to be written as strings
+   * @param json                the generator to write to
+   * @return <code>true</code> if the value has been written, <code>false</code> otherwise
+   */
+  static boolean write(final EdmPrimitiveType type, final Object value, final Integer maxLength,
+      final Boolean isUnicode, final boolean isIEEE754Compatible, final JsonGenerator json) throws IOException {
+    final EdmPrimitiveTypeKind kind = value == null ? null : KINDS.get(type);
+    if (kind == null) {
+      return false;
+    }
+    switch (kind) {
+    case Boolean:
+      if (value instanceof Boolean) {
+        json.writeBoolean((Boolean) value);
+        return true;
+      }
+      return false;
+    case Byte:
+      return writeInteger(value, 0, 255, json);
+    case SByte:
+      return writeInteger(value, Byte.MIN_VALUE, Byte.MAX_VALUE, json);
+    case Int16:
+      return writeInteger(value, Short.MIN_VALUE, Short.MAX_VALUE, json);
+    case Int32:
+      return writeInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE, json);
+    case Int64:
+      return !isIEEE754Compatible && writeInteger(value, Long.MIN_VALUE, Long.MAX_VALUE, json);
+    case Double:
+      if (value instanceof Double && isFinite((Double) value)) {
+        json.writeNumber((Double) value);
+        return true;
+      } else if (value instanceof Float && isFinite((Float) value)) {
+        json.writeNumber((Float) value);
+        return true;
+      }
+      return false;
+    case Single:
+      if (value instanceof Float && isFinite((Float) value)) {
+        json.writeNumber((Float) value);
+        return true;
+      }
+      return false;
+    case String:
+      if (value instanceof String
+          && (maxLength == null || ((String) value).length() <= maxLength)
+          && (isUnicode == null || isUnicode)) {
+        json.writeString((String) value);
+        return true;
+      }
+      return false;
+    case Guid:
+      if (value instanceof UUID) {
+        writeGuid((UUID) value, json);
+        return true;
+      }
+      return false;
+    case Date:
+      return value instanceof LocalDate && writeDate((LocalDate) value, json);
+    case DateTimeOffset:
+      return writeDateTimeOffset(value, json);
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isFinite(final double value) {
+    return !Double.isNaN(value) && !Double.isInfinite(value);
+  }
+
+  private static boolean writeInteger(final Object value, final long min, final long max, final JsonGenerator json)
+      throws IOException {
+    if (!(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)) {
+      return false;
+    }
+    final long number = ((Number) value).longValue();
+    if (number < min || number > max) {
+      return false;
+    }
+    if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+      json.writeNumber((int) number);
+    } else {
+      json.writeNumber(number);
+    }
+    return true;
+  }
+
+  private static void writeGuid(final UUID value, final JsonGenerator json) throws IOException {
+    final char[] buffer = BUFFER.get();
+    final long most = value.getMostSignificantBits();
+    final long least = value.getLeastSignificantBits();
+    hex(buffer, 0, most >>> 32, 8);
+    buffer[8] = '-';
+    hex(buffer, 9, most >>> 16, 4);
+    buffer[13] = '-';
+    hex(buffer, 14, most, 4);
+    buffer[18] = '-';
+    hex(buffer, 19, least >>> 48, 4);
+    buffer[23] = '-';
+    hex(buffer, 24, least, 12);
+    json.writeString(buffer, 0, GUID_LENGTH);
+  }
+
+  private static void hex(final char[] buffer, final int offset, final long value, final int digits) {
+    for (int i = 0; i < digits; i++) {
+      buffer[offset + i] = HEX_DIGITS[(int) (value >>> (4 * (digits - 1 - i))) & 0xF];
+    }
+  }
+
+  private static boolean writeDate(final LocalDate value, final JsonGenerator json) throws IOException {
+    final int year = value.getYear();
+    if (year < 0 || year > 9999) {
+      return false;
+    }
+    final char[] buffer = BUFFER.get();
+    final int length = date(buffer, year, value.getMonthValue(), value.getDayOfMonth());
+    json.writeString(buffer, 0, length);
+    return true;
+  }
+
+  private static boolean writeDateTimeOffset(final Object value, final JsonGenerator json) throws IOException {
+    if (value instanceof ZonedDateTime) {
+      return writeZonedDateTime((ZonedDateTime) value, json);
+    } else if (value instanceof GregorianCalendar) {
+      final GregorianCalendar calendar = (GregorianCalendar) value;
+      return writeZonedDateTime(calendar.toZonedDateTime()
+          .withZoneSameInstant(calendar.getTimeZone().toZoneId().normalized()), json);
+    }
+
+    final long epochSecond;
+    final int nanos;
+    if (value instanceof Instant) {
+      epochSecond = ((Instant) value).getEpochSecond();
+      nanos = ((Instant) value).getNano();
+    } else if (value instanceof java.sql.Time || value instanceof java.sql.Date) {
+      return false;
+    } else if (value instanceof Timestamp) {
+      epochSecond = Math.floorDiv(((Timestamp) value).getTime(), 1000);
+      nanos = ((Timestamp) value).getNanos();
+    } else if (value instanceof java.util.Date || value instanceof Long) {
+      final long millis = value instanceof Long ? (Long) value : ((java.util.Date) value).getTime();
+      epochSecond = Math.floorDiv(millis, 1000);
+      nanos = (int) Math.floorMod(millis, 1000) * 1000000;
+    } else {
+      return false;
+    }
+
+    // Converts the days since the epoch into the proleptic Gregorian calendar;
+    // see Howard Hinnant's "civil_from_days" algorithm.
+    final long days = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    final int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+    final long shifted = days + 719468;
+    final long era = Math.floorDiv(shifted, 146097);
+    final int dayOfEra = (int) (shifted - era * 146097);
+    final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+    return year >= 0 && year <= 9999
+        && writeDateTime((int) year, month, day,
+            secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, nanos, 0, json);
+  }
+
+  private static boolean writeZonedDateTime(final ZonedDateTime value, final JsonGenerator json) throws IOException {
+    return value.getYear() >= 0 && value.getYear() <= 9999
+        && writeDateTime(value.getYear(), value.getMonthValue(), value.getDayOfMonth(),
+            value.getHour(), value.getMinute(), value.getSecond(), value.getNano(),
+            value.getOffset().getTotalSeconds(), json);
+  }
+
+  private static boolean writeDateTime(final int year, final int month, final int day,
+      final int hour, final int minute, final int second, final int nanos, final int offsetSeconds,
+      final JsonGenerator json) throws IOException {
+    final char[] buffer = BUFFER.get();
+    int position = date(buffer, year, month, day);
+    buffer[position++] = 'T';
+    position = digits(buffer, position, hour, 2);
+    buffer[position++] = ':';
+    position = digits(buffer, position, minute, 2);
+    buffer[position++] = ':';
+    position = digits(buffer, position, second, 2);
+    if (nanos > 0) {
+      buffer[position++] = '.';
+      position = digits(buffer, position, nanos, 9);
+      while (buffer[position - 1] == '0') {
+        position--;
+      }
+    }
+    if (offsetSeconds == 0) {
+      buffer[position++] = 'Z';
+    } else {
+      final int absolute = Math.abs(offsetSeconds);
+      buffer[position++] = offsetSeconds < 0 ? '-' : '+';
+      position = digits(buffer, position, absolute / 3600, 2);
+      buffer[position++] = ':';
+      position = digits(buffer, position, absolute / 60 % 60, 2);
+      if (absolute % 60 != 0) {
+        buffer[position++] = ':';
+        position = digits(buffer, position, absolute % 60, 2);
+      }
+    }
+    json.writeString(buffer, 0, position);
+    return true;
+  }
+
+  private static int date(final char[] buffer, final int year, final int month, final int day) {
+    int position = digits(buffer, 0, year, 4);
+    buffer[position++] = '-';
+    position = digits(buffer, position, month, 2);
+    buffer[position++] = '-';
+    return digits(buffer, position, day, 2);
+  }
+
+  /** Writes the non-negative value zero-padded to the given number of digits and returns the new position. */
+  private static int digits(final char[] buffer, final int position, final int value, final int count) {
+    int remaining = value;
+    for (int i = position + count - 1; i >= position; i--) {
+      buffer[i] = (char) ('0' + remaining % 10);
+      remaining /= 10;
+    }
+    return position + count;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+
+import com.fasterxml.jackson.core.SerializableString;
+
+/**
+ * Everything needed to write the structural properties of one structured type
+ * for one combination of $select and $expand, computed once and used for every instance.
+ * The metadata level is fixed per serializer, so it is not part of the key.
+ */
+final class JsonSerializationPlan {
+
+  /**
+   * A property to be written, with the paths selected within it.
+   */
+  static final class PlannedProperty {
+    final EdmProperty edmProperty;
+    final Set<List<String>> selectedPaths;
+
+    PlannedProperty(final EdmProperty edmProperty, final Set<List<String>> selectedPaths) {
+      this.edmProperty = edmProperty;
+      this.selectedPaths = selectedPaths;
+    }
+  }
+
+  /**
+   * The pre-encoded field name and type annotation of a property; they do not depend on the query options,
+   * so they are shared by all plans.
+   */
+  static final class PropertyName {
+    final SerializableString name;
+    final SerializableString typeAnnotationName;
+    final String typeAnnotationValue;
+
+    PropertyName(final SerializableString name, final SerializableString typeAnnotationName,
+        final String typeAnnotationValue) {
+      this.name = name;
+      this.typeAnnotationName = typeAnnotationName;
+      this.typeAnnotationValue = typeAnnotationValue;
+    }
+  }
+
+  /**
+   * Key of a plan; the query options are compared by identity since they are not value objects.
+   */
+  static final class Key {
+    private final EdmStructuredType type;
+    private final SelectOption select;
+    private final ExpandOption expand;
+
+    Key(final EdmStructuredType type, final SelectOption select, final ExpandOption expand) {
+      this.type = type;
+      this.select = select;
+      this.expand = expand;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return type.equals(other.type) && select == other.select && expand == other.expand;
+    }
+
+    @Override
+    public int hashCode() {
+      return (type.hashCode() * 31 + System.identityHashCode(select)) * 31 + System.identityHashCode(expand);
+    }
+  }
+
+  final List<PlannedProperty> properties;
+  final Set<List<String>> expandedPaths;
+
+  JsonSerializationPlan(final List<PlannedProperty> properties, final Set<List<String>> expandedPaths) {
+    this.properties = properties;
+    this.expandedPaths = expandedPaths;
+  }
+}
@@ -181,6 +181,10 @@ public class ODataJsonInstanceAnnotationSerializer {
 			final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
 			final Boolean isUnicode, final JsonGenerator json) 
 					throws EdmPrimitiveTypeException, IOException {
+		if (JsonPrimitiveValueWriter.write(
+				type, primitiveValue, maxLength, isUnicode, isIEEE754Compatible, json)) {
+			return;
+		}
 		final String value = type.valueToString(
 				primitiveValue, isNullable, maxLength, precision, scale, isUnicode);
 		if (value == null) {
@@ -21,12 +21,15 @@ package org.apache.olingo.server.core.serializer.json;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Base64;
@@ -96,9 +99,14 @@ import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 
 public class ODataJsonSerializer extends AbstractODataSerializer {
 
+  private static final JsonFactory DEFAULT_JSON_FACTORY = new JsonFactory();
+  private static final int MAX_SERIALIZATION_PLANS = 256;
+  private static final int MAX_PROPERTY_NAMES = 1024;
+
   private static final Map<Geospatial.Type, String> geoValueTypeToJsonName;
   static {
     Map<Geospatial.Type, String> temp = new EnumMap<>(Geospatial.Type.class);
@@ -117,6 +125,9 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   private final boolean isODataMetadataFull;
   private IConstants constants;
   private ODataJsonInstanceAnnotationSerializer instanceAnnotSerializer;
+  private final Map<JsonSerializationPlan.Key, JsonSerializationPlan> serializationPlans =
+      new ConcurrentHashMap<>();
+  private final Map<EdmProperty, JsonSerializationPlan.PropertyName> propertyNames = new ConcurrentHashMap<>();
 
   public ODataJsonSerializer(final ContentType contentType, final IConstants constants) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
@@ -134,17 +145,13 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     instanceAnnotSerializer = new ODataJsonInstanceAnnotationSerializer(contentType, constants);
   }
 
-  private JsonFactory acquireJsonFactory(final ServiceMetadata serviceMetadata) {
-    JsonFactory resolved;
-    if (serviceMetadata == null) {
-      resolved = new JsonFactory();
-    } else {
-      resolved = serviceMetadata.getJsonFactory();
-      if (resolved == null) {
-        resolved = new JsonFactory();
-      }
-    }
-    return resolved;
+  /**
+   * Gets the (shared) JSON factory of the service metadata or the default factory.
+   * JSON factories are thread-safe and expensive to create, so they are never created per request.
+   */
+  static JsonFactory acquireJsonFactory(final ServiceMetadata serviceMetadata) {
+    final JsonFactory resolved = serviceMetadata == null ? null : serviceMetadata.getJsonFactory();
+    return resolved == null ? DEFAULT_JSON_FACTORY : resolved;
   }
 
   @Override
@@ -153,7 +160,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
 
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
       new ServiceDocumentJsonSerializer(metadata, serviceRoot, isODataMetadataNone).writeServiceDocument(json);
@@ -174,7 +181,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
 
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(serviceMetadata).createGenerator(outputStream)) {
       new MetadataDocumentJsonSerializer(serviceMetadata).writeMetadataDocument(json);
@@ -194,9 +201,9 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
-    try (JsonGenerator json = new JsonFactory().createGenerator(outputStream)) {
+    try (JsonGenerator json = acquireJsonFactory(null).createGenerator(outputStream)) {
       new ODataErrorSerializer().writeErrorDocument(json, error);
 
       json.close();
@@ -218,7 +225,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException = null;
     boolean pagination = false;
     
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
       json.writeStartObject();
@@ -306,7 +313,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException = null;
     
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
       String name =  contextURL == null ? null:contextURL.getEntitySetOrSingletonOrType();
@@ -524,22 +531,78 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final List<Property> properties,
       final SelectOption select, final JsonGenerator json, Linked linked, ExpandOption expand)
       throws IOException, SerializerException, DecoderException {
+    final JsonSerializationPlan plan = getSerializationPlan(type, select, expand);
+    final boolean randomAccess = properties instanceof RandomAccess;
+    int nextIndex = 0;
+    for (final JsonSerializationPlan.PlannedProperty planned : plan.properties) {
+      final Property property;
+      if (randomAccess) {
+        // Properties are usually in the order of the type, so the search starts after the last match.
+        final int index = findPropertyIndex(planned.edmProperty.getName(), properties, nextIndex);
+        property = index < 0 ? null : properties.get(index);
+        nextIndex = index + 1;
+      } else {
+        property = findProperty(planned.edmProperty.getName(), properties);
+      }
+      writeProperty(metadata, planned.edmProperty, property, planned.selectedPaths, json, plan.expandedPaths,
+          linked, expand);
+    }
+  }
+
+  /**
+   * Gets the cached plan for writing the properties of the given type or creates it.
+   */
+  private JsonSerializationPlan getSerializationPlan(final EdmStructuredType type, final SelectOption select,
+      final ExpandOption expand) throws SerializerException {
+    final JsonSerializationPlan.Key key = new JsonSerializationPlan.Key(type, select, expand);
+    JsonSerializationPlan plan = serializationPlans.get(key);
+    if (plan == null) {
+      if (serializationPlans.size() >= MAX_SERIALIZATION_PLANS) {
+        serializationPlans.clear();
+      }
+      plan = createSerializationPlan(type, select, expand);
+      serializationPlans.put(key, plan);
+    }
+    return plan;
+  }
+
+  private JsonSerializationPlan createSerializationPlan(final EdmStructuredType type, final SelectOption select,
+      final ExpandOption expand) throws SerializerException {
     final boolean all = ExpandSelectHelper.isAll(select);
     final Set<String> selected = all ? new HashSet<>() :
         ExpandSelectHelper.getSelectedPropertyNames(select.getSelectItems());
     addKeyPropertiesToSelected(selected, type);
-    Set<List<String>> expandedPaths = ExpandSelectHelper.getExpandedItemsPath(expand);
+    final List<JsonSerializationPlan.PlannedProperty> planned = new ArrayList<>();
     for (final String propertyName : type.getPropertyNames()) {
       if (all || selected.contains(propertyName)) {
         final EdmProperty edmProperty = type.getStructuralProperty(propertyName);
-        final Property property = findProperty(propertyName, properties);
         final Set<List<String>> selectedPaths = all || edmProperty.isPrimitive() ? null :
             ExpandSelectHelper.getSelectedPaths(select.getSelectItems(), propertyName);
-        writeProperty(metadata, edmProperty, property, selectedPaths, json, expandedPaths, linked, expand);
+        planned.add(new JsonSerializationPlan.PlannedProperty(edmProperty, selectedPaths));
       }
     }
+    return new JsonSerializationPlan(planned, ExpandSelectHelper.getExpandedItemsPath(expand));
   }
-  
+
+  /**
+   * Gets the cached field name and type annotation of the given property or creates them.
+   */
+  private JsonSerializationPlan.PropertyName getPropertyName(final EdmProperty edmProperty)
+      throws SerializerException {
+    JsonSerializationPlan.PropertyName name = propertyNames.get(edmProperty);
+    if (name == null) {
+      if (propertyNames.size() >= MAX_PROPERTY_NAMES) {
+        propertyNames.clear();
+      }
+      final String typeAnnotation = isODataMetadataFull ? getPropertyTypeAnnotation(edmProperty) : null;
+      name = new JsonSerializationPlan.PropertyName(new SerializedString(edmProperty.getName()),
+          typeAnnotation == null ? null : new SerializedString(edmProperty.getName() + constants.getType()),
+          typeAnnotation);
+      propertyNames.put(edmProperty, name);
+    }
+    return name;
+  }
+
   private void addKeyPropertiesToSelected(Set<String> selected, EdmStructuredType type) {
     if (!selected.isEmpty() && type instanceof EdmEntityType) {
       List<String> keyNames = ((EdmEntityType) type).getKeyPredicateNames();
@@ -695,6 +758,16 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final EdmProperty edmProperty, final Property property,
       final Set<List<String>> selectedPaths, final JsonGenerator json, 
       Set<List<String>> expandedPaths, Linked linked, ExpandOption expand)
+      throws IOException, SerializerException, DecoderException  {
+    writeProperty(metadata, edmProperty, property, selectedPaths, json, expandedPaths, linked, expand,
+        getPropertyName(edmProperty));
+  }
+
+  private void writeProperty(final ServiceMetadata metadata,
+      final EdmProperty edmProperty, final Property property,
+      final Set<List<String>> selectedPaths, final JsonGenerator json, 
+      Set<List<String>> expandedPaths, Linked linked, ExpandOption expand,
+      final JsonSerializationPlan.PropertyName name)
       throws IOException, SerializerException, DecoderException  {
 	
 	instanceAnnotSerializer.writeInstanceAnnotationsOnProperties(edmProperty, property, json);
@@ -736,15 +809,16 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       }
     }
 
-    writePropertyType(edmProperty, json);
+    if (name.typeAnnotationName != null) {
+      json.writeFieldName(name.typeAnnotationName);
+      json.writeString(name.typeAnnotationValue);
+    }
     if (!isStreamProperty) {
-      final String effectivePropName;
       if (includePrefix) {
-        effectivePropName = prefix + ":" + edmProperty.getName();
+        json.writeFieldName(prefix + ":" + edmProperty.getName());
       } else {
-        effectivePropName = edmProperty.getName();
+        json.writeFieldName(name.name);
       }
-      json.writeFieldName(effectivePropName);
     }
     if (property == null || property.isNull()) {
       if (edmProperty.isNullable() == Boolean.FALSE && !isStreamProperty) {
@@ -766,43 +840,43 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     }
   }
   
-  private void writePropertyType(final EdmProperty edmProperty, JsonGenerator json)
-      throws SerializerException, IOException {
-    if (!isODataMetadataFull) {
-      return;
-    }
-    String typeName = edmProperty.getName() + constants.getType();
+  /**
+   * Gets the value of the type annotation written for a property in full metadata,
+   * or <code>null</code> if the type of the property needs no annotation.
+   */
+  private String getPropertyTypeAnnotation(final EdmProperty edmProperty) throws SerializerException {
     final EdmType type = edmProperty.getType();
     if (type.getKind() == EdmTypeKind.ENUM || type.getKind() == EdmTypeKind.DEFINITION) {
       if (edmProperty.isCollection()) {
-        json.writeStringField(typeName, 
-            "#Collection(" + type.getFullQualifiedName().getFullQualifiedNameAsString() + ")");
+        return "#Collection(" + type.getFullQualifiedName().getFullQualifiedNameAsString() + ")";
       } else {
-        json.writeStringField(typeName, "#" + type.getFullQualifiedName().getFullQualifiedNameAsString());
+        return "#" + type.getFullQualifiedName().getFullQualifiedNameAsString();
       }
     } else if (edmProperty.isPrimitive()) {
       if (edmProperty.isCollection()) {
-        json.writeStringField(typeName, "#Collection(" + type.getFullQualifiedName().getName() + ")");
+        return "#Collection(" + type.getFullQualifiedName().getName() + ")";
       } else {
         // exclude the properties that can be heuristically determined
         if (type != EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Boolean) &&
             type != EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Double) &&
             type != EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.String)) {
-          json.writeStringField(typeName, "#" + type.getFullQualifiedName().getName());                  
+          return "#" + type.getFullQualifiedName().getName();
         }
+        return null;
       }
     } else if (type.getKind() == EdmTypeKind.COMPLEX) {
       // non-collection case written in writeComplex method directly.
       if (edmProperty.isCollection()) {
-        json.writeStringField(typeName, 
-            "#Collection(" + type.getFullQualifiedName().getFullQualifiedNameAsString() + ")");
+        return "#Collection(" + type.getFullQualifiedName().getFullQualifiedNameAsString() + ")";
       }
+      return null;
     } else {
       throw new SerializerException("Property type not yet supported!",
           SerializerException.MessageKeys.UNSUPPORTED_PROPERTY_TYPE, edmProperty.getName());
-    }    
+    }
   }
 
+
   private void writePropertyValue(final ServiceMetadata metadata, final EdmProperty edmProperty,
       final Property property, final Set<List<String>> selectedPaths, final JsonGenerator json, 
       Set<List<String>> expandedPaths, Linked linked, ExpandOption expand)
@@ -976,6 +1050,9 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   protected void writePrimitiveValue(final String name, final EdmPrimitiveType type, final Object primitiveValue,
       final Boolean isNullable, final Integer maxLength, final Integer precision, final Integer scale,
       final Boolean isUnicode, final JsonGenerator json) throws EdmPrimitiveTypeException, IOException {
+    if (JsonPrimitiveValueWriter.write(type, primitiveValue, maxLength, isUnicode, isIEEE754Compatible, json)) {
+      return;
+    }
     final String value = type.valueToString(primitiveValue,
         isNullable, maxLength, precision, scale, isUnicode);
     if (value == null) {
@@ -1150,6 +1227,17 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   }
     
 
+  private int findPropertyIndex(final String propertyName, final List<Property> properties, final int start) {
+    final int size = properties.size();
+    for (int i = 0; i < size; i++) {
+      final int index = (start + i) % size;
+      if (propertyName.equals(properties.get(index).getName())) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
   private Property findProperty(final String propertyName, final List<Property> properties) {
     for (final Property property : properties) {
       if (propertyName.equals(property.getName())) {
@@ -1166,7 +1254,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException = null;
     
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
       json.writeStartObject();
@@ -1211,7 +1299,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       final String name =  contextURL == null ? null:
         contextURL.getEntitySetOrSingletonOrType();
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
       JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream);
       json.writeStartObject();
@@ -1266,7 +1354,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException = null;
     
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
       json.writeStartObject();
@@ -1304,7 +1392,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException = null;
     
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     outputStream = buffer.getOutputStream();
     try (JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
       json.writeStartObject();
@@ -1349,7 +1437,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
 
     
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     final UriHelper uriHelper = new UriHelperImpl();
     outputStream = buffer.getOutputStream();
     try (final JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
@@ -1379,7 +1467,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     boolean pagination = false ;
 
     final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
-    CircleStreamBuffer buffer = new CircleStreamBuffer();
+    CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
     final UriHelper uriHelper = new UriHelperImpl();
     outputStream = buffer.getOutputStream();
     try (final JsonGenerator json = acquireJsonFactory(metadata).createGenerator(outputStream)) {
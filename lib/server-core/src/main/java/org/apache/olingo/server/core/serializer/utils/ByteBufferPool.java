@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free pool of equally sized heap {@link ByteBuffer}s.
+ * The pool is striped by thread so that threads usually do not compete for the same slots.
+ * If no pooled buffer is available a new one is allocated, and if the pool is full
+ * a released buffer is left to the garbage collector.
+ */
+public final class ByteBufferPool {
+
+  private static final int PROBES = 4;
+
+  private final int bufferCapacity;
+  private final AtomicReferenceArray<ByteBuffer> slots;
+  private final int mask;
+
+  /**
+   * Creates a pool.
+   * @param bufferCapacity   capacity of each buffer
+   * @param maxPooledBuffers maximum number of idle buffers kept; rounded up to a power of two
+   */
+  public ByteBufferPool(final int bufferCapacity, final int maxPooledBuffers) {
+    this.bufferCapacity = bufferCapacity;
+    final int size = Integer.highestOneBit(Math.max(PROBES, maxPooledBuffers) * 2 - 1);
+    slots = new AtomicReferenceArray<>(size);
+    mask = size - 1;
+  }
+
+  /**
+   * Gets the capacity of the buffers of this pool.
+   * @return the capacity in bytes
+   */
+  public int getBufferCapacity() {
+    return bufferCapacity;
+  }
+
+  /**
+   * Takes a cleared buffer out of the pool or allocates a new one.
+   * @return a buffer with {@link #getBufferCapacity()} capacity
+   */
+  public ByteBuffer acquire() {
+    final int start = stripe();
+    for (int i = 0; i < PROBES; i++) {
+      final ByteBuffer buffer = slots.getAndSet((start + i) & mask, null);
+      if (buffer != null) {
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocate(bufferCapacity);
+  }
+
+  /**
+   * Returns a buffer to the pool. The buffer must not be used by the caller afterwards.
+   * @param buffer buffer obtained by {@link #acquire()}
+   */
+  public void release(final ByteBuffer buffer) {
+    if (buffer.capacity() != bufferCapacity || buffer.isDirect()) {
+      return;
+    }
+    buffer.clear();
+    final int start = stripe();
+    for (int i = 0; i < PROBES; i++) {
+      if (slots.compareAndSet((start + i) & mask, null, buffer)) {
+        return;
+      }
+    }
+  }
+
+  private int stripe() {
+    final long id = Thread.currentThread().getId();
+    return (int) (id ^ (id >>> 32)) * 0x9E3779B9 >>> 16;
+  }
+}
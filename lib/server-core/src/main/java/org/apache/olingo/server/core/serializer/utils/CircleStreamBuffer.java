@@ -22,14 +22,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Circular stream buffer to write/read into/from one single buffer.
  * With support of {@link InputStream} and {@link OutputStream} access to buffered data.
- *
- *
+ * <p>
+ * The buffer is meant to be written and read by one thread at a time.
+ * Instances created by {@link #pooled()} take their internal buffers from a shared {@link ByteBufferPool}
+ * and give them back as soon as they have been read or the read part is closed.
  */
 public class CircleStreamBuffer {
 
@@ -37,6 +39,7 @@ public class CircleStreamBuffer {
   private static final int READ_EOF = -1;
   private static final int DEFAULT_CAPACITY = 8192;
   private static final int MAX_CAPACITY = DEFAULT_CAPACITY * 32;
+  private static final ByteBufferPool DEFAULT_POOL = new ByteBufferPool(DEFAULT_CAPACITY, 256);
 
   private int currentAllocateCapacity = DEFAULT_CAPACITY;
 
@@ -44,8 +47,9 @@ public class CircleStreamBuffer {
   private boolean writeClosed = false;
   private boolean readClosed = false;
 
-  private Queue<ByteBuffer> bufferQueue = new LinkedBlockingQueue<>();
+  private final Queue<ByteBuffer> bufferQueue = new ArrayDeque<>();
   private ByteBuffer currentWriteBuffer;
+  private final ByteBufferPool pool;
 
   private final InternalInputStream inStream;
   private final InternalOutputStream outStream;
@@ -63,12 +67,35 @@ public class CircleStreamBuffer {
    * @param initialCapacity initial capacity of internal buffer
    */
   public CircleStreamBuffer(final int initialCapacity) {
+    this(initialCapacity, null);
+  }
+
+  /**
+   * Create a {@link CircleStreamBuffer} that uses the buffers of the given pool.
+   *
+   * @param pool pool of internal buffers
+   */
+  public CircleStreamBuffer(final ByteBufferPool pool) {
+    this(pool.getBufferCapacity(), pool);
+  }
+
+  private CircleStreamBuffer(final int initialCapacity, final ByteBufferPool pool) {
     currentAllocateCapacity = initialCapacity;
+    this.pool = pool;
     createNewWriteBuffer();
     inStream = new InternalInputStream(this);
     outStream = new InternalOutputStream(this);
   }
 
+  /**
+   * Creates a {@link CircleStreamBuffer} that uses the buffers of a pool shared by all such instances.
+   *
+   * @return the buffer
+   */
+  public static CircleStreamBuffer pooled() {
+    return new CircleStreamBuffer(DEFAULT_POOL);
+  }
+
   /**
    * Get {@link InputStream} for data read access.
    *
@@ -110,9 +137,10 @@ public class CircleStreamBuffer {
     // clear references to byte buffers
     ByteBuffer buffer = bufferQueue.poll();
     while (buffer != null) {
-      buffer.clear();
+      releaseBuffer(buffer);
       buffer = bufferQueue.poll();
     }
+    currentWriteBuffer = null;
   }
 
   /**
@@ -125,7 +153,7 @@ public class CircleStreamBuffer {
 
   private int remaining() throws IOException {
     if (writeMode) {
-      return currentWriteBuffer.remaining();
+      return currentWriteBuffer == null ? 0 : currentWriteBuffer.remaining();
     } else {
       ByteBuffer toRead = getReadBuffer();
       if (toRead == null) {
@@ -154,7 +182,7 @@ public class CircleStreamBuffer {
     } else {
       tmp = bufferQueue.peek();
       if (tmp != null && !tmp.hasRemaining()) {
-        tmp = bufferQueue.poll();
+        releaseBuffer(bufferQueue.poll());
         next = true;
       }
     }
@@ -219,14 +247,39 @@ public class CircleStreamBuffer {
   // #############################################
 
   private void write(final byte[] data, final int off, final int len) throws IOException {
-    ByteBuffer writeBuffer = getWriteBuffer(len);
-    writeBuffer.put(data, off, len);
+    if (pool == null) {
+      ByteBuffer writeBuffer = getWriteBuffer(len);
+      if (writeBuffer != null) {
+        writeBuffer.put(data, off, len);
+      }
+    } else {
+      // pooled buffers have a fixed size, so larger data is distributed over several buffers
+      int offset = off;
+      int remaining = len;
+      while (remaining > 0) {
+        ByteBuffer writeBuffer = getWriteBuffer(1);
+        if (writeBuffer == null) {
+          return;
+        }
+        final int count = Math.min(remaining, writeBuffer.remaining());
+        writeBuffer.put(data, offset, count);
+        offset += count;
+        remaining -= count;
+      }
+    }
   }
 
+  /**
+   * Gets a buffer with at least the given remaining capacity to write into.
+   * If the read part is already closed the data can never be read out, so no buffer is returned.
+   */
   private ByteBuffer getWriteBuffer(final int size) throws IOException {
     if (writeClosed) {
       throw new IOException("Tried to write into closed stream.");
     }
+    if (readClosed) {
+      return null;
+    }
 
     if (writeMode) {
       if (remaining() < size) {
@@ -242,7 +295,9 @@ public class CircleStreamBuffer {
 
   private void write(final int b) throws IOException {
     ByteBuffer writeBuffer = getWriteBuffer(1);
-    writeBuffer.put((byte) b);
+    if (writeBuffer != null) {
+      writeBuffer.put((byte) b);
+    }
   }
 
   private void createNewWriteBuffer() {
@@ -269,6 +324,9 @@ public class CircleStreamBuffer {
    * @return the buffer
    */
   private ByteBuffer allocateBuffer(final int requestedCapacity) {
+    if (pool != null) {
+      return pool.acquire();
+    }
     if (requestedCapacity > MAX_CAPACITY) {
       currentAllocateCapacity = MAX_CAPACITY;
       return ByteBuffer.allocate(requestedCapacity);
@@ -286,6 +344,14 @@ public class CircleStreamBuffer {
     return ByteBuffer.allocate(currentAllocateCapacity);
   }
 
+  private void releaseBuffer(final ByteBuffer buffer) {
+    if (pool == null) {
+      buffer.clear();
+    } else {
+      pool.release(buffer);
+    }
+  }
+
   // #############################################
   // #
   // # Inner classes (streams)
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Shared StAX factories of the XML serializer and deserializer.
+ * <p>Looking up the factory implementation is expensive, so the factories are created and configured only once;
+ * creating readers and writers from configured factories is thread-safe.
+ * The implementation is found by the standard StAX lookup, so a faster implementation like Aalto is used
+ * if it is on the class path or selected with the <code>javax.xml.stream.XMLInputFactory</code> and
+ * <code>javax.xml.stream.XMLOutputFactory</code> system properties.</p>
+ */
+public final class XmlStreamFactories {
+
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+  private XmlStreamFactories() {
+    // Private constructor for utility classes
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    final XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+
+  public static XMLEventReader createEventReader(final InputStream input) throws XMLStreamException {
+    return INPUT_FACTORY.createXMLEventReader(input);
+  }
+
+  public static XMLStreamWriter createStreamWriter(final OutputStream output, final String charset)
+      throws XMLStreamException {
+    return OUTPUT_FACTORY.createXMLStreamWriter(output, charset);
+  }
+}
@@ -27,7 +27,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
@@ -72,6 +71,7 @@ import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
 import org.apache.olingo.server.core.serializer.utils.ExpandSelectHelper;
+import org.apache.olingo.server.core.serializer.utils.XmlStreamFactories;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
 import org.apache.olingo.server.core.uri.queryoption.ExpandOptionImpl;
 
@@ -91,9 +91,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       ServiceDocumentXmlSerializer serializer = new ServiceDocumentXmlSerializer(metadata, serviceRoot);
       serializer.writeServiceDocument(writer);
 
@@ -116,9 +116,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       MetadataDocumentXmlSerializer serializer = new MetadataDocumentXmlSerializer(serviceMetadata);
       serializer.writeMetadataDocument(writer);
 
@@ -150,9 +150,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
 
       writer.writeStartElement("error");
@@ -242,9 +242,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       expressXmlNamespaces(entitySet, writer, true);
@@ -303,7 +303,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     final String name = contextURL == null ? null : contextURL.getEntitySetOrSingletonOrType();
     SerializerException cachedException;
     try {
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       expressXmlNamespaces(entitySet, writer, true);
@@ -364,9 +364,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -1137,9 +1137,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1208,9 +1208,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       } else {
         resolvedType = resolveComplexType(metadata, type, property.getType());
       }
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       expressXmlNamespaces(null, writer, true);
@@ -1255,9 +1255,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1309,9 +1309,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       expressXmlNamespaces(null, writer, true);
@@ -1363,9 +1363,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeReference(entity, options == null ? null : options.getContextURL(), writer, true);
       writer.writeEndDocument();
@@ -1414,9 +1414,9 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
-      CircleStreamBuffer buffer = new CircleStreamBuffer();
+      CircleStreamBuffer buffer = CircleStreamBuffer.pooled();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       expressXmlNamespaces(null, writer, false);
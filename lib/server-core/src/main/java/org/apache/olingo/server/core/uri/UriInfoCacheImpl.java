@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+import org.apache.olingo.server.core.uri.parser.UriDecoder;
+import org.apache.olingo.server.core.uri.parser.UriParserSyntaxException;
+
+/**
+ * Least-recently-used cache of parsed and validated URIs.
+ * <p>A URI is not cached if it is longer than {@link #MAX_URI_LENGTH} or if it contains
+ * literal values with a practically unbounded value space:
+ * key predicates or function parameters in the resource path, string literals,
+ * numeric, date, time, and GUID literals in expressions, parameter aliases,
+ * and the system query options $id, $search, $skip, $skiptoken, $top, and $deltatoken.</p>
+ */
+public class UriInfoCacheImpl implements UriInfoCache {
+
+  /** Maximum length of path and query of a cacheable URI. */
+  public static final int MAX_URI_LENGTH = 2048;
+
+  private static final String[] UNBOUNDED_QUERY_PARTS = {
+      "'", "%27", "@", "%40", "$id=", "%24id=", "search=", "skiptoken=", "deltatoken=" };
+
+  /** System query options whose values are always unbounded numbers. */
+  private static final String[] UNBOUNDED_QUERY_OPTIONS = { "skip", "top" };
+
+  /** System query options containing expressions, also nested in $expand. */
+  private static final String[] EXPRESSION_QUERY_OPTIONS = { "filter", "orderby", "compute", "apply", "expand" };
+
+  private final Map<Key, UriInfo> cache;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public UriInfoCacheImpl(final int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("The maximum number of cache entries must be positive.");
+    }
+    cache = new LinkedHashMap<Key, UriInfo>(16, 0.75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, UriInfo> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public UriInfo get(final HttpMethod method, final String rawBaseUri, final String rawODataPath,
+      final String rawQueryPath) {
+    if (!isCacheable(rawODataPath, rawQueryPath)) {
+      return null;
+    }
+    final Key key = new Key(method, rawBaseUri, rawODataPath, rawQueryPath);
+    final UriInfo uriInfo;
+    synchronized (cache) {
+      uriInfo = cache.get(key);
+    }
+    if (uriInfo == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return uriInfo;
+  }
+
+  @Override
+  public void put(final HttpMethod method, final String rawBaseUri, final String rawODataPath,
+      final String rawQueryPath, final UriInfo uriInfo) {
+    if (uriInfo != null && isCacheable(rawODataPath, rawQueryPath)) {
+      final Key key = new Key(method, rawBaseUri, rawODataPath, rawQueryPath);
+      synchronized (cache) {
+        cache.put(key, uriInfo);
+      }
+    }
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Determines whether the parse result of the given URI may be cached.
+   * @param rawODataPath raw OData path
+   * @param rawQueryPath raw query (may be <code>null</code>)
+   * @return <code>true</code> if the URI does not contain unbounded literal values
+   */
+  protected static boolean isCacheable(final String rawODataPath, final String rawQueryPath) {
+    final int length = (rawODataPath == null ? 0 : rawODataPath.length())
+        + (rawQueryPath == null ? 0 : rawQueryPath.length());
+    if (length > MAX_URI_LENGTH) {
+      return false;
+    }
+    if (rawODataPath != null && (rawODataPath.indexOf('(') >= 0 || rawODataPath.contains("%28"))) {
+      return false;
+    }
+    if (rawQueryPath != null) {
+      for (final String part : UNBOUNDED_QUERY_PARTS) {
+        if (rawQueryPath.contains(part)) {
+          return false;
+        }
+      }
+      for (final String option : rawQueryPath.split("&")) {
+        if (!isCacheableQueryOption(option)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isCacheableQueryOption(final String rawOption) {
+    final int index = rawOption.indexOf('=');
+    String name = index < 0 ? rawOption : rawOption.substring(0, index);
+    if (name.startsWith("$")) {
+      name = name.substring(1);
+    } else if (name.startsWith("%24")) {
+      name = name.substring(3);
+    }
+    if (contains(UNBOUNDED_QUERY_OPTIONS, name)) {
+      return false;
+    }
+    if (index >= 0 && contains(EXPRESSION_QUERY_OPTIONS, name)) {
+      try {
+        return !containsNumericLiteral(UriDecoder.decode(rawOption.substring(index + 1)));
+      } catch (final UriParserSyntaxException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean contains(final String[] names, final String name) {
+    for (final String candidate : names) {
+      if (candidate.equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Determines whether the given expression contains a literal starting with a digit or containing a minus sign;
+   * these are numbers, dates, times, and GUIDs. Digits within identifiers do not count.
+   */
+  private static boolean containsNumericLiteral(final String expression) {
+    for (int i = 0; i < expression.length(); i++) {
+      final char c = expression.charAt(i);
+      if (c == '-') {
+        return true;
+      }
+      if (Character.isDigit(c) && (i == 0 || !isIdentifierPart(expression.charAt(i - 1)))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isIdentifierPart(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+  }
+
+  private static final class Key {
+    private final HttpMethod method;
+    private final String rawBaseUri;
+    private final String rawODataPath;
+    private final String rawQueryPath;
+    private final int hash;
+
+    private Key(final HttpMethod method, final String rawBaseUri, final String rawODataPath,
+        final String rawQueryPath) {
+      this.method = method;
+      this.rawBaseUri = rawBaseUri;
+      this.rawODataPath = rawODataPath;
+      this.rawQueryPath = rawQueryPath;
+      int result = method == null ? 0 : method.hashCode();
+      result = 31 * result + (rawBaseUri == null ? 0 : rawBaseUri.hashCode());
+      result = 31 * result + (rawODataPath == null ? 0 : rawODataPath.hashCode());
+      result = 31 * result + (rawQueryPath == null ? 0 : rawQueryPath.hashCode());
+      hash = result;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return hash == other.hash
+          && method == other.method
+          && equal(rawODataPath, other.rawODataPath)
+          && equal(rawQueryPath, other.rawQueryPath)
+          && equal(rawBaseUri, other.rawBaseUri);
+    }
+
+    private static boolean equal(final String a, final String b) {
+      return a == null ? b == null : a.equals(b);
+    }
+  }
+}
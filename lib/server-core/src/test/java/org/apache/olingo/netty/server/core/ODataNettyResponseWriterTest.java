@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultChannelPromise;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+public class ODataNettyResponseWriterTest {
+
+  private EmbeddedChannel channel;
+  private ChannelHandlerContext context;
+
+  @Before
+  public void setup() {
+    channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    context = channel.pipeline().firstContext();
+  }
+
+  @Test
+  public void odataContentIsWrittenInChunks() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setHeader(HttpHeader.CONTENT_TYPE, "application/json");
+    odResponse.setODataContent(new ODataContent() {
+      @Override
+      public void write(final WritableByteChannel writeChannel) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void write(final OutputStream stream) {
+        try {
+          stream.write("0123456789".getBytes(StandardCharsets.UTF_8));
+          stream.write('A');
+        } catch (final IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    });
+
+    assertTrue(new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse).isSuccess());
+
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(200, response.status().code());
+    assertEquals("application/json", response.headers().get(HttpHeaderNames.CONTENT_TYPE));
+    assertTrue(HttpUtil.isTransferEncodingChunked(response));
+    assertEquals("0123", readChunk());
+    assertEquals("4567", readChunk());
+    assertEquals("89A", readChunk());
+    final LastHttpContent last = channel.readOutbound();
+    assertFalse(last.content().isReadable());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void odataContentIsWrittenByExecutorOnEventLoop() throws Exception {
+    final AtomicReference<Thread> writer = new AtomicReference<Thread>();
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setODataContent(new TestContent("abc", writer));
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final ChannelFuture future = new ODataNettyResponseWriter(context, 4, executor)
+          .write(HttpVersion.HTTP_1_1, odResponse);
+      final long deadline = System.currentTimeMillis() + 10000;
+      while (!future.isDone() && System.currentTimeMillis() < deadline) {
+        channel.runPendingTasks();
+        Thread.sleep(10);
+      }
+      assertTrue(future.isSuccess());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertNotSame(Thread.currentThread(), writer.get());
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(200, response.status().code());
+    assertEquals("abc", readChunk());
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+  }
+
+  @Test
+  public void failingODataContentClosesChannel() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setODataContent(new TestContent("0123456789", null) {
+      @Override
+      public void write(final OutputStream stream) {
+        super.write(stream);
+        throw new IllegalStateException("serializer error");
+      }
+    });
+
+    new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse);
+
+    assertFalse(channel.isOpen());
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(200, response.status().code());
+    assertEquals("0123", readChunk());
+    assertEquals("4567", readChunk());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void streamContentIsWrittenInChunks() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setHeader(HttpHeader.CONTENT_LENGTH, "6");
+    odResponse.setContent(new ByteArrayInputStream("abcdef".getBytes(StandardCharsets.UTF_8)));
+
+    new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse);
+
+    final HttpResponse response = channel.readOutbound();
+    assertTrue(HttpUtil.isTransferEncodingChunked(response));
+    assertFalse(response.headers().contains(HttpHeaderNames.CONTENT_LENGTH));
+    assertEquals("abcd", readChunk());
+    assertEquals("ef", readChunk());
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+  }
+
+  @Test
+  public void emptyResponse() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+
+    new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse);
+
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(204, response.status().code());
+    assertFalse(HttpUtil.isTransferEncodingChunked(response));
+    assertFalse(response.headers().contains(HttpHeaderNames.CONTENT_LENGTH));
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+    assertTrue(channel.isOpen());
+  }
+
+  @Test
+  public void notModifiedResponseHasNoBody() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+    odResponse.setHeader(HttpHeader.CONTENT_LENGTH, "6");
+    odResponse.setContent(new ByteArrayInputStream("abcdef".getBytes(StandardCharsets.UTF_8)));
+
+    new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse);
+
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(304, response.status().code());
+    assertFalse(HttpUtil.isTransferEncodingChunked(response));
+    assertFalse(response.headers().contains(HttpHeaderNames.CONTENT_LENGTH));
+    final LastHttpContent last = channel.readOutbound();
+    assertFalse(last.content().isReadable());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void odataContentIsWrittenUnframedForHttp10() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setODataContent(new TestContent("abcdef", null));
+
+    assertTrue(new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_0, odResponse).isSuccess());
+
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(HttpVersion.HTTP_1_0, response.protocolVersion());
+    assertFalse(HttpUtil.isTransferEncodingChunked(response));
+    assertFalse(response.headers().contains(HttpHeaderNames.CONTENT_LENGTH));
+    assertEquals(HttpHeaderValues.CLOSE.toString(), response.headers().get(HttpHeaderNames.CONNECTION));
+    assertEquals("abcd", readChunk());
+    assertEquals("ef", readChunk());
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+    assertFalse(channel.isOpen());
+  }
+
+  @Test
+  public void fileContentIsWrittenAsFileRegion() throws Exception {
+    final File file = File.createTempFile("olingo", ".txt");
+    try {
+      Files.write(file.toPath(), "abcdef".getBytes(StandardCharsets.UTF_8));
+      final ODataResponse odResponse = new ODataResponse();
+      odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+      odResponse.setContent(new FileInputStream(file));
+
+      new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse);
+
+      final HttpResponse response = channel.readOutbound();
+      assertFalse(HttpUtil.isTransferEncodingChunked(response));
+      assertEquals(6, HttpUtil.getContentLength(response));
+      final FileRegion region = channel.readOutbound();
+      try {
+        assertEquals(0, region.position());
+        assertEquals(6, region.count());
+      } finally {
+        region.release();
+      }
+      assertTrue(channel.readOutbound() instanceof LastHttpContent);
+      assertTrue(channel.isOpen());
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void streamContentIsWrittenByChunkedWriteHandler() {
+    channel = new EmbeddedChannel(new ChunkedWriteHandler(), new ChannelInboundHandlerAdapter());
+    context = channel.pipeline().lastContext();
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setContent(new ByteArrayInputStream("abcdef".getBytes(StandardCharsets.UTF_8)));
+
+    new ODataNettyResponseWriter(context, 4, null).write(HttpVersion.HTTP_1_1, odResponse);
+
+    final HttpResponse response = channel.readOutbound();
+    assertTrue(HttpUtil.isTransferEncodingChunked(response));
+    assertEquals("abcd", readChunk());
+    assertEquals("ef", readChunk());
+    final LastHttpContent last = channel.readOutbound();
+    assertFalse(last.content().isReadable());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void unavailableIfExecutorRejects() {
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setODataContent(new TestContent("abc", null));
+    final Executor rejecting = new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    };
+
+    // The embedded channel's event loop regards every thread as event-loop thread.
+    new ODataNettyResponseWriter(context, 4, rejecting).write(HttpVersion.HTTP_1_1, odResponse);
+
+    final HttpResponse response = channel.readOutbound();
+    assertEquals(503, response.status().code());
+    assertEquals(0, HttpUtil.getContentLength(response));
+    assertTrue(channel.readOutbound() instanceof LastHttpContent);
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  public void blockedWriteTimesOut() {
+    final ChannelHandlerContext blockedContext = mock(ChannelHandlerContext.class);
+    final Channel blockedChannel = mock(Channel.class);
+    final EventExecutor executor = mock(EventExecutor.class);
+    when(blockedContext.channel()).thenReturn(blockedChannel);
+    when(blockedContext.executor()).thenReturn(executor);
+    when(blockedContext.alloc()).thenReturn(UnpooledByteBufAllocator.DEFAULT);
+    when(blockedContext.writeAndFlush(any())).thenReturn(
+        new DefaultChannelPromise(blockedChannel, ImmediateEventExecutor.INSTANCE));
+    final ChannelFuture closed = new DefaultChannelPromise(blockedChannel, ImmediateEventExecutor.INSTANCE);
+    when(blockedContext.close()).thenReturn(closed);
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setODataContent(new TestContent("0123456789", null));
+
+    assertSame(closed, new ODataNettyResponseWriter(blockedContext, 4, null, 10)
+        .write(HttpVersion.HTTP_1_1, odResponse));
+    verify(blockedContext, times(1)).writeAndFlush(any());
+  }
+
+  private static class TestContent implements ODataContent {
+    private final String text;
+    private final AtomicReference<Thread> writer;
+
+    TestContent(final String text, final AtomicReference<Thread> writer) {
+      this.text = text;
+      this.writer = writer;
+    }
+
+    @Override
+    public void write(final WritableByteChannel writeChannel) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(final OutputStream stream) {
+      if (writer != null) {
+        writer.set(Thread.currentThread());
+      }
+      try {
+        stream.write(text.getBytes(StandardCharsets.UTF_8));
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private String readChunk() {
+    final HttpContent chunk = channel.readOutbound();
+    final ByteBuf content = chunk.content();
+    try {
+      return content.toString(StandardCharsets.UTF_8);
+    } finally {
+      chunk.release();
+    }
+  }
+}
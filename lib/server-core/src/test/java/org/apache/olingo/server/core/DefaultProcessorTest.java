@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DocumentCache;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.api.processor.DefaultProcessor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultProcessorTest {
+
+  private final OData odata = OData.newInstance();
+  private ServiceMetadata metadata;
+  private DocumentCache cache;
+
+  @Before
+  public void setup() {
+    metadata = spy(TestEdmProvider.createServiceMetadata(odata));
+    cache = odata.createDocumentCache(false);
+    doReturn(cache).when(metadata).getDocumentCache();
+    doReturn(null).when(metadata).getServiceMetadataETagSupport();
+  }
+
+  @Test
+  public void cachedDocumentETag() throws Exception {
+    final ODataResponse response = readMetadata(HttpMethod.GET, null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    final String eTag = response.getHeader(HttpHeader.ETAG);
+    assertNotNull(eTag);
+    assertTrue(eTag.startsWith("\""));
+    final String document = IOUtils.toString(response.getContent());
+    assertEquals(1, cache.size());
+
+    final ODataResponse cachedResponse = readMetadata(HttpMethod.GET, null);
+    assertEquals(eTag, cachedResponse.getHeader(HttpHeader.ETAG));
+    assertEquals(document, IOUtils.toString(cachedResponse.getContent()));
+    assertEquals(1, cache.size());
+
+    // Each format is a document of its own.
+    final ODataResponse serviceResponse = new ODataResponse();
+    processor().readServiceDocument(createRequest(HttpMethod.GET, null), serviceResponse, null, ContentType.JSON);
+    assertNotNull(serviceResponse.getHeader(HttpHeader.ETAG));
+    assertFalse(eTag.equals(serviceResponse.getHeader(HttpHeader.ETAG)));
+    assertTrue(IOUtils.toString(serviceResponse.getContent()).contains("\"value\":"));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void notModified() throws Exception {
+    final String eTag = readMetadata(HttpMethod.GET, null).getHeader(HttpHeader.ETAG);
+
+    final ODataResponse response = readMetadata(HttpMethod.GET, eTag);
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(), response.getStatusCode());
+    assertEquals(eTag, response.getHeader(HttpHeader.ETAG));
+    assertNull(response.getContent());
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), readMetadata(HttpMethod.GET, "\"other\"").getStatusCode());
+  }
+
+  @Test
+  public void head() throws Exception {
+    final ODataResponse response = readMetadata(HttpMethod.HEAD, null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getContent());
+    final String eTag = response.getHeader(HttpHeader.ETAG);
+    assertNotNull(eTag);
+    assertEquals(eTag, readMetadata(HttpMethod.GET, null).getHeader(HttpHeader.ETAG));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void applicationETagTakesPrecedence() throws Exception {
+    final ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    when(eTagSupport.getMetadataETag()).thenReturn("W/\"42\"");
+    doReturn(eTagSupport).when(metadata).getServiceMetadataETagSupport();
+
+    final ODataResponse response = readMetadata(HttpMethod.GET, null);
+    assertEquals("W/\"42\"", response.getHeader(HttpHeader.ETAG));
+    assertNotNull(response.getContent());
+    // The document is cached nevertheless.
+    assertEquals(1, cache.size());
+
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(),
+        readMetadata(HttpMethod.GET, "W/\"42\"").getStatusCode());
+  }
+
+  @Test
+  public void withoutCache() throws Exception {
+    doReturn(null).when(metadata).getDocumentCache();
+
+    final ODataResponse response = readMetadata(HttpMethod.GET, null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertNull(response.getHeader(HttpHeader.ETAG));
+    assertTrue(IOUtils.toString(response.getContent()).contains("<edmx:Edmx"));
+    assertEquals(0, cache.size());
+  }
+
+  private DefaultProcessor processor() {
+    final DefaultProcessor processor = new DefaultProcessor();
+    processor.init(odata, metadata);
+    return processor;
+  }
+
+  private ODataResponse readMetadata(final HttpMethod method, final String ifNoneMatch) throws Exception {
+    final ODataResponse response = new ODataResponse();
+    processor().readMetadata(createRequest(method, ifNoneMatch), response, null, ContentType.APPLICATION_XML);
+    return response;
+  }
+
+  private static ODataRequest createRequest(final HttpMethod method, final String ifNoneMatch) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    if (ifNoneMatch != null) {
+      request.addHeader(HttpHeader.IF_NONE_MATCH, ifNoneMatch);
+    }
+    return request;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataMetrics;
+import org.apache.olingo.server.api.ODataMetrics.Phase;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.processor.EntityCollectionProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.core.metrics.Histogram;
+import org.apache.olingo.server.core.metrics.HistogramMetrics;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ODataHandlerImplTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+
+  private static final long PART_MILLIS = 50;
+
+  private final OData odata = OData.newInstance();
+
+  @Test
+  public void uriInfoCache() throws Exception {
+    final ServiceMetadata metadata = TestEdmProvider.createServiceMetadata(odata);
+    final UriInfoCache cache = odata.createUriInfoCache(10);
+    metadata.setUriInfoCache(cache);
+
+    final ODataRequest request = createRequest(HttpMethod.GET, "ESAllPrim", "$select=PropertyInt16");
+    ODataHandlerImpl handler = createHandler(metadata);
+    handler.register(mock(EntityCollectionProcessor.class));
+    handler.process(request);
+    final UriInfo first = handler.getUriInfo();
+
+    handler = createHandler(metadata);
+    handler.register(mock(EntityCollectionProcessor.class));
+    handler.process(request);
+
+    assertSame(first, handler.getUriInfo());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    // Invalid URIs are not cached.
+    request.setRawQueryPath("$select=PropertyNotExisting");
+    handler.process(request);
+    handler.process(request);
+    assertEquals(1, cache.size());
+
+    // URIs with unbounded literal values are neither looked up nor cached.
+    final long misses = cache.getMissCount();
+    request.setRawQueryPath("$top=1");
+    handler.process(request);
+    assertEquals(misses, cache.getMissCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void metrics() throws Exception {
+    final HistogramMetrics metrics = new HistogramMetrics();
+    ODataHandlerImpl handler = createHandler(TestEdmProvider.createServiceMetadata(odata));
+    handler.register(mock(EntityCollectionProcessor.class));
+    handler.register(metrics);
+
+    final ODataRequest request = createRequest(HttpMethod.GET, "ESAllPrim", "$top=1");
+    handler.resetMeasurements();
+    handler.process(request);
+    handler.reportMeasurements(42);
+
+    for (final Phase phase : new Phase[] {
+        Phase.URI_PARSING, Phase.URI_VALIDATION, Phase.CONTENT_NEGOTIATION, Phase.PROCESSOR }) {
+      final Histogram histogram = metrics.getHistogram(phase, HttpMethod.GET, UriInfoKind.resource, "ESAllPrim");
+      assertNotNull(phase.name(), histogram);
+      assertEquals(1, histogram.snapshot().getCount());
+    }
+    assertNull(metrics.getHistogram(Phase.HEADER_COPY, HttpMethod.GET, UriInfoKind.resource, "ESAllPrim"));
+    assertEquals(42,
+        metrics.getBytesWrittenHistogram(HttpMethod.GET, UriInfoKind.resource, "ESAllPrim").snapshot().getSum());
+
+    // The kind and the entity set of an invalid URI are not known.
+    request.setRawODataPath("ESNotExisting");
+    handler.resetMeasurements();
+    handler.process(request);
+    handler.reportMeasurements(-1);
+    assertEquals(1, metrics.getHistogram(Phase.URI_PARSING, HttpMethod.GET, null, null).snapshot().getCount());
+    assertNull(metrics.getHistogram(Phase.PROCESSOR, HttpMethod.GET, null, null));
+    assertNull(metrics.getBytesWrittenHistogram(HttpMethod.GET, null, null));
+
+    final AtomicInteger visited = new AtomicInteger();
+    metrics.visit(new HistogramMetrics.Visitor() {
+      @Override
+      public void visit(final Phase phase, final HttpMethod method, final UriInfoKind kind,
+          final String entitySetName, final Histogram histogram) {
+        visited.incrementAndGet();
+      }
+    });
+    assertEquals(6, visited.get());
+  }
+
+  @Test
+  public void metricsOfBatchRequest() throws Exception {
+    final Map<Phase, Long> phases = new EnumMap<Phase, Long>(Phase.class);
+    final List<Object> tags = new ArrayList<Object>();
+    final ODataMetrics metrics = new ODataMetrics() {
+      @Override
+      public void phase(final Phase phase, final long nanos, final HttpMethod method, final UriInfoKind kind,
+          final String entitySetName) {
+        phases.put(phase, nanos);
+        tags.add(Arrays.asList(method, kind, entitySetName));
+      }
+
+      @Override
+      public void bytesWritten(final long bytes, final HttpMethod method, final UriInfoKind kind,
+          final String entitySetName) {
+        // not needed
+      }
+    };
+    final EntityCollectionProcessor partProcessor = mock(EntityCollectionProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws InterruptedException {
+        Thread.sleep(PART_MILLIS);
+        return null;
+      }
+    }).when(partProcessor).readEntityCollection(any(ODataRequest.class), any(ODataResponse.class),
+        any(UriInfo.class), any(ContentType.class));
+    final ODataHandlerImpl handler = createHandler(TestEdmProvider.createServiceMetadata(odata));
+    handler.register(partProcessor);
+    handler.register(new BatchProcessor() {
+      @Override
+      public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+        // not needed
+      }
+
+      @Override
+      public void processBatch(final BatchFacade facade, final ODataRequest request, final ODataResponse response)
+          throws ODataApplicationException, ODataLibraryException {
+        facade.handleODataRequest(createRequest(HttpMethod.GET, "ESAllPrim", null));
+        facade.handleODataRequest(createRequest(HttpMethod.GET, "ESTwoPrim", null));
+      }
+
+      @Override
+      public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests) {
+        throw new UnsupportedOperationException();
+      }
+    });
+    handler.register(metrics);
+
+    final ODataRequest request = createRequest(HttpMethod.POST, "$batch", null);
+    request.setHeader(HttpHeader.CONTENT_TYPE, "multipart/mixed;boundary=batch_1");
+    handler.resetMeasurements();
+    final long start = System.nanoTime();
+    handler.process(request);
+    final long elapsed = System.nanoTime() - start;
+    handler.reportMeasurements(-1);
+
+    // The parts are measured within the batch request and tagged like it.
+    assertTrue(phases.get(Phase.PROCESSOR) >= TimeUnit.MILLISECONDS.toNanos(2 * PART_MILLIS));
+    for (final Object tag : tags) {
+      assertEquals(Arrays.asList(HttpMethod.POST, UriInfoKind.batch, null), tag);
+    }
+    // The time of the parts is not counted twice, once in the part and once in the outer processor phase.
+    long sum = 0;
+    for (final Long nanos : phases.values()) {
+      sum += nanos;
+    }
+    assertTrue(sum <= elapsed);
+  }
+
+  private ODataHandlerImpl createHandler(final ServiceMetadata metadata) {
+    return new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+  }
+
+  private static ODataRequest createRequest(final HttpMethod method, final String path, final String query) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    return request;
+  }
+}
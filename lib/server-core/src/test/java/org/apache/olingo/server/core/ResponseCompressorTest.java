@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DocumentCache;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataContent;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ResponseCompressionSupport;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.uri.UriInfoKind;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.junit.Test;
+
+public class ResponseCompressorTest {
+
+  private static final byte[] CONTENT = createContent();
+
+  private static byte[] createContent() {
+    final StringBuilder builder = new StringBuilder("{\"value\":[");
+    for (int i = 0; i < 500; i++) {
+      builder.append(i == 0 ? "" : ",").append("{\"PropertyInt16\":").append(i)
+          .append(",\"PropertyString\":\"String ").append(i).append("\"}");
+    }
+    return builder.append("]}").toString().getBytes();
+  }
+
+  @Test
+  public void negotiate() {
+    assertNull(ResponseCompressor.negotiate(null));
+    assertNull(ResponseCompressor.negotiate(Collections.singletonList("identity")));
+    assertNull(ResponseCompressor.negotiate(Collections.singletonList("br")));
+    assertEquals("gzip", ResponseCompressor.negotiate(Collections.singletonList("gzip")));
+    assertEquals("gzip", ResponseCompressor.negotiate(Collections.singletonList("deflate, gzip")));
+    assertEquals("gzip", ResponseCompressor.negotiate(Collections.singletonList("*")));
+    assertEquals("gzip", ResponseCompressor.negotiate(Arrays.asList("deflate;q=0.5", "GZIP;Q=0.8")));
+    assertEquals("deflate", ResponseCompressor.negotiate(Collections.singletonList("gzip;q=0.2, deflate")));
+    assertEquals("deflate", ResponseCompressor.negotiate(Collections.singletonList("gzip;q=0, *")));
+    assertNull(ResponseCompressor.negotiate(Collections.singletonList("gzip;q=0, deflate;q=0")));
+    assertNull(ResponseCompressor.negotiate(Collections.singletonList("*;q=0")));
+    assertNull(ResponseCompressor.negotiate(Collections.singletonList("gzip;q=x")));
+  }
+
+  @Test
+  public void compressStream() throws Exception {
+    for (final String coding : new String[] { "gzip", "deflate" }) {
+      final ODataResponse response = createResponse(new ByteArrayInputStream(CONTENT));
+      compressor(1024).compress(createRequest(coding), response, null);
+
+      assertEquals(coding, response.getHeader(HttpHeader.CONTENT_ENCODING));
+      assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+      assertNull(response.getHeader(HttpHeader.CONTENT_LENGTH));
+      assertNull(response.getContent());
+      final byte[] compressed = write(response.getODataContent());
+      assertTrue(compressed.length < CONTENT.length / 2);
+      assertArrayEquals(CONTENT, decompress(coding, compressed));
+    }
+  }
+
+  @Test
+  public void compressODataContent() throws Exception {
+    final ODataResponse response = createResponse(null);
+    response.setODataContent(new ODataContent() {
+      @Override
+      public void write(final WritableByteChannel channel) {
+        write(Channels.newOutputStream(channel));
+      }
+
+      @Override
+      public void write(final OutputStream stream) {
+        try {
+          for (int i = 0; i < CONTENT.length; i += 100) {
+            stream.write(CONTENT, i, Math.min(100, CONTENT.length - i));
+          }
+          stream.close();
+        } catch (final IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    });
+    compressor(1024).compress(createRequest("gzip"), response, null);
+
+    assertEquals("gzip", response.getHeader(HttpHeader.CONTENT_ENCODING));
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    response.getODataContent().write(Channels.newChannel(output));
+    assertArrayEquals(CONTENT, decompress("gzip", output.toByteArray()));
+  }
+
+  @Test
+  public void smallContentIsNotCompressed() throws Exception {
+    final byte[] small = Arrays.copyOf(CONTENT, 1000);
+    ODataResponse response = createResponse(new ByteArrayInputStream(small));
+    compressor(1024).compress(createRequest("gzip"), response, null);
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+    assertArrayEquals(small, IOUtils.toByteArray(response.getContent()));
+
+    response = createResponse(new ByteArrayInputStream(CONTENT));
+    response.setHeader(HttpHeader.CONTENT_LENGTH, "1000");
+    compressor(1024).compress(createRequest("gzip"), response, null);
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+  }
+
+  @Test
+  public void unsuitableResponsesAreNotCompressed() throws Exception {
+    ODataResponse response = createResponse(new ByteArrayInputStream(CONTENT));
+    compressor(0).compress(createRequest(null), response, null);
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+
+    response = createResponse(new ByteArrayInputStream(CONTENT));
+    response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_OCTET_STREAM.toContentTypeString());
+    compressor(0).compress(createRequest("gzip"), response, null);
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertNull(response.getHeader(HttpHeader.VARY));
+
+    response = createResponse(new ByteArrayInputStream(CONTENT));
+    response.setStatusCode(HttpStatusCode.PARTIAL_CONTENT.getStatusCode());
+    compressor(0).compress(createRequest("gzip"), response, null);
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+
+    response = createResponse(new ByteArrayInputStream(CONTENT));
+    response.setHeader(HttpHeader.CONTENT_ENCODING, "br");
+    compressor(0).compress(createRequest("gzip"), response, null);
+    assertEquals("br", response.getHeader(HttpHeader.CONTENT_ENCODING));
+  }
+
+  @Test
+  public void cachedDocumentIsCompressedOnce() throws Exception {
+    final ResponseCompressor compressor = new ResponseCompressor(withMinimumSize(0));
+    final DocumentCache.Document document = new DocumentCacheImpl(false)
+        .put(UriInfoKind.metadata, ContentType.APPLICATION_JSON, CONTENT);
+    final ODataResponse response = createResponse(new ByteArrayInputStream(CONTENT));
+    compressor.compress(createRequest("gzip"), response, document);
+    final byte[] compressed = IOUtils.toByteArray(response.getContent());
+    assertEquals(Integer.toString(compressed.length), response.getHeader(HttpHeader.CONTENT_LENGTH));
+    assertArrayEquals(CONTENT, decompress("gzip", compressed));
+    assertArrayEquals(compressed, document.getCompressedContent("gzip"));
+
+    final ODataResponse cachedResponse = createResponse(new ByteArrayInputStream(CONTENT));
+    compressor.compress(createRequest("gzip"), cachedResponse, document);
+    assertArrayEquals(compressed, IOUtils.toByteArray(cachedResponse.getContent()));
+
+    // Content that is not the cached document is compressed but not cached.
+    final byte[] other = Arrays.copyOf(CONTENT, 2000);
+    final ODataResponse otherResponse = createResponse(new ByteArrayInputStream(other));
+    compressor.compress(createRequest("deflate"), otherResponse, document);
+    assertArrayEquals(other, decompress("deflate", IOUtils.toByteArray(otherResponse.getContent())));
+    assertNull(document.getCompressedContent("deflate"));
+  }
+
+  @Test
+  public void precompressedDocument() throws Exception {
+    final DocumentCache cache = new DocumentCacheImpl(true);
+    final DocumentCache.Document document = cache.put(UriInfoKind.service, ContentType.JSON, CONTENT);
+    assertSame(document, cache.put(UriInfoKind.service, ContentType.JSON, new byte[0]));
+    assertSame(document, cache.get(UriInfoKind.service, ContentType.create(ContentType.JSON.toContentTypeString())));
+    assertNull(cache.get(UriInfoKind.metadata, ContentType.JSON));
+    assertArrayEquals(CONTENT, decompress("gzip", document.getCompressedContent("gzip")));
+    assertArrayEquals(CONTENT, decompress("deflate", document.getCompressedContent("deflate")));
+    assertTrue(document.getETag().matches("\"[-_0-9A-Za-z]{43}\""));
+    assertFalse(document.getETag().equals(
+        cache.put(UriInfoKind.service, ContentType.JSON_FULL_METADATA, new byte[0]).getETag()));
+  }
+
+  @Test
+  public void metadataDocument() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(new Provider(),
+        Collections.<EdmxReference> emptyList());
+
+    final byte[] uncompressed = IOUtils.toByteArray(
+        processMetadata(odata, metadata, null).getContent());
+    final ODataResponse response = processMetadata(odata, metadata, "gzip, deflate");
+    assertEquals("gzip", response.getHeader(HttpHeader.CONTENT_ENCODING));
+    final byte[] compressed = IOUtils.toByteArray(response.getContent());
+    assertArrayEquals(uncompressed, decompress("gzip", compressed));
+    assertArrayEquals(compressed, metadata.getDocumentCache()
+        .get(UriInfoKind.metadata, ContentType.APPLICATION_XML).getCompressedContent("gzip"));
+
+    assertArrayEquals(compressed,
+        IOUtils.toByteArray(processMetadata(odata, metadata, "gzip").getContent()));
+  }
+
+  private ODataResponse processMetadata(final OData odata, final ServiceMetadata metadata,
+      final String acceptEncoding) {
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(withMinimumSize(0));
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri("http://localhost/service");
+    request.setRawODataPath("/$metadata");
+    request.setRawRequestUri("http://localhost/service/$metadata");
+    request.setProtocol("HTTP/1.1");
+    if (acceptEncoding != null) {
+      request.addHeader(HttpHeader.ACCEPT_ENCODING, acceptEncoding);
+    }
+    final ODataResponse response = handler.process(request);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    handler.compressResponse(request, response);
+    return response;
+  }
+
+  private static ResponseCompressor compressor(final int minimumSize) {
+    return new ResponseCompressor(withMinimumSize(minimumSize));
+  }
+
+  private static ResponseCompressionSupport withMinimumSize(final int minimumSize) {
+    return new ResponseCompressionSupport() {
+      @Override
+      public int getMinimumSize() {
+        return minimumSize;
+      }
+    };
+  }
+
+  private static ODataRequest createRequest(final String acceptEncoding) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri("http://localhost/service");
+    request.setRawODataPath("/ESAllPrim");
+    if (acceptEncoding != null) {
+      request.addHeader(HttpHeader.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return request;
+  }
+
+  private static ODataResponse createResponse(final InputStream content) {
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+    response.setContent(content);
+    return response;
+  }
+
+  private static byte[] write(final ODataContent content) {
+    assertNotNull(content);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    content.write(output);
+    return output.toByteArray();
+  }
+
+  private static byte[] decompress(final String coding, final byte[] compressed) throws IOException {
+    final InputStream input = "gzip".equals(coding) ?
+        new GZIPInputStream(new ByteArrayInputStream(compressed)) :
+        new InflaterInputStream(new ByteArrayInputStream(compressed));
+    return IOUtils.toByteArray(input);
+  }
+
+  private static final class Provider extends CsdlAbstractEdmProvider {
+    private static final String NAMESPACE = "Namespace";
+
+    @Override
+    public List<CsdlSchema> getSchemas() throws ODataException {
+      return Collections.singletonList(new CsdlSchema().setNamespace(NAMESPACE)
+          .setEntityContainer(getEntityContainer()));
+    }
+
+    @Override
+    public CsdlEntityContainer getEntityContainer() throws ODataException {
+      return new CsdlEntityContainer().setName("Container");
+    }
+
+    @Override
+    public CsdlEntityContainerInfo getEntityContainerInfo(final FullQualifiedName name) throws ODataException {
+      return new CsdlEntityContainerInfo().setContainerName(new FullQualifiedName(NAMESPACE, "Container"));
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ServiceMetadataImplTest {
+
+  private ServiceMetadataImpl createMetadata() {
+    return new ServiceMetadataImpl(new CsdlAbstractEdmProvider() {}, Collections.<EdmxReference> emptyList(), null);
+  }
+
+  @Test
+  public void jsonMapperIsShared() {
+    final ServiceMetadataImpl metadata = createMetadata();
+    final ObjectMapper mapper = metadata.getJsonMapper();
+    assertSame(mapper, metadata.getJsonMapper());
+    assertTrue(mapper.isEnabled(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY));
+    assertTrue(mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS));
+  }
+
+  @Test
+  public void jsonFactoryIsShared() {
+    final ServiceMetadataImpl metadata = createMetadata();
+    final JsonFactory factory = metadata.getJsonFactory();
+    assertSame(factory, metadata.getJsonFactory());
+    assertSame(metadata.getJsonMapper(), factory.getCodec());
+  }
+
+  @Test
+  public void customSuppliers() {
+    final ServiceMetadataImpl metadata = createMetadata();
+    final ObjectMapper defaultMapper = metadata.getJsonMapper();
+    final JsonFactory defaultFactory = metadata.getJsonFactory();
+
+    final ObjectMapper customMapper = new ObjectMapper();
+    metadata.setJsonMapperSupplier(() -> customMapper);
+    assertSame(customMapper, metadata.getJsonMapper());
+    assertNotSame(defaultFactory, metadata.getJsonFactory());
+    assertNotSame(defaultMapper, metadata.getJsonMapper());
+
+    final JsonFactory customFactory = new JsonFactory();
+    metadata.setJsonFactorySupplier(() -> customFactory);
+    assertSame(customFactory, metadata.getJsonFactory());
+    assertSame(customFactory, metadata.getJsonFactory());
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlComplexType;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+
+/**
+ * Small hand-built EDM for tests that need entity types but not the technical service.
+ * <br/>
+ * It follows the naming of the technical service: the entity set <code>ESAllPrim</code> of type
+ * <code>ETAllPrim</code> has properties of most primitive types, a complex property, a primitive collection,
+ * and navigation properties to the entity set <code>ESTwoPrim</code>, which navigates back.
+ */
+public class TestEdmProvider extends CsdlAbstractEdmProvider {
+
+  public static final String NAMESPACE = "Namespace";
+
+  public static final FullQualifiedName ET_ALL_PRIM = new FullQualifiedName(NAMESPACE, "ETAllPrim");
+  public static final FullQualifiedName ET_TWO_PRIM = new FullQualifiedName(NAMESPACE, "ETTwoPrim");
+  public static final FullQualifiedName CT_TWO_PRIM = new FullQualifiedName(NAMESPACE, "CTTwoPrim");
+  public static final FullQualifiedName CONTAINER = new FullQualifiedName(NAMESPACE, "Container");
+
+  /** Creates service metadata for this EDM. */
+  public static ServiceMetadata createServiceMetadata(final OData odata) {
+    return odata.createServiceMetadata(new TestEdmProvider(), Collections.<EdmxReference> emptyList());
+  }
+
+  @Override
+  public List<CsdlSchema> getSchemas() {
+    return Collections.singletonList(new CsdlSchema().setNamespace(NAMESPACE)
+        .setEntityTypes(Arrays.asList(getEntityType(ET_ALL_PRIM), getEntityType(ET_TWO_PRIM)))
+        .setComplexTypes(Collections.singletonList(getComplexType(CT_TWO_PRIM)))
+        .setEntityContainer(getEntityContainer()));
+  }
+
+  @Override
+  public CsdlEntityType getEntityType(final FullQualifiedName entityTypeName) {
+    if (ET_ALL_PRIM.equals(entityTypeName)) {
+      return new CsdlEntityType().setName(ET_ALL_PRIM.getName())
+          .setKey(Collections.singletonList(new CsdlPropertyRef().setName("PropertyInt16")))
+          .setProperties(Arrays.asList(
+              primitive("PropertyInt16", EdmPrimitiveTypeKind.Int16).setNullable(false),
+              primitive("PropertyString", EdmPrimitiveTypeKind.String),
+              primitive("PropertyBoolean", EdmPrimitiveTypeKind.Boolean),
+              primitive("PropertyInt32", EdmPrimitiveTypeKind.Int32),
+              primitive("PropertyInt64", EdmPrimitiveTypeKind.Int64),
+              primitive("PropertySingle", EdmPrimitiveTypeKind.Single),
+              primitive("PropertyDouble", EdmPrimitiveTypeKind.Double),
+              primitive("PropertyDecimal", EdmPrimitiveTypeKind.Decimal),
+              primitive("PropertyBinary", EdmPrimitiveTypeKind.Binary),
+              primitive("PropertyDate", EdmPrimitiveTypeKind.Date),
+              primitive("PropertyDateTimeOffset", EdmPrimitiveTypeKind.DateTimeOffset),
+              primitive("PropertyDuration", EdmPrimitiveTypeKind.Duration),
+              primitive("PropertyGuid", EdmPrimitiveTypeKind.Guid),
+              primitive("PropertyGeographyPoint", EdmPrimitiveTypeKind.GeographyPoint),
+              new CsdlProperty().setName("PropertyComp").setType(CT_TWO_PRIM),
+              primitive("CollPropertyString", EdmPrimitiveTypeKind.String).setCollection(true)))
+          .setNavigationProperties(Arrays.asList(
+              new CsdlNavigationProperty().setName("NavPropertyETTwoPrimOne").setType(ET_TWO_PRIM),
+              new CsdlNavigationProperty().setName("NavPropertyETTwoPrimMany").setType(ET_TWO_PRIM)
+                  .setCollection(true)));
+    } else if (ET_TWO_PRIM.equals(entityTypeName)) {
+      return new CsdlEntityType().setName(ET_TWO_PRIM.getName())
+          .setKey(Collections.singletonList(new CsdlPropertyRef().setName("PropertyInt16")))
+          .setProperties(Arrays.asList(
+              primitive("PropertyInt16", EdmPrimitiveTypeKind.Int16).setNullable(false),
+              primitive("PropertyString", EdmPrimitiveTypeKind.String)))
+          .setNavigationProperties(Arrays.asList(
+              new CsdlNavigationProperty().setName("NavPropertyETAllPrimOne").setType(ET_ALL_PRIM),
+              new CsdlNavigationProperty().setName("NavPropertyETAllPrimMany").setType(ET_ALL_PRIM)
+                  .setCollection(true)));
+    }
+    return null;
+  }
+
+  @Override
+  public CsdlComplexType getComplexType(final FullQualifiedName complexTypeName) {
+    return CT_TWO_PRIM.equals(complexTypeName) ?
+        new CsdlComplexType().setName(CT_TWO_PRIM.getName()).setProperties(Arrays.asList(
+            primitive("PropertyInt16", EdmPrimitiveTypeKind.Int16),
+            primitive("PropertyString", EdmPrimitiveTypeKind.String))) :
+        null;
+  }
+
+  @Override
+  public CsdlEntitySet getEntitySet(final FullQualifiedName entityContainer, final String entitySetName) {
+    if ("ESAllPrim".equals(entitySetName)) {
+      return new CsdlEntitySet().setName("ESAllPrim").setType(ET_ALL_PRIM)
+          .setNavigationPropertyBindings(Arrays.asList(
+              new CsdlNavigationPropertyBinding().setPath("NavPropertyETTwoPrimOne").setTarget("ESTwoPrim"),
+              new CsdlNavigationPropertyBinding().setPath("NavPropertyETTwoPrimMany").setTarget("ESTwoPrim")));
+    } else if ("ESTwoPrim".equals(entitySetName)) {
+      return new CsdlEntitySet().setName("ESTwoPrim").setType(ET_TWO_PRIM)
+          .setNavigationPropertyBindings(Arrays.asList(
+              new CsdlNavigationPropertyBinding().setPath("NavPropertyETAllPrimOne").setTarget("ESAllPrim"),
+              new CsdlNavigationPropertyBinding().setPath("NavPropertyETAllPrimMany").setTarget("ESAllPrim")));
+    }
+    return null;
+  }
+
+  @Override
+  public CsdlEntityContainer getEntityContainer() {
+    return new CsdlEntityContainer().setName(CONTAINER.getName()).setEntitySets(Arrays.asList(
+        getEntitySet(CONTAINER, "ESAllPrim"), getEntitySet(CONTAINER, "ESTwoPrim")));
+  }
+
+  @Override
+  public CsdlEntityContainerInfo getEntityContainerInfo(final FullQualifiedName entityContainerName) {
+    return entityContainerName == null || CONTAINER.equals(entityContainerName) ?
+        new CsdlEntityContainerInfo().setContainerName(CONTAINER) :
+        null;
+  }
+
+  private static CsdlProperty primitive(final String name, final EdmPrimitiveTypeKind kind) {
+    return new CsdlProperty().setName(name).setType(kind.getFullQualifiedName());
+  }
+}
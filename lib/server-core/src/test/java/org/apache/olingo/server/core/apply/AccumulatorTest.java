@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.apply;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression.StandardMethod;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.apache.olingo.server.core.queryoptions.CompiledValue;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Test;
+
+public class AccumulatorTest {
+
+  private static final OData odata = OData.newInstance();
+  private static final Edm edm = TestEdmProvider.createServiceMetadata(odata).getEdm();
+
+  @Test
+  public void sum() throws Exception {
+    final Accumulator sum = Accumulator.create(StandardMethod.SUM, null);
+    assertEquals(0L, sum.result());
+    sum.add(1L);
+    sum.add(2L);
+    sum.add(null);
+    assertEquals(3L, sum.result());
+    sum.add(new BigDecimal("0.25"));
+    assertEquals(new BigDecimal("3.25"), sum.result());
+  }
+
+  @Test
+  public void sumOverflow() throws Exception {
+    final Accumulator sum = Accumulator.create(StandardMethod.SUM, null);
+    sum.add(Long.MAX_VALUE);
+    sum.add(Long.MAX_VALUE);
+    sum.add(2L);
+    assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).add(BigDecimal.valueOf(2)),
+        sum.result());
+  }
+
+  @Test
+  public void sumNotFinite() throws Exception {
+    final Accumulator sum = Accumulator.create(StandardMethod.SUM, null);
+    sum.add(Double.MAX_VALUE);
+    sum.add(Double.MAX_VALUE);
+    assertNull(sum.result());
+  }
+
+  @Test
+  public void merge() throws Exception {
+    final Accumulator first = Accumulator.create(StandardMethod.AVERAGE, null);
+    first.add(1L);
+    first.add(2.5);
+    final Accumulator second = Accumulator.create(StandardMethod.AVERAGE, null);
+    second.add(new BigDecimal("4.5"));
+    second.add(null);
+    first.merge(second);
+    assertEquals(0, new BigDecimal("2.666666666666667").compareTo((BigDecimal) first.result()));
+    assertNull(Accumulator.create(StandardMethod.AVERAGE, null).result());
+
+    final CompiledValue decimal = compile("PropertyDecimal");
+    final Accumulator distinct = Accumulator.create(StandardMethod.COUNT_DISTINCT, decimal);
+    distinct.add(BigDecimal.ONE);
+    distinct.add(new BigDecimal("1.00"));
+    distinct.add(new BigDecimal("2.0"));
+    final Accumulator otherDistinct = Accumulator.create(StandardMethod.COUNT_DISTINCT, decimal);
+    otherDistinct.add(new BigDecimal("2"));
+    otherDistinct.add(null);
+    distinct.merge(otherDistinct);
+    assertEquals(2L, distinct.result());
+
+    final Accumulator count = Accumulator.create(null, null);
+    count.add(null);
+    final Accumulator otherCount = Accumulator.create(null, null);
+    otherCount.add("a");
+    count.merge(otherCount);
+    assertEquals(2L, count.result());
+  }
+
+  @Test
+  public void minMax() throws Exception {
+    final CompiledValue string = compile("PropertyString");
+    final Accumulator min = Accumulator.create(StandardMethod.MIN, string);
+    final Accumulator max = Accumulator.create(StandardMethod.MAX, string);
+    for (final Object value : new Object[] { "b", null, "a", "c" }) {
+      min.add(value);
+      max.add(value);
+    }
+    assertEquals("a", min.result());
+    assertEquals("c", max.result());
+  }
+
+  @Test
+  public void minMaxBinary() throws Exception {
+    final CompiledValue binary = compile("PropertyBinary");
+    final Accumulator min = Accumulator.create(StandardMethod.MIN, binary);
+    final Accumulator max = Accumulator.create(StandardMethod.MAX, binary);
+    final Accumulator distinct = Accumulator.create(StandardMethod.COUNT_DISTINCT, binary);
+    for (final byte[] value : new byte[][] { { 1, 2 }, { (byte) 0xFF }, { 1 }, { 1, 2 } }) {
+      min.add(value);
+      max.add(value);
+      distinct.add(value);
+    }
+    assertEquals(1, ((byte[]) min.result()).length);
+    assertEquals((byte) 0xFF, ((byte[]) max.result())[0]);
+    assertEquals(3L, distinct.result());
+  }
+
+  private static CompiledValue compile(final String expression) throws Exception {
+    return CompiledValue.compile(new Parser(edm, odata).parseUri("ESAllPrim", "$orderby=" + expression, null, null)
+        .getOrderByOption().getOrders().get(0).getExpression());
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.apply;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.serializer.EdmAssistedSerializerOptions;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Test;
+
+public class ApplyEngineTest {
+
+  private static final OData odata = OData.newInstance();
+  private static final Edm edm = TestEdmProvider.createServiceMetadata(odata).getEdm();
+
+  private static final List<Entity> DATA = Arrays.asList(
+      entity(1, "A", 10, 1.5, "1.10"),
+      entity(2, "B", 20, 2.5, "2.20"),
+      entity(3, "A", 30, null, "3.30"),
+      entity(4, "C", 40, 4.0, null),
+      entity(5, "B", 50, 5.0, "5.50"),
+      entity(6, null, 60, 6.0, "6.60"));
+
+  @Test
+  public void aggregate() throws Exception {
+    final List<Entity> result = apply("aggregate(PropertyInt32 with sum as s,PropertyInt32 with average as a,"
+        + "PropertyDecimal with max as m,PropertyDouble with min as n,$count as c,"
+        + "PropertyString with countdistinct as d)");
+    assertEquals(1, result.size());
+    assertEquals(210L, value(result.get(0), "s"));
+    assertEquals(0, new BigDecimal(35).compareTo((BigDecimal) value(result.get(0), "a")));
+    assertEquals(new BigDecimal("6.60"), value(result.get(0), "m"));
+    assertEquals(1.5, value(result.get(0), "n"));
+    assertEquals(6L, value(result.get(0), "c"));
+    assertEquals(3L, value(result.get(0), "d"));
+    assertEquals("Edm.Decimal", result.get(0).getProperty("s").getType());
+    assertEquals("Edm.Double", result.get(0).getProperty("n").getType());
+  }
+
+  @Test
+  public void aggregateEmptyInput() throws Exception {
+    final List<Entity> result = apply("filter(PropertyInt32 gt 100)/aggregate(PropertyInt32 with sum as s,"
+        + "PropertyInt32 with max as m,$count as c)");
+    assertEquals(1, result.size());
+    assertEquals(0L, value(result.get(0), "s"));
+    assertNull(value(result.get(0), "m"));
+    assertEquals(0L, value(result.get(0), "c"));
+  }
+
+  @Test
+  public void groupBy() throws Exception {
+    List<Entity> result = apply("groupby((PropertyString),aggregate(PropertyInt32 with sum as s))");
+    assertEquals(Arrays.asList("A", "B", "C", null), values(result, "PropertyString"));
+    assertEquals(Arrays.<Object> asList(40L, 70L, 40L, 60L), values(result, "s"));
+    assertEquals("Edm.String", result.get(0).getProperty("PropertyString").getType());
+
+    result = apply("groupby((PropertyString))");
+    assertEquals(Arrays.asList("A", "B", "C", null), values(result, "PropertyString"));
+    assertEquals(1, result.get(0).getProperties().size());
+
+    result = apply("groupby((PropertyString,PropertyBoolean),aggregate($count as c))");
+    assertEquals(Arrays.<Object> asList(2L, 1L, 1L, 1L, 1L), values(result, "c"));
+  }
+
+  @Test
+  public void groupByWithNestedTransformations() throws Exception {
+    List<Entity> result = apply("groupby((PropertyString),filter(PropertyInt32 gt 20)/aggregate($count as c))");
+    assertEquals(Arrays.asList("A", "B", "C", null), values(result, "PropertyString"));
+    assertEquals(Arrays.<Object> asList(1L, 1L, 1L, 1L), values(result, "c"));
+
+    result = apply("groupby((PropertyString),topcount(1,PropertyInt32))");
+    assertEquals(Arrays.<Object> asList((short) 3, (short) 5, (short) 4, (short) 6), values(result, "PropertyInt16"));
+  }
+
+  @Test
+  public void filterAndCompute() throws Exception {
+    List<Entity> result = apply("filter(PropertyInt32 gt 20 and PropertyString ne 'B')");
+    assertEquals(Arrays.<Object> asList((short) 3, (short) 4, (short) 6), values(result, "PropertyInt16"));
+
+    result = apply("compute(PropertyInt32 mul 2 as d)/filter(d gt 100)");
+    assertEquals(1, result.size());
+    assertEquals(120L, value(result.get(0), "d"));
+    assertEquals("Edm.Int32", result.get(0).getProperty("PropertyInt32").getType());
+    // The input entities are not changed.
+    assertNull(DATA.get(5).getProperty("d"));
+
+    result = apply("filter(startswith(PropertyString,'A') or PropertyDouble eq null)");
+    assertEquals(Arrays.<Object> asList((short) 1, (short) 3), values(result, "PropertyInt16"));
+  }
+
+  @Test
+  public void bottomTop() throws Exception {
+    assertEquals(Arrays.<Object> asList((short) 6, (short) 5),
+        values(apply("topcount(2,PropertyInt32)"), "PropertyInt16"));
+    assertEquals(Arrays.<Object> asList((short) 1, (short) 2),
+        values(apply("bottomcount(2,PropertyDouble)"), "PropertyInt16"));
+    assertEquals(Arrays.<Object> asList((short) 6, (short) 5),
+        values(apply("topsum(100,PropertyInt32)"), "PropertyInt16"));
+    assertEquals(Arrays.<Object> asList((short) 1, (short) 2, (short) 3),
+        values(apply("bottompercent(25,PropertyInt32)"), "PropertyInt16"));
+    assertTrue(apply("topcount(0,PropertyInt32)").isEmpty());
+  }
+
+  @Test
+  public void orderByAndPaging() throws Exception {
+    assertEquals(Arrays.<Object> asList((short) 4, (short) 2),
+        values(apply("orderby(PropertyString desc)/top(2)"), "PropertyInt16"));
+    assertEquals(Arrays.<Object> asList((short) 6, (short) 1),
+        values(apply("orderby(PropertyString)/top(2)"), "PropertyInt16"));
+    assertEquals(Arrays.<Object> asList((short) 5, (short) 6),
+        values(apply("skip(4)"), "PropertyInt16"));
+  }
+
+  @Test
+  public void notImplemented() throws Exception {
+    for (final String apply : Arrays.asList(
+        "aggregate(PropertyInt16 with custom.aggregate as c)",
+        "concat(identity,identity)",
+        "groupby((rollup($all,PropertyString)))",
+        "filter(now() gt PropertyDateTimeOffset)")) {
+      try {
+        apply(apply);
+        fail("Expected an exception for " + apply);
+      } catch (final ODataApplicationException e) {
+        assertEquals(apply, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+      }
+    }
+  }
+
+  @Test
+  public void badRequest() throws Exception {
+    for (final String apply : Arrays.asList(
+        "aggregate(PropertyString with sum as s)",
+        "aggregate(PropertyGeographyPoint with max as m)",
+        "bottomcount(-1,PropertyInt32)")) {
+      try {
+        apply(apply);
+        fail("Expected an exception for " + apply);
+      } catch (final ODataApplicationException e) {
+        assertEquals(apply, HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+      }
+    }
+  }
+
+  @Test
+  public void parallel() throws Exception {
+    final List<Entity> entities = new ArrayList<>();
+    for (int index = 0; index < 10000; index++) {
+      entities.add(entity(index, "S" + index % 37, index * 7 % 1000, null,
+          index % 11 == 0 ? null : BigDecimal.valueOf(index % 97, 2).toString()));
+    }
+    final ApplyOption option = parse("filter(PropertyInt32 ne 0)/groupby((PropertyString),"
+        + "aggregate(PropertyInt32 with sum as s,PropertyDecimal with average as a,PropertyDecimal with min as m,"
+        + "PropertyInt32 with countdistinct as d,$count as c))");
+    final EntityCollection expected = new ApplyEngine().apply(option, entities.iterator());
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final EntityCollection actual = new ApplyEngine(executor, 128).apply(option, entities.iterator());
+      assertEquals(37, actual.getEntities().size());
+      for (final String name : Arrays.asList("PropertyString", "s", "a", "m", "d", "c")) {
+        assertEquals(values(expected.getEntities(), name), values(actual.getEntities(), name));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void serialize() throws Exception {
+    final EntityCollection result = new ApplyEngine().apply(
+        parse("groupby((PropertyString),aggregate(PropertyDecimal with sum as s))"), DATA.iterator());
+    final InputStream content = odata.createEdmAssistedSerializer(ContentType.JSON_NO_METADATA)
+        .entityCollection(null, null, result, EdmAssistedSerializerOptions.with().build())
+        .getContent();
+    assertEquals("{\"value\":["
+        + "{\"PropertyString\":\"A\",\"s\":4.40},"
+        + "{\"PropertyString\":\"B\",\"s\":7.70},"
+        + "{\"PropertyString\":\"C\",\"s\":0},"
+        + "{\"PropertyString\":null,\"s\":6.60}]}",
+        IOUtils.toString(content, "UTF-8"));
+  }
+
+  private static List<Entity> apply(final String apply) throws Exception {
+    return new ApplyEngine().apply(parse(apply), DATA.iterator()).getEntities();
+  }
+
+  private static ApplyOption parse(final String apply) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, odata).parseUri("ESAllPrim", "$apply=" + apply, null, null);
+    return uriInfo.getApplyOption();
+  }
+
+  private static Entity entity(final int key, final String string, final int int32, final Double number,
+      final String decimal) {
+    return new Entity()
+        .addProperty(new Property("Edm.Int16", "PropertyInt16", ValueType.PRIMITIVE, (short) key))
+        .addProperty(new Property("Edm.String", "PropertyString", ValueType.PRIMITIVE, string))
+        .addProperty(new Property("Edm.Boolean", "PropertyBoolean", ValueType.PRIMITIVE, key % 2 == 0))
+        .addProperty(new Property("Edm.Int32", "PropertyInt32", ValueType.PRIMITIVE, int32))
+        .addProperty(new Property("Edm.Double", "PropertyDouble", ValueType.PRIMITIVE, number))
+        .addProperty(new Property("Edm.Decimal", "PropertyDecimal", ValueType.PRIMITIVE,
+            decimal == null ? null : new BigDecimal(decimal)));
+  }
+
+  private static Object value(final Entity entity, final String name) {
+    final Property property = entity.getProperty(name);
+    return property == null ? null : property.getValue();
+  }
+
+  private static List<Object> values(final List<Entity> entities, final String name) {
+    final List<Object> values = new ArrayList<>();
+    for (final Entity entity : entities) {
+      values.add(value(entity, name));
+    }
+    return values;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.batchhandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.batch.ParallelBatchSupport;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.core.ODataHandlerImpl;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchFacadeImplTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void getRequestsRunConcurrently() throws Exception {
+    // Each GET waits until all three are running, so this only completes if they run concurrently.
+    final CountDownLatch running = new CountDownLatch(3);
+    final TestHandler handler = new TestHandler(running, new AtomicInteger());
+    final BatchFacadeImpl facade = new BatchFacadeImpl(handler, null, true, support(3));
+
+    final List<ODataResponsePart> responses = facade.handleBatchRequests(
+        Arrays.asList(part(HttpMethod.GET, "1"), part(HttpMethod.GET, "2"), part(HttpMethod.GET, "3")), false);
+
+    assertEquals(3, responses.size());
+    assertEquals("1", contentId(responses.get(0)));
+    assertEquals("2", contentId(responses.get(1)));
+    assertEquals("3", contentId(responses.get(2)));
+  }
+
+  @Test
+  public void otherRequestsAreBarriers() throws Exception {
+    final AtomicInteger completed = new AtomicInteger();
+    final List<Integer> completedBeforeDelete = new ArrayList<>();
+    final TestHandler handler = new TestHandler(null, completed) {
+      @Override
+      public ODataResponse process(final ODataRequest request) {
+        if (request.getMethod() == HttpMethod.DELETE) {
+          completedBeforeDelete.add(completed.get());
+        }
+        return super.process(request);
+      }
+    };
+    final BatchFacadeImpl facade = new BatchFacadeImpl(handler, null, true, support(4));
+
+    final List<ODataResponsePart> responses = facade.handleBatchRequests(
+        Arrays.asList(part(HttpMethod.GET, "1"), part(HttpMethod.GET, "2"), part(HttpMethod.DELETE, "3"),
+            part(HttpMethod.GET, "4"), part(HttpMethod.GET, "5")), true);
+
+    assertEquals(5, responses.size());
+    assertEquals(Arrays.asList(2), completedBeforeDelete);
+    for (int i = 0; i < responses.size(); i++) {
+      assertEquals(String.valueOf(i + 1), contentId(responses.get(i)));
+    }
+  }
+
+  @Test
+  public void stopsAtFirstFailure() throws Exception {
+    final TestHandler handler = new TestHandler(null, new AtomicInteger());
+    final BatchFacadeImpl facade = new BatchFacadeImpl(handler, null, true, support(2));
+
+    final List<ODataResponsePart> responses = facade.handleBatchRequests(
+        Arrays.asList(part(HttpMethod.GET, "1"), part(HttpMethod.GET, "fail"), part(HttpMethod.GET, "3")), false);
+
+    assertEquals(2, responses.size());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(),
+        responses.get(1).getResponses().get(0).getStatusCode());
+  }
+
+  @Test
+  public void rejectedTasksRunOnCallingThread() throws Exception {
+    final TestHandler handler = new TestHandler(null, new AtomicInteger());
+    final ParallelBatchSupport support = new ParallelBatchSupport() {
+      @Override
+      public Executor getExecutor() {
+        return new Executor() {
+          @Override
+          public void execute(final Runnable command) {
+            throw new RejectedExecutionException();
+          }
+        };
+      }
+
+      @Override
+      public int getMaxParallelRequests() {
+        return 4;
+      }
+    };
+    final BatchFacadeImpl facade = new BatchFacadeImpl(handler, null, true, support);
+
+    final List<ODataResponsePart> responses = facade.handleBatchRequests(
+        Arrays.asList(part(HttpMethod.GET, "1"), part(HttpMethod.GET, "2")), false);
+
+    assertEquals(2, responses.size());
+    assertTrue(handler.threads.contains(Thread.currentThread()));
+    assertEquals(1, handler.threads.size());
+  }
+
+  private ParallelBatchSupport support(final int maxParallelRequests) {
+    return new ParallelBatchSupport() {
+      @Override
+      public Executor getExecutor() {
+        return executor;
+      }
+
+      @Override
+      public int getMaxParallelRequests() {
+        return maxParallelRequests;
+      }
+    };
+  }
+
+  private static BatchRequestPart part(final HttpMethod method, final String contentId) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawODataPath("/ESAllPrim");
+    request.setHeader(HttpHeader.CONTENT_ID, contentId);
+    return new BatchRequestPart(false, request);
+  }
+
+  private static String contentId(final ODataResponsePart part) {
+    return part.getResponses().get(0).getHeader(HttpHeader.CONTENT_ID);
+  }
+
+  private static class TestHandler extends ODataHandlerImpl {
+    private final CountDownLatch running;
+    private final AtomicInteger completed;
+    private final List<Thread> threads;
+
+    TestHandler(final CountDownLatch running, final AtomicInteger completed) {
+      this(running, completed, new CopyOnWriteArrayList<Thread>());
+    }
+
+    private TestHandler(final CountDownLatch running, final AtomicInteger completed, final List<Thread> threads) {
+      super(OData.newInstance(), null, new ServerCoreDebugger(OData.newInstance()));
+      this.running = running;
+      this.completed = completed;
+      this.threads = threads;
+    }
+
+    @Override
+    public ODataHandlerImpl copy() {
+      final TestHandler outer = this;
+      return new TestHandler(running, completed, threads) {
+        @Override
+        public ODataResponse process(final ODataRequest request) {
+          return outer.process(request);
+        }
+      };
+    }
+
+    @Override
+    public ODataResponse process(final ODataRequest request) {
+      if (!threads.contains(Thread.currentThread())) {
+        threads.add(Thread.currentThread());
+      }
+      if (running != null) {
+        running.countDown();
+        try {
+          assertTrue(running.await(10, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      final ODataResponse response = new ODataResponse();
+      response.setStatusCode("fail".equals(request.getHeader(HttpHeader.CONTENT_ID)) ?
+          HttpStatusCode.NOT_FOUND.getStatusCode() : HttpStatusCode.OK.getStatusCode());
+      completed.incrementAndGet();
+      return response;
+    }
+  }
+}
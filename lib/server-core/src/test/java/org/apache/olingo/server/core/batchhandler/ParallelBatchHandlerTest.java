@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.batchhandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.batch.ParallelBatchSupport;
+import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.processor.EntityCollectionProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.ODataHandlerImpl;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Processes batch requests through the handler with {@link ParallelBatchSupport} registered. */
+public class ParallelBatchHandlerTest {
+
+  private static final String NAMESPACE = "Namespace";
+  private static final String BOUNDARY = "batch_12345";
+  private static final String CRLF = "\r\n";
+
+  private ExecutorService executor;
+  private final Set<Thread> threads = new CopyOnWriteArraySet<Thread>();
+  private List<ODataResponsePart> responseParts;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void getPartsRunConcurrently() throws Exception {
+    // Each GET waits until all three are running, so this only completes if they run concurrently.
+    final CountDownLatch running = new CountDownLatch(3);
+    final ODataResponse response = process(running, getPart() + getPart() + getPart() + "--" + BOUNDARY + "--");
+
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    assertEquals(3, responseParts.size());
+    for (final ODataResponsePart responsePart : responseParts) {
+      assertEquals(HttpStatusCode.OK.getStatusCode(), responsePart.getResponses().get(0).getStatusCode());
+    }
+    assertEquals(3, threads.size());
+  }
+
+  @Test
+  public void malformedPartKeepsPreviousResponses() throws Exception {
+    final ODataResponse response = process(null, getPart() + getPart()
+        + "--" + BOUNDARY + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF
+        + CRLF
+        + "INVALID REQUEST LINE" + CRLF
+        + CRLF
+        + "--" + BOUNDARY + "--");
+
+    assertEquals(HttpStatusCode.ACCEPTED.getStatusCode(), response.getStatusCode());
+    assertEquals(3, responseParts.size());
+    assertEquals(HttpStatusCode.OK.getStatusCode(), responseParts.get(0).getResponses().get(0).getStatusCode());
+    assertEquals(HttpStatusCode.OK.getStatusCode(), responseParts.get(1).getResponses().get(0).getStatusCode());
+    final ODataResponse errorResponse = responseParts.get(2).getResponses().get(0);
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), errorResponse.getStatusCode());
+    assertNotNull(errorResponse.getContent());
+  }
+
+  private ODataResponse process(final CountDownLatch running, final String content) throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(new Provider(),
+        Collections.<EdmxReference> emptyList());
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(new TestBatchProcessor());
+    handler.register(new TestEntityCollectionProcessor(running));
+    handler.register(new ParallelBatchSupport() {
+      @Override
+      public Executor getExecutor() {
+        return executor;
+      }
+
+      @Override
+      public int getMaxParallelRequests() {
+        return 3;
+      }
+    });
+
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.POST);
+    request.setRawBaseUri("http://localhost/service");
+    request.setRawODataPath("/$batch");
+    request.setRawQueryPath("");
+    request.setRawRequestUri("http://localhost/service/$batch");
+    request.setRawServiceResolutionUri("");
+    request.addHeader(HttpHeader.CONTENT_TYPE, "multipart/mixed;boundary=" + BOUNDARY);
+    request.setBody(new ByteArrayInputStream(content.getBytes("UTF-8")));
+    return handler.process(request);
+  }
+
+  private static String getPart() {
+    return "--" + BOUNDARY + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF
+        + CRLF
+        + "GET ESItems HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF;
+  }
+
+  private class TestBatchProcessor implements BatchProcessor {
+    private OData odata;
+
+    @Override
+    public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+      this.odata = odata;
+    }
+
+    @Override
+    public void processBatch(final BatchFacade facade, final ODataRequest request, final ODataResponse response)
+        throws ODataApplicationException, ODataLibraryException {
+      final BatchRequestPartIterator parts = odata.createFixedFormatDeserializer().streamBatchRequest(
+          request.getBody(), facade.extractBoundaryFromContentType(request.getHeader(HttpHeader.CONTENT_TYPE)),
+          BatchOptions.with().rawBaseUri(request.getRawBaseUri()).build());
+      try {
+        responseParts = facade.handleBatchRequests(parts, false);
+      } finally {
+        try {
+          parts.close();
+        } catch (final IOException e) {
+          // ignored
+        }
+      }
+      response.setStatusCode(HttpStatusCode.ACCEPTED.getStatusCode());
+    }
+
+    @Override
+    public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private class TestEntityCollectionProcessor implements EntityCollectionProcessor {
+    private final CountDownLatch running;
+
+    TestEntityCollectionProcessor(final CountDownLatch running) {
+      this.running = running;
+    }
+
+    @Override
+    public void init(final OData odata, final ServiceMetadata serviceMetadata) {}
+
+    @Override
+    public void readEntityCollection(final ODataRequest request, final ODataResponse response,
+        final UriInfo uriInfo, final ContentType responseFormat) {
+      threads.add(Thread.currentThread());
+      if (running != null) {
+        running.countDown();
+        try {
+          assertTrue(running.await(10, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    }
+  }
+
+  private static final class Provider extends CsdlAbstractEdmProvider {
+    private static final FullQualifiedName ITEM = new FullQualifiedName(NAMESPACE, "Item");
+    private static final FullQualifiedName CONTAINER = new FullQualifiedName(NAMESPACE, "Container");
+
+    @Override
+    public List<CsdlSchema> getSchemas() {
+      return Collections.singletonList(new CsdlSchema().setNamespace(NAMESPACE)
+          .setEntityTypes(Collections.singletonList(getEntityType(ITEM)))
+          .setEntityContainer(getEntityContainer()));
+    }
+
+    @Override
+    public CsdlEntityType getEntityType(final FullQualifiedName entityTypeName) {
+      return ITEM.equals(entityTypeName) ?
+          new CsdlEntityType().setName(ITEM.getName())
+              .setKey(Collections.singletonList(new CsdlPropertyRef().setName("Id")))
+              .setProperties(Collections.singletonList(new CsdlProperty().setName("Id")
+                  .setType(EdmPrimitiveTypeKind.Int32.getFullQualifiedName()).setNullable(false))) :
+          null;
+    }
+
+    @Override
+    public CsdlEntitySet getEntitySet(final FullQualifiedName entityContainer, final String entitySetName) {
+      return "ESItems".equals(entitySetName) ? new CsdlEntitySet().setName("ESItems").setType(ITEM) : null;
+    }
+
+    @Override
+    public CsdlEntityContainer getEntityContainer() {
+      return new CsdlEntityContainer().setName(CONTAINER.getName())
+          .setEntitySets(Collections.singletonList(getEntitySet(CONTAINER, "ESItems")));
+    }
+
+    @Override
+    public CsdlEntityContainerInfo getEntityContainerInfo(final FullQualifiedName name) {
+      return new CsdlEntityContainerInfo().setContainerName(CONTAINER);
+    }
+  }
+}
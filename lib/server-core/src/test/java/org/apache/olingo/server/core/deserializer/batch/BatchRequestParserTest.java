@@ -32,6 +32,7 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -460,6 +461,55 @@ public class BatchRequestParserTest {
     parseInvalidBatchBody(batch, BatchDeserializerException.MessageKeys.MISSING_CLOSE_DELIMITER);
   }
 
+  @Test
+  public void streamParts() throws Exception {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + "--";
+    final byte[] content = batch.getBytes("ISO-8859-1");
+    final int[] maxPosition = { 0 };
+    final InputStream in = new ByteArrayInputStream(content) {
+      @Override
+      public synchronized int read(final byte[] b, final int off, final int len) {
+        final int count = super.read(b, off, Math.min(len, 16));
+        maxPosition[0] = pos;
+        return count;
+      }
+    };
+
+    final BatchRequestPartIterator parts = new BatchParser().streamBatchRequest(in, BOUNDARY,
+        BatchOptions.with().isStrict(true).rawBaseUri(SERVICE_ROOT).build());
+    Assert.assertTrue(parts.hasNext());
+    Assert.assertEquals(HttpMethod.GET, parts.next().getRequests().get(0).getMethod());
+    // The second part has not been read completely yet.
+    Assert.assertTrue(maxPosition[0] < batch.lastIndexOf(HttpMethod.GET.name()));
+
+    Assert.assertTrue(parts.hasNext());
+    parts.next();
+    Assert.assertFalse(parts.hasNext());
+    parts.close();
+  }
+
+  @Test
+  public void streamPartsReportsErrorsLazily() throws Exception {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + GET_REQUEST;
+
+    final BatchRequestPartIterator parts = new BatchParser().streamBatchRequest(IOUtils.toInputStream(batch),
+        BOUNDARY, BatchOptions.with().isStrict(true).rawBaseUri(SERVICE_ROOT).build());
+    Assert.assertNotNull(parts.next());
+    try {
+      parts.hasNext();
+      Assert.fail("Expected exception not thrown.");
+    } catch (final BatchDeserializerException e) {
+      Assert.assertEquals(MessageKeys.MISSING_CLOSE_DELIMITER, e.getMessageKey());
+    }
+  }
+
   @Test
   public void emptyRequest() throws Exception {
     final String batch = "--" + BOUNDARY + "--";
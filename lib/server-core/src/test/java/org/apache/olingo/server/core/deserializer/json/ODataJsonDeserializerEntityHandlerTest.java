@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.deserializer.EntityHandler;
+import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.junit.Test;
+
+public class ODataJsonDeserializerEntityHandlerTest {
+
+  private static final String COLLECTION = "{"
+      + "\"@odata.context\":\"$metadata#ESAllPrim\","
+      + "\"value\":["
+      + "{\"PropertyInt16\":32767,\"PropertyString\":\"First Resource - positive values\"},"
+      + "{\"PropertyInt16\":-32768,\"PropertyString\":\"Second Resource - negative values\"},"
+      + "{\"PropertyInt16\":0,\"PropertyString\":\"\"}"
+      + "],"
+      + "\"@odata.nextLink\":\"ESAllPrim?$skiptoken=3\""
+      + "}";
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata metadata = TestEdmProvider.createServiceMetadata(odata);
+  private final EdmEntityType entityType = metadata.getEdm().getEntityType(TestEdmProvider.ET_ALL_PRIM);
+
+  @Test
+  public void entityHandler() throws Exception {
+    final List<Entity> entities = new ArrayList<Entity>();
+    deserializer().entityCollection(stream(COLLECTION), entityType, new EntityHandler() {
+      @Override
+      public void handle(final Entity entity) {
+        entities.add(entity);
+      }
+    });
+    assertEquals(3, entities.size());
+    assertEquals(Short.valueOf((short) 32767), entities.get(0).getProperty("PropertyInt16").getValue());
+    assertEquals("", entities.get(2).getProperty("PropertyString").getValue());
+  }
+
+  @Test
+  public void entityHandlerReceivesEntitiesWhileReading() throws Exception {
+    final List<Entity> entities = new ArrayList<Entity>();
+    try {
+      deserializer().entityCollection(stream("{\"value\":[{\"PropertyInt16\":1},{\"PropertyInt16\":"), entityType,
+          new EntityHandler() {
+            @Override
+            public void handle(final Entity entity) {
+              entities.add(entity);
+            }
+          });
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION, e.getMessageKey());
+    }
+    assertEquals(1, entities.size());
+  }
+
+  @Test
+  public void entityHandlerStopsReading() throws Exception {
+    final List<Entity> entities = new ArrayList<Entity>();
+    try {
+      deserializer().entityCollection(stream(COLLECTION), entityType, new EntityHandler() {
+        @Override
+        public void handle(final Entity entity) throws ODataApplicationException {
+          entities.add(entity);
+          throw new ODataApplicationException("Conflict", HttpStatusCode.CONFLICT.getStatusCode(), null);
+        }
+      });
+      fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.CONFLICT.getStatusCode(), e.getStatusCode());
+    }
+    assertEquals(1, entities.size());
+  }
+
+  @Test
+  public void entityCollectionWithoutHandler() throws Exception {
+    final List<Entity> entities = deserializer().entityCollection(stream(COLLECTION), entityType)
+        .getEntityCollection().getEntities();
+    assertEquals(3, entities.size());
+    assertEquals(Short.valueOf((short) -32768), entities.get(1).getProperty("PropertyInt16").getValue());
+  }
+
+  private ODataDeserializer deserializer() throws DeserializerException {
+    return odata.createDeserializer(ContentType.JSON, metadata);
+  }
+
+  private static InputStream stream(final String content) {
+    return new ByteArrayInputStream(content.getBytes());
+  }
+}
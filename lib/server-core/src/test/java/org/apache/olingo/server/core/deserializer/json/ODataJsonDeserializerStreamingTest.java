@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Parameter;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmAction;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmParameter;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.junit.Test;
+
+public class ODataJsonDeserializerStreamingTest {
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata metadata = TestEdmProvider.createServiceMetadata(odata);
+  private final EdmEntityType allPrim = metadata.getEdm().getEntityType(TestEdmProvider.ET_ALL_PRIM);
+  private final EdmEntityType twoPrim = metadata.getEdm().getEntityType(TestEdmProvider.ET_TWO_PRIM);
+
+  @Test
+  public void entityPropertiesAreInTypeOrder() throws Exception {
+    final Entity entity = deserializer().entity(stream("{"
+        + "\"PropertyString\":\"First\",\"CollPropertyString\":[\"a\",\"b\"],"
+        + "\"PropertyComp\":{\"PropertyInt16\":1,\"PropertyString\":\"c\"},"
+        + "\"PropertyInt16\":1,\"@odata.type\":\"#Namespace.ETAllPrim\"}"), allPrim)
+        .getEntity();
+    assertEquals("Namespace.ETAllPrim", entity.getType());
+    assertEquals(4, entity.getProperties().size());
+    assertEquals("PropertyInt16", entity.getProperties().get(0).getName());
+    assertEquals("PropertyString", entity.getProperties().get(1).getName());
+    assertEquals(Arrays.asList("a", "b"), entity.getProperty("CollPropertyString").getValue());
+    assertEquals(ValueType.COMPLEX, entity.getProperty("PropertyComp").getValueType());
+  }
+
+  @Test
+  public void entityWithDuplicateProperty() throws Exception {
+    expectError("{\"PropertyInt16\":1,\"PropertyString\":\"a\",\"PropertyInt16\":2}",
+        DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
+  }
+
+  @Test
+  public void entityWithNullForNonNullableProperty() throws Exception {
+    expectError("{\"PropertyInt16\":null}", DeserializerException.MessageKeys.INVALID_NULL_PROPERTY);
+  }
+
+  @Test
+  public void entityWithUnknownContent() throws Exception {
+    expectError("{\"PropertyInt16\":1,\"Unknown\":[1,2]}", DeserializerException.MessageKeys.UNKNOWN_CONTENT);
+  }
+
+  @Test
+  public void entityWithoutObject() throws Exception {
+    expectError("[{\"PropertyInt16\":1}]", DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+  }
+
+  @Test
+  public void entityCollectionParameter() throws Exception {
+    final EdmAction action = mockAction();
+    final Map<String, Parameter> parameters = deserializer().actionParameters(stream("{"
+        + "\"ParameterInt16\":42,"
+        + "\"ParameterETTwoPrim\":[{\"PropertyInt16\":1,\"PropertyString\":\"a\"},{\"PropertyInt16\":2}],"
+        + "\"@odata.context\":\"$metadata#Namespace.Action\"}"), action)
+        .getActionParameters();
+    assertEquals(Arrays.asList("ParameterInt16", "ParameterETTwoPrim"),
+        Arrays.asList(parameters.keySet().toArray()));
+    assertEquals(Short.valueOf((short) 42), parameters.get("ParameterInt16").getValue());
+    final Parameter collection = parameters.get("ParameterETTwoPrim");
+    assertEquals(ValueType.COLLECTION_ENTITY, collection.getValueType());
+    final List<Entity> entities = ((EntityCollection) collection.getValue()).getEntities();
+    assertEquals(2, entities.size());
+    assertEquals("a", entities.get(0).getProperty("PropertyString").getValue());
+    assertEquals(Short.valueOf((short) 2), entities.get(1).getProperty("PropertyInt16").getValue());
+  }
+
+  @Test
+  public void entityCollectionParameterWithPrimitiveElement() throws Exception {
+    try {
+      deserializer().actionParameters(stream("{\"ParameterETTwoPrim\":[{\"PropertyInt16\":1},2]}"),
+          mockAction());
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(DeserializerException.MessageKeys.INVALID_ENTITY, e.getMessageKey());
+    }
+  }
+
+  @Test
+  public void missingParameter() throws Exception {
+    final Map<String, Parameter> parameters = deserializer().actionParameters(
+        stream("{\"ParameterETTwoPrim\":[]}"), mockAction()).getActionParameters();
+    assertEquals(2, parameters.size());
+    assertNull(parameters.get("ParameterInt16").getValue());
+    assertTrue(((EntityCollection) parameters.get("ParameterETTwoPrim").getValue()).getEntities().isEmpty());
+  }
+
+  @Test
+  public void duplicateParameter() throws Exception {
+    try {
+      deserializer().actionParameters(stream("{\"ParameterInt16\":1,\"ParameterInt16\":2}"), mockAction());
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(DeserializerException.MessageKeys.DUPLICATE_PROPERTY, e.getMessageKey());
+    }
+  }
+
+  private EdmAction mockAction() {
+    final EdmParameter int16 = mock(EdmParameter.class);
+    when(int16.getName()).thenReturn("ParameterInt16");
+    when(int16.getType()).thenReturn(EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int16));
+    when(int16.isNullable()).thenReturn(true);
+    final EdmParameter entities = mock(EdmParameter.class);
+    when(entities.getName()).thenReturn("ParameterETTwoPrim");
+    when(entities.getType()).thenReturn(twoPrim);
+    when(entities.isCollection()).thenReturn(true);
+    final EdmAction action = mock(EdmAction.class);
+    when(action.getParameterNames()).thenReturn(Arrays.asList("ParameterInt16", "ParameterETTwoPrim"));
+    when(action.getParameter("ParameterInt16")).thenReturn(int16);
+    when(action.getParameter("ParameterETTwoPrim")).thenReturn(entities);
+    return action;
+  }
+
+  private void expectError(final String content, final DeserializerException.MessageKeys messageKey) {
+    try {
+      deserializer().entity(stream(content), allPrim);
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(messageKey, e.getMessageKey());
+    }
+  }
+
+  private ODataDeserializer deserializer() throws DeserializerException {
+    return odata.createDeserializer(ContentType.JSON, metadata);
+  }
+
+  private static InputStream stream(final String content) {
+    return new ByteArrayInputStream(content.getBytes());
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.expand;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.expand.NavigationLoader;
+import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
+import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Test;
+
+public class ExpandResolverImplTest {
+
+  private static final OData odata = OData.newInstance();
+  private static final ServiceMetadata metadata = TestEdmProvider.createServiceMetadata(odata);
+  private static final EdmEntityType ET_ALL_PRIM = metadata.getEdm().getEntityType(TestEdmProvider.ET_ALL_PRIM);
+
+  /** Creates two related entities per parent and records the calls. */
+  private static final class RecordingLoader implements NavigationLoader {
+    private final List<String> calls = new ArrayList<String>();
+    private int nextKey = 100;
+
+    @Override
+    public List<EntityCollection> load(final EdmNavigationProperty navigationProperty, final List<Entity> parents,
+        final ExpandItem expandItem) {
+      calls.add(navigationProperty.getName() + ":" + parents.size());
+      final List<EntityCollection> result = new ArrayList<EntityCollection>();
+      for (int index = 0; index < parents.size(); index++) {
+        final EntityCollection related = new EntityCollection();
+        for (int count = navigationProperty.isCollection() ? 2 : 1; count > 0; count--) {
+          related.getEntities().add(entity(nextKey++));
+        }
+        result.add(related);
+      }
+      return result;
+    }
+  }
+
+  @Test
+  public void loadsEachLevelOnce() throws Exception {
+    final List<Entity> entities = Arrays.asList(entity(1), entity(2), entity(3));
+    final RecordingLoader loader = new RecordingLoader();
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, entities,
+        expand("NavPropertyETTwoPrimMany($expand=NavPropertyETAllPrimOne,NavPropertyETAllPrimMany),"
+            + "NavPropertyETTwoPrimOne"),
+        loader);
+
+    assertEquals(Arrays.asList("NavPropertyETTwoPrimMany:3", "NavPropertyETAllPrimOne:6",
+        "NavPropertyETAllPrimMany:6", "NavPropertyETTwoPrimOne:3"), loader.calls);
+    final Link link = entities.get(0).getNavigationLink("NavPropertyETTwoPrimMany");
+    assertEquals(2, link.getInlineEntitySet().getEntities().size());
+    assertEquals("http://host/ESAllPrim(1)/NavPropertyETTwoPrimMany", link.getHref());
+    final Entity child = link.getInlineEntitySet().getEntities().get(0);
+    assertNotNull(child.getNavigationLink("NavPropertyETAllPrimOne").getInlineEntity());
+    assertEquals(2, child.getNavigationLink("NavPropertyETAllPrimMany").getInlineEntitySet().getEntities().size());
+    assertNotNull(entities.get(2).getNavigationLink("NavPropertyETTwoPrimOne").getInlineEntity());
+  }
+
+  @Test
+  public void sharedEntitiesAndMissingResults() throws Exception {
+    final Entity shared = entity(10);
+    final Link existing = new Link();
+    existing.setTitle("NavPropertyETTwoPrimOne");
+    existing.setHref("ESTwoPrim(10)");
+    final Entity first = entity(1);
+    first.getNavigationLinks().add(existing);
+    final List<Entity> entities = Arrays.asList(first, entity(2), entity(3));
+    final List<String> calls = new ArrayList<String>();
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, entities,
+        expand("NavPropertyETTwoPrimOne($expand=NavPropertyETAllPrimMany/$count)"),
+        new NavigationLoader() {
+          @Override
+          public List<EntityCollection> load(final EdmNavigationProperty navigationProperty,
+              final List<Entity> parents, final ExpandItem expandItem) {
+            calls.add(navigationProperty.getName() + ":" + parents.size());
+            if (navigationProperty.isCollection()) {
+              return Collections.singletonList(new EntityCollection());
+            }
+            final EntityCollection related = new EntityCollection();
+            related.getEntities().add(shared);
+            return Arrays.asList(related, related, null);
+          }
+        });
+
+    assertEquals(Arrays.asList("NavPropertyETTwoPrimOne:3", "NavPropertyETAllPrimMany:1"), calls);
+    assertSame(shared, first.getNavigationLink("NavPropertyETTwoPrimOne").getInlineEntity());
+    assertEquals("ESTwoPrim(10)", first.getNavigationLink("NavPropertyETTwoPrimOne").getHref());
+    assertEquals(1, first.getNavigationLinks().size());
+    assertNull("The existing link must not be changed.", existing.getInlineEntity());
+    assertNull(entities.get(2).getNavigationLink("NavPropertyETTwoPrimOne").getInlineEntity());
+    assertEquals(Integer.valueOf(0),
+        shared.getNavigationLink("NavPropertyETAllPrimMany").getInlineEntitySet().getCount());
+  }
+
+  @Test
+  public void sharedEntityOnSeveralExpandPaths() throws Exception {
+    final Entity shared = entity(10);
+    final Entity first = entity(1);
+    final List<String> calls = new ArrayList<String>();
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, Collections.singletonList(first),
+        expand("NavPropertyETTwoPrimOne($expand=NavPropertyETAllPrimOne),"
+            + "NavPropertyETTwoPrimMany($expand=NavPropertyETAllPrimMany)"),
+        new NavigationLoader() {
+          @Override
+          public List<EntityCollection> load(final EdmNavigationProperty navigationProperty,
+              final List<Entity> parents, final ExpandItem expandItem) {
+            calls.add(navigationProperty.getName() + ":" + parents.size());
+            final List<EntityCollection> result = new ArrayList<EntityCollection>();
+            for (int index = 0; index < parents.size(); index++) {
+              final EntityCollection related = new EntityCollection();
+              related.getEntities().add(navigationProperty.getName().startsWith("NavPropertyETTwoPrim") ?
+                  shared : entity(20 + calls.size()));
+              result.add(related);
+            }
+            return result;
+          }
+        });
+
+    assertEquals(Arrays.asList("NavPropertyETTwoPrimOne:1", "NavPropertyETAllPrimOne:1",
+        "NavPropertyETTwoPrimMany:1", "NavPropertyETAllPrimMany:1"), calls);
+    final Entity one = first.getNavigationLink("NavPropertyETTwoPrimOne").getInlineEntity();
+    final Entity many = first.getNavigationLink("NavPropertyETTwoPrimMany").getInlineEntitySet().getEntities().get(0);
+    assertSame(shared, one);
+    assertNotSame(shared, many);
+    assertEquals(shared.getId(), many.getId());
+    assertSame(shared.getProperty("PropertyInt16"), many.getProperty("PropertyInt16"));
+    assertNotNull(one.getNavigationLink("NavPropertyETAllPrimOne").getInlineEntity());
+    assertNull(one.getNavigationLink("NavPropertyETAllPrimMany"));
+    assertEquals(1, many.getNavigationLink("NavPropertyETAllPrimMany").getInlineEntitySet().getEntities().size());
+  }
+
+  @Test
+  public void expandAll() throws Exception {
+    final RecordingLoader loader = new RecordingLoader();
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, Arrays.asList(entity(1), entity(2)), expand("*"), loader);
+    assertEquals(Arrays.asList("NavPropertyETTwoPrimOne:2", "NavPropertyETTwoPrimMany:2"), loader.calls);
+
+    loader.calls.clear();
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, Collections.<Entity> emptyList(), expand("*"), loader);
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, Arrays.asList(entity(1)), null, loader);
+    assertTrue(loader.calls.isEmpty());
+  }
+
+  @Test
+  public void errors() throws Exception {
+    try {
+      new ExpandResolverImpl().resolve(ET_ALL_PRIM, Arrays.asList(entity(1)),
+          expand("NavPropertyETTwoPrimMany($levels=2)"), new RecordingLoader());
+      fail("Expected an exception.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+    try {
+      new ExpandResolverImpl().resolve(ET_ALL_PRIM, Arrays.asList(entity(1), entity(2)),
+          expand("NavPropertyETTwoPrimMany"), new NavigationLoader() {
+            @Override
+            public List<EntityCollection> load(final EdmNavigationProperty navigationProperty,
+                final List<Entity> parents, final ExpandItem expandItem) {
+              return Collections.singletonList(new EntityCollection());
+            }
+          });
+      fail("Expected an exception.");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void serialize() throws Exception {
+    final EntityCollection entitySet = new EntityCollection();
+    entitySet.getEntities().add(entity(1));
+    final ExpandOption expand = expand("NavPropertyETTwoPrimOne");
+    new ExpandResolverImpl().resolve(ET_ALL_PRIM, entitySet.getEntities(), expand, new RecordingLoader());
+    final String json = IOUtils.toString(odata.createSerializer(ContentType.JSON_NO_METADATA)
+        .entityCollection(metadata, ET_ALL_PRIM, entitySet,
+            EntityCollectionSerializerOptions.with()
+                .contextURL(ContextURL.with().entitySet(metadata.getEdm().getEntityContainer()
+                    .getEntitySet("ESAllPrim")).build())
+                .expand(expand).build())
+        .getContent(), "UTF-8");
+    assertTrue(json, json.contains("\"NavPropertyETTwoPrimOne\":{\"PropertyInt16\":100,\"PropertyString\":null}"));
+  }
+
+  private static ExpandOption expand(final String expand) throws Exception {
+    return new Parser(metadata.getEdm(), odata).parseUri("ESAllPrim", "$expand=" + expand, null, null)
+        .getExpandOption();
+  }
+
+  private static Entity entity(final int key) {
+    final Entity entity = new Entity()
+        .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) key));
+    entity.setId(URI.create("http://host/ESAllPrim(" + key + ")"));
+    return entity;
+  }
+}
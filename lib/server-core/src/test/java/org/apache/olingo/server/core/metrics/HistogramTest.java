@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.olingo.server.core.metrics.Histogram.Snapshot;
+import org.junit.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void empty() {
+    final Snapshot snapshot = new Histogram().snapshot();
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getMax());
+    assertEquals(0, snapshot.getMean(), 0);
+    assertEquals(0, snapshot.getPercentile(99));
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    final Histogram histogram = new Histogram();
+    for (int value = 1; value <= 10; value++) {
+      histogram.record(value);
+    }
+    histogram.record(-5);
+    final Snapshot snapshot = histogram.snapshot();
+    assertEquals(11, snapshot.getCount());
+    assertEquals(55, snapshot.getSum());
+    assertEquals(5, snapshot.getMean(), 0);
+    assertEquals(10, snapshot.getMax());
+    assertEquals(0, snapshot.getPercentile(0));
+    assertEquals(5, snapshot.getPercentile(50));
+    assertEquals(10, snapshot.getPercentile(100));
+  }
+
+  @Test
+  public void percentilesWithinBucketAccuracy() {
+    final Histogram histogram = new Histogram();
+    for (long value = 1; value <= 100000; value++) {
+      histogram.record(value * 1000);
+    }
+    final Snapshot snapshot = histogram.snapshot();
+    assertEquals(100000000, snapshot.getMax());
+    for (final double percentile : new double[] { 1, 25, 50, 90, 99, 99.9 }) {
+      final double expected = percentile * 1000000;
+      final long actual = snapshot.getPercentile(percentile);
+      assertTrue(percentile + ": " + actual, actual >= expected && actual <= expected * 1.0625);
+    }
+    assertEquals(100000000, snapshot.getPercentile(100));
+  }
+
+  @Test
+  public void buckets() {
+    long previous = -1;
+    for (int index = 0; index < 960; index++) {
+      final long upperBound = Histogram.bucketUpperBound(index);
+      assertTrue(upperBound > previous);
+      assertEquals(index, Histogram.bucketIndex(previous + 1));
+      assertEquals(index, Histogram.bucketIndex(upperBound));
+      previous = upperBound;
+    }
+    assertEquals(Long.MAX_VALUE, previous);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidPercentile() {
+    new Histogram().snapshot().getPercentile(101);
+  }
+}
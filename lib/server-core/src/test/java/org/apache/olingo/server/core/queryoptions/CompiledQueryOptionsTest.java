@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Test;
+
+public class CompiledQueryOptionsTest {
+
+  private static final OData odata = OData.newInstance();
+  private static final Edm edm = TestEdmProvider.createServiceMetadata(odata).getEdm();
+
+  private static final String POSITIVE = "32767";
+  private static final String NEGATIVE = "-32768";
+  private static final String ZERO = "0";
+
+  @Test
+  public void filterPrimitiveProperties() throws Exception {
+    assertFilter("PropertyInt16 gt 0", POSITIVE);
+    assertFilter("PropertyInt16 eq 32767 or PropertyInt16 eq -32768", POSITIVE, NEGATIVE);
+    assertFilter("not (PropertyInt16 le 0)", POSITIVE);
+    assertFilter("PropertyInt32 add 1 gt 0", POSITIVE, ZERO);
+    assertFilter("PropertyInt16 mul 2 sub 1 lt 0", NEGATIVE, ZERO);
+    assertFilter("PropertyInt64 ge PropertyInt16", POSITIVE, ZERO);
+    assertFilter("PropertyDouble gt 0", POSITIVE);
+    assertFilter("PropertyDouble lt PropertyInt32", NEGATIVE, ZERO);
+    assertFilter("PropertyDecimal eq 34", POSITIVE);
+    assertFilter("PropertySingle ge -1.5", POSITIVE, ZERO);
+    assertFilter("PropertyBoolean", POSITIVE);
+    assertFilter("PropertyBoolean eq false", NEGATIVE, ZERO);
+    assertFilter("PropertyString eq 'First Resource - positive values'", POSITIVE);
+    assertFilter("PropertyString ne null", POSITIVE, NEGATIVE, ZERO);
+    assertFilter("startswith(PropertyString,'Second')", NEGATIVE);
+    assertFilter("contains(tolower(PropertyString),'values')", POSITIVE, NEGATIVE);
+    assertFilter("endswith(PropertyString,'values') and length(PropertyString) gt 10", POSITIVE, NEGATIVE);
+    assertFilter("indexof(PropertyString,'Resource') eq 6", POSITIVE);
+    assertFilter("substring(PropertyString,0,5) eq 'First'", POSITIVE);
+    assertFilter("concat(PropertyString,'!') eq 'First Resource - positive values!'", POSITIVE);
+    assertFilter("year(PropertyDate) eq 2012", POSITIVE);
+    assertFilter("month(PropertyDateTimeOffset) eq 12 and hour(PropertyDateTimeOffset) eq 7", POSITIVE, NEGATIVE);
+    assertFilter("PropertyDate gt 2000-01-01", POSITIVE, NEGATIVE);
+    assertFilter("PropertyDateTimeOffset lt 2013-01-01T00:00:00Z", POSITIVE, NEGATIVE);
+    assertFilter("PropertyGuid eq 01234567-89ab-cdef-0123-456789abcdef", POSITIVE);
+    assertFilter("PropertyDuration eq duration'PT6S'", POSITIVE);
+    assertFilter("PropertyBinary eq binary'AQID'", POSITIVE);
+    assertFilter("PropertyInt16 in (32767, 0)", POSITIVE, ZERO);
+  }
+
+  @Test
+  public void filterOnNestedMembers() throws Exception {
+    assertFilter("PropertyComp/PropertyInt16 eq 11", POSITIVE);
+    assertFilter("NavPropertyETTwoPrimOne/PropertyInt16 eq 1", POSITIVE);
+    assertFilter("NavPropertyETTwoPrimMany/$count eq 2", POSITIVE);
+    assertFilter("NavPropertyETTwoPrimMany/all(n:n/PropertyInt16 eq 1)", NEGATIVE, ZERO);
+  }
+
+  @Test
+  public void filterWithLambdaOperators() throws Exception {
+    assertFilter("CollPropertyString/any(s:startswith(s,'Employee'))", POSITIVE, NEGATIVE);
+    assertFilter("CollPropertyString/all(s:contains(s,'@'))", POSITIVE, NEGATIVE, ZERO);
+    assertFilter("CollPropertyString/all(s:startswith(s,'Employee1'))", ZERO);
+    assertFilter("CollPropertyString/$count eq 3", POSITIVE);
+  }
+
+  @Test
+  public void filterIterator() throws Exception {
+    final UriInfo uriInfo = parse("$filter=PropertyInt16 ge 0");
+    final EntityIterator iterator = CompiledFilter.compile(uriInfo.getFilterOption()).apply(iterate(data()));
+    final List<String> keys = new ArrayList<String>();
+    while (iterator.hasNext()) {
+      keys.add(iterator.next().getProperty("PropertyInt16").getValue().toString());
+    }
+    assertEquals(Arrays.asList(POSITIVE, ZERO), keys);
+  }
+
+  @Test
+  public void filterErrors() throws Exception {
+    assertCompileError("PropertyDateTimeOffset lt now()", HttpStatusCode.NOT_IMPLEMENTED);
+    try {
+      CompiledFilter.compile(parse("$orderby=PropertyInt16").getOrderByOption().getOrders().get(0).getExpression());
+      fail("Expected error for a non-Boolean filter expression");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+
+    final CompiledFilter filter = CompiledFilter.compile(parse("$filter=1 div PropertyInt16 eq 1").getFilterOption());
+    try {
+      filter.apply(collection());
+      fail("Expected division by zero");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void orderBy() throws Exception {
+    assertOrder("PropertyInt16", NEGATIVE, ZERO, POSITIVE);
+    assertOrder("PropertyInt16 desc", POSITIVE, ZERO, NEGATIVE);
+    assertOrder("PropertyString", ZERO, POSITIVE, NEGATIVE);
+    assertOrder("PropertyDouble desc,PropertyInt16", POSITIVE, NEGATIVE, ZERO);
+    assertOrder("PropertyDate,PropertyString desc", ZERO, POSITIVE, NEGATIVE);
+    assertOrder("length(PropertyString) desc", NEGATIVE, POSITIVE, ZERO);
+    assertOrder("PropertyComp/PropertyInt16", ZERO, NEGATIVE, POSITIVE);
+  }
+
+  @Test
+  public void orderByBinaryComparesUnsignedBytes() throws Exception {
+    // null sorts first, 0x01 0x02 0x03 before 0xFF
+    assertOrder("PropertyBinary", ZERO, POSITIVE, NEGATIVE);
+    assertOrder("PropertyBinary desc", NEGATIVE, POSITIVE, ZERO);
+  }
+
+  @Test
+  public void orderByValuesWithoutOrder() throws Exception {
+    try {
+      CompiledOrderBy.compile(parse("$orderby=PropertyGeographyPoint").getOrderByOption());
+      fail("Expected error for values without order");
+    } catch (final ODataApplicationException e) {
+      assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  @Test
+  public void orderByIteratorAndSortKeys() throws Exception {
+    final CompiledOrderBy orderBy = CompiledOrderBy.compile(
+        parse("$orderby=PropertyComp/PropertyInt16 desc,PropertyString").getOrderByOption());
+    final List<Entity> entities = data();
+    final EntityIterator sorted = orderBy.apply(iterate(entities));
+    Object[] previous = null;
+    int count = 0;
+    while (sorted.hasNext()) {
+      final Object[] key = orderBy.sortKey(sorted.next());
+      if (previous != null) {
+        assertTrue(orderBy.getSortKeyComparator().compare(previous, key) <= 0);
+        assertTrue(orderBy.getSortKeyComparator().compare(key, previous) >= 0);
+      }
+      previous = key;
+      count++;
+    }
+    assertEquals(entities.size(), count);
+  }
+
+  private void assertFilter(final String filter, final String... expectedKeys) throws Exception {
+    final EntityCollection collection = collection();
+    CompiledFilter.compile(parse("$filter=" + filter).getFilterOption()).apply(collection);
+    assertEquals(filter, Arrays.asList(expectedKeys), keys(collection));
+  }
+
+  private void assertOrder(final String orderBy, final String... expectedKeys) throws Exception {
+    final EntityCollection collection = collection();
+    CompiledOrderBy.compile(parse("$orderby=" + orderBy).getOrderByOption()).apply(collection);
+    assertEquals(orderBy, Arrays.asList(expectedKeys), keys(collection));
+  }
+
+  private void assertCompileError(final String filter, final HttpStatusCode expected) throws Exception {
+    try {
+      CompiledFilter.compile(parse("$filter=" + filter).getFilterOption());
+      fail("Expected compile error for " + filter);
+    } catch (final ODataApplicationException e) {
+      assertEquals(filter, expected.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private static UriInfo parse(final String query) throws Exception {
+    return new Parser(edm, odata).parseUri("ESAllPrim", query, null, null);
+  }
+
+  private static List<String> keys(final EntityCollection collection) {
+    final List<String> keys = new ArrayList<String>();
+    for (final Entity entity : collection.getEntities()) {
+      keys.add(String.valueOf(entity.getProperty("PropertyInt16").getValue()));
+    }
+    return keys;
+  }
+
+  private static EntityCollection collection() {
+    final EntityCollection collection = new EntityCollection();
+    collection.getEntities().addAll(data());
+    return collection;
+  }
+
+  private static List<Entity> data() {
+    return Arrays.asList(
+        entity((short) 32767, "First Resource - positive values", true, Integer.MAX_VALUE, Long.MAX_VALUE,
+            1.79E20F, 1.5E19, new BigDecimal(34), new byte[] { 1, 2, 3 },
+            calendar(2012, 12, 3, 0, 0, 0), calendar(2012, 12, 3, 7, 16, 23), new BigDecimal(6),
+            UUID.fromString("01234567-89ab-cdef-0123-456789abcdef"), (short) 11,
+            Arrays.asList("Employee1@company.example", "Employee2@company.example", "Employee3@company.example"),
+            twoPrim((short) 1), twoPrim((short) 1), twoPrim((short) 2)),
+        entity((short) -32768, "Second Resource - negative values", false, Integer.MIN_VALUE, Long.MIN_VALUE,
+            -1.79E8F, -1.79E19, new BigDecimal(-34), new byte[] { (byte) 0xFF },
+            calendar(2015, 11, 5, 0, 0, 0), calendar(2005, 12, 3, 7, 17, 8), new BigDecimal(9),
+            UUID.fromString("76543201-23ab-cdef-0123-456789dddfff"), (short) -1,
+            Arrays.asList("Employee1@company.example", "x@y"),
+            twoPrim((short) 2), twoPrim((short) 1)),
+        entity((short) 0, "", false, 0, 0L, 0F, -1.79E19, BigDecimal.ZERO, null,
+            calendar(1970, 1, 1, 0, 0, 0), calendar(2013, 6, 1, 0, 0, 0), BigDecimal.ZERO,
+            UUID.fromString("76543201-23ab-cdef-0123-456789cccddd"), null,
+            Collections.<String> emptyList(), null));
+  }
+
+  private static Entity entity(final short int16, final String string, final boolean bool, final int int32,
+      final long int64, final float single, final double dbl, final BigDecimal decimal, final byte[] binary,
+      final Calendar date, final Calendar dateTimeOffset, final BigDecimal duration, final UUID guid,
+      final Short compInt16, final List<String> strings, final Entity one, final Entity... many) {
+    final Entity entity = new Entity()
+        .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, int16))
+        .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, string))
+        .addProperty(new Property(null, "PropertyBoolean", ValueType.PRIMITIVE, bool))
+        .addProperty(new Property(null, "PropertyInt32", ValueType.PRIMITIVE, int32))
+        .addProperty(new Property(null, "PropertyInt64", ValueType.PRIMITIVE, int64))
+        .addProperty(new Property(null, "PropertySingle", ValueType.PRIMITIVE, single))
+        .addProperty(new Property(null, "PropertyDouble", ValueType.PRIMITIVE, dbl))
+        .addProperty(new Property(null, "PropertyDecimal", ValueType.PRIMITIVE, decimal))
+        .addProperty(new Property(null, "PropertyBinary", ValueType.PRIMITIVE, binary))
+        .addProperty(new Property(null, "PropertyDate", ValueType.PRIMITIVE, date))
+        .addProperty(new Property(null, "PropertyDateTimeOffset", ValueType.PRIMITIVE, dateTimeOffset))
+        .addProperty(new Property(null, "PropertyDuration", ValueType.PRIMITIVE, duration))
+        .addProperty(new Property(null, "PropertyGuid", ValueType.PRIMITIVE, guid))
+        .addProperty(new Property(null, "CollPropertyString", ValueType.COLLECTION_PRIMITIVE, strings));
+    if (compInt16 == null) {
+      entity.addProperty(new Property(null, "PropertyComp", ValueType.COMPLEX, null));
+    } else {
+      final ComplexValue complexValue = new ComplexValue();
+      complexValue.getValue().add(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, compInt16));
+      entity.addProperty(new Property(null, "PropertyComp", ValueType.COMPLEX, complexValue));
+    }
+    final Link oneLink = new Link();
+    oneLink.setTitle("NavPropertyETTwoPrimOne");
+    oneLink.setInlineEntity(one);
+    entity.getNavigationLinks().add(oneLink);
+    final Link manyLink = new Link();
+    manyLink.setTitle("NavPropertyETTwoPrimMany");
+    manyLink.setInlineEntitySet(new EntityCollection());
+    manyLink.getInlineEntitySet().getEntities().addAll(Arrays.asList(many));
+    entity.getNavigationLinks().add(manyLink);
+    return entity;
+  }
+
+  private static Entity twoPrim(final short key) {
+    return new Entity().addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, key));
+  }
+
+  private static Calendar calendar(final int year, final int month, final int day,
+      final int hour, final int minute, final int second) {
+    final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+    calendar.clear();
+    calendar.set(year, month - 1, day, hour, minute, second);
+    return calendar;
+  }
+
+  private static EntityIterator iterate(final List<Entity> entities) {
+    final Iterator<Entity> iterator = entities.iterator();
+    return new EntityIterator() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Entity next() {
+        return iterator.next();
+      }
+    };
+  }
+}
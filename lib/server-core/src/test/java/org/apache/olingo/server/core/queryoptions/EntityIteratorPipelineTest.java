@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.queryoptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+public class EntityIteratorPipelineTest {
+
+  private static final OData odata = OData.newInstance();
+  private static final Edm edm = TestEdmProvider.createServiceMetadata(odata).getEdm();
+  private static final ForkJoinPool pool = new ForkJoinPool(4);
+  private static final int SIZE = 10000;
+
+  @AfterClass
+  public static void shutdown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void sameResultAsMaterializedEvaluation() throws Exception {
+    final String[] queries = {
+        "$filter=PropertyInt32 gt 5000",
+        "$filter=PropertyInt16 lt 10&$top=25",
+        "$filter=PropertyInt16 lt 10&$skip=3&$top=25",
+        "$orderby=PropertyInt16 desc,PropertyInt32&$top=50",
+        "$orderby=PropertyInt16&$skip=990&$top=20",
+        "$orderby=PropertyString&$skip=9990",
+        "$filter=startswith(PropertyString,'1')&$orderby=PropertyInt16,PropertyInt32 desc&$skip=5&$top=10",
+        "$orderby=PropertyInt16&$top=0",
+        "$skip=20000"
+    };
+    for (final String query : queries) {
+      final UriInfo uriInfo = parse(query);
+      assertEquals(query, materialized(uriInfo), keys(EntityIteratorPipeline.with(iterate(data()), uriInfo).build()));
+    }
+  }
+
+  @Test
+  public void parallelFilter() throws Exception {
+    final UriInfo uriInfo = parse("$filter=PropertyInt16 mod 7 eq 3 and PropertyInt32 ge 100&$orderby=PropertyInt16");
+    final EntityIterator result = EntityIteratorPipeline.with(iterate(data()))
+        .filter(CompiledFilter.compile(uriInfo.getFilterOption()), pool, 700)
+        .orderBy(CompiledOrderBy.compile(uriInfo.getOrderByOption()))
+        .build();
+    assertEquals(materialized(uriInfo), keys(result));
+  }
+
+  @Test
+  public void topStopsReadingTheSource() throws Exception {
+    final CountingIterator source = new CountingIterator(data());
+    final EntityIterator result = EntityIteratorPipeline.with(source, parse("$filter=PropertyInt16 eq 1&$top=3"))
+        .build();
+    assertEquals(3, keys(result).size());
+    assertTrue(source.read < SIZE);
+    assertFalse(result.hasNext());
+  }
+
+  @Test
+  public void evaluationErrorWhileIterating() throws Exception {
+    final UriInfo uriInfo = parse("$filter=1 div PropertyInt16 eq 1");
+    assertEvaluationError(EntityIteratorPipeline.with(iterate(data()), uriInfo).build());
+    assertEvaluationError(EntityIteratorPipeline.with(iterate(data()))
+        .filter(CompiledFilter.compile(uriInfo.getFilterOption()), pool, 100).build());
+  }
+
+  private void assertEvaluationError(final EntityIterator iterator) {
+    try {
+      keys(iterator);
+      fail("Expected division by zero");
+    } catch (final ODataRuntimeException e) {
+      assertTrue(e.getCause() instanceof ODataApplicationException);
+    }
+  }
+
+  private List<Integer> materialized(final UriInfo uriInfo) throws ODataApplicationException {
+    final EntityCollection collection = new EntityCollection();
+    collection.getEntities().addAll(data());
+    if (uriInfo.getFilterOption() != null) {
+      CompiledFilter.compile(uriInfo.getFilterOption()).apply(collection);
+    }
+    if (uriInfo.getOrderByOption() != null) {
+      CompiledOrderBy.compile(uriInfo.getOrderByOption()).apply(collection);
+    }
+    List<Entity> entities = collection.getEntities();
+    if (uriInfo.getSkipOption() != null) {
+      entities = entities.subList(Math.min(uriInfo.getSkipOption().getValue(), entities.size()), entities.size());
+    }
+    if (uriInfo.getTopOption() != null) {
+      entities = entities.subList(0, Math.min(uriInfo.getTopOption().getValue(), entities.size()));
+    }
+    final List<Integer> keys = new ArrayList<Integer>();
+    for (final Entity entity : entities) {
+      keys.add((Integer) entity.getProperty("PropertyInt32").getValue());
+    }
+    return keys;
+  }
+
+  private static List<Integer> keys(final Iterator<Entity> iterator) {
+    final List<Integer> keys = new ArrayList<Integer>();
+    while (iterator.hasNext()) {
+      keys.add((Integer) iterator.next().getProperty("PropertyInt32").getValue());
+    }
+    return keys;
+  }
+
+  /** Entities with many duplicate PropertyInt16 values and a unique PropertyInt32 value. */
+  private static List<Entity> data() {
+    final List<Entity> entities = new ArrayList<Entity>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      entities.add(new Entity()
+          .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) ((i * 7919) % 1000)))
+          .addProperty(new Property(null, "PropertyInt32", ValueType.PRIMITIVE, i))
+          .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, Integer.toString(i % 97))));
+    }
+    return entities;
+  }
+
+  private static UriInfo parse(final String query) throws Exception {
+    return new Parser(edm, odata).parseUri("ESAllPrim", query, null, null);
+  }
+
+  private static EntityIterator iterate(final List<Entity> entities) {
+    return new CountingIterator(entities);
+  }
+
+  private static final class CountingIterator extends EntityIterator {
+
+    private final Iterator<Entity> iterator;
+    private int read;
+
+    CountingIterator(final List<Entity> entities) {
+      iterator = entities.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public Entity next() {
+      read++;
+      return iterator.next();
+    }
+  }
+}
@@ -46,6 +46,7 @@ import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.EntityCollectionSerializerOptions;
 import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.core.deserializer.batch.BatchLineReader;
@@ -678,4 +679,90 @@ public class BatchResponseSerializerTest {
     assertEquals("{\"@odata.context\":\"../../$metadata\",\"value\":[]}" + CRLF, body.get(line++));
     assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
   }
+
+  @Test
+  public void streamedResponse() throws Exception {
+    List<ODataResponsePart> parts = new ArrayList<ODataResponsePart>();
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.TEXT_PLAIN.toContentTypeString());
+    response.setContent(new ByteArrayInputStream(("Walter Winter" + CRLF).getBytes(CS_ISO_8859_1)));
+    parts.add(new ODataResponsePart(response, false));
+
+    EntityIterator entityCollection = new EntityIterator() {
+      @Override
+      public Entity next() {
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return false;
+      }
+    };
+    ODataResponse streamedResponse = new ODataResponse();
+    streamedResponse.setODataContent(OData.newInstance().createSerializer(ContentType.APPLICATION_JSON)
+        .entityCollectionStreamed(mock(ServiceMetadata.class), mock(EdmEntityType.class), entityCollection,
+            EntityCollectionSerializerOptions.with()
+                .contextURL(ContextURL.with().oDataPath("http://host/svc").build()).build())
+        .getODataContent());
+    streamedResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    parts.add(new ODataResponsePart(streamedResponse, false));
+
+    ODataResponse changeSetResponse = new ODataResponse();
+    changeSetResponse.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    changeSetResponse.setHeader(HttpHeader.CONTENT_ID, "1");
+    parts.add(new ODataResponsePart(Collections.singletonList(changeSetResponse), true));
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new BatchResponseSerializer().serializeStreamed(parts, BOUNDARY).write(output);
+
+    final BatchLineReader reader = new BatchLineReader(new ByteArrayInputStream(output.toByteArray()));
+    final List<String> body = reader.toList();
+    reader.close();
+
+    int line = 0;
+    assertEquals(31, body.size());
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 200 OK" + CRLF, body.get(line++));
+    assertEquals("Content-Type: text/plain" + CRLF, body.get(line++));
+    assertEquals("Content-Length: 15" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("Walter Winter" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 200 OK" + CRLF, body.get(line++));
+    // The length of streamed content is not known in advance.
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("{\"@odata.context\":\"../../$metadata\",\"value\":[]}" + CRLF, body.get(line++));
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertTrue(body.get(line++).startsWith("Content-Type: multipart/mixed; boundary=changeset_"));
+    assertEquals(CRLF, body.get(line++));
+    assertTrue(body.get(line++).startsWith("--changeset_"));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals("Content-ID: 1" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 204 No Content" + CRLF, body.get(line++));
+    assertEquals("Content-Length: 0" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertTrue(body.get(line++).startsWith("--changeset_"));
+    assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
+  }
+
+  @Test(expected = BatchSerializerException.class)
+  public void streamedResponseWithoutContentId() throws Exception {
+    ODataResponse changeSetResponse = new ODataResponse();
+    changeSetResponse.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    new BatchResponseSerializer().serializeStreamed(
+        Collections.singletonList(new ODataResponsePart(Collections.singletonList(changeSetResponse), true)),
+        BOUNDARY);
+  }
 }
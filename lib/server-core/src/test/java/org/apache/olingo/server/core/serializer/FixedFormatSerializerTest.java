@@ -21,12 +21,19 @@ package org.apache.olingo.server.core.serializer;
 import static org.junit.Assert.*;
 
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.data.EntityMediaObject;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.PrimitiveValueSerializerOptions;
 import org.apache.olingo.server.api.serializer.SerializerException;
@@ -74,4 +81,49 @@ public class FixedFormatSerializerTest {
 	  SerializerStreamResult result = serializer.mediaEntityStreamed(mediaObject);
 	  assertNotNull(result.getODataContent());
   }
+
+  @Test
+  public void defaultBatchResponseStreamed() throws Exception {
+    final FixedFormatSerializer defaultSerializer = new FixedFormatSerializer() {
+      @Override
+      public InputStream binary(final byte[] binary) throws SerializerException {
+        return serializer.binary(binary);
+      }
+
+      @Override
+      public SerializerStreamResult mediaEntityStreamed(final EntityMediaObject mediaEntity)
+          throws SerializerException {
+        return serializer.mediaEntityStreamed(mediaEntity);
+      }
+
+      @Override
+      public InputStream count(final Integer count) throws SerializerException {
+        return serializer.count(count);
+      }
+
+      @Override
+      public InputStream primitiveValue(final EdmPrimitiveType type, final Object value,
+          final PrimitiveValueSerializerOptions options) throws SerializerException {
+        return serializer.primitiveValue(type, value, options);
+      }
+
+      @Override
+      public InputStream batchResponse(final List<ODataResponsePart> batchResponses, final String boundary)
+          throws BatchSerializerException {
+        return serializer.batchResponse(batchResponses, boundary);
+      }
+
+      @Override
+      public InputStream asyncResponse(final ODataResponse odataResponse) throws SerializerException {
+        return serializer.asyncResponse(odataResponse);
+      }
+    };
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    final List<ODataResponsePart> parts = Collections.singletonList(new ODataResponsePart(response, false));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    defaultSerializer.batchResponseStreamed(parts, "batch_1").getODataContent().write(outputStream);
+    assertEquals(IOUtils.toString(serializer.batchResponse(parts, "batch_1")), outputStream.toString("UTF-8"));
+  }
 }
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+public class JsonPrimitiveValueWriterTest {
+
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  @Test
+  public void numbers() throws Exception {
+    assertSame(EdmPrimitiveTypeKind.Boolean, true);
+    assertSame(EdmPrimitiveTypeKind.Byte, 0);
+    assertSame(EdmPrimitiveTypeKind.Byte, (short) 255);
+    assertSame(EdmPrimitiveTypeKind.SByte, (byte) -128);
+    assertSame(EdmPrimitiveTypeKind.Int16, Short.MIN_VALUE);
+    assertSame(EdmPrimitiveTypeKind.Int32, Integer.MAX_VALUE);
+    assertSame(EdmPrimitiveTypeKind.Int32, (long) Integer.MIN_VALUE);
+    assertSame(EdmPrimitiveTypeKind.Int64, Long.MIN_VALUE);
+    assertSame(EdmPrimitiveTypeKind.Int64, 42);
+    assertSame(EdmPrimitiveTypeKind.Double, 1.0E-300);
+    assertSame(EdmPrimitiveTypeKind.Double, -0.0);
+    assertSame(EdmPrimitiveTypeKind.Double, 42.5F);
+    assertSame(EdmPrimitiveTypeKind.Single, 3.4028235E38F);
+    assertSame(EdmPrimitiveTypeKind.Single, 0.1F);
+
+    final Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      assertSame(EdmPrimitiveTypeKind.Int64, random.nextLong());
+      assertSame(EdmPrimitiveTypeKind.Double, random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+      assertSame(EdmPrimitiveTypeKind.Single, random.nextFloat() * 1000);
+    }
+  }
+
+  @Test
+  public void strings() throws Exception {
+    assertSame(EdmPrimitiveTypeKind.String, "");
+    assertSame(EdmPrimitiveTypeKind.String, "\"Ünicode\"\n\u0001");
+    assertSame(EdmPrimitiveTypeKind.Guid, UUID.fromString("01234567-89ab-cdef-0123-456789abcdef"));
+    for (int i = 0; i < 100; i++) {
+      assertSame(EdmPrimitiveTypeKind.Guid, UUID.randomUUID());
+    }
+  }
+
+  @Test
+  public void dates() throws Exception {
+    assertSame(EdmPrimitiveTypeKind.Date, LocalDate.of(0, 1, 1));
+    assertSame(EdmPrimitiveTypeKind.Date, LocalDate.of(2012, 2, 29));
+    assertSame(EdmPrimitiveTypeKind.Date, LocalDate.of(9999, 12, 31));
+
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, Instant.EPOCH);
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, Instant.ofEpochSecond(-1, 1));
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, Instant.parse("1600-02-29T23:59:59.120Z"));
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, ZonedDateTime.of(2012, 12, 3, 7, 16, 23, 100000000,
+        ZoneOffset.ofHoursMinutes(-5, -30)));
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, ZonedDateTime.of(2012, 12, 3, 7, 16, 23, 0,
+        ZoneOffset.ofHoursMinutesSeconds(1, 2, 3)));
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, ZonedDateTime.of(2012, 3, 25, 2, 30, 0, 999999999,
+        ZoneId.of("Europe/Berlin")));
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, 1234567890123L);
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, -1234567890123L);
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, new Date(-1));
+    final Timestamp timestamp = new Timestamp(-1234567890123L);
+    timestamp.setNanos(123456789);
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, timestamp);
+    final Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("GMT+01:30"));
+    calendar.setTimeInMillis(1234567890123L);
+    assertSame(EdmPrimitiveTypeKind.DateTimeOffset, calendar);
+
+    final Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      final long seconds = (long) (random.nextDouble() * 253402300800L) - 62167219200L;
+      assertSame(EdmPrimitiveTypeKind.DateTimeOffset, Instant.ofEpochSecond(seconds, random.nextInt(1000000000)));
+      assertSame(EdmPrimitiveTypeKind.DateTimeOffset, Instant.ofEpochSecond(seconds)
+          .atOffset(ZoneOffset.ofTotalSeconds((random.nextInt(36) - 18) * 3600)).toZonedDateTime());
+    }
+  }
+
+  @Test
+  public void fallback() throws Exception {
+    assertFallback(EdmPrimitiveTypeKind.Byte, -1);
+    assertFallback(EdmPrimitiveTypeKind.SByte, 128);
+    assertFallback(EdmPrimitiveTypeKind.Int32, Long.MAX_VALUE);
+    assertFallback(EdmPrimitiveTypeKind.Int32, "1");
+    assertFallback(EdmPrimitiveTypeKind.Double, Double.NaN);
+    assertFallback(EdmPrimitiveTypeKind.Single, Float.NEGATIVE_INFINITY);
+    assertFallback(EdmPrimitiveTypeKind.Single, 1.5);
+    assertFallback(EdmPrimitiveTypeKind.Decimal, BigDecimal.TEN);
+    assertFallback(EdmPrimitiveTypeKind.Date, LocalDate.of(-1, 1, 1));
+    assertFallback(EdmPrimitiveTypeKind.DateTimeOffset, Instant.parse("+10000-01-01T00:00:00Z"));
+    assertFallback(EdmPrimitiveTypeKind.DateTimeOffset, new java.sql.Time(0));
+    assertFallback(EdmPrimitiveTypeKind.TimeOfDay, LocalTime.NOON);
+    assertFallback(EdmPrimitiveTypeKind.Int64, null);
+
+    final StringWriter writer = new StringWriter();
+    final JsonGenerator json = FACTORY.createGenerator(writer);
+    final EdmPrimitiveType type = EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.String);
+    assertFalse(JsonPrimitiveValueWriter.write(type, "abc", 2, null, false, json));
+    assertFalse(JsonPrimitiveValueWriter.write(type, "abc", null, false, false, json));
+    assertTrue(JsonPrimitiveValueWriter.write(type, "abc", 3, true, false, json));
+    assertFalse(JsonPrimitiveValueWriter.write(EdmPrimitiveTypeFactory.getInstance(EdmPrimitiveTypeKind.Int64),
+        1L, null, null, true, json));
+    json.close();
+    assertEquals("\"abc\"", writer.toString());
+  }
+
+  /** Asserts that the fast path writes the same JSON as the serialization based on the string value. */
+  private void assertSame(final EdmPrimitiveTypeKind kind, final Object value) throws Exception {
+    final EdmPrimitiveType type = EdmPrimitiveTypeFactory.getInstance(kind);
+    final String expected = type.valueToString(value, null, null, null, null, null);
+
+    final StringWriter writer = new StringWriter();
+    final JsonGenerator json = FACTORY.createGenerator(writer);
+    assertTrue(JsonPrimitiveValueWriter.write(type, value, null, null, false, json));
+    json.close();
+
+    switch (kind) {
+    case Boolean:
+    case Byte:
+    case SByte:
+    case Int16:
+    case Int32:
+    case Int64:
+    case Double:
+    case Single:
+      assertEquals(expected, writer.toString());
+      break;
+    default:
+      assertEquals(quote(expected), writer.toString());
+    }
+  }
+
+  private void assertFallback(final EdmPrimitiveTypeKind kind, final Object value) throws IOException {
+    final JsonGenerator json = FACTORY.createGenerator(new StringWriter());
+    assertFalse(JsonPrimitiveValueWriter.write(EdmPrimitiveTypeFactory.getInstance(kind), value,
+        null, null, false, json));
+  }
+
+  private String quote(final String value) throws IOException {
+    final StringWriter writer = new StringWriter();
+    final JsonGenerator json = FACTORY.createGenerator(writer);
+    json.writeString(value);
+    json.close();
+    return writer.toString();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.data.ContextURL;
+import org.apache.olingo.commons.api.data.ContextURL.Suffix;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Linked;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.serializer.EntitySerializerOptions;
+import org.apache.olingo.server.api.serializer.ODataSerializer;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
+import org.apache.olingo.server.core.TestEdmProvider;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+public class JsonSerializationPlanTest {
+
+  private static final ServiceMetadata metadata = TestEdmProvider.createServiceMetadata(OData.newInstance());
+  private static final EdmEntitySet edmEntitySet = metadata.getEdm().getEntityContainer().getEntitySet("ESAllPrim");
+
+  private final ODataSerializer serializerFullMetadata = new ODataJsonSerializer(ContentType.JSON_FULL_METADATA);
+
+  @Test
+  public void entityPropertiesInDifferentOrder() throws Exception {
+    final EntitySerializerOptions options = EntitySerializerOptions.with()
+        .contextURL(ContextURL.with().entitySet(edmEntitySet).suffix(Suffix.ENTITY).build())
+        .build();
+    final Entity entity = new Entity()
+        .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) 32767))
+        .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, "First Resource"))
+        .addProperty(new Property(null, "PropertyBoolean", ValueType.PRIMITIVE, true))
+        .addProperty(new Property(null, "PropertyInt32", ValueType.PRIMITIVE, 2147483647));
+    final String expectedResult = IOUtils.toString(
+        serializerFullMetadata.entity(metadata, edmEntitySet.getEntityType(), entity, options).getContent());
+
+    // The properties are always written in the order of the type, also with the cached serialization plan.
+    Collections.reverse(entity.getProperties());
+    final String resultString = IOUtils.toString(
+        serializerFullMetadata.entity(metadata, edmEntitySet.getEntityType(), entity, options).getContent());
+    assertEquals(expectedResult, resultString);
+    assertTrue(resultString.contains("\"PropertyInt16@odata.type\":\"#Int16\",\"PropertyInt16\":32767,"
+        + "\"PropertyString\":\"First Resource\",\"PropertyBoolean\":true,"
+        + "\"PropertyInt32@odata.type\":\"#Int32\",\"PropertyInt32\":2147483647,"));
+  }
+
+  @Test
+  public void overriddenWritePropertyIsCalled() throws Exception {
+    final List<String> written = new ArrayList<>();
+    final ODataSerializer serializer = new ODataJsonSerializer(ContentType.JSON) {
+      @Override
+      protected void writeProperty(final ServiceMetadata metadata, final EdmProperty edmProperty,
+          final Property property, final Set<List<String>> selectedPaths, final JsonGenerator json,
+          final Set<List<String>> expandedPaths, final Linked linked, final ExpandOption expand)
+          throws IOException, SerializerException, DecoderException {
+        written.add(edmProperty.getName());
+        if ("PropertyString".equals(edmProperty.getName())) {
+          json.writeStringField(edmProperty.getName(), "masked");
+        } else {
+          super.writeProperty(metadata, edmProperty, property, selectedPaths, json, expandedPaths, linked, expand);
+        }
+      }
+    };
+    final EntitySerializerOptions options = EntitySerializerOptions.with()
+        .contextURL(ContextURL.with().entitySet(edmEntitySet).suffix(Suffix.ENTITY).build())
+        .build();
+    final Entity entity = new Entity()
+        .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) 1))
+        .addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, "secret"));
+
+    // The hook is called for every instance, also when the serialization plan is taken from the cache.
+    for (int i = 0; i < 2; i++) {
+      final String resultString = IOUtils.toString(
+          serializer.entity(metadata, edmEntitySet.getEntityType(), entity, options).getContent());
+      assertTrue(resultString.contains("\"PropertyInt16\":1,\"PropertyString\":\"masked\","));
+    }
+    assertEquals(2 * edmEntitySet.getEntityType().getPropertyNames().size(), written.size());
+    assertEquals("PropertyInt16", written.get(0));
+  }
+}
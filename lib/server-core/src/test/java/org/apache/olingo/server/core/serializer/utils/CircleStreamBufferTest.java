@@ -19,10 +19,12 @@
 package org.apache.olingo.server.core.serializer.utils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import org.junit.Test;
@@ -296,6 +298,43 @@ public class CircleStreamBufferTest {
     return b.toString();
   }
 
+  @Test
+  public void pooledWriteAndReadMoreThanBufferSize() throws Exception {
+    CircleStreamBuffer csb = new CircleStreamBuffer(new ByteBufferPool(16, 4));
+
+    String testData = createTestString(100);
+    OutputStream write = csb.getOutputStream();
+    write.write(testData.getBytes(DEFAULT_CHARSET));
+    write.write('!');
+    write.close();
+
+    InputStream inStream = csb.getInputStream();
+    byte[] buffer = new byte[101];
+    int read = 0;
+    int count;
+    while ((count = inStream.read(buffer, read, buffer.length - read)) > 0) {
+      read += count;
+    }
+    assertEquals(101, read);
+    assertEquals(testData + "!", new String(buffer, DEFAULT_CHARSET));
+    assertEquals(-1, inStream.read());
+  }
+
+  @Test
+  public void pooledBuffersAreReusedAfterClose() throws Exception {
+    ByteBufferPool pool = new ByteBufferPool(16, 4);
+    CircleStreamBuffer csb = new CircleStreamBuffer(pool);
+    csb.getOutputStream().write("Test".getBytes(DEFAULT_CHARSET));
+    csb.close();
+
+    // the buffer written before is handed out again, cleared but with its old content
+    ByteBuffer pooled = pool.acquire();
+    assertEquals(0, pooled.position());
+    assertEquals(16, pooled.limit());
+    assertEquals("Test", new String(pooled.array(), 0, 4, DEFAULT_CHARSET));
+    assertNotSame(pooled, pool.acquire());
+  }
+
   private String createTestString(final int signs) {
     StringBuilder b = new StringBuilder();
 
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.XMLEvent;
+
+import org.junit.Test;
+
+public class XmlStreamFactoriesTest {
+
+  @Test
+  public void writer() throws Exception {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final XMLStreamWriter writer = XmlStreamFactories.createStreamWriter(output, "UTF-8");
+    writer.writeStartElement("a");
+    writer.writeCharacters("ä<");
+    writer.writeEndElement();
+    writer.close();
+    assertEquals("<a>ä&lt;</a>", new String(output.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void externalEntitiesAreNotResolved() throws Exception {
+    final File file = File.createTempFile("entity", ".txt");
+    file.deleteOnExit();
+    Files.write(file.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+    final String xml = "<?xml version=\"1.0\"?><!DOCTYPE a [<!ENTITY e SYSTEM \"" + file.toURI() + "\">]>"
+        + "<a>&e;</a>";
+
+    final StringBuilder text = new StringBuilder();
+    try {
+      final XMLEventReader reader =
+          XmlStreamFactories.createEventReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+      while (reader.hasNext()) {
+        final XMLEvent event = reader.nextEvent();
+        if (event.isCharacters()) {
+          text.append(event.asCharacters().getData());
+        }
+      }
+    } catch (final XMLStreamException e) {
+      // Rejecting the reference is fine, too.
+    }
+    assertFalse(text.toString().contains("secret"));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.junit.Test;
+
+public class UriInfoCacheImplTest {
+
+  private static final String BASE = "http://localhost/odata";
+
+  @Test
+  public void hitAndMiss() {
+    final UriInfoCacheImpl cache = new UriInfoCacheImpl(10);
+    final UriInfo uriInfo = new UriInfoImpl();
+
+    assertNull(cache.get(HttpMethod.GET, BASE, "/ESAllPrim", "$select=PropertyInt16"));
+    cache.put(HttpMethod.GET, BASE, "/ESAllPrim", "$select=PropertyInt16", uriInfo);
+    assertSame(uriInfo, cache.get(HttpMethod.GET, BASE, "/ESAllPrim", "$select=PropertyInt16"));
+    assertNull(cache.get(HttpMethod.DELETE, BASE, "/ESAllPrim", "$select=PropertyInt16"));
+    assertNull(cache.get(HttpMethod.GET, BASE, "/ESAllPrim", null));
+    assertNull(cache.get(HttpMethod.GET, "http://other/odata", "/ESAllPrim", "$select=PropertyInt16"));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+    assertEquals(1, cache.size());
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvicted() {
+    final UriInfoCacheImpl cache = new UriInfoCacheImpl(2);
+    final UriInfo first = new UriInfoImpl();
+    final UriInfo second = new UriInfoImpl();
+    cache.put(HttpMethod.GET, BASE, "/First", null, first);
+    cache.put(HttpMethod.GET, BASE, "/Second", null, second);
+    assertSame(first, cache.get(HttpMethod.GET, BASE, "/First", null));
+    cache.put(HttpMethod.GET, BASE, "/Third", null, new UriInfoImpl());
+
+    assertEquals(2, cache.size());
+    assertSame(first, cache.get(HttpMethod.GET, BASE, "/First", null));
+    assertNull(cache.get(HttpMethod.GET, BASE, "/Second", null));
+  }
+
+  @Test
+  public void unboundedLiteralsAreNotCached() {
+    assertTrue(UriInfoCacheImpl.isCacheable("/ESAllPrim", null));
+    assertTrue(UriInfoCacheImpl.isCacheable("/ESAllPrim",
+        "$filter=PropertyBoolean%20eq%20true&$orderby=PropertyInt16%20desc&$select=PropertyInt16"));
+    assertTrue(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$expand=NavPropertyETTwoPrimOne&$format=json"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim(32767)", null));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyString%20eq%20'x'"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyString%20eq%20%27x%27"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyInt16%20eq%20@p&@p=1"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$skiptoken=abc"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$search=abc"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/$entity", "$id=ESAllPrim"));
+
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyInt16%20gt%205"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyInt16 gt -5"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "%24filter=PropertyDouble%20lt%201.5e3"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyDate%20eq%202012-12-03"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim",
+        "$filter=PropertyGuid%20eq%20ab345678-1234-1234-1234-123456789012"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$orderby=PropertyInt16%20add%201"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$compute=PropertyInt16%20mul%202%20as%20Double"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$expand=NavPropertyETTwoPrimOne($levels=3)"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$filter=PropertyInt16%2"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$top=1"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$skip=10"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "%24top=1"));
+    assertFalse(UriInfoCacheImpl.isCacheable("/ESAllPrim", "$select=PropertyInt16&$expand=NavPropertyETTwoPrimMany"
+        + "($top=2)"));
+
+    final UriInfoCacheImpl cache = new UriInfoCacheImpl(10);
+    cache.put(HttpMethod.GET, BASE, "/ESAllPrim(1)", null, new UriInfoImpl());
+    assertEquals(0, cache.size());
+    assertNull(cache.get(HttpMethod.GET, BASE, "/ESAllPrim(1)", null));
+    assertEquals(0, cache.getMissCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidSize() {
+    new UriInfoCacheImpl(0);
+  }
+}
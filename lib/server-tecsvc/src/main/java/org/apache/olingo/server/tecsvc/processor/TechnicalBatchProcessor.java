@@ -18,7 +18,7 @@
  */
 package org.apache.olingo.server.tecsvc.processor;
 
-import java.io.InputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -27,12 +27,13 @@ import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataContent;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.batch.BatchFacade;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
-import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartIterator;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.prefer.PreferencesApplied;
 import org.apache.olingo.server.api.processor.BatchProcessor;
@@ -71,29 +72,22 @@ public class TechnicalBatchProcessor extends TechnicalProcessor implements Batch
     final BatchOptions options = BatchOptions.with()
         .rawBaseUri(request.getRawBaseUri())
         .rawServiceResolutionUri(request.getRawServiceResolutionUri()).build();
-    final List<BatchRequestPart> parts = odata.createFixedFormatDeserializer().parseBatchRequest(request.getBody(),
-        boundary, options);
-    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
-
-    for (BatchRequestPart part : parts) {
-      final ODataResponsePart responsePart = facade.handleBatchRequest(part);
-      responseParts.add(responsePart); // Also add failed responses.
-      final int statusCode = responsePart.getResponses().get(0).getStatusCode();
-
-      if ((statusCode >= 400 && statusCode <= 600) && !continueOnError) {
-
-        // Perform some additional actions.
-        // ...
-
-        break; // Stop processing, but serialize responses to all recent requests.
-      }
+    final BatchRequestPartIterator parts = odata.createFixedFormatDeserializer().streamBatchRequest(
+        request.getBody(), boundary, options);
+    final List<ODataResponsePart> responseParts;
+    try {
+      // Stops processing after the first failed part unless continue-on-error is preferred,
+      // but the responses to all recent requests are serialized.
+      responseParts = facade.handleBatchRequests(parts, continueOnError);
+    } finally {
+      closeParts(parts);
     }
 
     final String responseBoundary = "batch_" + UUID.randomUUID().toString();
-    final InputStream responseContent =
-        odata.createFixedFormatSerializer().batchResponse(responseParts, responseBoundary);
+    final ODataContent responseContent =
+        odata.createFixedFormatSerializer().batchResponseStreamed(responseParts, responseBoundary).getODataContent();
     response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.MULTIPART_MIXED + ";boundary=" + responseBoundary);
-    response.setContent(responseContent);
+    response.setODataContent(responseContent);
     response.setStatusCode(HttpStatusCode.OK.getStatusCode());
     if (continueOnError) {
       response.setHeader(HttpHeader.PREFERENCE_APPLIED,
@@ -101,6 +95,14 @@ public class TechnicalBatchProcessor extends TechnicalProcessor implements Batch
     }
   }
 
+  private void closeParts(final BatchRequestPartIterator parts) {
+    try {
+      parts.close();
+    } catch (final IOException e) {
+      // The response is complete already; there is nothing left to read.
+    }
+  }
+
   @Override
   public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests)
       throws ODataApplicationException, ODataLibraryException {
@@ -492,10 +492,11 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     final ExpandOption expand = uriInfo.getExpandOption();
     final SelectOption select = uriInfo.getSelectOption();
 
-    final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-    final Entity entitySerialization = expandHandler.transformEntityGraphToTree(entity, edmEntitySet, expand, null);
-    expandHandler.applyExpandQueryOptions(entitySerialization, edmEntitySet, expand, uriInfo,
-        serviceMetadata.getEdm());
+    final ExpandSystemQueryOptionHandler expandHandler =
+        new ExpandSystemQueryOptionHandler(uriInfo, serviceMetadata.getEdm());
+    final Entity entitySerialization = expandHandler.newEntity(entity);
+    odata.createExpandResolver().resolve(edmEntityType, Collections.singletonList(entitySerialization), expand,
+        expandHandler);
 
     final SerializerResult serializerResult = isReference ?
         serializeReference(entity, edmEntitySet, requestedFormat) :
@@ -632,16 +633,14 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     final ExpandOption expand = uriInfo.getExpandOption();
     final SelectOption select = uriInfo.getSelectOption();
 
-    // Transform the entity graph to a tree. The construction is controlled by the expand tree.
-    // Apply all expand system query options to the tree.
-    // So the expanded navigation properties can be modified for serialization,
-    // without affecting the data stored in the database.
-    final ExpandSystemQueryOptionHandler expandHandler = new ExpandSystemQueryOptionHandler();
-    final EntityCollection entitySetSerialization = expandHandler.transformEntitySetGraphToTree(entitySet,
-        edmEntitySet,
-        expand, null);
-    expandHandler.applyExpandQueryOptions(entitySetSerialization, edmEntitySet, expand, uriInfo,
-        serviceMetadata.getEdm());
+    // Expand the navigation properties of the whole page level by level.
+    // The expanded navigation links are attached to copies of the entities,
+    // so they can be modified for serialization without affecting the data stored in the database.
+    final ExpandSystemQueryOptionHandler expandHandler =
+        new ExpandSystemQueryOptionHandler(uriInfo, serviceMetadata.getEdm());
+    final EntityCollection entitySetSerialization = expandHandler.newEntitySet(entitySet);
+    odata.createExpandResolver().resolve(edmEntityType, entitySetSerialization.getEntities(), expand,
+        expandHandler);
     final CountOption countOption = uriInfo.getCountOption();
     final List<SystemQueryOption> systemQueryOptions = uriInfo.getSystemQueryOptions();
     String deltaToken = null;
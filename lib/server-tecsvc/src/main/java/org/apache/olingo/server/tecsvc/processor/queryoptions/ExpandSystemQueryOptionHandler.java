@@ -6,9 +6,9 @@
  * to you under the Apache License, Version 2.0 (the
  * "License"); you may not use this file except in compliance
  * with the License. You may obtain a copy of the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
@@ -19,176 +19,69 @@
 package org.apache.olingo.server.tecsvc.processor.queryoptions;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.edm.Edm;
-import org.apache.olingo.commons.api.edm.EdmBindingTarget;
-import org.apache.olingo.commons.api.edm.EdmElement;
-import org.apache.olingo.commons.api.edm.EdmEntitySet;
-import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
-import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.expand.NavigationLoader;
 import org.apache.olingo.server.api.uri.UriInfoResource;
-import org.apache.olingo.server.api.uri.UriResource;
-import org.apache.olingo.server.api.uri.UriResourceNavigation;
-import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.ExpandItem;
-import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
-import org.apache.olingo.server.api.uri.queryoption.FilterOption;
-import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
-import org.apache.olingo.server.api.uri.queryoption.SkipOption;
-import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.CountHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
 
-public class ExpandSystemQueryOptionHandler {
-
-  public void applyExpandQueryOptions(final EntityCollection entitySet, final EdmEntitySet edmEntitySet,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
-    }
-
-    for (final Entity entity : entitySet.getEntities()) {
-      applyExpandOptionToEntity(entity, edmEntitySet, expandOption, uriInfo, edm);
-    }
-  }
+/**
+ * Loads expanded navigation properties from the navigation links of the data.
+ * <p>The entities of the data are linked with each other, so expanding them directly would
+ * modify the "database". All entities handed out are therefore shallow copies (new entities with
+ * the same properties), to which the expanded navigation links can be attached for serialization.</p>
+ */
+public class ExpandSystemQueryOptionHandler implements NavigationLoader {
 
-  public void applyExpandQueryOptions(final Entity entity, final EdmEntitySet edmEntitySet,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    if (expandOption == null) {
-      return;
-    }
+  private final UriInfoResource uriInfo;
+  private final Edm edm;
 
-    applyExpandOptionToEntity(entity, edmEntitySet, expandOption, uriInfo, edm);
+  public ExpandSystemQueryOptionHandler(final UriInfoResource uriInfo, final Edm edm) {
+    this.uriInfo = uriInfo;
+    this.edm = edm;
   }
 
-  private void applyExpandOptionToEntity(final Entity entity, final EdmBindingTarget edmBindingTarget,
-      final ExpandOption expandOption, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-
-    final EdmEntityType entityType = edmBindingTarget.getEntityType();
-
-    for (ExpandItem item : expandOption.getExpandItems()) {
-      if(item.getLevelsOption() != null) {
-        throw new ODataApplicationException("$levels is not implemented", 
-            HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
-      }
-      
-      List<EdmNavigationProperty> navigationProperties = new ArrayList<EdmNavigationProperty>();
-      if(item.isStar()) {
-        List<EdmNavigationPropertyBinding> bindings = edmBindingTarget.getNavigationPropertyBindings();
-        for (EdmNavigationPropertyBinding binding : bindings) {
-          EdmElement property = entityType.getProperty(binding.getPath());
-          if(property instanceof EdmNavigationProperty) {
-            navigationProperties.add((EdmNavigationProperty) property);
-          }
-        }
-      } else {
-        final List<UriResource> uriResourceParts = item.getResourcePath().getUriResourceParts();
-        if (uriResourceParts.get(0) instanceof UriResourceNavigation) {
-          navigationProperties.add(((UriResourceNavigation) uriResourceParts.get(0)).getProperty());
-        }
-      }
-
-      for (EdmNavigationProperty navigationProperty: navigationProperties) {
-        final String navPropertyName = navigationProperty.getName();
-        final EdmBindingTarget targetEdmEntitySet = edmBindingTarget.getRelatedBindingTarget(navPropertyName);
-
-        final Link link = entity.getNavigationLink(navPropertyName);
-        if (link != null && entityType.getNavigationProperty(navPropertyName).isCollection()) {
-          applyOptionsToEntityCollection(link.getInlineEntitySet(),
-              targetEdmEntitySet,
-              item.getFilterOption(),
-              item.getOrderByOption(),
-              item.getCountOption(),
-              item.getSkipOption(),
-              item.getTopOption(),
-              item.getExpandOption(),
-              uriInfo, edm);
+  @Override
+  public List<EntityCollection> load(final EdmNavigationProperty navigationProperty, final List<Entity> parents,
+      final ExpandItem expandItem) throws ODataApplicationException {
+    final List<EntityCollection> result = new ArrayList<EntityCollection>(parents.size());
+    for (final Entity parent : parents) {
+      final Link link = parent.getNavigationLink(navigationProperty.getName());
+      EntityCollection related = new EntityCollection();
+      if (link != null && navigationProperty.isCollection()) {
+        if (link.getInlineEntitySet() != null) {
+          related = newEntitySet(link.getInlineEntitySet());
+          applyOptionsToEntityCollection(related, expandItem);
         }
+      } else if (link != null && link.getInlineEntity() != null) {
+        related.getEntities().add(newEntity(link.getInlineEntity()));
       }
+      result.add(related);
     }
+    return result;
   }
 
-  private void applyOptionsToEntityCollection(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget,
-      final FilterOption filterOption, final OrderByOption orderByOption, final CountOption countOption,
-      final SkipOption skipOption, final TopOption topOption, final ExpandOption expandOption,
-      final UriInfoResource uriInfo, final Edm edm)
+  private void applyOptionsToEntityCollection(final EntityCollection entitySet, final ExpandItem item)
       throws ODataApplicationException {
-
-    FilterHandler.applyFilterSystemQuery(filterOption, entitySet, uriInfo, edm);
-    OrderByHandler.applyOrderByOption(orderByOption, entitySet, uriInfo, edm);
-    CountHandler.applyCountSystemQueryOption(countOption, entitySet);
-    SkipHandler.applySkipSystemQueryHandler(skipOption, entitySet);
-    TopHandler.applyTopSystemQueryOption(topOption, entitySet);
-
-    // Apply nested expand system query options to remaining entities
-    if (expandOption != null) {
-      for (final Entity entity : entitySet.getEntities()) {
-        applyExpandOptionToEntity(entity, edmBindingTarget, expandOption, uriInfo, edm);
-      }
-    }
-  }
-
-  public EntityCollection transformEntitySetGraphToTree(final EntityCollection entitySet,
-      final EdmBindingTarget edmBindingTarget, final ExpandOption expand, 
-      final ExpandItem expandItem) throws ODataApplicationException {
-
-    final EntityCollection newEntitySet = newEntitySet(entitySet);
-
-    for (final Entity entity : entitySet.getEntities()) {
-      newEntitySet.getEntities().add(transformEntityGraphToTree(entity, edmBindingTarget, expand, expandItem));
-    }
-    if (expandItem != null && expandItem.hasCountPath()) {
-      newEntitySet.setCount(entitySet.getEntities().size());
-    }
-    return newEntitySet;
-  }
-
-  public Entity transformEntityGraphToTree(final Entity entity, final EdmBindingTarget edmEntitySet,
-      final ExpandOption expand, final ExpandItem parentExpandItem) throws ODataApplicationException {
-    final Entity newEntity = newEntity(entity);
-    if (hasExpandItems(expand)) {
-      final boolean expandAll = expandAll(expand);
-      final Set<String> expanded = expandAll ? null : getExpandedPropertyNames(expand.getExpandItems());
-      final EdmEntityType edmType = edmEntitySet.getEntityType();
-
-      for (final Link link : entity.getNavigationLinks()) {
-        final String propertyName = link.getTitle();
-
-        if (expandAll || expanded.contains(propertyName)) {
-          final EdmNavigationProperty edmNavigationProperty = edmType.getNavigationProperty(propertyName);
-          final EdmBindingTarget edmBindingTarget = edmEntitySet.getRelatedBindingTarget(propertyName);
-          final Link newLink = newLink(link);
-          newEntity.getNavigationLinks().add(newLink);
-          final ExpandItem expandItem = getInnerExpandItem(expand, propertyName);
-
-          if (edmNavigationProperty.isCollection()) {
-            newLink.setInlineEntitySet(transformEntitySetGraphToTree(link.getInlineEntitySet(),
-                edmBindingTarget, expandItem.getExpandOption(), expandItem));
-          } else {
-            newLink.setInlineEntity(transformEntityGraphToTree(link.getInlineEntity(),
-                edmBindingTarget,expandItem.getExpandOption(), expandItem));
-          }
-        }
-      }
-
-    }
-    return newEntity;
+    FilterHandler.applyFilterSystemQuery(item.getFilterOption(), entitySet, uriInfo, edm);
+    OrderByHandler.applyOrderByOption(item.getOrderByOption(), entitySet, uriInfo, edm);
+    CountHandler.applyCountSystemQueryOption(item.getCountOption(), entitySet);
+    SkipHandler.applySkipSystemQueryHandler(item.getSkipOption(), entitySet);
+    TopHandler.applyTopSystemQueryOption(item.getTopOption(), entitySet);
   }
 
+  /** Creates a copy of an entity collection with copies of its entities. */
   public EntityCollection newEntitySet(final EntityCollection entitySet) {
     final EntityCollection newEntitySet = new EntityCollection();
     newEntitySet.setCount(entitySet.getCount());
@@ -197,10 +90,14 @@ public class ExpandSystemQueryOptionHandler {
     newEntitySet.setId(entitySet.getId());
     newEntitySet.setBaseURI(entitySet.getBaseURI());
     newEntitySet.getOperations().addAll(entitySet.getOperations());
+    for (final Entity entity : entitySet.getEntities()) {
+      newEntitySet.getEntities().add(newEntity(entity));
+    }
     return newEntitySet;
   }
 
-  private Entity newEntity(final Entity entity) {
+  /** Creates a shallow copy of an entity; its lists can be modified without changing the original. */
+  public Entity newEntity(final Entity entity) {
     Entity newEntity = new Entity();
 
     newEntity.getProperties().addAll(entity.getProperties());
@@ -220,55 +117,4 @@ public class ExpandSystemQueryOptionHandler {
     newEntity.getNavigationLinks().addAll(entity.getNavigationLinks());
     return newEntity;
   }
-
-  private Link newLink(final Link link) {
-    final Link newLink = new Link();
-    newLink.setMediaETag(link.getMediaETag());
-    newLink.setTitle(link.getTitle());
-    newLink.setType(link.getType());
-    newLink.setRel(link.getRel());
-    newLink.setHref(link.getHref());
-    return newLink;
-  }
-
-  private boolean hasExpandItems(final ExpandOption expand) {
-    return expand != null && expand.getExpandItems() != null && !expand.getExpandItems().isEmpty();
-  }
-
-  private boolean expandAll(final ExpandOption expand) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if (item.isStar()) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  private Set<String> getExpandedPropertyNames(final List<ExpandItem> expandItems) throws ODataApplicationException {
-    Set<String> expanded = new HashSet<String>();
-    for (final ExpandItem item : expandItems) {
-      final List<UriResource> resourceParts = item.getResourcePath().getUriResourceParts();
-      final UriResource resource = resourceParts.get(0);
-      if (resource instanceof UriResourceNavigation) {
-        expanded.add(((UriResourceNavigation) resource).getProperty().getName());
-      }
-    }
-    return expanded;
-  }
-
-  private ExpandItem getInnerExpandItem(final ExpandOption expand, final String propertyName) {
-    for (final ExpandItem item : expand.getExpandItems()) {
-      if(item.isStar()) {
-        return item;
-      }
-
-      final UriResource resource = item.getResourcePath().getUriResourceParts().get(0);
-      if (resource instanceof UriResourceNavigation
-          && propertyName.equals(((UriResourceNavigation) resource).getProperty().getName())) {
-        return item;
-      }
-    }
-
-    return null;
-  }
 }
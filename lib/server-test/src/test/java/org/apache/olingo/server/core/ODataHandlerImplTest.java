@@ -20,6 +20,7 @@ package org.apache.olingo.server.core;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
@@ -39,18 +40,23 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlEdmProvider;
 import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
 import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.ex.ODataException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DocumentCache;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataRequest;
@@ -85,6 +91,7 @@ import org.apache.olingo.server.api.processor.ReferenceProcessor;
 import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
 import org.apache.olingo.server.api.uri.UriInfo;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.tecsvc.MetadataETagSupport;
 import org.apache.olingo.server.tecsvc.processor.TechnicalActionProcessor;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
@@ -1158,6 +1165,109 @@ public class ODataHandlerImplTest {
     return response;
   }
 
+  @Test
+  public void documentCache() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final DocumentCache cache = metadata.getDocumentCache();
+    assertNotNull(cache);
+
+    final ODataResponse response = dispatchDocument(odata, metadata, HttpMethod.GET, "$metadata", null, null);
+    final String eTag = response.getHeader(HttpHeader.ETAG);
+    assertNotNull(eTag);
+    assertTrue(eTag.startsWith("\""));
+    final String document = IOUtils.toString(response.getContent());
+    assertEquals(1, cache.size());
+
+    final ODataResponse cachedResponse = dispatchDocument(odata, metadata, HttpMethod.GET, "$metadata", null, null);
+    assertEquals(eTag, cachedResponse.getHeader(HttpHeader.ETAG));
+    assertEquals(document, IOUtils.toString(cachedResponse.getContent()));
+    assertEquals(1, cache.size());
+
+    assertEquals(HttpStatusCode.NOT_MODIFIED.getStatusCode(),
+        dispatchDocument(odata, metadata, HttpMethod.GET, "$metadata", null, eTag).getStatusCode());
+    final ODataResponse headResponse = dispatchDocument(odata, metadata, HttpMethod.HEAD, "$metadata", null, null);
+    assertEquals(eTag, headResponse.getHeader(HttpHeader.ETAG));
+    assertNull(headResponse.getContent());
+
+    final ODataResponse jsonResponse = dispatchDocument(odata, metadata, HttpMethod.GET, "$metadata",
+        "$format=json", null);
+    assertEquals(HttpStatusCode.OK.getStatusCode(), jsonResponse.getStatusCode());
+    assertNotNull(jsonResponse.getHeader(HttpHeader.ETAG));
+    assertFalse(eTag.equals(jsonResponse.getHeader(HttpHeader.ETAG)));
+    final ODataResponse serviceResponse = dispatchDocument(odata, metadata, HttpMethod.GET, "", null, null);
+    assertNotNull(serviceResponse.getHeader(HttpHeader.ETAG));
+    assertThat(IOUtils.toString(serviceResponse.getContent()), containsString("\"value\":"));
+    assertEquals(3, cache.size());
+
+    // An ETag of the application is preferred.
+    final ServiceMetadata metadataWithETag = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList(), new MetadataETagSupport("W/\"42\""));
+    assertEquals("W/\"42\"", dispatchDocument(odata, metadataWithETag, HttpMethod.GET, "$metadata", null, null)
+        .getHeader(HttpHeader.ETAG));
+    assertEquals(1, metadataWithETag.getDocumentCache().size());
+
+    // Without cache the document is serialized for each request.
+    metadata.setDocumentCache(null);
+    final ODataResponse uncachedResponse = dispatchDocument(odata, metadata, HttpMethod.GET, "$metadata", null, null);
+    assertNull(uncachedResponse.getHeader(HttpHeader.ETAG));
+    assertEquals(document, IOUtils.toString(uncachedResponse.getContent()));
+  }
+
+  private ODataResponse dispatchDocument(final OData odata, final ServiceMetadata metadata,
+      final HttpMethod method, final String path, final String query, final String ifNoneMatch) {
+    ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path.isEmpty() ? "/" : path);
+    request.setRawQueryPath(query);
+    if (ifNoneMatch != null) {
+      request.addHeader(HttpHeader.IF_NONE_MATCH, ifNoneMatch);
+    }
+    return new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata)).process(request);
+  }
+
+  @Test
+  public void eagerlyLoadedEdm() throws Exception {
+    final AtomicBoolean loaded = new AtomicBoolean(false);
+    final AtomicInteger lateCalls = new AtomicInteger();
+    final CsdlEdmProvider provider = new EdmTechProvider() {
+      @Override
+      public CsdlEntityType getEntityType(final FullQualifiedName entityTypeName) throws ODataException {
+        if (loaded.get()) {
+          lateCalls.incrementAndGet();
+        }
+        return super.getEntityType(entityTypeName);
+      }
+
+      @Override
+      public CsdlEntitySet getEntitySet(final FullQualifiedName entityContainer, final String entitySetName)
+          throws ODataException {
+        if (loaded.get()) {
+          lateCalls.incrementAndGet();
+        }
+        return super.getEntitySet(entityContainer, entitySetName);
+      }
+    };
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        provider, Collections.<EdmxReference> emptyList(), null, true);
+    loaded.set(true);
+
+    ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESKeyNav(1)/NavPropertyETTwoKeyNavMany");
+    request.setRawQueryPath("$expand=NavPropertyETKeyNavOne");
+    ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(mock(EntityCollectionProcessor.class));
+    handler.process(request);
+
+    assertNotNull(handler.getUriInfo());
+    assertEquals(0, lateCalls.get());
+  }
+
   @Test
   public void dispatchEmptyContentWithoutContentType() {
     final String path = "ESAllPrim";